@@ -18,7 +18,6 @@ package io.fabric8.forge.camel.commands.jolokia;
 import java.io.PrintStream;
 import javax.inject.Inject;
 
-import org.apache.camel.commands.jolokia.DefaultJolokiaCamelController;
 import org.apache.camel.commands.jolokia.JolokiaCamelController;
 import org.jboss.forge.addon.configuration.Configuration;
 import org.jboss.forge.addon.projects.ProjectFactory;
@@ -26,11 +25,14 @@ import org.jboss.forge.addon.projects.ui.AbstractProjectCommand;
 import org.jboss.forge.addon.ui.context.UIBuilder;
 import org.jboss.forge.addon.ui.context.UIContext;
 import org.jboss.forge.addon.ui.context.UIExecutionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Base class for all Jolokia Camel commands.
  */
 public abstract class AbstractJolokiaCommand extends AbstractProjectCommand {
+    private static final transient Logger LOG = LoggerFactory.getLogger(AbstractJolokiaCommand.class);
 
     public static String CATEGORY = "Camel";
     public static String CATEGORY_CATALOG = "CamelCatalog";
@@ -41,6 +43,12 @@ public abstract class AbstractJolokiaCommand extends AbstractProjectCommand {
     @Inject
     protected Configuration configuration;
 
+    @Inject
+    protected JolokiaSessionRegistry sessionRegistry;
+
+    private JolokiaCamelController controller;
+    private String controllerUrl;
+
     @Override
     protected boolean isProjectRequired() {
         return false;
@@ -65,17 +73,37 @@ public abstract class AbstractJolokiaCommand extends AbstractProjectCommand {
         return configuration.getString("CamelJolokiaUrl");
     }
 
+    /**
+     * Returns the controller of this command; which is shared by the UI and the execution of the command
+     * so the lists of contexts, routes and endpoints are only fetched once
+     */
     protected JolokiaCamelController getController() throws Exception {
-        JolokiaCamelController controller = new DefaultJolokiaCamelController();
-
-        // optional
-        String username = configuration.getString("CamelJolokiaUsername");
-        String password = configuration.getString("CamelJolokiaPassword");
-
-        controller.connect(getJolokiaUrl(), username, password);
+        String url = getJolokiaUrl();
+        if (controller == null || !url.equals(controllerUrl)) {
+            // optional
+            String username = configuration.getString("CamelJolokiaUsername");
+            String password = configuration.getString("CamelJolokiaPassword");
+
+            controller = sessionRegistry.getController(url, username, password);
+            controllerUrl = url;
+        }
         return controller;
     }
 
+    /**
+     * Fetches the statistics of all the routes matching the pattern using bulk Jolokia requests of
+     * <tt>CamelJolokiaBatchSize</tt> operations each; rather than one round trip per route
+     */
+    protected void prefetchRouteStats(String camelContextName, String routePattern, boolean fullStats, boolean includeProcessors) {
+        int batchSize = configuration.getInt("CamelJolokiaBatchSize", 100);
+        try {
+            sessionRegistry.prefetchRouteStats(getController(), camelContextName, routePattern, fullStats, includeProcessors, batchSize);
+        } catch (Exception e) {
+            // the command then reads the statistics of each route itself
+            LOG.warn("Failed to prefetch the statistics of the routes " + routePattern + " of " + camelContextName + ": " + e, e);
+        }
+    }
+
     protected PrintStream getOutput(UIExecutionContext context) {
         return context.getUIContext().getProvider().getOutput().out();
     }
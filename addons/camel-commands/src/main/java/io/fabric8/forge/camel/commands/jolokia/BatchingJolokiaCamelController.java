@@ -0,0 +1,121 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.camel.commands.jolokia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.management.ObjectName;
+
+import org.apache.camel.commands.jolokia.DefaultJolokiaCamelController;
+import org.jolokia.client.J4pClient;
+import org.jolokia.client.request.J4pExecRequest;
+import org.jolokia.client.request.J4pExecResponse;
+import org.jolokia.client.request.J4pReadRequest;
+import org.jolokia.client.request.J4pReadResponse;
+
+/**
+ * A Jolokia controller which can read the statistics of many routes using bulk Jolokia requests
+ * rather than one HTTP round trip per route.
+ */
+public class BatchingJolokiaCamelController extends DefaultJolokiaCamelController {
+
+    private static final String ROUTES_PATTERN = "*:type=routes,*";
+
+    private J4pClient client;
+
+    @Override
+    public void connect(String url, String username, String password) throws Exception {
+        // lets create a single client which is shared with the default controller rather than one each
+        using(J4pClient.url(url).user(username).password(password).build());
+    }
+
+    @Override
+    public void using(J4pClient client) {
+        this.client = client;
+        super.using(client);
+    }
+
+    /**
+     * Closes the HTTP connections of the client
+     */
+    public void close() {
+        J4pClient oldClient = client;
+        client = null;
+        if (oldClient != null && oldClient.getHttpClient() instanceof Closeable) {
+            try {
+                ((Closeable) oldClient.getHttpClient()).close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Returns the statistics of the given routes of the Camel context as XML keyed by the route id.
+     * <p/>
+     * The route MBeans are found using a single pattern read and the statistics are then fetched using
+     * bulk requests of at most <code>batchSize</code> operations each.
+     */
+    public Map<String, String> getRouteStatsAsXml(String camelContextName, Collection<String> routeIds,
+                                                  boolean fullStats, boolean includeProcessors, int batchSize) throws Exception {
+        if (client == null) {
+            throw new IllegalStateException("Need to connect to remote jolokia first");
+        }
+        Map<String, String> answer = new LinkedHashMap<>();
+        if (routeIds.isEmpty()) {
+            return answer;
+        }
+
+        Map<ObjectName, String> routes = new LinkedHashMap<>();
+        J4pReadResponse found = client.execute(new J4pReadRequest(ROUTES_PATTERN, "CamelId", "RouteId"));
+        for (ObjectName name : found.getObjectNames()) {
+            Object camelId = found.getValue(name, "CamelId");
+            Object routeId = found.getValue(name, "RouteId");
+            if (camelContextName.equals(camelId) && routeIds.contains(routeId)) {
+                routes.put(name, (String) routeId);
+            }
+        }
+
+        List<J4pExecRequest> requests = new ArrayList<>();
+        for (ObjectName name : routes.keySet()) {
+            requests.add(new J4pExecRequest(name, "dumpRouteStatsAsXml(boolean,boolean)", fullStats, includeProcessors));
+            if (requests.size() >= Math.max(batchSize, 1)) {
+                executeRouteStats(requests, routes, answer);
+                requests.clear();
+            }
+        }
+        if (!requests.isEmpty()) {
+            executeRouteStats(requests, routes, answer);
+        }
+        return answer;
+    }
+
+    protected void executeRouteStats(List<J4pExecRequest> requests, Map<ObjectName, String> routes, Map<String, String> answer) throws Exception {
+        List<J4pExecResponse> responses = client.execute(requests);
+        for (J4pExecResponse response : responses) {
+            String routeId = routes.get(response.getRequest().getObjectName());
+            if (routeId != null) {
+                String xml = response.getValue();
+                answer.put(routeId, xml);
+            }
+        }
+    }
+}
@@ -17,7 +17,6 @@ package io.fabric8.forge.camel.commands.jolokia;
 
 import javax.inject.Inject;
 
-import org.apache.camel.commands.jolokia.DefaultJolokiaCamelController;
 import org.apache.camel.commands.jolokia.JolokiaCamelController;
 import org.jboss.forge.addon.ui.context.UIBuilder;
 import org.jboss.forge.addon.ui.context.UIContext;
@@ -72,8 +71,7 @@ public class ConnectCommand extends AbstractJolokiaCommand {
         configuration.setProperty("CamelJolokiaPassword", password.getValue());
 
         // ping to see if the connection works
-        JolokiaCamelController controller = new DefaultJolokiaCamelController();
-        controller.connect(url.getValue(), username.getValue(), password.getValue());
+        JolokiaCamelController controller = sessionRegistry.getController(url.getValue(), username.getValue(), password.getValue());
 
         boolean ok = controller.ping();
         if (ok) {
@@ -37,6 +37,9 @@ public class DisconnectCommand extends AbstractJolokiaCommand {
         String url = getJolokiaUrl();
 
         configuration.clearProperty("CamelJolokiaUrl");
+        if (url != null) {
+            sessionRegistry.disconnect(url);
+        }
 
         if (url != null) {
             return Results.success("Disconnected from " + url);
@@ -0,0 +1,280 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.camel.commands.jolokia;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Singleton;
+
+import org.apache.camel.commands.internal.RegexUtil;
+import org.apache.camel.commands.jolokia.JolokiaCamelController;
+
+/**
+ * A registry of connected Jolokia controllers keyed by the Jolokia url and username so that all the Jolokia
+ * commands share one connection (and its keep-alive HTTP client) rather than connecting again on every call.
+ * <p/>
+ * Sessions which have not been used for a while are discarded and their connections closed. A read only call
+ * which fails due to an I/O error is retried once on a fresh connection; other calls are not retried as they
+ * may already have changed the state of the remote Camel contexts.
+ */
+@Singleton
+public class JolokiaSessionRegistry {
+
+    private static final long IDLE_EXPIRY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * The controller methods which list the contexts, routes and endpoints or read the route statistics of
+     * the remote Camel contexts; their results are remembered for the duration of a single command
+     */
+    private static final Set<String> LIST_METHODS = new HashSet<>(Arrays.asList("getCamelContexts", "getRoutes", "getEndpoints", "getRouteStatsAsXml"));
+
+    private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a controller for a single command which uses the shared session of the url and username.
+     * <p/>
+     * The route, endpoint and context lists are only fetched once by the returned controller; they are
+     * fetched again after the command invokes an operation which changes the state of the remote Camel contexts.
+     */
+    public JolokiaCamelController getController(String url, String username, String password) throws Exception {
+        expireIdleSessions();
+        String key = url + "|" + (username != null ? username : "");
+        Session session = sessions.computeIfAbsent(key, k -> new Session(url, username, password));
+        if (!Objects.equals(password, session.password)) {
+            // the credentials have changed so lets not reuse the old connection
+            Session newSession = new Session(url, username, password);
+            Session oldSession = sessions.put(key, newSession);
+            if (oldSession != null) {
+                oldSession.close();
+            }
+            session = newSession;
+        }
+        session.connect();
+        return (JolokiaCamelController) Proxy.newProxyInstance(JolokiaCamelController.class.getClassLoader(),
+                new Class<?>[]{JolokiaCamelController.class}, new CommandInvocationHandler(session));
+    }
+
+    /**
+     * Fetches the statistics of the routes matching the pattern using bulk requests so that the
+     * controller of the command does not need a round trip per route when it asks for them
+     */
+    public void prefetchRouteStats(JolokiaCamelController controller, String camelContextName, String routePattern,
+                                   boolean fullStats, boolean includeProcessors, int batchSize) throws Exception {
+        if (!Proxy.isProxyClass(controller.getClass())) {
+            return;
+        }
+        InvocationHandler handler = Proxy.getInvocationHandler(controller);
+        if (handler instanceof CommandInvocationHandler) {
+            // the route commands look up the routes using the pattern as a regex so lets use the same
+            // arguments so the list of routes is reused by them
+            String filter = routePattern != null ? RegexUtil.wildcardAsRegex(routePattern) : null;
+            List<Map<String, String>> routes = controller.getRoutes(camelContextName, filter);
+            Map<String, List<String>> routeIdsByContext = new LinkedHashMap<>();
+            for (Map<String, String> row : routes) {
+                routeIdsByContext.computeIfAbsent(row.get("camelContextName"), k -> new ArrayList<>()).add(row.get("routeId"));
+            }
+            for (Map.Entry<String, List<String>> entry : routeIdsByContext.entrySet()) {
+                ((CommandInvocationHandler) handler).prefetchRouteStats(entry.getKey(), entry.getValue(), fullStats, includeProcessors, batchSize);
+            }
+        }
+    }
+
+    /**
+     * Discards the session of the url; such as when disconnecting
+     */
+    public void disconnect(String url) {
+        Iterator<Map.Entry<String, Session>> iter = sessions.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<String, Session> entry = iter.next();
+            if (entry.getKey().startsWith(url + "|")) {
+                iter.remove();
+                entry.getValue().close();
+            }
+        }
+    }
+
+    /**
+     * Creates a new connected controller for the session of the url
+     */
+    protected JolokiaCamelController createController(String url, String username, String password) throws Exception {
+        JolokiaCamelController controller = new BatchingJolokiaCamelController();
+        controller.connect(url, username, password);
+        return controller;
+    }
+
+    protected void expireIdleSessions() {
+        long now = System.currentTimeMillis();
+        Iterator<Session> iter = sessions.values().iterator();
+        while (iter.hasNext()) {
+            Session session = iter.next();
+            if (now - session.lastUsed > IDLE_EXPIRY_MILLIS) {
+                iter.remove();
+                session.close();
+            }
+        }
+    }
+
+    /**
+     * Returns true if the controller method only reads the state of the remote Camel contexts
+     */
+    protected static boolean isReadOnly(String methodName) {
+        return methodName.startsWith("get") || methodName.startsWith("browse") || methodName.startsWith("explain")
+                || methodName.equals("list") || methodName.equals("ping");
+    }
+
+    protected static boolean isConnectionFailure(Throwable e) {
+        while (e != null) {
+            if (e instanceof IOException) {
+                return true;
+            }
+            if (e.getCause() == e) {
+                break;
+            }
+            e = e.getCause();
+        }
+        return false;
+    }
+
+    protected class Session {
+        private final String url;
+        private final String username;
+        private final String password;
+        private volatile JolokiaCamelController controller;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        Session(String url, String username, String password) {
+            this.url = url;
+            this.username = username;
+            this.password = password;
+        }
+
+        synchronized JolokiaCamelController connect() throws Exception {
+            lastUsed = System.currentTimeMillis();
+            if (controller == null) {
+                controller = createController(url, username, password);
+            }
+            return controller;
+        }
+
+        synchronized JolokiaCamelController reconnect(JolokiaCamelController failed) throws Exception {
+            discard(failed);
+            return connect();
+        }
+
+        /**
+         * Closes the connection of the controller if it is still the current one so the next call connects again
+         */
+        synchronized void discard(JolokiaCamelController failed) {
+            if (controller == failed) {
+                close();
+            }
+        }
+
+        synchronized void close() {
+            if (controller instanceof BatchingJolokiaCamelController) {
+                ((BatchingJolokiaCamelController) controller).close();
+            }
+            controller = null;
+        }
+    }
+
+    /**
+     * Delegates to the shared session; remembering the lists fetched by the command and reconnecting on failure
+     */
+    protected static class CommandInvocationHandler implements InvocationHandler {
+        private final Session session;
+        private final Map<List<Object>, Object> lists = new ConcurrentHashMap<>();
+
+        CommandInvocationHandler(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(this, args);
+            }
+            String name = method.getName();
+            if (LIST_METHODS.contains(name)) {
+                List<Object> key = args != null ? Arrays.asList(name, Arrays.asList(args)) : Collections.<Object>singletonList(name);
+                Object answer = lists.get(key);
+                if (answer == null) {
+                    answer = invokeSession(method, args);
+                    if (answer != null) {
+                        lists.put(key, answer);
+                    }
+                }
+                return answer;
+            }
+            if (!isReadOnly(name)) {
+                // the command has changed the state of the remote contexts so the lists are stale
+                lists.clear();
+            }
+            return invokeSession(method, args);
+        }
+
+        void prefetchRouteStats(String camelContextName, List<String> routeIds, boolean fullStats, boolean includeProcessors, int batchSize) throws Exception {
+            JolokiaCamelController controller = session.connect();
+            if (controller instanceof BatchingJolokiaCamelController && routeIds.size() > 1) {
+                Map<String, String> stats = ((BatchingJolokiaCamelController) controller).getRouteStatsAsXml(camelContextName, routeIds, fullStats, includeProcessors, batchSize);
+                for (Map.Entry<String, String> entry : stats.entrySet()) {
+                    // the same key as a call to getRouteStatsAsXml(routeId, camelContextName, fullStats, includeProcessors)
+                    List<Object> args = Arrays.<Object>asList(entry.getKey(), camelContextName, fullStats, includeProcessors);
+                    lists.put(Arrays.<Object>asList("getRouteStatsAsXml", args), entry.getValue());
+                }
+            }
+        }
+
+        protected Object invokeSession(Method method, Object[] args) throws Throwable {
+            JolokiaCamelController controller = session.connect();
+            try {
+                return method.invoke(controller, args);
+            } catch (InvocationTargetException e) {
+                if (!isConnectionFailure(e.getCause())) {
+                    throw e.getCause();
+                }
+                if (!isReadOnly(method.getName())) {
+                    // the operation may have been applied before the connection failed so it is not safe to retry
+                    session.discard(controller);
+                    throw e.getCause();
+                }
+            }
+            // the connection may have gone stale so lets retry once on a new connection
+            controller = session.reconnect(controller);
+            try {
+                return method.invoke(controller, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -63,6 +63,7 @@ public class RouteInfoCommand extends AbstractJolokiaCommand {
         org.apache.camel.commands.RouteInfoCommand command = new org.apache.camel.commands.RouteInfoCommand(route.getValue(), name.getValue());
         command.setStringEscape(new NoopStringEscape());
 
+        prefetchRouteStats(name.getValue(), route.getValue(), true, false);
         command.execute(getController(), getOutput(context), getError(context));
         return Results.success();
     }
@@ -63,6 +63,7 @@ public class RouteProfileCommand extends AbstractJolokiaCommand {
         org.apache.camel.commands.RouteProfileCommand command = new org.apache.camel.commands.RouteProfileCommand(route.getValue(), name.getValue());
         command.setStringEscape(new NoopStringEscape());
 
+        prefetchRouteStats(name.getValue(), route.getValue(), true, true);
         command.execute(getController(), getOutput(context), getError(context));
         return Results.success();
     }
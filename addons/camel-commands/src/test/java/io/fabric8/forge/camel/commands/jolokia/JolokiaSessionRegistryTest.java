@@ -0,0 +1,212 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.camel.commands.jolokia;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.commands.internal.RegexUtil;
+import org.apache.camel.commands.jolokia.JolokiaCamelController;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.jolokia.client.J4pClient;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JolokiaSessionRegistryTest {
+
+    private static final String URL = "http://localhost:8778/jolokia/";
+
+    private final AtomicInteger httpCalls = new AtomicInteger();
+    private final AtomicInteger routeLookups = new AtomicInteger();
+    private final AtomicInteger routeStatsCalls = new AtomicInteger();
+    private final List<String> routeFilters = new ArrayList<>();
+
+    private JolokiaSessionRegistry registry;
+
+    @Before
+    public void setUp() throws Exception {
+        registry = new JolokiaSessionRegistry() {
+            @Override
+            protected JolokiaCamelController createController(String url, String username, String password) throws Exception {
+                JolokiaCamelController controller = new StubController();
+                controller.using(new J4pClient(url, createHttpClient()));
+                return controller;
+            }
+        };
+    }
+
+    @Test
+    public void testPrefetchedRouteStatsAreReusedByTheCommand() throws Exception {
+        JolokiaCamelController controller = registry.getController(URL, null, null);
+
+        registry.prefetchRouteStats(controller, "myCamel", "route*", true, false, 2);
+
+        // the routes are looked up using the same regex as the route commands
+        assertEquals(Collections.singletonList(RegexUtil.wildcardAsRegex("route*")), routeFilters);
+        // one read of the route MBeans then two bulk requests of at most two routes each
+        assertEquals(3, httpCalls.get());
+
+        // the command then finds the routes and their statistics in the cache
+        List<Map<String, String>> routes = controller.getRoutes("myCamel", RegexUtil.wildcardAsRegex("route*"));
+        assertEquals(3, routes.size());
+        assertEquals(1, routeLookups.get());
+        for (Map<String, String> row : routes) {
+            String routeId = row.get("routeId");
+            String xml = controller.getRouteStatsAsXml(routeId, "myCamel", true, false);
+            assertEquals("<routeStat mbean=\"" + routeMBean("myCamel", routeId) + "\"/>", xml);
+        }
+        assertEquals(0, routeStatsCalls.get());
+        assertEquals(3, httpCalls.get());
+    }
+
+    @Test
+    public void testRouteStatsAreFetchedOnACacheMiss() throws Exception {
+        JolokiaCamelController controller = registry.getController(URL, null, null);
+        registry.prefetchRouteStats(controller, "myCamel", "route*", true, false, 100);
+        assertEquals(2, httpCalls.get());
+
+        // different arguments are not prefetched so are read from the controller once
+        assertEquals("<routeStat id=\"route1\"/>", controller.getRouteStatsAsXml("route1", "myCamel", false, false));
+        assertEquals("<routeStat id=\"route1\"/>", controller.getRouteStatsAsXml("route1", "myCamel", false, false));
+        assertEquals(1, routeStatsCalls.get());
+
+        // changing the state of the routes discards the cached statistics
+        controller.startRoute("myCamel", "route1");
+        assertEquals("<routeStat id=\"route1\"/>", controller.getRouteStatsAsXml("route1", "myCamel", true, false));
+        assertEquals(2, routeStatsCalls.get());
+
+        // a new command does not see the lists of the previous one but shares its connection
+        JolokiaCamelController other = registry.getController(URL, null, null);
+        other.getRoutes("myCamel", null);
+        assertEquals(2, routeLookups.get());
+    }
+
+    @Test
+    public void testNoRequestsForNoRoutes() throws Exception {
+        BatchingJolokiaCamelController controller = new BatchingJolokiaCamelController();
+        controller.using(new J4pClient(URL, createHttpClient()));
+
+        Map<String, String> stats = controller.getRouteStatsAsXml("myCamel", Collections.<String>emptyList(), true, false, 10);
+        assertTrue(stats.isEmpty());
+        assertEquals(0, httpCalls.get());
+    }
+
+    private static String routeMBean(String camelId, String routeId) {
+        return "org.apache.camel:context=" + camelId + ",type=routes,name=\"" + routeId + "\"";
+    }
+
+    /**
+     * Creates a HTTP client for a stub Jolokia agent which has the routes <tt>route1</tt> to <tt>route3</tt>
+     * in the Camel context <tt>myCamel</tt> and a route of the same name in another context
+     */
+    @SuppressWarnings("unchecked")
+    private HttpClient createHttpClient() {
+        return (HttpClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{HttpClient.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (!method.getName().equals("execute")) {
+                    return null;
+                }
+                httpCalls.incrementAndGet();
+                String body = args[0] instanceof HttpPost ? EntityUtils.toString(((HttpPost) args[0]).getEntity()) : null;
+                String json;
+                if (body != null && body.trim().startsWith("[")) {
+                    // a bulk request of route statistics so lets answer each operation with its MBean name
+                    JSONArray responses = new JSONArray();
+                    for (Object request : (JSONArray) new JSONParser().parse(body)) {
+                        JSONObject response = new JSONObject();
+                        response.put("request", request);
+                        response.put("value", "<routeStat mbean=\"" + ((JSONObject) request).get("mbean") + "\"/>");
+                        response.put("status", 200);
+                        responses.add(response);
+                    }
+                    json = responses.toJSONString();
+                } else {
+                    // a pattern read of the CamelId and RouteId of the route MBeans
+                    JSONObject value = new JSONObject();
+                    for (String[] route : new String[][]{{"myCamel", "route1"}, {"myCamel", "route2"}, {"myCamel", "route3"}, {"other", "route1"}}) {
+                        JSONObject attributes = new JSONObject();
+                        attributes.put("CamelId", route[0]);
+                        attributes.put("RouteId", route[1]);
+                        value.put(routeMBean(route[0], route[1]), attributes);
+                    }
+                    JSONObject request = new JSONObject();
+                    request.put("type", "read");
+                    request.put("mbean", "*:type=routes,*");
+                    request.put("attribute", new JSONArray(Arrays.asList("CamelId", "RouteId")));
+                    JSONObject response = new JSONObject();
+                    response.put("request", request);
+                    response.put("value", value);
+                    response.put("status", 200);
+                    json = response.toJSONString();
+                }
+                BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+                response.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+                return response;
+            }
+        });
+    }
+
+    /**
+     * Answers the route lookups itself so only the bulk reads of the route statistics use the stub agent
+     */
+    private class StubController extends BatchingJolokiaCamelController {
+
+        @Override
+        public List<Map<String, String>> getRoutes(String camelContextName, String filter) throws Exception {
+            routeLookups.incrementAndGet();
+            routeFilters.add(filter);
+            List<Map<String, String>> answer = new ArrayList<>();
+            for (String routeId : Arrays.asList("route1", "route2", "route3")) {
+                Map<String, String> row = new LinkedHashMap<>();
+                row.put("camelContextName", "myCamel");
+                row.put("routeId", routeId);
+                answer.add(row);
+            }
+            return answer;
+        }
+
+        @Override
+        public String getRouteStatsAsXml(String routeId, String camelContextName, boolean fullStats, boolean includeProcessors) throws Exception {
+            routeStatsCalls.incrementAndGet();
+            return "<routeStat id=\"" + routeId + "\"/>";
+        }
+
+        @Override
+        public void startRoute(String camelContextName, String routeId) throws Exception {
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.camel.tooling.util;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A registry of {@link JAXBContext} instances keyed by class loader and context path.
+ * <p/>
+ * Creating a JAXB context for the Camel model is very expensive so we create it once and share it,
+ * along with a small pool of marshallers and unmarshallers which are not thread safe themselves.
+ * <p/>
+ * The class loaders and contexts are only weakly or softly referenced so that the contexts of an add-on
+ * which has been undeployed do not keep its class loader alive.
+ */
+public final class JaxbContexts {
+
+    private static final int POOL_SIZE = 8;
+
+    // the contexts and pooled marshallers refer to the classes of the class loader so they must not be strongly
+    // referenced by the values of the weak maps or the keys would never be collected
+    private static final Map<ClassLoader, ConcurrentMap<String, SoftReference<JAXBContext>>> CONTEXTS =
+            Collections.synchronizedMap(new WeakHashMap<ClassLoader, ConcurrentMap<String, SoftReference<JAXBContext>>>());
+    private static final Map<JAXBContext, SoftReference<Pool>> POOLS =
+            Collections.synchronizedMap(new WeakHashMap<JAXBContext, SoftReference<Pool>>());
+
+    private JaxbContexts() {
+    }
+
+    /**
+     * Returns the shared JAXB context for the given context path (a colon separated list of packages)
+     */
+    public static JAXBContext getContext(String contextPath, ClassLoader classLoader) throws JAXBException {
+        if (classLoader == null) {
+            classLoader = JaxbContexts.class.getClassLoader();
+        }
+        ConcurrentMap<String, SoftReference<JAXBContext>> contexts;
+        synchronized (CONTEXTS) {
+            contexts = CONTEXTS.get(classLoader);
+            if (contexts == null) {
+                contexts = new ConcurrentHashMap<>();
+                CONTEXTS.put(classLoader, contexts);
+            }
+        }
+        SoftReference<JAXBContext> ref = contexts.get(contextPath);
+        JAXBContext answer = ref != null ? ref.get() : null;
+        if (answer == null) {
+            // its fine if two threads race here as they create an equivalent context
+            answer = JAXBContext.newInstance(contextPath, classLoader);
+            POOLS.put(answer, new SoftReference<>(new Pool()));
+            contexts.put(contextPath, new SoftReference<>(answer));
+        }
+        return answer;
+    }
+
+    /**
+     * Returns a marshaller which must be given back using {@link #releaseMarshaller(JAXBContext, Marshaller)}
+     * when its no longer in use
+     */
+    public static Marshaller acquireMarshaller(JAXBContext context) throws JAXBException {
+        Pool pool = getPool(context);
+        Marshaller answer = pool != null ? pool.marshallers.poll() : null;
+        return answer != null ? answer : context.createMarshaller();
+    }
+
+    public static void releaseMarshaller(JAXBContext context, Marshaller marshaller) {
+        Pool pool = getPool(context);
+        if (pool != null && marshaller != null) {
+            pool.marshallers.offer(marshaller);
+        }
+    }
+
+    /**
+     * Returns an unmarshaller which must be given back using {@link #releaseUnmarshaller(JAXBContext, Unmarshaller)}
+     * when its no longer in use
+     */
+    public static Unmarshaller acquireUnmarshaller(JAXBContext context) throws JAXBException {
+        Pool pool = getPool(context);
+        Unmarshaller answer = pool != null ? pool.unmarshallers.poll() : null;
+        return answer != null ? answer : context.createUnmarshaller();
+    }
+
+    public static void releaseUnmarshaller(JAXBContext context, Unmarshaller unmarshaller) {
+        Pool pool = getPool(context);
+        if (pool != null && unmarshaller != null) {
+            pool.unmarshallers.offer(unmarshaller);
+        }
+    }
+
+    private static Pool getPool(JAXBContext context) {
+        SoftReference<Pool> ref = POOLS.get(context);
+        return ref != null ? ref.get() : null;
+    }
+
+    private static final class Pool {
+        private final BlockingQueue<Marshaller> marshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+        private final BlockingQueue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+    }
+}
@@ -87,7 +87,7 @@ public class RouteXml {
     public JAXBContext jaxbContext() throws JAXBException {
         if (_jaxbContext == null) {
             String packageName = Constants.JAXB_CONTEXT_PACKAGES + ":org.apache.camel.spring";
-            _jaxbContext = JAXBContext.newInstance(packageName, classLoader);
+            _jaxbContext = JaxbContexts.getContext(packageName, classLoader);
         }
         return _jaxbContext;
     }
@@ -154,7 +154,7 @@ public class RouteXml {
     }
 
     public XmlModel unmarshal(Document doc, String message) throws Exception {
-        Unmarshaller unmarshaller = jaxbContext().createUnmarshaller();
+        JAXBContext jaxbContext = jaxbContext();
 
         // ("bean", springNamespace)
         Map<String, String> beans = new HashMap<String, String>();
@@ -211,7 +211,13 @@ public class RouteXml {
                 boolean justRoutes = false;
                 boolean routesContext = false;
                 String xmlText = nodeWithNamespacesToText(parseNode, (Element) n);
-                Object object = unmarshaller.unmarshal(new StringReader(xmlText));
+                Object object;
+                Unmarshaller unmarshaller = JaxbContexts.acquireUnmarshaller(jaxbContext);
+                try {
+                    object = unmarshaller.unmarshal(new StringReader(xmlText));
+                } finally {
+                    JaxbContexts.releaseUnmarshaller(jaxbContext, unmarshaller);
+                }
                 CamelContextFactoryBean sc;
                 if (object instanceof CamelContextFactoryBean) {
                     LOG.debug("Found a valid CamelContextFactoryBean! {}", object);
@@ -376,7 +382,8 @@ public class RouteXml {
      * @param model
      */
     public void marshalToDoc(XmlModel model) throws JAXBException {
-        Marshaller marshaller = jaxbContext().createMarshaller();
+        JAXBContext jaxbContext = jaxbContext();
+        Marshaller marshaller = JaxbContexts.acquireMarshaller(jaxbContext);
         marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, java.lang.Boolean.TRUE);
         try {
             marshaller.setProperty("com.sun.xml.bind.indentString", "  ");
@@ -393,7 +400,11 @@ public class RouteXml {
         // marshaller.marshal(value, docElem);
 
         StringWriter buffer = new StringWriter();
-        marshaller.marshal(value, buffer);
+        try {
+            marshaller.marshal(value, buffer);
+        } finally {
+            JaxbContexts.releaseMarshaller(jaxbContext, marshaller);
+        }
 
         // now lets parse the XML and insert the root element into the doc
         String xml = buffer.toString();
@@ -0,0 +1,70 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.camel.tooling.util;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.apache.camel.model.Constants;
+import org.apache.camel.model.RouteDefinition;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JaxbContextsTest {
+
+    @Test
+    public void testContextIsShared() throws Exception {
+        ClassLoader classLoader = RouteDefinition.class.getClassLoader();
+        JAXBContext context = JaxbContexts.getContext(Constants.JAXB_CONTEXT_PACKAGES, classLoader);
+
+        assertSame(context, JaxbContexts.getContext(Constants.JAXB_CONTEXT_PACKAGES, classLoader));
+        assertSame(new RouteXml().jaxbContext(), new RouteXml().jaxbContext());
+    }
+
+    @Test
+    public void testMarshallerIsPooled() throws Exception {
+        JAXBContext context = JaxbContexts.getContext(Constants.JAXB_CONTEXT_PACKAGES, RouteDefinition.class.getClassLoader());
+
+        Marshaller marshaller = JaxbContexts.acquireMarshaller(context);
+        StringWriter buffer = new StringWriter();
+        marshaller.marshal(new RouteDefinition().from("timer:foo").to("log:bar"), buffer);
+        JaxbContexts.releaseMarshaller(context, marshaller);
+
+        assertTrue(buffer.toString().contains("timer:foo"));
+        assertSame(marshaller, JaxbContexts.acquireMarshaller(context));
+    }
+
+    @Test
+    public void testClassLoaderIsNotKeptAlive() throws Exception {
+        ClassLoader classLoader = new URLClassLoader(new URL[0], RouteDefinition.class.getClassLoader());
+        JaxbContexts.getContext(Constants.JAXB_CONTEXT_PACKAGES, classLoader);
+        WeakReference<ClassLoader> ref = new WeakReference<>(classLoader);
+        classLoader = null;
+
+        for (int i = 0; i < 10 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertNull(ref.get());
+    }
+}
@@ -18,8 +18,6 @@ package io.fabric8.forge.camel.commands.project;
 import java.io.File;
 import java.io.InputStream;
 import java.io.PrintStream;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -45,7 +43,10 @@ import io.fabric8.forge.camel.commands.project.dto.NodeDto;
 import io.fabric8.forge.camel.commands.project.dto.NodeDtos;
 import io.fabric8.forge.camel.commands.project.helper.CamelCommandsHelper;
 import io.fabric8.forge.camel.commands.project.helper.CamelXmlHelper;
+import io.fabric8.forge.camel.commands.project.helper.CustomComponentJars;
+import io.fabric8.forge.camel.commands.project.helper.CustomComponentJars.CustomComponent;
 import io.fabric8.forge.camel.commands.project.helper.PoorMansLogger;
+import io.fabric8.forge.camel.commands.project.model.CamelCatalogModel;
 import io.fabric8.utils.Strings;
 import org.apache.camel.catalog.CamelCatalog;
 import org.jboss.forge.addon.convert.Converter;
@@ -73,7 +74,6 @@ import org.jboss.forge.addon.ui.util.Categories;
 import org.jboss.forge.addon.ui.util.Metadata;
 import org.w3c.dom.Element;
 
-import static io.fabric8.forge.addon.utils.VersionHelper.loadText;
 import static io.fabric8.forge.camel.commands.project.helper.CollectionHelper.first;
 
 public abstract class AbstractCamelProjectCommand extends AbstractProjectCommand {
@@ -546,24 +546,13 @@ public abstract class AbstractCamelProjectCommand extends AbstractProjectCommand
         List<Dependency> list = facet.getEffectiveDependencies();
 
         for (Dependency dep : list) {
-            Properties properties = loadComponentProperties(dep);
-            if (properties != null) {
-                String components = (String) properties.get("components");
-                if (components != null) {
-                    String[] part = components.split("\\s");
-                    for (String scheme : part) {
-                        if (!camelCatalog.findComponentNames().contains(scheme)) {
-                            // find the class name
-                            String javaType = extractComponentJavaType(dep, scheme);
-                            if (javaType != null) {
-                                String json = loadComponentJSonSchema(dep, scheme);
-                                if (json != null) {
-                                    camelCatalog.addComponent(scheme, javaType, json);
-                                    answer.add(scheme);
-                                }
-                            }
-                        }
-                    }
+            Map<String, CustomComponent> components = getCustomComponents(dep);
+            for (CustomComponent component : components.values()) {
+                String scheme = component.getScheme();
+                if (component.getJavaType() != null && component.getJson() != null && !camelCatalog.findComponentNames().contains(scheme)) {
+                    camelCatalog.addComponent(scheme, component.getJavaType(), component.getJson());
+                    CamelCatalogModel.onComponentAdded(camelCatalog, scheme);
+                    answer.add(scheme);
                 }
             }
         }
@@ -571,81 +560,36 @@ public abstract class AbstractCamelProjectCommand extends AbstractProjectCommand
         return answer;
     }
 
-    public static Properties loadComponentProperties(Dependency dependency) {
-        Properties answer = new Properties();
-
+    /**
+     * Returns the custom Camel components in the JAR of the dependency; the JAR is only read again if it has changed
+     */
+    public static Map<String, CustomComponent> getCustomComponents(Dependency dependency) {
         try {
-            // is it a JAR file
             File file = dependency.getArtifact().getUnderlyingResourceObject();
-            if (file != null && file.getName().toLowerCase().endsWith(".jar")) {
-                URL url = new URL("file:" + file.getAbsolutePath());
-                URLClassLoader child = new URLClassLoader(new URL[]{url});
-
-                InputStream is = child.getResourceAsStream("META-INF/services/org/apache/camel/component.properties");
-                if (is != null) {
-                    answer.load(is);
-                }
-            }
+            return CustomComponentJars.getComponents(dependency.getCoordinate().toString(), file);
         } catch (Throwable e) {
             // ignore
+            return Collections.emptyMap();
         }
+    }
 
+    public static Properties loadComponentProperties(Dependency dependency) {
+        Properties answer = new Properties();
+        Map<String, CustomComponent> components = getCustomComponents(dependency);
+        if (!components.isEmpty()) {
+            answer.put("components", String.join(" ", components.keySet()));
+        }
         return answer;
     }
 
     public static String loadComponentJSonSchema(Dependency dependency, String scheme) {
-        String answer = null;
-
-        String path = null;
-        String javaType = extractComponentJavaType(dependency, scheme);
-        if (javaType != null) {
-            int pos = javaType.lastIndexOf(".");
-            path = javaType.substring(0, pos);
-            path = path.replace('.', '/');
-            path = path + "/" + scheme + ".json";
-        }
-
-        if (path != null) {
-            try {
-                // is it a JAR file
-                File file = dependency.getArtifact().getUnderlyingResourceObject();
-                if (file != null && file.getName().toLowerCase().endsWith(".jar")) {
-                    URL url = new URL("file:" + file.getAbsolutePath());
-                    URLClassLoader child = new URLClassLoader(new URL[]{url});
-
-                    InputStream is = child.getResourceAsStream(path);
-                    if (is != null) {
-                        answer = loadText(is);
-                    }
-                }
-            } catch (Throwable e) {
-                // ignore
-            }
-        }
-
-        return answer;
+        CustomComponent component = getCustomComponents(dependency).get(scheme);
+        return component != null ? component.getJson() : null;
     }
 
     public static String extractComponentJavaType(Dependency dependency, String scheme) {
-        try {
-            // is it a JAR file
-            File file = dependency.getArtifact().getUnderlyingResourceObject();
-            if (file != null && file.getName().toLowerCase().endsWith(".jar")) {
-                URL url = new URL("file:" + file.getAbsolutePath());
-                URLClassLoader child = new URLClassLoader(new URL[]{url});
-
-                InputStream is = child.getResourceAsStream("META-INF/services/org/apache/camel/component/" + scheme);
-                if (is != null) {
-                    Properties props = new Properties();
-                    props.load(is);
-                    return (String) props.get("class");
-                }
-            }
-        } catch (Throwable e) {
-            // ignore
-        }
-
-        return null;
+        CustomComponent component = getCustomComponents(dependency).get(scheme);
+        return component != null ? component.getJavaType() : null;
     }
 
 }
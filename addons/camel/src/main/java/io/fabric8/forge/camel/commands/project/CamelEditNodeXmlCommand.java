@@ -17,6 +17,7 @@ package io.fabric8.forge.camel.commands.project;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,10 +30,11 @@ import io.fabric8.forge.camel.commands.project.completer.XmlEndpointsCompleter;
 import io.fabric8.forge.camel.commands.project.dto.NodeDto;
 import io.fabric8.forge.camel.commands.project.helper.CamelXmlHelper;
 import io.fabric8.forge.camel.commands.project.helper.PoorMansLogger;
+import io.fabric8.forge.camel.commands.project.model.CamelCatalogModel;
 import io.fabric8.forge.camel.commands.project.model.CamelEndpointDetails;
+import io.fabric8.forge.camel.commands.project.model.CamelSchema;
 import io.fabric8.forge.camel.commands.project.model.InputOptionByGroup;
 import org.apache.camel.catalog.CamelCatalog;
-import org.apache.camel.catalog.JSonSchemaHelper;
 import org.apache.camel.model.ExpressionSubElementDefinition;
 import org.apache.camel.model.language.ExpressionDefinition;
 import org.apache.camel.util.CollectionStringBuffer;
@@ -404,9 +406,9 @@ public class CamelEditNodeXmlCommand extends AbstractCamelProjectCommand impleme
         // input field where we allow users to edit the values using a Camel multivalue uri style with
         // key=value&key2=value2 ...
         CollectionStringBuffer csb = new CollectionStringBuffer("&");
-        String json = getCamelCatalog().languageJSonSchema(lan);
-        if (json != null) {
-            List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("properties", json, true);
+        CamelSchema schema = CamelCatalogModel.languageSchema(getCamelCatalog(), lan);
+        if (schema != null) {
+            Collection<Map<String, String>> data = schema.getProperties();
             if (data != null) {
                 for (Map<String, String> map : data) {
                     String name = map.get("name");
@@ -17,7 +17,6 @@ package io.fabric8.forge.camel.commands.project.completer;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -25,8 +24,9 @@ import java.util.TreeSet;
 import io.fabric8.forge.addon.utils.CamelProjectHelper;
 import io.fabric8.forge.camel.commands.project.dto.ComponentDto;
 import io.fabric8.forge.camel.commands.project.helper.PoorMansLogger;
+import io.fabric8.forge.camel.commands.project.model.CamelCatalogModel;
+import io.fabric8.forge.camel.commands.project.model.CamelSchema;
 import org.apache.camel.catalog.CamelCatalog;
-import org.apache.camel.catalog.JSonSchemaHelper;
 import org.jboss.forge.addon.dependencies.Dependency;
 import org.jboss.forge.addon.projects.Project;
 import org.jboss.forge.addon.ui.context.UIContext;
@@ -200,9 +200,8 @@ public class CamelComponentsCompleter implements UICompleter<ComponentDto> {
         List<String> answer = new ArrayList<String>();
 
         for (String name : choices) {
-            String json = camelCatalog.componentJSonSchema(name);
             // yes its correct we grab the producer value
-            String producerOnly = findProducerOnly(json);
+            String producerOnly = findProducerOnly(name);
             if (producerOnly != null && "true".equals(producerOnly)) {
                 // its not able to consume so skip it
                 continue;
@@ -217,9 +216,8 @@ public class CamelComponentsCompleter implements UICompleter<ComponentDto> {
         List<String> answer = new ArrayList<String>();
 
         for (String name : choices) {
-            String json = camelCatalog.componentJSonSchema(name);
             // yes its correct we grab the consumer value
-            String consumerOnly = findConsumerOnly(json);
+            String consumerOnly = findConsumerOnly(name);
             if (consumerOnly != null && "true".equals(consumerOnly)) {
                 // its not able to produce so skip it
                 continue;
@@ -234,10 +232,9 @@ public class CamelComponentsCompleter implements UICompleter<ComponentDto> {
         List<String> answer = new ArrayList<String>();
 
         for (String name : choices) {
-            String json = camelCatalog.componentJSonSchema(name);
             // must have at least one component option
-            List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("componentProperties", json, true);
-            if (!data.isEmpty()) {
+            CamelSchema schema = CamelCatalogModel.componentSchema(camelCatalog, name);
+            if (schema != null && !schema.getComponentProperties().isEmpty()) {
                 answer.add(name);
             }
         }
@@ -253,8 +250,7 @@ public class CamelComponentsCompleter implements UICompleter<ComponentDto> {
             // skip if we already have the dependency
             boolean already = false;
             if (excludeComponentsOnClasspath) {
-                String json = camelCatalog.componentJSonSchema(name);
-                String artifactId = findArtifactId(json);
+                String artifactId = findArtifactId(name);
                 if (artifactId != null) {
                     already = CamelProjectHelper.hasDependency(project, "org.apache.camel", artifactId);
                 }
@@ -277,8 +273,7 @@ public class CamelComponentsCompleter implements UICompleter<ComponentDto> {
 
         // filter names
         for (String name : choices) {
-            String json = camelCatalog.componentJSonSchema(name);
-            String labels = findLabel(json);
+            String labels = findLabel(name);
             if (labels != null) {
                 for (String target : labels.split(",")) {
                     if (target.startsWith(label)) {
@@ -295,44 +290,24 @@ public class CamelComponentsCompleter implements UICompleter<ComponentDto> {
         return answer;
     }
 
-    private static String findArtifactId(String json) {
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("component", json, false);
-        for (Map<String, String> row : data) {
-            if (row.get("artifactId") != null) {
-                return row.get("artifactId");
-            }
-        }
-        return null;
+    private String findArtifactId(String name) {
+        CamelSchema schema = CamelCatalogModel.componentSchema(camelCatalog, name);
+        return schema != null ? schema.getMetadata("artifactId") : null;
     }
 
-    private static String findConsumerOnly(String json) {
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("component", json, false);
-        for (Map<String, String> row : data) {
-            if (row.get("consumerOnly") != null) {
-                return row.get("consumerOnly");
-            }
-        }
-        return null;
+    private String findConsumerOnly(String name) {
+        CamelSchema schema = CamelCatalogModel.componentSchema(camelCatalog, name);
+        return schema != null ? schema.getMetadata("consumerOnly") : null;
     }
 
-    private static String findProducerOnly(String json) {
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("component", json, false);
-        for (Map<String, String> row : data) {
-            if (row.get("producerOnly") != null) {
-                return row.get("producerOnly");
-            }
-        }
-        return null;
+    private String findProducerOnly(String name) {
+        CamelSchema schema = CamelCatalogModel.componentSchema(camelCatalog, name);
+        return schema != null ? schema.getMetadata("producerOnly") : null;
     }
 
-    private static String findLabel(String json) {
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("component", json, false);
-        for (Map<String, String> row : data) {
-            if (row.get("label") != null) {
-                return row.get("label");
-            }
-        }
-        return null;
+    private String findLabel(String name) {
+        CamelSchema schema = CamelCatalogModel.componentSchema(camelCatalog, name);
+        return schema != null ? schema.getMetadata("label") : null;
     }
 
 }
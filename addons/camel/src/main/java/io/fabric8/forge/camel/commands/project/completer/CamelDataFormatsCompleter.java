@@ -17,13 +17,13 @@ package io.fabric8.forge.camel.commands.project.completer;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import io.fabric8.forge.addon.utils.CamelProjectHelper;
 import io.fabric8.forge.camel.commands.project.dto.DataFormatDto;
+import io.fabric8.forge.camel.commands.project.model.CamelCatalogModel;
+import io.fabric8.forge.camel.commands.project.model.CamelSchema;
 import org.apache.camel.catalog.CamelCatalog;
-import org.apache.camel.catalog.JSonSchemaHelper;
 import org.jboss.forge.addon.dependencies.Dependency;
 import org.jboss.forge.addon.projects.Project;
 import org.jboss.forge.addon.ui.context.UIContext;
@@ -68,8 +68,7 @@ public class CamelDataFormatsCompleter implements UICompleter<DataFormatDto> {
 
         // filter names which are already on the classpath
         for (String name : filtered) {
-            String json = camelCatalog.dataFormatJSonSchema(name);
-            String artifactId = findArtifactId(json);
+            String artifactId = findArtifactId(name);
 
             // skip if we already have the dependency
             boolean already = false;
@@ -77,7 +76,7 @@ public class CamelDataFormatsCompleter implements UICompleter<DataFormatDto> {
                 already = CamelProjectHelper.hasDependency(project, "org.apache.camel", artifactId);
             }
             if (!already) {
-                DataFormatDto dto = createDataFormatDto(camelCatalog, json);
+                DataFormatDto dto = createDataFormatDto(camelCatalog, name);
                 answer.add(dto);
             }
         }
@@ -108,14 +107,9 @@ public class CamelDataFormatsCompleter implements UICompleter<DataFormatDto> {
         return answer;
     }
 
-    private static String findArtifactId(String json) {
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("dataformat", json, false);
-        for (Map<String, String> row : data) {
-            if (row.get("artifactId") != null) {
-                return row.get("artifactId");
-            }
-        }
-        return null;
+    private String findArtifactId(String name) {
+        CamelSchema schema = CamelCatalogModel.dataFormatSchema(camelCatalog, name);
+        return schema != null ? schema.getMetadata("artifactId") : null;
     }
 
 }
@@ -17,12 +17,12 @@ package io.fabric8.forge.camel.commands.project.completer;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import io.fabric8.forge.addon.utils.CamelProjectHelper;
 import io.fabric8.forge.camel.commands.project.dto.EipDto;
+import io.fabric8.forge.camel.commands.project.model.CamelCatalogModel;
+import io.fabric8.forge.camel.commands.project.model.CamelSchema;
 import org.apache.camel.catalog.CamelCatalog;
-import org.apache.camel.catalog.JSonSchemaHelper;
 import org.jboss.forge.addon.dependencies.Dependency;
 import org.jboss.forge.addon.projects.Project;
 import org.jboss.forge.addon.ui.context.UIContext;
@@ -64,8 +64,7 @@ public class CamelEipsCompleter implements UICompleter<EipDto> {
         }
 
         for (String name : filtered) {
-            String json = camelCatalog.modelJSonSchema(name);
-            EipDto dto = createEipDto(camelCatalog, json);
+            EipDto dto = createEipDto(camelCatalog, name);
             answer.add(dto);
         }
 
@@ -100,8 +99,7 @@ public class CamelEipsCompleter implements UICompleter<EipDto> {
         List<String> answer = new ArrayList<String>();
 
         for (String name : choices) {
-            String json = camelCatalog.modelJSonSchema(name);
-            String labels = findLabel(json);
+            String labels = findLabel(name);
             if (labels != null) {
                 for (String target : labels.split(",")) {
                     if (target.startsWith(label)) {
@@ -118,14 +116,9 @@ public class CamelEipsCompleter implements UICompleter<EipDto> {
         return answer;
     }
 
-    private static String findLabel(String json) {
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("model", json, false);
-        for (Map<String, String> row : data) {
-            if (row.get("label") != null) {
-                return row.get("label");
-            }
-        }
-        return null;
+    private String findLabel(String name) {
+        CamelSchema schema = CamelCatalogModel.modelSchema(camelCatalog, name);
+        return schema != null ? schema.getMetadata("label") : null;
     }
 
 }
@@ -17,14 +17,14 @@ package io.fabric8.forge.camel.commands.project.completer;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
 import io.fabric8.forge.addon.utils.CamelProjectHelper;
 import io.fabric8.forge.camel.commands.project.dto.LanguageDto;
+import io.fabric8.forge.camel.commands.project.model.CamelCatalogModel;
+import io.fabric8.forge.camel.commands.project.model.CamelSchema;
 import org.apache.camel.catalog.CamelCatalog;
-import org.apache.camel.catalog.JSonSchemaHelper;
 import org.jboss.forge.addon.dependencies.Dependency;
 import org.jboss.forge.addon.projects.Project;
 import org.jboss.forge.addon.ui.context.UIContext;
@@ -73,8 +73,7 @@ public class CamelLanguagesCompleter implements UICompleter<LanguageDto> {
             if ("method".equals(name)) {
                 name = "bean";
             }
-            String json = camelCatalog.languageJSonSchema(name);
-            String artifactId = findArtifactId(json);
+            String artifactId = findArtifactId(name);
 
             // skip if we already have the dependency
             boolean already = false;
@@ -82,7 +81,7 @@ public class CamelLanguagesCompleter implements UICompleter<LanguageDto> {
                 already = CamelProjectHelper.hasDependency(project, "org.apache.camel", artifactId);
             }
             if (!already) {
-                LanguageDto dto = createLanguageDto(camelCatalog, json);
+                LanguageDto dto = createLanguageDto(camelCatalog, name);
                 answer.add(dto);
             }
         }
@@ -130,14 +129,9 @@ public class CamelLanguagesCompleter implements UICompleter<LanguageDto> {
         return names;
     }
 
-    private static String findArtifactId(String json) {
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("language", json, false);
-        for (Map<String, String> row : data) {
-            if (row.get("artifactId") != null) {
-                return row.get("artifactId");
-            }
-        }
-        return null;
+    private String findArtifactId(String name) {
+        CamelSchema schema = CamelCatalogModel.languageSchema(camelCatalog, name);
+        return schema != null ? schema.getMetadata("artifactId") : null;
     }
 
 }
@@ -15,17 +15,17 @@
  */
 package io.fabric8.forge.camel.commands.project.completer;
 
+import java.io.File;
 import java.util.List;
 import java.util.function.Function;
 
+import io.fabric8.forge.camel.commands.project.helper.CamelEndpointIndex;
 import io.fabric8.forge.camel.commands.project.helper.PoorMansLogger;
-import io.fabric8.forge.camel.commands.project.helper.RouteBuilderParser;
 import io.fabric8.forge.camel.commands.project.model.CamelEndpointDetails;
 import org.jboss.forge.addon.parser.java.facets.JavaSourceFacet;
 import org.jboss.forge.addon.parser.java.resources.JavaResource;
 import org.jboss.forge.addon.parser.java.resources.JavaResourceVisitor;
 import org.jboss.forge.addon.resource.visit.VisitContext;
-import org.jboss.forge.roaster.model.source.JavaClassSource;
 
 public class RouteBuilderCamelEndpointsVisitor extends JavaResourceVisitor {
 
@@ -46,10 +46,16 @@ public class RouteBuilderCamelEndpointsVisitor extends JavaResourceVisitor {
         try {
             // avoid package-info.java files
             if (!resource.getName().contains("package-info")) {
-                JavaClassSource clazz = resource.getJavaType();
-                String fqn = resource.getFullyQualifiedName();
-                String name = clazz.getQualifiedName();
                 String baseDir = facet.getSourceDirectory().getFullyQualifiedName();
+                String projectDir = facet.getFaceted().getRoot().getFullyQualifiedName();
+
+                // use the index so we only parse the classes which have changed since last time
+                File file = resource.getUnderlyingResourceObject();
+                CamelEndpointIndex.FileEntry entry = CamelEndpointIndex.getInstance(projectDir).javaFile(file, baseDir, false);
+                String name = entry.getClassName();
+                if (name == null) {
+                    return;
+                }
 
                 boolean include = true;
                 if (filter != null) {
@@ -59,7 +65,7 @@ public class RouteBuilderCamelEndpointsVisitor extends JavaResourceVisitor {
                 }
 
                 if (include) {
-                    RouteBuilderParser.parseRouteBuilderEndpoints(clazz, baseDir, fqn, endpoints);
+                    endpoints.addAll(entry.getEndpoints());
                 }
             }
         } catch (Throwable e) {
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 
+import io.fabric8.forge.camel.commands.project.helper.CamelEndpointIndex;
 import io.fabric8.forge.camel.commands.project.model.CamelEndpointDetails;
 import org.jboss.forge.addon.parser.java.facets.JavaSourceFacet;
 import org.jboss.forge.addon.parser.java.resources.JavaResourceVisitor;
@@ -36,6 +37,8 @@ public class RouteBuilderEndpointsCompleter implements UICompleter<String> {
     public RouteBuilderEndpointsCompleter(final JavaSourceFacet facet, Function<String, Boolean> filter) {
         // find package names in the source code
         if (facet != null) {
+            // forget the files which have been deleted since the project was last scanned
+            CamelEndpointIndex.getInstance(facet.getFaceted().getRoot().getFullyQualifiedName()).removeDeletedFiles();
             JavaResourceVisitor visitor = new RouteBuilderCamelEndpointsVisitor(facet, endpoints, filter);
             facet.visitJavaSources(visitor);
         }
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 
+import io.fabric8.forge.camel.commands.project.helper.CamelEndpointIndex;
 import io.fabric8.forge.camel.commands.project.model.CamelEndpointDetails;
 import org.jboss.forge.addon.projects.facets.ResourcesFacet;
 import org.jboss.forge.addon.projects.facets.WebResourcesFacet;
@@ -35,6 +36,13 @@ public class XmlEndpointsCompleter implements UICompleter<String> {
     private final List<CamelEndpointDetails> endpoints = new ArrayList<>();
 
     public XmlEndpointsCompleter(final ResourcesFacet facet, final WebResourcesFacet webFacet, Function<String, Boolean> filter) {
+        // forget the files which have been deleted since the project was last scanned
+        if (facet != null) {
+            CamelEndpointIndex.getInstance(facet.getFaceted().getRoot().getFullyQualifiedName()).removeDeletedFiles();
+        } else if (webFacet != null) {
+            CamelEndpointIndex.getInstance(webFacet.getFaceted().getRoot().getFullyQualifiedName()).removeDeletedFiles();
+        }
+
         // find package names in the source code
         if (facet != null) {
             ResourceVisitor visitor = new XmlResourcesCamelEndpointsVisitor(facet, endpoints, filter);
@@ -15,11 +15,13 @@
  */
 package io.fabric8.forge.camel.commands.project.completer;
 
+import java.io.File;
 import java.io.InputStream;
 import java.util.List;
 import java.util.function.Function;
 
 import io.fabric8.forge.camel.commands.project.AbstractCamelProjectCommand;
+import io.fabric8.forge.camel.commands.project.helper.CamelEndpointIndex;
 import io.fabric8.forge.camel.commands.project.helper.PoorMansLogger;
 import io.fabric8.forge.camel.commands.project.helper.XmlRouteParser;
 import io.fabric8.forge.camel.commands.project.model.CamelEndpointDetails;
@@ -65,13 +67,21 @@ public class XmlResourcesCamelEndpointsVisitor implements ResourceVisitor {
             }
 
             if (include) {
-                boolean camel = containsCamelRoutes(resource);
-                if (camel) {
+                String baseDir = facet.getResourceDirectory().getFullyQualifiedName();
+                if (resource instanceof FileResource) {
+                    // use the index so we only parse the files which have changed since last time
+                    try {
+                        File file = ((FileResource<?>) resource).getUnderlyingResourceObject();
+                        String projectDir = facet.getFaceted().getRoot().getFullyQualifiedName();
+                        endpoints.addAll(CamelEndpointIndex.getInstance(projectDir).xmlFile(file, baseDir).getEndpoints());
+                    } catch (Throwable e) {
+                        // ignore
+                    }
+                } else if (containsCamelRoutes(resource)) {
                     // find all the endpoints (currently only <endpoint> and within <route>)
                     try {
                         InputStream is = resource.getResourceInputStream();
                         String fqn = resource.getFullyQualifiedName();
-                        String baseDir = facet.getResourceDirectory().getFullyQualifiedName();
                         XmlRouteParser.parseXmlRouteEndpoints(is, baseDir, fqn, endpoints);
                     } catch (Throwable e) {
                         // ignore
@@ -83,7 +93,6 @@ public class XmlResourcesCamelEndpointsVisitor implements ResourceVisitor {
 
     public static boolean containsCamelRoutes(Resource<?> resource) {
         // must contain <camelContext... or <routes...
-        String contents = resource.getContents();
-        return contents.contains("<camelContext") || contents.contains("<routes");
+        return CamelEndpointIndex.containsCamelRoutes(resource.getContents());
     }
 }
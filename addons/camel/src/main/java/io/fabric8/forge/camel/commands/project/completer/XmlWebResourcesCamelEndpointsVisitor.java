@@ -15,11 +15,13 @@
  */
 package io.fabric8.forge.camel.commands.project.completer;
 
+import java.io.File;
 import java.io.InputStream;
 import java.util.List;
 import java.util.function.Function;
 
 import io.fabric8.forge.camel.commands.project.AbstractCamelProjectCommand;
+import io.fabric8.forge.camel.commands.project.helper.CamelEndpointIndex;
 import io.fabric8.forge.camel.commands.project.helper.PoorMansLogger;
 import io.fabric8.forge.camel.commands.project.helper.XmlRouteParser;
 import io.fabric8.forge.camel.commands.project.model.CamelEndpointDetails;
@@ -67,13 +69,21 @@ public class XmlWebResourcesCamelEndpointsVisitor implements ResourceVisitor {
             }
 
             if (include) {
-                boolean camel = containsCamelRoutes(resource);
-                if (camel) {
+                String baseDir = facet.getWebRootDirectory().getFullyQualifiedName();
+                if (resource instanceof FileResource) {
+                    // use the index so we only parse the files which have changed since last time
+                    try {
+                        File file = ((FileResource<?>) resource).getUnderlyingResourceObject();
+                        String projectDir = facet.getFaceted().getRoot().getFullyQualifiedName();
+                        endpoints.addAll(CamelEndpointIndex.getInstance(projectDir).xmlFile(file, baseDir).getEndpoints());
+                    } catch (Throwable e) {
+                        // ignore
+                    }
+                } else if (containsCamelRoutes(resource)) {
                     // find all the endpoints (currently only <endpoint> and within <route>)
                     try {
                         InputStream is = resource.getResourceInputStream();
                         String fqn = resource.getFullyQualifiedName();
-                        String baseDir = facet.getWebRootDirectory().getFullyQualifiedName();
                         XmlRouteParser.parseXmlRouteEndpoints(is, baseDir, fqn, endpoints);
                     } catch (Throwable e) {
                         // ignore
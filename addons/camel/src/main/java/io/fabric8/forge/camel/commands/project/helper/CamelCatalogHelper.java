@@ -15,18 +15,17 @@
  */
 package io.fabric8.forge.camel.commands.project.helper;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 
 import io.fabric8.forge.camel.commands.project.dto.ComponentDto;
 import io.fabric8.forge.camel.commands.project.dto.DataFormatDto;
 import io.fabric8.forge.camel.commands.project.dto.EipDto;
 import io.fabric8.forge.camel.commands.project.dto.LanguageDto;
+import io.fabric8.forge.camel.commands.project.model.CamelCatalogModel;
+import io.fabric8.forge.camel.commands.project.model.CamelSchema;
 import io.fabric8.utils.Strings;
 import org.apache.camel.catalog.CamelCatalog;
-import org.apache.camel.catalog.JSonSchemaHelper;
 
 public final class CamelCatalogHelper {
 
@@ -61,84 +60,18 @@ public final class CamelCatalogHelper {
     }
 
     public static Set<String> componentsFromArtifact(CamelCatalog camelCatalog, String artifactId) {
-        Set<String> answer = new TreeSet<String>();
-
         // use the camel catalog to find what components the artifact has
-        for (String name : camelCatalog.findComponentNames()) {
-            String json = camelCatalog.componentJSonSchema(name);
-            if (json != null) {
-                List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("component", json, false);
-                String scheme = null;
-                String artifact = null;
-                for (Map<String, String> row : data) {
-                    if (row.get("artifactId") != null) {
-                        artifact = row.get("artifactId");
-                    }
-                    if (row.get("scheme") != null) {
-                        scheme = row.get("scheme");
-                    }
-                }
-                if (artifactId.equals(artifact) && scheme != null) {
-                    answer.add(scheme);
-                }
-            }
-        }
-
-        return answer;
+        return CamelCatalogModel.componentsFromArtifact(camelCatalog, artifactId);
     }
 
     public static Set<String> dataFormatsFromArtifact(CamelCatalog camelCatalog, String artifactId) {
-        Set<String> answer = new TreeSet<String>();
-
-        // use the camel catalog to find what components the artifact has
-        for (String name : camelCatalog.findDataFormatNames()) {
-            String json = camelCatalog.dataFormatJSonSchema(name);
-            if (json != null) {
-                List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("dataformat", json, false);
-                String df = null;
-                String artifact = null;
-                for (Map<String, String> row : data) {
-                    if (row.get("artifactId") != null) {
-                        artifact = row.get("artifactId");
-                    }
-                    if (row.get("name") != null) {
-                        df = row.get("name");
-                    }
-                }
-                if (artifactId.equals(artifact) && df != null) {
-                    answer.add(df);
-                }
-            }
-        }
-
-        return answer;
+        // use the camel catalog to find what data formats the artifact has
+        return CamelCatalogModel.dataFormatsFromArtifact(camelCatalog, artifactId);
     }
 
     public static Set<String> languagesFromArtifact(CamelCatalog camelCatalog, String artifactId) {
-        Set<String> answer = new TreeSet<String>();
-
-        // use the camel catalog to find what components the artifact has
-        for (String name : camelCatalog.findLanguageNames()) {
-            String json = camelCatalog.languageJSonSchema(name);
-            if (json != null) {
-                List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("language", json, false);
-                String lan = null;
-                String artifact = null;
-                for (Map<String, String> row : data) {
-                    if (row.get("artifactId") != null) {
-                        artifact = row.get("artifactId");
-                    }
-                    if (row.get("name") != null) {
-                        lan = row.get("name");
-                    }
-                }
-                if (artifactId.equals(artifact) && lan != null) {
-                    answer.add(lan);
-                }
-            }
-        }
-
-        return answer;
+        // use the camel catalog to find what languages the artifact has
+        return CamelCatalogModel.languagesFromArtifact(camelCatalog, artifactId);
     }
 
     /**
@@ -150,21 +83,9 @@ public final class CamelCatalogHelper {
      * @return <tt>true</tt> if matching the default value, <tt>false</tt> otherwise
      */
     public static boolean isDefaultValue(CamelCatalog camelCatalog, String scheme, String key, String value) {
-        // use the camel catalog
-        String json = camelCatalog.componentJSonSchema(scheme);
-        if (json == null) {
-            throw new IllegalArgumentException("Could not find catalog entry for component name: " + scheme);
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("properties", json, true);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String name = propertyMap.get("name");
-                String defaultValue = propertyMap.get("defaultValue");
-                if (key.equals(name)) {
-                    return value.equalsIgnoreCase(defaultValue);
-                }
-            }
+        Map<String, String> propertyMap = requireComponentSchema(camelCatalog, scheme).getProperty(key);
+        if (propertyMap != null) {
+            return value.equalsIgnoreCase(propertyMap.get("defaultValue"));
         }
         return false;
     }
@@ -178,21 +99,9 @@ public final class CamelCatalogHelper {
      * @return <tt>true</tt> if matching the default value, <tt>false</tt> otherwise
      */
     public static boolean isDefaultValueComponent(CamelCatalog camelCatalog, String scheme, String key, String value) {
-        // use the camel catalog
-        String json = camelCatalog.componentJSonSchema(scheme);
-        if (json == null) {
-            throw new IllegalArgumentException("Could not find catalog entry for component name: " + scheme);
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("componentProperties", json, true);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String name = propertyMap.get("name");
-                String defaultValue = propertyMap.get("defaultValue");
-                if (key.equals(name)) {
-                    return value.equalsIgnoreCase(defaultValue);
-                }
-            }
+        Map<String, String> propertyMap = requireComponentSchema(camelCatalog, scheme).getComponentProperty(key);
+        if (propertyMap != null) {
+            return value.equalsIgnoreCase(propertyMap.get("defaultValue"));
         }
         return false;
     }
@@ -205,23 +114,8 @@ public final class CamelCatalogHelper {
      * @return <tt>true</tt> if the key is multi valued, <tt>false</tt> otherwise
      */
     public static boolean isMultiValue(CamelCatalog camelCatalog, String scheme, String key) {
-        // use the camel catalog
-        String json = camelCatalog.componentJSonSchema(scheme);
-        if (json == null) {
-            throw new IllegalArgumentException("Could not find catalog entry for component name: " + scheme);
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("properties", json, true);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String name = propertyMap.get("name");
-                String multiValue = propertyMap.get("multiValue");
-                if (key.equals(name)) {
-                    return "true".equals(multiValue);
-                }
-            }
-        }
-        return false;
+        String multiValue = requireComponentSchema(camelCatalog, scheme).getPropertyValue(key, "multiValue");
+        return "true".equals(multiValue);
     }
 
     /**
@@ -232,23 +126,7 @@ public final class CamelCatalogHelper {
      * @return <tt>true</tt> if the key is multi valued, <tt>false</tt> otherwise
      */
     public static String getPrefix(CamelCatalog camelCatalog, String scheme, String key) {
-        // use the camel catalog
-        String json = camelCatalog.componentJSonSchema(scheme);
-        if (json == null) {
-            throw new IllegalArgumentException("Could not find catalog entry for component name: " + scheme);
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("properties", json, true);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String name = propertyMap.get("name");
-                String prefix = propertyMap.get("prefix");
-                if (key.equals(name)) {
-                    return prefix;
-                }
-            }
-        }
-        return null;
+        return requireComponentSchema(camelCatalog, scheme).getPropertyValue(key, "prefix");
     }
 
     /**
@@ -259,25 +137,9 @@ public final class CamelCatalogHelper {
      * @return <tt>true</tt> if matching the default value, <tt>false</tt> otherwise
      */
     public static boolean isNonePlaceholderEnumValue(CamelCatalog camelCatalog, String scheme, String key) {
-        // use the camel catalog
-        String json = camelCatalog.componentJSonSchema(scheme);
-        if (json == null) {
-            throw new IllegalArgumentException("Could not find catalog entry for component name: " + scheme);
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("properties", json, true);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String name = propertyMap.get("name");
-                String enums = propertyMap.get("enum");
-                if (key.equals(name) && enums != null) {
-                    if (!enums.contains("none")) {
-                        return true;
-                    } else {
-                        return false;
-                    }
-                }
-            }
+        String enums = requireComponentSchema(camelCatalog, scheme).getPropertyValue(key, "enum");
+        if (enums != null) {
+            return !enums.contains("none");
         }
         return false;
     }
@@ -290,25 +152,9 @@ public final class CamelCatalogHelper {
      * @return <tt>true</tt> if matching the default value, <tt>false</tt> otherwise
      */
     public static boolean isNonePlaceholderEnumValueComponent(CamelCatalog camelCatalog, String scheme, String key) {
-        // use the camel catalog
-        String json = camelCatalog.componentJSonSchema(scheme);
-        if (json == null) {
-            throw new IllegalArgumentException("Could not find catalog entry for component name: " + scheme);
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("componentProperties", json, true);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String name = propertyMap.get("name");
-                String enums = propertyMap.get("enum");
-                if (key.equals(name) && enums != null) {
-                    if (!enums.contains("none")) {
-                        return true;
-                    } else {
-                        return false;
-                    }
-                }
-            }
+        String enums = requireComponentSchema(camelCatalog, scheme).getComponentPropertyValue(key, "enum");
+        if (enums != null) {
+            return !enums.contains("none");
         }
         return false;
     }
@@ -321,22 +167,9 @@ public final class CamelCatalogHelper {
      * @return <tt>true</tt> if matching the default value, <tt>false</tt> otherwise
      */
     public static String getEnumJavaTypeComponent(CamelCatalog camelCatalog, String scheme, String key) {
-        // use the camel catalog
-        String json = camelCatalog.componentJSonSchema(scheme);
-        if (json == null) {
-            throw new IllegalArgumentException("Could not find catalog entry for component name: " + scheme);
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("componentProperties", json, true);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String javaType = propertyMap.get("javaType");
-                String name = propertyMap.get("name");
-                String enums = propertyMap.get("enum");
-                if (key.equals(name) && enums != null) {
-                    return javaType;
-                }
-            }
+        Map<String, String> propertyMap = requireComponentSchema(camelCatalog, scheme).getComponentProperty(key);
+        if (propertyMap != null && propertyMap.get("enum") != null) {
+            return propertyMap.get("javaType");
         }
         return null;
     }
@@ -350,21 +183,9 @@ public final class CamelCatalogHelper {
      * @return <tt>true</tt> if matching the default value, <tt>false</tt> otherwise
      */
     public static boolean isModelDefaultValue(CamelCatalog camelCatalog, String modelName, String key, String value) {
-        // use the camel catalog
-        String json = camelCatalog.modelJSonSchema(modelName);
-        if (json == null) {
-            throw new IllegalArgumentException("Could not find catalog entry for model name: " + modelName);
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("properties", json, true);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String name = propertyMap.get("name");
-                String defaultValue = propertyMap.get("defaultValue");
-                if (key.equals(name)) {
-                    return value.equalsIgnoreCase(defaultValue);
-                }
-            }
+        Map<String, String> propertyMap = requireModelSchema(camelCatalog, modelName).getProperty(key);
+        if (propertyMap != null) {
+            return value.equalsIgnoreCase(propertyMap.get("defaultValue"));
         }
         return false;
     }
@@ -377,20 +198,9 @@ public final class CamelCatalogHelper {
      * @return <tt>true</tt> if the key is an expression type, <tt>false</tt> otherwise
      */
     public static boolean isModelExpressionKind(CamelCatalog camelCatalog, String modelName, String key) {
-        // use the camel catalog
-        String json = camelCatalog.modelJSonSchema(modelName);
-        if (json == null) {
-            throw new IllegalArgumentException("Could not find catalog entry for model name: " + modelName);
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("properties", json, true);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String name = propertyMap.get("name");
-                if (key.equals(name)) {
-                    return "expression".equals(propertyMap.get("kind"));
-                }
-            }
+        Map<String, String> propertyMap = requireModelSchema(camelCatalog, modelName).getProperty(key);
+        if (propertyMap != null) {
+            return "expression".equals(propertyMap.get("kind"));
         }
         return false;
     }
@@ -402,22 +212,7 @@ public final class CamelCatalogHelper {
      * @return the java type
      */
     public static String getModelJavaType(CamelCatalog camelCatalog, String modelName) {
-        // use the camel catalog
-        String json = camelCatalog.modelJSonSchema(modelName);
-        if (json == null) {
-            throw new IllegalArgumentException("Could not find catalog entry for model name: " + modelName);
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("model", json, false);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String javaType = propertyMap.get("javaType");
-                if (javaType != null) {
-                    return javaType;
-                }
-            }
-        }
-        return null;
+        return requireModelSchema(camelCatalog, modelName).getMetadata("javaType");
     }
 
     /**
@@ -427,170 +222,136 @@ public final class CamelCatalogHelper {
      * @return <tt>true</tt> if output supported, <tt>false</tt> otherwise
      */
     public static boolean isModelSupportOutput(CamelCatalog camelCatalog, String modelName) {
-        // use the camel catalog
-        String json = camelCatalog.modelJSonSchema(modelName);
-        if (json == null) {
-            throw new IllegalArgumentException("Could not find catalog entry for model name: " + modelName);
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("model", json, false);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String output = propertyMap.get("output");
-                if (output != null) {
-                    return "true".equals(output);
-                }
-            }
-        }
-        return false;
+        String output = requireModelSchema(camelCatalog, modelName).getMetadata("output");
+        return "true".equals(output);
     }
 
     /**
      * Whether the component is consumer only
      */
     public static boolean isComponentConsumerOnly(CamelCatalog camelCatalog, String scheme) {
-        // use the camel catalog
-        String json = camelCatalog.componentJSonSchema(scheme);
-        if (json == null) {
-            return false;
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("component", json, false);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String consumerOnly = propertyMap.get("consumerOnly");
-                if (consumerOnly != null) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        CamelSchema schema = CamelCatalogModel.componentSchema(camelCatalog, scheme);
+        return schema != null && schema.getMetadata("consumerOnly") != null;
     }
 
     /**
      * Whether the component is consumer only
      */
     public static boolean isComponentProducerOnly(CamelCatalog camelCatalog, String scheme) {
-        // use the camel catalog
-        String json = camelCatalog.componentJSonSchema(scheme);
-        if (json == null) {
-            return false;
-        }
-
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("component", json, false);
-        if (data != null) {
-            for (Map<String, String> propertyMap : data) {
-                String consumerOnly = propertyMap.get("producerOnly");
-                if (consumerOnly != null) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        CamelSchema schema = CamelCatalogModel.componentSchema(camelCatalog, scheme);
+        return schema != null && schema.getMetadata("producerOnly") != null;
     }
 
     public static ComponentDto createComponentDto(CamelCatalog camelCatalog, String scheme) {
         // use the camel catalog
-        String json = camelCatalog.componentJSonSchema(scheme);
-        if (json == null) {
+        CamelSchema schema = CamelCatalogModel.componentSchema(camelCatalog, scheme);
+        if (schema == null) {
             return null;
         }
 
         ComponentDto dto = new ComponentDto();
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("component", json, false);
-        for (Map<String, String> row : data) {
-            if (row.get("scheme") != null) {
-                dto.setScheme(row.get("scheme"));
-            } else if (row.get("syntax") != null) {
-                dto.setSyntax(row.get("syntax"));
-            } else if (row.get("title") != null) {
-                dto.setTitle(row.get("title"));
-            } else if (row.get("description") != null) {
-                dto.setDescription(row.get("description"));
-            } else if (row.get("label") != null) {
-                String labelText = row.get("label");
-                if (Strings.isNotBlank(labelText)) {
-                    dto.setTags(labelText.split(","));
-                }
-            } else if (row.get("consumerOnly") != null) {
-                dto.setConsumerOnly("true".equals(row.get("consumerOnly")));
-            } else if (row.get("producerOnly") != null) {
-                dto.setProducerOnly("true".equals(row.get("producerOnly")));
-            } else if (row.get("javaType") != null) {
-                dto.setJavaType(row.get("javaType"));
-            } else if (row.get("groupId") != null) {
-                dto.setGroupId(row.get("groupId"));
-            } else if (row.get("artifactId") != null) {
-                dto.setArtifactId(row.get("artifactId"));
-            } else if (row.get("version") != null) {
-                dto.setVersion(row.get("version"));
-            }
+        Map<String, String> row = schema.getMetadata();
+        if (row.get("scheme") != null) {
+            dto.setScheme(row.get("scheme"));
+        }
+        if (row.get("syntax") != null) {
+            dto.setSyntax(row.get("syntax"));
+        }
+        if (row.get("title") != null) {
+            dto.setTitle(row.get("title"));
+        }
+        if (row.get("description") != null) {
+            dto.setDescription(row.get("description"));
+        }
+        if (Strings.isNotBlank(row.get("label"))) {
+            dto.setTags(row.get("label").split(","));
+        }
+        if (row.get("consumerOnly") != null) {
+            dto.setConsumerOnly("true".equals(row.get("consumerOnly")));
+        }
+        if (row.get("producerOnly") != null) {
+            dto.setProducerOnly("true".equals(row.get("producerOnly")));
+        }
+        if (row.get("javaType") != null) {
+            dto.setJavaType(row.get("javaType"));
+        }
+        if (row.get("groupId") != null) {
+            dto.setGroupId(row.get("groupId"));
+        }
+        if (row.get("artifactId") != null) {
+            dto.setArtifactId(row.get("artifactId"));
+        }
+        if (row.get("version") != null) {
+            dto.setVersion(row.get("version"));
         }
         return dto;
     }
 
     public static EipDto createEipDto(CamelCatalog camelCatalog, String modelName) {
         // use the camel catalog
-        String json = camelCatalog.modelJSonSchema(modelName);
-        if (json == null) {
+        CamelSchema schema = CamelCatalogModel.modelSchema(camelCatalog, modelName);
+        if (schema == null) {
             return null;
         }
 
         EipDto dto = new EipDto();
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("model", json, false);
-        for (Map<String, String> row : data) {
-            if (row.get("name") != null) {
-                dto.setName(row.get("name"));
-            } else if (row.get("title") != null) {
-                dto.setTitle(row.get("title"));
-            } else if (row.get("description") != null) {
-                dto.setDescription(row.get("description"));
-            } else if (row.get("label") != null) {
-                String labelText = row.get("label");
-                if (Strings.isNotBlank(labelText)) {
-                    dto.setTags(labelText.split(","));
-                }
-            } else if (row.get("javaType") != null) {
-                dto.setJavaType(row.get("javaType"));
-            }
+        Map<String, String> row = schema.getMetadata();
+        if (row.get("name") != null) {
+            dto.setName(row.get("name"));
+        }
+        if (row.get("title") != null) {
+            dto.setTitle(row.get("title"));
+        }
+        if (row.get("description") != null) {
+            dto.setDescription(row.get("description"));
+        }
+        if (Strings.isNotBlank(row.get("label"))) {
+            dto.setTags(row.get("label").split(","));
+        }
+        if (row.get("javaType") != null) {
+            dto.setJavaType(row.get("javaType"));
         }
         return dto;
     }
 
     public static DataFormatDto createDataFormatDto(CamelCatalog camelCatalog, String name) {
         // use the camel catalog
-        String json = camelCatalog.dataFormatJSonSchema(name);
-        if (json == null) {
+        CamelSchema schema = CamelCatalogModel.dataFormatSchema(camelCatalog, name);
+        if (schema == null) {
             return null;
         }
 
         DataFormatDto dto = new DataFormatDto();
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("dataformat", json, false);
-        for (Map<String, String> row : data) {
-            if (row.get("name") != null) {
-                dto.setName(row.get("name"));
-            } else if (row.get("modelName") != null) {
-                dto.setModelName(row.get("modelName"));
-            } else if (row.get("title") != null) {
-                dto.setTitle(row.get("title"));
-            } else if (row.get("description") != null) {
-                dto.setDescription(row.get("description"));
-            } else if (row.get("label") != null) {
-                String labelText = row.get("label");
-                if (Strings.isNotBlank(labelText)) {
-                    dto.setTags(labelText.split(","));
-                }
-            } else if (row.get("javaType") != null) {
-                dto.setJavaType(row.get("javaType"));
-            } else if (row.get("modelJavaType") != null) {
-                dto.setModelJavaType(row.get("modelJavaType"));
-            } else if (row.get("groupId") != null) {
-                dto.setGroupId(row.get("groupId"));
-            } else if (row.get("artifactId") != null) {
-                dto.setArtifactId(row.get("artifactId"));
-            } else if (row.get("version") != null) {
-                dto.setVersion(row.get("version"));
-            }
+        Map<String, String> row = schema.getMetadata();
+        if (row.get("name") != null) {
+            dto.setName(row.get("name"));
+        }
+        if (row.get("modelName") != null) {
+            dto.setModelName(row.get("modelName"));
+        }
+        if (row.get("title") != null) {
+            dto.setTitle(row.get("title"));
+        }
+        if (row.get("description") != null) {
+            dto.setDescription(row.get("description"));
+        }
+        if (Strings.isNotBlank(row.get("label"))) {
+            dto.setTags(row.get("label").split(","));
+        }
+        if (row.get("javaType") != null) {
+            dto.setJavaType(row.get("javaType"));
+        }
+        if (row.get("modelJavaType") != null) {
+            dto.setModelJavaType(row.get("modelJavaType"));
+        }
+        if (row.get("groupId") != null) {
+            dto.setGroupId(row.get("groupId"));
+        }
+        if (row.get("artifactId") != null) {
+            dto.setArtifactId(row.get("artifactId"));
+        }
+        if (row.get("version") != null) {
+            dto.setVersion(row.get("version"));
         }
         return dto;
     }
@@ -603,40 +364,60 @@ public final class CamelCatalogHelper {
             name = "bean";
         }
 
-        String json = camelCatalog.languageJSonSchema(name);
-        if (json == null) {
+        CamelSchema schema = CamelCatalogModel.languageSchema(camelCatalog, name);
+        if (schema == null) {
             return null;
         }
 
         LanguageDto dto = new LanguageDto();
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("language", json, false);
-        for (Map<String, String> row : data) {
-            if (row.get("name") != null) {
-                dto.setName(row.get("name"));
-            } else if (row.get("modelName") != null) {
-                dto.setModelName(row.get("modelName"));
-            } else if (row.get("title") != null) {
-                dto.setTitle(row.get("title"));
-            } else if (row.get("description") != null) {
-                dto.setDescription(row.get("description"));
-            } else if (row.get("label") != null) {
-                String labelText = row.get("label");
-                if (Strings.isNotBlank(labelText)) {
-                    dto.setTags(labelText.split(","));
-                }
-            } else if (row.get("javaType") != null) {
-                dto.setJavaType(row.get("javaType"));
-            } else if (row.get("modelJavaType") != null) {
-                dto.setModelJavaType(row.get("modelJavaType"));
-            } else if (row.get("groupId") != null) {
-                dto.setGroupId(row.get("groupId"));
-            } else if (row.get("artifactId") != null) {
-                dto.setArtifactId(row.get("artifactId"));
-            } else if (row.get("version") != null) {
-                dto.setVersion(row.get("version"));
-            }
+        Map<String, String> row = schema.getMetadata();
+        if (row.get("name") != null) {
+            dto.setName(row.get("name"));
+        }
+        if (row.get("modelName") != null) {
+            dto.setModelName(row.get("modelName"));
+        }
+        if (row.get("title") != null) {
+            dto.setTitle(row.get("title"));
+        }
+        if (row.get("description") != null) {
+            dto.setDescription(row.get("description"));
+        }
+        if (Strings.isNotBlank(row.get("label"))) {
+            dto.setTags(row.get("label").split(","));
+        }
+        if (row.get("javaType") != null) {
+            dto.setJavaType(row.get("javaType"));
+        }
+        if (row.get("modelJavaType") != null) {
+            dto.setModelJavaType(row.get("modelJavaType"));
+        }
+        if (row.get("groupId") != null) {
+            dto.setGroupId(row.get("groupId"));
+        }
+        if (row.get("artifactId") != null) {
+            dto.setArtifactId(row.get("artifactId"));
+        }
+        if (row.get("version") != null) {
+            dto.setVersion(row.get("version"));
         }
         return dto;
     }
 
+    private static CamelSchema requireComponentSchema(CamelCatalog camelCatalog, String scheme) {
+        CamelSchema schema = CamelCatalogModel.componentSchema(camelCatalog, scheme);
+        if (schema == null) {
+            throw new IllegalArgumentException("Could not find catalog entry for component name: " + scheme);
+        }
+        return schema;
+    }
+
+    private static CamelSchema requireModelSchema(CamelCatalog camelCatalog, String modelName) {
+        CamelSchema schema = CamelCatalogModel.modelSchema(camelCatalog, modelName);
+        if (schema == null) {
+            throw new IllegalArgumentException("Could not find catalog entry for model name: " + modelName);
+        }
+        return schema;
+    }
+
 }
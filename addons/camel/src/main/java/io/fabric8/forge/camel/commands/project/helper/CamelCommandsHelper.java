@@ -16,6 +16,7 @@
 package io.fabric8.forge.camel.commands.project.helper;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
@@ -31,11 +32,12 @@ import io.fabric8.forge.camel.commands.project.completer.CamelEipsCompleter;
 import io.fabric8.forge.camel.commands.project.completer.CamelEipsLabelCompleter;
 import io.fabric8.forge.camel.commands.project.dto.ComponentDto;
 import io.fabric8.forge.camel.commands.project.dto.EipDto;
+import io.fabric8.forge.camel.commands.project.model.CamelCatalogModel;
 import io.fabric8.forge.camel.commands.project.model.CamelComponentDetails;
+import io.fabric8.forge.camel.commands.project.model.CamelSchema;
 import io.fabric8.forge.camel.commands.project.model.InputOptionByGroup;
 import org.apache.camel.catalog.CamelCatalog;
 import org.apache.camel.catalog.CollectionStringBuffer;
-import org.apache.camel.catalog.JSonSchemaHelper;
 import org.jboss.forge.addon.convert.ConverterFactory;
 import org.jboss.forge.addon.dependencies.Dependency;
 import org.jboss.forge.addon.dependencies.builder.DependencyBuilder;
@@ -123,29 +125,26 @@ public final class CamelCommandsHelper {
      * Populates the details for the given component, returning a Result if it fails.
      */
     public static Result loadCamelComponentDetails(CamelCatalog camelCatalog, String camelComponentName, CamelComponentDetails details) {
-        String json = camelCatalog.componentJSonSchema(camelComponentName);
-        if (json == null) {
+        CamelSchema schema = CamelCatalogModel.componentSchema(camelCatalog, camelComponentName);
+        if (schema == null) {
             return Results.fail("Could not find catalog entry for component name: " + camelComponentName);
         }
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("component", json, false);
 
-        for (Map<String, String> row : data) {
-            String javaType = row.get("javaType");
-            if (!Strings.isNullOrEmpty(javaType)) {
-                details.setComponentClassQName(javaType);
-            }
-            String groupId = row.get("groupId");
-            if (!Strings.isNullOrEmpty(groupId)) {
-                details.setGroupId(groupId);
-            }
-            String artifactId = row.get("artifactId");
-            if (!Strings.isNullOrEmpty(artifactId)) {
-                details.setArtifactId(artifactId);
-            }
-            String version = row.get("version");
-            if (!Strings.isNullOrEmpty(version)) {
-                details.setVersion(version);
-            }
+        String javaType = schema.getMetadata("javaType");
+        if (!Strings.isNullOrEmpty(javaType)) {
+            details.setComponentClassQName(javaType);
+        }
+        String groupId = schema.getMetadata("groupId");
+        if (!Strings.isNullOrEmpty(groupId)) {
+            details.setGroupId(groupId);
+        }
+        String artifactId = schema.getMetadata("artifactId");
+        if (!Strings.isNullOrEmpty(artifactId)) {
+            details.setArtifactId(artifactId);
+        }
+        String version = schema.getMetadata("version");
+        if (!Strings.isNullOrEmpty(version)) {
+            details.setVersion(version);
         }
         if (Strings.isNullOrEmpty(details.getComponentClassQName())) {
             return Results.fail("Could not find fully qualified class name in catalog for component name: " + camelComponentName);
@@ -421,8 +420,8 @@ public final class CamelCommandsHelper {
 
         List<InputOptionByGroup> answer = new ArrayList<>();
 
-        String json = camelCatalog.componentJSonSchema(camelComponentName);
-        if (json == null) {
+        CamelSchema schema = CamelCatalogModel.componentSchema(camelCatalog, camelComponentName);
+        if (schema == null) {
             throw new IllegalArgumentException("Could not find catalog entry for component name: " + camelComponentName);
         }
 
@@ -436,11 +435,11 @@ public final class CamelCommandsHelper {
         }
 
 
-        List<Map<String, String>> data;
+        Collection<Map<String, String>> data;
         if (endpoint) {
-            data = JSonSchemaHelper.parseJsonSchema("properties", json, true);
+            data = schema.getProperties();
         } else {
-            data = JSonSchemaHelper.parseJsonSchema("componentProperties", json, true);
+            data = schema.getComponentProperties();
         }
 
         if (data != null) {
@@ -565,12 +564,12 @@ public final class CamelCommandsHelper {
                                                                      CamelCatalog camelCatalog, InputComponentFactory componentFactory, ConverterFactory converterFactory, UIContext ui) throws Exception {
         List<InputOptionByGroup> answer = new ArrayList<>();
 
-        String json = camelCatalog.modelJSonSchema(eip);
-        if (json == null) {
+        CamelSchema schema = CamelCatalogModel.modelSchema(camelCatalog, eip);
+        if (schema == null) {
             throw new IllegalArgumentException("Could not find catalog entry for model name: " + eip);
         }
 
-        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema("properties", json, true);
+        Collection<Map<String, String>> data = schema.getProperties();
 
         if (data != null) {
 
@@ -0,0 +1,249 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.camel.commands.project.helper;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import io.fabric8.forge.camel.commands.project.model.CamelEndpointDetails;
+import io.fabric8.forge.camel.commands.project.model.CamelSimpleDetails;
+import org.jboss.forge.roaster.Roaster;
+import org.jboss.forge.roaster.model.JavaType;
+import org.jboss.forge.roaster.model.source.JavaClassSource;
+
+/**
+ * An index of the Camel endpoints and simple expressions found in the java and xml source files of a project.
+ * <p/>
+ * Each file is keyed by its path and only parsed again when its size or last modified time has changed,
+ * so repeatedly scanning a large project only has to parse the files which have been edited since.
+ */
+public final class CamelEndpointIndex {
+
+    private static final int MAX_INDEXES = 50;
+
+    private static final Pattern CAMEL_ROUTES_PATTERN = Pattern.compile("<([A-Za-z_][\\w.-]*:)?(camelContext|routes)");
+
+    /**
+     * The indexes of the most recently used projects; the others are parsed again when they are next used
+     */
+    private static final Map<String, CamelEndpointIndex> INDEXES = new LinkedHashMap<String, CamelEndpointIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CamelEndpointIndex> eldest) {
+            return size() > MAX_INDEXES;
+        }
+    };
+
+    private final String projectDir;
+    private final ConcurrentMap<String, FileEntry> entries = new ConcurrentHashMap<>();
+
+    private CamelEndpointIndex(String projectDir) {
+        this.projectDir = projectDir;
+    }
+
+    /**
+     * Returns the index for the project in the given directory
+     */
+    public static CamelEndpointIndex getInstance(String projectDir) {
+        synchronized (INDEXES) {
+            CamelEndpointIndex answer = INDEXES.get(projectDir);
+            if (answer == null) {
+                answer = new CamelEndpointIndex(projectDir);
+                INDEXES.put(projectDir, answer);
+            }
+            return answer;
+        }
+    }
+
+    public String getProjectDir() {
+        return projectDir;
+    }
+
+    /**
+     * Returns the parsed details of the given java source file
+     *
+     * @param file                         the java source file
+     * @param baseDir                      the source directory the file names are relative to
+     * @param includeInlinedRouteBuilders  whether to include inlined route builders (such as in unit tests)
+     */
+    public FileEntry javaFile(File file, String baseDir, boolean includeInlinedRouteBuilders) throws IOException {
+        String key = "java:" + includeInlinedRouteBuilders + ":" + baseDir + ":" + file.getPath();
+        FileEntry entry = entries.get(key);
+        if (entry == null || !entry.isUpToDate(file)) {
+            entry = parseJavaFile(file, baseDir, includeInlinedRouteBuilders);
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the parsed details of the given xml file
+     *
+     * @param file    the xml file
+     * @param baseDir the resource directory the file names are relative to
+     */
+    public FileEntry xmlFile(File file, String baseDir) throws IOException {
+        String key = "xml:" + baseDir + ":" + file.getPath();
+        FileEntry entry = entries.get(key);
+        if (entry == null || !entry.isUpToDate(file)) {
+            entry = parseXmlFile(file, baseDir);
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Removes the entries of the files which have been deleted, so a project which is scanned again
+     * does not keep the details of its old files
+     */
+    public void removeDeletedFiles() {
+        Iterator<FileEntry> iter = entries.values().iterator();
+        while (iter.hasNext()) {
+            if (!iter.next().file.exists()) {
+                iter.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all the entries so every file is parsed again
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static FileEntry parseJavaFile(File file, String baseDir, boolean includeInlinedRouteBuilders) throws IOException {
+        long lastModified = file.lastModified();
+        long length = file.length();
+
+        String className = null;
+        List<CamelEndpointDetails> endpoints = new ArrayList<>();
+        List<CamelSimpleDetails> simpleExpressions = new ArrayList<>();
+        List<String> unparsable = new ArrayList<>();
+
+        // we should only parse java classes (not interfaces and enums etc)
+        JavaType out = Roaster.parse(file);
+        if (out instanceof JavaClassSource) {
+            JavaClassSource clazz = (JavaClassSource) out;
+            className = clazz.getQualifiedName();
+            String fqn = file.getPath();
+            RouteBuilderParser.parseRouteBuilderEndpoints(clazz, baseDir, fqn, endpoints, unparsable, includeInlinedRouteBuilders);
+            RouteBuilderParser.parseRouteBuilderSimpleExpressions(clazz, baseDir, fqn, simpleExpressions);
+        }
+        return new FileEntry(file, lastModified, length, className, className != null, endpoints, simpleExpressions, unparsable);
+    }
+
+    private static FileEntry parseXmlFile(File file, String baseDir) throws IOException {
+        long lastModified = file.lastModified();
+        long length = file.length();
+
+        byte[] data = Files.readAllBytes(file.toPath());
+        String contents = new String(data, StandardCharsets.UTF_8);
+        boolean camel = containsCamelRoutes(contents);
+
+        List<CamelEndpointDetails> endpoints = new ArrayList<>();
+        List<CamelSimpleDetails> simpleExpressions = new ArrayList<>();
+        if (camel) {
+            String fqn = file.getPath();
+            try {
+                XmlRouteParser.parseXmlRouteEndpoints(new ByteArrayInputStream(data), baseDir, fqn, endpoints);
+                XmlRouteParser.parseXmlRouteSimpleExpressions(new ByteArrayInputStream(data), baseDir, fqn, simpleExpressions);
+            } catch (Exception e) {
+                throw new IOException("Error parsing xml file " + file + " due " + e.getMessage(), e);
+            }
+        }
+        return new FileEntry(file, lastModified, length, null, camel, endpoints, simpleExpressions, Collections.<String>emptyList());
+    }
+
+    public static boolean containsCamelRoutes(String contents) {
+        // must contain <camelContext... or <routes... which may have a namespace prefix such as <camel:camelContext...
+        return contents != null && CAMEL_ROUTES_PATTERN.matcher(contents).find();
+    }
+
+    /**
+     * The details parsed from a single file
+     */
+    public static final class FileEntry {
+        private final File file;
+        private final long lastModified;
+        private final long length;
+        private final String className;
+        private final boolean camel;
+        private final List<CamelEndpointDetails> endpoints;
+        private final List<CamelSimpleDetails> simpleExpressions;
+        private final List<String> unparsable;
+
+        FileEntry(File file, long lastModified, long length, String className, boolean camel, List<CamelEndpointDetails> endpoints,
+                  List<CamelSimpleDetails> simpleExpressions, List<String> unparsable) {
+            this.file = file;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.className = className;
+            this.camel = camel;
+            this.endpoints = Collections.unmodifiableList(endpoints);
+            this.simpleExpressions = Collections.unmodifiableList(simpleExpressions);
+            this.unparsable = Collections.unmodifiableList(unparsable);
+        }
+
+        boolean isUpToDate(File file) {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+
+        /**
+         * The qualified class name of a java source file, or null if its an xml file or not a java class
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * Whether the file is a java class or an xml file with Camel routes
+         */
+        public boolean isCamel() {
+            return camel;
+        }
+
+        public List<CamelEndpointDetails> getEndpoints() {
+            return endpoints;
+        }
+
+        public List<CamelSimpleDetails> getSimpleExpressions() {
+            return simpleExpressions;
+        }
+
+        /**
+         * The endpoint uris in a java source file which could not be parsed
+         */
+        public List<String> getUnparsable() {
+            return unparsable;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
 import io.fabric8.camel.tooling.util.CamelModelHelper;
+import io.fabric8.camel.tooling.util.JaxbContexts;
 import io.fabric8.camel.tooling.util.RouteXml;
 import io.fabric8.camel.tooling.util.XmlModel;
 import io.fabric8.forge.addon.utils.CommandHelpers;
@@ -432,7 +433,7 @@ public final class CamelXmlHelper {
      * @throws JAXBException is throw if error marshalling to XML
      */
     public static String dumpModelAsXml(Object definition, ClassLoader classLoader, boolean includeEndTag, int indent) throws JAXBException, XMLStreamException {
-        JAXBContext jaxbContext = JAXBContext.newInstance(JAXB_CONTEXT_PACKAGES, classLoader);
+        JAXBContext jaxbContext = JaxbContexts.getContext(JAXB_CONTEXT_PACKAGES, classLoader);
 
         StringWriter buffer = new StringWriter();
 
@@ -442,11 +443,15 @@ public final class CamelXmlHelper {
         // we do not want to include the customId attribute
         writer.setSkipAttributes("customId");
 
-        Marshaller marshaller = jaxbContext.createMarshaller();
-        marshaller.setProperty(Marshaller.JAXB_SCHEMA_LOCATION, "");
-        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
-        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-        marshaller.marshal(definition, writer);
+        Marshaller marshaller = JaxbContexts.acquireMarshaller(jaxbContext);
+        try {
+            marshaller.setProperty(Marshaller.JAXB_SCHEMA_LOCATION, "");
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+            marshaller.marshal(definition, writer);
+        } finally {
+            JaxbContexts.releaseMarshaller(jaxbContext, marshaller);
+        }
 
         String answer = buffer.toString();
 
@@ -501,12 +506,14 @@ public final class CamelXmlHelper {
      * @throws JAXBException is throw if error unmarshalling XML to Object
      */
     public static Object xmlAsModel(Node node, ClassLoader classLoader) throws JAXBException {
-        JAXBContext jaxbContext = JAXBContext.newInstance(JAXB_CONTEXT_PACKAGES, classLoader);
-
-        Unmarshaller marshaller = jaxbContext.createUnmarshaller();
-        Object answer = marshaller.unmarshal(node);
+        JAXBContext jaxbContext = JaxbContexts.getContext(JAXB_CONTEXT_PACKAGES, classLoader);
 
-        return answer;
+        Unmarshaller marshaller = JaxbContexts.acquireUnmarshaller(jaxbContext);
+        try {
+            return marshaller.unmarshal(node);
+        } finally {
+            JaxbContexts.releaseUnmarshaller(jaxbContext, marshaller);
+        }
     }
 
     public static boolean isCamelContextOrRoutesNode(Node camel) {
@@ -0,0 +1,159 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.camel.commands.project.helper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+import static io.fabric8.forge.addon.utils.VersionHelper.loadText;
+
+/**
+ * Reads the custom Camel components from the JARs of the project dependencies.
+ * <p/>
+ * Each JAR is opened once to read the component properties, the component classes and their JSon schemas;
+ * the result is cached by the artifact coordinates and the last modified time of the JAR so that
+ * unchanged dependencies are never opened again.
+ */
+public final class CustomComponentJars {
+
+    public static final String COMPONENT_PROPERTIES = "META-INF/services/org/apache/camel/component.properties";
+    public static final String COMPONENT_SERVICES = "META-INF/services/org/apache/camel/component/";
+
+    private static final ConcurrentMap<String, CachedJar> CACHE = new ConcurrentHashMap<>();
+
+    private CustomComponentJars() {
+    }
+
+    /**
+     * Returns the components in the JAR keyed by the component scheme
+     *
+     * @param coordinates the coordinates of the artifact of the JAR
+     * @param file        the JAR file
+     * @return the components or an empty map if the file is not a JAR with Camel components
+     */
+    public static Map<String, CustomComponent> getComponents(String coordinates, File file) {
+        if (file == null || !file.getName().toLowerCase().endsWith(".jar") || !file.isFile()) {
+            return Collections.emptyMap();
+        }
+        String key = coordinates + "|" + file.getAbsolutePath();
+        long lastModified = file.lastModified();
+        CachedJar cached = CACHE.get(key);
+        if (cached == null || cached.lastModified != lastModified) {
+            cached = new CachedJar(lastModified, readComponents(file));
+            CACHE.put(key, cached);
+        }
+        return cached.components;
+    }
+
+    /**
+     * Reads the component properties, the class of each component and its JSon schema using a single open of the JAR
+     */
+    public static Map<String, CustomComponent> readComponents(File file) {
+        Map<String, CustomComponent> answer = new LinkedHashMap<>();
+        try (JarFile jar = new JarFile(file)) {
+            Properties properties = loadProperties(jar, COMPONENT_PROPERTIES);
+            String components = properties != null ? properties.getProperty("components") : null;
+            if (components != null) {
+                for (String scheme : components.split("\\s")) {
+                    if (scheme.isEmpty()) {
+                        continue;
+                    }
+                    Properties service = loadProperties(jar, COMPONENT_SERVICES + scheme);
+                    String javaType = service != null ? service.getProperty("class") : null;
+                    String json = null;
+                    if (javaType != null) {
+                        int pos = javaType.lastIndexOf(".");
+                        String path = javaType.substring(0, pos).replace('.', '/') + "/" + scheme + ".json";
+                        ZipEntry entry = jar.getEntry(path);
+                        if (entry != null) {
+                            try (InputStream is = jar.getInputStream(entry)) {
+                                json = loadText(is);
+                            }
+                        }
+                    }
+                    answer.put(scheme, new CustomComponent(scheme, javaType, json));
+                }
+            }
+        } catch (Throwable e) {
+            // ignore
+        }
+        return answer;
+    }
+
+    private static Properties loadProperties(JarFile jar, String path) throws IOException {
+        ZipEntry entry = jar.getEntry(path);
+        if (entry == null) {
+            return null;
+        }
+        Properties answer = new Properties();
+        try (InputStream is = jar.getInputStream(entry)) {
+            answer.load(is);
+        }
+        return answer;
+    }
+
+    private static final class CachedJar {
+        private final long lastModified;
+        private final Map<String, CustomComponent> components;
+
+        CachedJar(long lastModified, Map<String, CustomComponent> components) {
+            this.lastModified = lastModified;
+            this.components = Collections.unmodifiableMap(components);
+        }
+    }
+
+    /**
+     * A custom Camel component found in a JAR
+     */
+    public static final class CustomComponent {
+        private final String scheme;
+        private final String javaType;
+        private final String json;
+
+        CustomComponent(String scheme, String javaType, String json) {
+            this.scheme = scheme;
+            this.javaType = javaType;
+            this.json = json;
+        }
+
+        public String getScheme() {
+            return scheme;
+        }
+
+        /**
+         * The class name of the component or null if the JAR has no service file for it
+         */
+        public String getJavaType() {
+            return javaType;
+        }
+
+        /**
+         * The JSon schema of the component or null if the JAR does not include it
+         */
+        public String getJson() {
+            return json;
+        }
+    }
+}
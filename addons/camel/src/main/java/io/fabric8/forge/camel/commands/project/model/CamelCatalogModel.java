@@ -0,0 +1,222 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.camel.commands.project.model;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.apache.camel.catalog.CamelCatalog;
+
+/**
+ * A cache of the parsed JSON schemas of a Camel catalog version; so that each component, EIP, data format
+ * and language schema is only parsed once and then shared across all the commands.
+ * <p/>
+ * The schemas are parsed lazily on first use and re-parsed if the catalog returns different JSON for a name,
+ * which happens when custom components are added to the catalog.
+ * <p/>
+ * It also keeps a reverse index from maven artifactId to the components, data formats and languages the artifact
+ * provides, which is built on first use and then rebuilt whenever the set of names in the catalog changes.
+ */
+public final class CamelCatalogModel {
+
+    private static final ConcurrentMap<String, CamelCatalogModel> MODELS = new ConcurrentHashMap<>();
+
+    private final String version;
+    private final ConcurrentMap<String, CamelSchema> components = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CamelSchema> models = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CamelSchema> dataFormats = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CamelSchema> languages = new ConcurrentHashMap<>();
+    private final ArtifactIndex componentArtifacts = new ArtifactIndex("scheme");
+    private final ArtifactIndex dataFormatArtifacts = new ArtifactIndex("name");
+    private final ArtifactIndex languageArtifacts = new ArtifactIndex("name");
+
+    private CamelCatalogModel(String version) {
+        this.version = version;
+    }
+
+    /**
+     * Returns the model for the version of the given catalog
+     */
+    public static CamelCatalogModel getInstance(CamelCatalog camelCatalog) {
+        String version = camelCatalog.getLoadedVersion();
+        if (version == null) {
+            version = camelCatalog.getCatalogVersion();
+        }
+        CamelCatalogModel answer = MODELS.get(version);
+        if (answer == null) {
+            CamelCatalogModel model = new CamelCatalogModel(version);
+            answer = MODELS.putIfAbsent(version, model);
+            if (answer == null) {
+                answer = model;
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the parsed schema of the given component or null if the catalog has no such component
+     */
+    public static CamelSchema componentSchema(CamelCatalog camelCatalog, String scheme) {
+        return getInstance(camelCatalog).getSchema(camelCatalog.componentJSonSchema(scheme), scheme, "component");
+    }
+
+    /**
+     * Returns the parsed schema of the given EIP model or null if the catalog has no such model
+     */
+    public static CamelSchema modelSchema(CamelCatalog camelCatalog, String modelName) {
+        return getInstance(camelCatalog).getSchema(camelCatalog.modelJSonSchema(modelName), modelName, "model");
+    }
+
+    /**
+     * Returns the parsed schema of the given data format or null if the catalog has no such data format
+     */
+    public static CamelSchema dataFormatSchema(CamelCatalog camelCatalog, String name) {
+        return getInstance(camelCatalog).getSchema(camelCatalog.dataFormatJSonSchema(name), name, "dataformat");
+    }
+
+    /**
+     * Returns the parsed schema of the given language or null if the catalog has no such language
+     */
+    public static CamelSchema languageSchema(CamelCatalog camelCatalog, String name) {
+        return getInstance(camelCatalog).getSchema(camelCatalog.languageJSonSchema(name), name, "language");
+    }
+
+    /**
+     * Returns the names of the components which the given maven artifact provides
+     */
+    public static Set<String> componentsFromArtifact(CamelCatalog camelCatalog, String artifactId) {
+        return getInstance(camelCatalog).componentArtifacts.find(camelCatalog.findComponentNames(), artifactId,
+                name -> componentSchema(camelCatalog, name));
+    }
+
+    /**
+     * Returns the names of the data formats which the given maven artifact provides
+     */
+    public static Set<String> dataFormatsFromArtifact(CamelCatalog camelCatalog, String artifactId) {
+        return getInstance(camelCatalog).dataFormatArtifacts.find(camelCatalog.findDataFormatNames(), artifactId,
+                name -> dataFormatSchema(camelCatalog, name));
+    }
+
+    /**
+     * Returns the names of the languages which the given maven artifact provides
+     */
+    public static Set<String> languagesFromArtifact(CamelCatalog camelCatalog, String artifactId) {
+        return getInstance(camelCatalog).languageArtifacts.find(camelCatalog.findLanguageNames(), artifactId,
+                name -> languageSchema(camelCatalog, name));
+    }
+
+    /**
+     * Rebuilds the component artifact index on next use as the given component has just been added to the catalog;
+     * possibly replacing a component of the same name from another artifact
+     */
+    public static void onComponentAdded(CamelCatalog camelCatalog, String scheme) {
+        getInstance(camelCatalog).componentArtifacts.invalidate();
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    private CamelSchema getSchema(String json, String name, String kind) {
+        if (json == null || name == null) {
+            return null;
+        }
+        ConcurrentMap<String, CamelSchema> cache = getCache(kind);
+        CamelSchema answer = cache.get(name);
+        // the catalog caches its JSON so its normally the same instance
+        if (answer == null || (answer.getJson() != json && !answer.getJson().equals(json))) {
+            answer = new CamelSchema(json, kind, "component".equals(kind));
+            cache.put(name, answer);
+        }
+        return answer;
+    }
+
+    private ConcurrentMap<String, CamelSchema> getCache(String kind) {
+        switch (kind) {
+        case "component":
+            return components;
+        case "model":
+            return models;
+        case "dataformat":
+            return dataFormats;
+        default:
+            return languages;
+        }
+    }
+
+    /**
+     * A multimap of artifactId to the names provided by the artifact
+     */
+    private static final class ArtifactIndex {
+        private final String nameKey;
+        private volatile Index index;
+
+        ArtifactIndex(String nameKey) {
+            this.nameKey = nameKey;
+        }
+
+        Set<String> find(List<String> names, String artifactId, Function<String, CamelSchema> schemas) {
+            Index current = index;
+            Set<String> nameSet = new HashSet<>(names);
+            if (current == null || !current.names.equals(nameSet)) {
+                // a name may have been replaced by another from a different artifact so lets index them all again
+                Map<String, Set<String>> artifacts = new HashMap<>();
+                for (String name : nameSet) {
+                    CamelSchema schema = schemas.apply(name);
+                    if (schema != null) {
+                        String id = schema.getMetadata("artifactId");
+                        String value = schema.getMetadata(nameKey);
+                        if (id != null && value != null) {
+                            artifacts.computeIfAbsent(id, k -> new TreeSet<>()).add(value);
+                        }
+                    }
+                }
+                current = new Index(nameSet, artifacts);
+                index = current;
+            }
+            Set<String> answer = new TreeSet<>();
+            Set<String> found = artifactId != null ? current.artifacts.get(artifactId) : null;
+            if (found != null) {
+                answer.addAll(found);
+            }
+            return answer;
+        }
+
+        void invalidate() {
+            index = null;
+        }
+    }
+
+    /**
+     * The names which were indexed and the artifacts providing them; which is replaced rather than modified
+     */
+    private static final class Index {
+        private final Set<String> names;
+        private final Map<String, Set<String>> artifacts;
+
+        Index(Set<String> names, Map<String, Set<String>> artifacts) {
+            this.names = names;
+            this.artifacts = artifacts;
+        }
+    }
+}
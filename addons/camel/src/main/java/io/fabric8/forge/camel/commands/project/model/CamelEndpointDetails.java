@@ -15,7 +15,11 @@
  */
 package io.fabric8.forge.camel.commands.project.model;
 
-public class CamelEndpointDetails {
+import java.io.Serializable;
+
+public class CamelEndpointDetails implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String fileName;
     private String lineNumber;
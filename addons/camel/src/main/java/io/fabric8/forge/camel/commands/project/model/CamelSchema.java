@@ -0,0 +1,139 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.camel.commands.project.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.camel.catalog.JSonSchemaHelper;
+
+/**
+ * A parsed Camel JSON schema of a component, EIP, data format or language from the Camel catalog
+ * with its options indexed by name so they can be looked up without parsing the JSON again.
+ */
+public final class CamelSchema {
+
+    private final String json;
+    private final Map<String, String> metadata;
+    private final Map<String, Map<String, String>> properties;
+    private final Map<String, Map<String, String>> componentProperties;
+
+    CamelSchema(String json, String kind, boolean component) {
+        this.json = json;
+        this.metadata = Collections.unmodifiableMap(parseMetadata(kind, json));
+        this.properties = Collections.unmodifiableMap(parseOptions("properties", json));
+        if (component) {
+            this.componentProperties = Collections.unmodifiableMap(parseOptions("componentProperties", json));
+        } else {
+            this.componentProperties = Collections.emptyMap();
+        }
+    }
+
+    /**
+     * The JSON schema this model was parsed from
+     */
+    public String getJson() {
+        return json;
+    }
+
+    /**
+     * The values of the top level section of the schema such as <tt>scheme</tt>, <tt>javaType</tt> or <tt>artifactId</tt>
+     */
+    public Map<String, String> getMetadata() {
+        return metadata;
+    }
+
+    public String getMetadata(String key) {
+        return metadata.get(key);
+    }
+
+    /**
+     * The options (the endpoint options for a component) in the order they are declared in the schema
+     */
+    public Collection<Map<String, String>> getProperties() {
+        return properties.values();
+    }
+
+    /**
+     * Returns the option with the given name or null if there is no such option
+     */
+    public Map<String, String> getProperty(String name) {
+        return name != null ? properties.get(name) : null;
+    }
+
+    /**
+     * The component level options in the order they are declared in the schema
+     */
+    public Collection<Map<String, String>> getComponentProperties() {
+        return componentProperties.values();
+    }
+
+    /**
+     * Returns the component level option with the given name or null if there is no such option
+     */
+    public Map<String, String> getComponentProperty(String name) {
+        return name != null ? componentProperties.get(name) : null;
+    }
+
+    /**
+     * Returns the value of the given attribute of the option or null if there is no such option
+     */
+    public String getPropertyValue(String name, String attribute) {
+        Map<String, String> row = getProperty(name);
+        return row != null ? row.get(attribute) : null;
+    }
+
+    /**
+     * Returns the value of the given attribute of the component level option or null if there is no such option
+     */
+    public String getComponentPropertyValue(String name, String attribute) {
+        Map<String, String> row = getComponentProperty(name);
+        return row != null ? row.get(attribute) : null;
+    }
+
+    private static Map<String, String> parseMetadata(String kind, String json) {
+        Map<String, String> answer = new LinkedHashMap<>();
+        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema(kind, json, false);
+        if (data != null) {
+            for (Map<String, String> row : data) {
+                for (Map.Entry<String, String> entry : row.entrySet()) {
+                    if (entry.getValue() != null) {
+                        answer.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        }
+        return answer;
+    }
+
+    private static Map<String, Map<String, String>> parseOptions(String group, String json) {
+        Map<String, Map<String, String>> answer = new LinkedHashMap<>();
+        List<Map<String, String>> data = JSonSchemaHelper.parseJsonSchema(group, json, true);
+        if (data != null) {
+            for (Map<String, String> row : data) {
+                String name = row.get("name");
+                // the first option wins just like the linear scans over the parsed schema did
+                if (name != null && !answer.containsKey(name)) {
+                    answer.put(name, Collections.unmodifiableMap(row));
+                }
+            }
+        }
+        return answer;
+    }
+}
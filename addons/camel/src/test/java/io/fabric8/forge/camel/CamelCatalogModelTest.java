@@ -0,0 +1,97 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.camel;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import io.fabric8.forge.camel.commands.project.helper.CamelCatalogHelper;
+import io.fabric8.forge.camel.commands.project.helper.CamelCatalogService;
+import io.fabric8.forge.camel.commands.project.model.CamelCatalogModel;
+import io.fabric8.forge.camel.commands.project.model.CamelSchema;
+import org.apache.camel.catalog.CamelCatalog;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CamelCatalogModelTest {
+
+    @Test
+    public void testComponentSchemaIsParsedOnce() {
+        CamelCatalog camelCatalog = new CamelCatalogService().createCamelCatalog();
+        CamelSchema schema = CamelCatalogModel.componentSchema(camelCatalog, "timer");
+        CamelSchema schema2 = CamelCatalogModel.componentSchema(camelCatalog, "timer");
+
+        Assert.assertNotNull(schema);
+        Assert.assertSame(schema, schema2);
+        Assert.assertEquals("timer", schema.getMetadata("scheme"));
+        Assert.assertEquals("camel-core", schema.getMetadata("artifactId"));
+        Assert.assertEquals("1000", schema.getPropertyValue("period", "defaultValue"));
+        Assert.assertNull(CamelCatalogModel.componentSchema(camelCatalog, "doesNotExist"));
+    }
+
+    @Test
+    public void testCatalogHelperUsesModel() {
+        CamelCatalog camelCatalog = new CamelCatalogService().createCamelCatalog();
+
+        Assert.assertTrue(CamelCatalogHelper.isDefaultValue(camelCatalog, "timer", "period", "1000"));
+        Assert.assertFalse(CamelCatalogHelper.isDefaultValue(camelCatalog, "timer", "period", "2000"));
+        Assert.assertTrue(CamelCatalogHelper.isComponentConsumerOnly(camelCatalog, "timer"));
+        Assert.assertFalse(CamelCatalogHelper.isComponentProducerOnly(camelCatalog, "timer"));
+        Assert.assertEquals("org.apache.camel.model.LogDefinition", CamelCatalogHelper.getModelJavaType(camelCatalog, "log"));
+        Assert.assertTrue(CamelCatalogHelper.isModelSupportOutput(camelCatalog, "filter"));
+    }
+
+    @Test
+    public void testArtifactIndex() {
+        CamelCatalog camelCatalog = new CamelCatalogService().createCamelCatalog();
+
+        Assert.assertTrue(CamelCatalogHelper.componentsFromArtifact(camelCatalog, "camel-core").contains("timer"));
+        Assert.assertTrue(CamelCatalogHelper.componentsFromArtifact(camelCatalog, "camel-ftp").contains("sftp"));
+        Assert.assertFalse(CamelCatalogHelper.componentsFromArtifact(camelCatalog, "camel-ftp").contains("timer"));
+        Assert.assertTrue(CamelCatalogHelper.dataFormatsFromArtifact(camelCatalog, "camel-jaxb").contains("jaxb"));
+        Assert.assertTrue(CamelCatalogHelper.languagesFromArtifact(camelCatalog, "camel-core").contains("simple"));
+        Assert.assertTrue(CamelCatalogHelper.componentsFromArtifact(camelCatalog, "does-not-exist").isEmpty());
+    }
+
+    @Test
+    public void testArtifactIndexIsRebuiltWhenNamesChange() {
+        final CamelCatalog delegate = new CamelCatalogService().createCamelCatalog();
+        final List<String> names = new ArrayList<>(Arrays.asList("timer", "sftp"));
+        CamelCatalog camelCatalog = (CamelCatalog) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{CamelCatalog.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("findComponentNames")) {
+                            return new ArrayList<>(names);
+                        } else if (method.getName().equals("getLoadedVersion")) {
+                            return "artifact-index-test";
+                        }
+                        return method.invoke(delegate, args);
+                    }
+                });
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("sftp")), CamelCatalogHelper.componentsFromArtifact(camelCatalog, "camel-ftp"));
+
+        // replacing a component keeps the same number of names
+        names.set(1, "file");
+        Assert.assertTrue(CamelCatalogHelper.componentsFromArtifact(camelCatalog, "camel-ftp").isEmpty());
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("file", "timer")), CamelCatalogHelper.componentsFromArtifact(camelCatalog, "camel-core"));
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.camel.helper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Map;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import io.fabric8.forge.camel.commands.project.helper.CustomComponentJars;
+import io.fabric8.forge.camel.commands.project.helper.CustomComponentJars.CustomComponent;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CustomComponentJarsTest {
+
+    @Test
+    public void testComponentsAreReadOnceUntilTheJarChanges() throws Exception {
+        File file = new File("target/custom-components/my-component.jar");
+        file.getParentFile().mkdirs();
+        writeJar(file, "{ \"component\": {} }");
+
+        Map<String, CustomComponent> components = CustomComponentJars.getComponents("com.foo:my-component:1.0", file);
+        Assert.assertEquals(1, components.size());
+        CustomComponent component = components.get("my");
+        Assert.assertEquals("com.foo.MyComponent", component.getJavaType());
+        Assert.assertEquals("{ \"component\": {} }", component.getJson().trim());
+        Assert.assertSame(components, CustomComponentJars.getComponents("com.foo:my-component:1.0", file));
+
+        // change the jar so its read again
+        writeJar(file, "{ \"component\": { \"scheme\": \"my\" } }");
+        file.setLastModified(file.lastModified() + 2000);
+
+        Map<String, CustomComponent> changed = CustomComponentJars.getComponents("com.foo:my-component:1.0", file);
+        Assert.assertNotSame(components, changed);
+        Assert.assertEquals("{ \"component\": { \"scheme\": \"my\" } }", changed.get("my").getJson().trim());
+    }
+
+    private static void writeJar(File file, String json) throws Exception {
+        try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file))) {
+            jar.putNextEntry(new ZipEntry(CustomComponentJars.COMPONENT_PROPERTIES));
+            jar.write("components=my\n".getBytes("UTF-8"));
+            jar.putNextEntry(new ZipEntry(CustomComponentJars.COMPONENT_SERVICES + "my"));
+            jar.write("class=com.foo.MyComponent\n".getBytes("UTF-8"));
+            jar.putNextEntry(new ZipEntry("com/foo/my.json"));
+            jar.write(json.getBytes("UTF-8"));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.camel.xml;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import io.fabric8.forge.camel.commands.project.helper.CamelEndpointIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CamelEndpointIndexTest {
+
+    @Test
+    public void testXmlFileIsOnlyParsedWhenChanged() throws Exception {
+        File file = new File("target/endpoint-index/mycamel.xml");
+        file.getParentFile().mkdirs();
+        Files.copy(new File("src/test/resources/io/fabric8/forge/camel/xml/mycamel.xml").toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        CamelEndpointIndex index = CamelEndpointIndex.getInstance("target/endpoint-index");
+        index.clear();
+
+        CamelEndpointIndex.FileEntry entry = index.xmlFile(file, "target/endpoint-index");
+        Assert.assertTrue(entry.isCamel());
+        Assert.assertEquals("stream:in?promptMessage=Enter something:", entry.getEndpoints().get(0).getEndpointUri());
+        Assert.assertEquals("stream:out", entry.getEndpoints().get(1).getEndpointUri());
+        Assert.assertSame(entry, index.xmlFile(file, "target/endpoint-index"));
+
+        // change the file so its parsed again
+        String xml = new String(Files.readAllBytes(file.toPath()), "UTF-8");
+        Files.write(file.toPath(), xml.replace("stream:out", "log:out").getBytes("UTF-8"));
+
+        CamelEndpointIndex.FileEntry changed = index.xmlFile(file, "target/endpoint-index");
+        Assert.assertNotSame(entry, changed);
+        Assert.assertEquals("log:out", changed.getEndpoints().get(1).getEndpointUri());
+    }
+
+    @Test
+    public void testDeletedFilesAreRemoved() throws Exception {
+        File file = new File("target/endpoint-index-deleted/mycamel.xml");
+        file.getParentFile().mkdirs();
+        Files.copy(new File("src/test/resources/io/fabric8/forge/camel/xml/mycamel.xml").toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        CamelEndpointIndex index = CamelEndpointIndex.getInstance("target/endpoint-index-deleted");
+        index.clear();
+        index.xmlFile(file, "target/endpoint-index-deleted");
+        index.removeDeletedFiles();
+        Assert.assertEquals(1, index.size());
+
+        Assert.assertTrue(file.delete());
+        index.removeDeletedFiles();
+        Assert.assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testContainsCamelRoutes() throws Exception {
+        Assert.assertTrue(CamelEndpointIndex.containsCamelRoutes("<beans><camelContext id=\"a\"/></beans>"));
+        Assert.assertTrue(CamelEndpointIndex.containsCamelRoutes("<routes xmlns=\"http://camel.apache.org/schema/spring\"/>"));
+        Assert.assertTrue(CamelEndpointIndex.containsCamelRoutes("<beans><camel:camelContext id=\"a\"/></beans>"));
+        Assert.assertTrue(CamelEndpointIndex.containsCamelRoutes("<c:routes xmlns:c=\"http://camel.apache.org/schema/spring\"/>"));
+        Assert.assertFalse(CamelEndpointIndex.containsCamelRoutes("<beans><bean id=\"camelContext\"/></beans>"));
+        Assert.assertFalse(CamelEndpointIndex.containsCamelRoutes(null));
+    }
+
+}
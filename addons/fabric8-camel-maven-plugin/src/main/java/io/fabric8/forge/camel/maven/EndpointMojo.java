@@ -16,15 +16,18 @@
 package io.fabric8.forge.camel.maven;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import io.fabric8.forge.camel.commands.project.helper.RouteBuilderParser;
-import io.fabric8.forge.camel.commands.project.helper.XmlRouteParser;
+import io.fabric8.forge.camel.commands.project.helper.CamelEndpointIndex;
 import io.fabric8.forge.camel.commands.project.model.CamelEndpointDetails;
 import io.fabric8.forge.camel.commands.project.model.CamelSimpleDetails;
 import org.apache.camel.catalog.CamelCatalog;
@@ -43,9 +46,6 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
-import org.jboss.forge.roaster.Roaster;
-import org.jboss.forge.roaster.model.JavaType;
-import org.jboss.forge.roaster.model.source.JavaClassSource;
 
 /**
  * Analyses the project source code for Camel routes, and validates the endpoint uris and simple expressions.
@@ -54,6 +54,8 @@ import org.jboss.forge.roaster.model.source.JavaClassSource;
         requiresDependencyCollection = ResolutionScope.COMPILE_PLUS_RUNTIME, requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME)
 public class EndpointMojo extends AbstractMojo {
 
+    private static final String CACHE_FILE = "fabric8-camel-maven-plugin/validate-cache.ser";
+
     @Parameter(defaultValue = "${project}", readonly = true, required = true)
     private MavenProject project;
 
@@ -134,6 +136,20 @@ public class EndpointMojo extends AbstractMojo {
     @Parameter(property = "downloadVersion", defaultValue = "true", readonly = true, required = false)
     private boolean downloadVersion;
 
+    /**
+     * The number of threads used to parse the source files and validate the endpoints and simple expressions.
+     * The report is always in the same order regardless of the number of threads.
+     */
+    @Parameter(property = "threads", defaultValue = "1", readonly = true, required = false)
+    private int threads;
+
+    /**
+     * Whether to only parse and validate the files which has changed since the last run. The results of each file are
+     * stored in the target directory, and are discarded when the Camel version or the configuration is changed.
+     */
+    @Parameter(property = "incremental", defaultValue = "false", readonly = true, required = false)
+    private boolean incremental;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         CamelCatalog catalog = new DefaultCamelCatalog();
@@ -143,8 +159,10 @@ public class EndpointMojo extends AbstractMojo {
         catalog.setSuggestionStrategy(new LuceneSuggestionStrategy());
         // enable loading other catalog versions dynamically
         catalog.setVersionManager(new MavenVersionManager());
-        // enable caching
-        catalog.enableCache();
+        // enable caching (the cache is not thread safe so we only use it when running with a single thread)
+        if (threads <= 1) {
+            catalog.enableCache();
+        }
 
         if (downloadVersion) {
             String catalogVersion = catalog.getCatalogVersion();
@@ -199,71 +217,101 @@ public class EndpointMojo extends AbstractMojo {
             }
         }
 
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            validate(catalog, pool, javaFiles, xmlFiles, endpoints, simpleExpressions);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private void validate(CamelCatalog catalog, ForkJoinPool pool, Set<File> javaFiles, Set<File> xmlFiles,
+                          List<CamelEndpointDetails> endpoints, List<CamelSimpleDetails> simpleExpressions) throws MojoExecutionException, MojoFailureException {
+        CamelEndpointIndex index = CamelEndpointIndex.getInstance(project.getBasedir().getPath());
+        EndpointResultCache cache = null;
+        if (incremental) {
+            cache = EndpointResultCache.load(new File(project.getBuild().getDirectory(), CACHE_FILE), cacheKey(catalog));
+            getLog().debug("Loaded " + cache.size() + " cached results from " + CACHE_FILE);
+        }
+
+        List<File> javaFileList = new ArrayList<>();
         for (File file : javaFiles) {
             if (matchFile(file)) {
-                try {
-                    List<CamelEndpointDetails> fileEndpoints = new ArrayList<>();
-                    List<CamelSimpleDetails> fileSimpleExpressions = new ArrayList<>();
-                    List<String> unparsable = new ArrayList<>();
-
-                    // parse the java source code and find Camel RouteBuilder classes
-                    String fqn = file.getPath();
-                    String baseDir = ".";
-                    JavaType out = Roaster.parse(file);
-                    // we should only parse java classes (not interfaces and enums etc)
-                    if (out != null && out instanceof JavaClassSource) {
-                        JavaClassSource clazz = (JavaClassSource) out;
-                        RouteBuilderParser.parseRouteBuilderEndpoints(clazz, baseDir, fqn, fileEndpoints, unparsable, includeTest);
-                        RouteBuilderParser.parseRouteBuilderSimpleExpressions(clazz, baseDir, fqn, fileSimpleExpressions);
-
-                        // add what we found in this file to the total list
-                        endpoints.addAll(fileEndpoints);
-                        simpleExpressions.addAll(fileSimpleExpressions);
-
-                        // was there any unparsable?
-                        if (logUnparseable && !unparsable.isEmpty()) {
-                            for (String uri : unparsable) {
-                                getLog().warn("Cannot parse endpoint uri " + uri + " in java file " + file);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    getLog().warn("Error parsing java file " + file + " code due " + e.getMessage(), e);
-                }
+                javaFileList.add(file);
             }
         }
+        List<File> xmlFileList = new ArrayList<>();
         for (File file : xmlFiles) {
             if (matchFile(file)) {
-                try {
-                    List<CamelEndpointDetails> fileEndpoints = new ArrayList<>();
-                    List<CamelSimpleDetails> fileSimpleExpressions = new ArrayList<>();
-
-                    // parse the xml source code and find Camel routes
-                    String fqn = file.getPath();
-                    String baseDir = ".";
-
-                    InputStream is = new FileInputStream(file);
-                    XmlRouteParser.parseXmlRouteEndpoints(is, baseDir, fqn, fileEndpoints);
-                    is.close();
-                    // need a new stream
-                    is = new FileInputStream(file);
-                    XmlRouteParser.parseXmlRouteSimpleExpressions(is, baseDir, fqn, fileSimpleExpressions);
-                    is.close();
-
-                    // add what we found in this file to the total list
-                    endpoints.addAll(fileEndpoints);
-                    simpleExpressions.addAll(fileSimpleExpressions);
-                } catch (Exception e) {
-                    getLog().warn("Error parsing xml file " + file + " code due " + e.getMessage(), e);
+                xmlFileList.add(file);
+            }
+        }
+
+        // parse the java source code and find Camel RouteBuilder classes
+        EndpointResultCache fileCache = cache;
+        List<ParseResult> javaResults = inParallel(pool, javaFileList,
+                file -> parseAndValidate(catalog, fileCache, file, () -> index.javaFile(file, ".", includeTest)));
+        // parse the xml source code and find Camel routes
+        List<ParseResult> xmlResults = inParallel(pool, xmlFileList,
+                file -> parseAndValidate(catalog, fileCache, file, () -> index.xmlFile(file, ".")));
+
+        List<EndpointValidationResult> endpointResults = new ArrayList<>();
+        List<SimpleValidationResult> simpleResults = new ArrayList<>();
+        for (int i = 0; i < javaFileList.size(); i++) {
+            File file = javaFileList.get(i);
+            ParseResult result = javaResults.get(i);
+            if (result.error != null) {
+                getLog().warn("Error parsing java file " + file + " code due " + result.error.getMessage(), result.error);
+                continue;
+            }
+
+            // add what we found in this file to the total list
+            endpoints.addAll(result.result.getEndpoints());
+            endpointResults.addAll(result.result.getEndpointResults());
+            simpleExpressions.addAll(result.result.getSimpleExpressions());
+            simpleResults.addAll(result.result.getSimpleResults());
+
+            // was there any unparsable?
+            if (logUnparseable && !result.result.getUnparsable().isEmpty()) {
+                for (String uri : result.result.getUnparsable()) {
+                    getLog().warn("Cannot parse endpoint uri " + uri + " in java file " + file);
                 }
             }
         }
+        for (int i = 0; i < xmlFileList.size(); i++) {
+            File file = xmlFileList.get(i);
+            ParseResult result = xmlResults.get(i);
+            if (result.error != null) {
+                getLog().warn("Error parsing xml file " + file + " code due " + result.error.getMessage(), result.error);
+                continue;
+            }
+
+            // add what we found in this file to the total list
+            endpoints.addAll(result.result.getEndpoints());
+            endpointResults.addAll(result.result.getEndpointResults());
+            simpleExpressions.addAll(result.result.getSimpleExpressions());
+            simpleResults.addAll(result.result.getSimpleResults());
+        }
+
+        if (cache != null) {
+            List<File> files = new ArrayList<>(javaFileList);
+            files.addAll(xmlFileList);
+            cache.retainAll(files);
+            try {
+                cache.save();
+            } catch (IOException e) {
+                getLog().warn("Error saving validation results to " + CACHE_FILE + " due " + e.getMessage(), e);
+            }
+        }
 
         int endpointErrors = 0;
         int unknownComponents = 0;
         int incapableErrors = 0;
-        for (CamelEndpointDetails detail : endpoints) {
-            EndpointValidationResult result = catalog.validateEndpointProperties(detail.getEndpointUri(), ignoreLenientProperties);
+        for (int i = 0; i < endpoints.size(); i++) {
+            CamelEndpointDetails detail = endpoints.get(i);
+            EndpointValidationResult result = endpointResults.get(i);
 
             boolean ok = result.isSuccess();
             if (!ok && ignoreUnknownComponent && result.getUnknownComponent() != null) {
@@ -361,8 +409,9 @@ public class EndpointMojo extends AbstractMojo {
         }
 
         int simpleErrors = 0;
-        for (CamelSimpleDetails detail : simpleExpressions) {
-            SimpleValidationResult result = catalog.validateSimpleExpression(detail.getSimple());
+        for (int i = 0; i < simpleExpressions.size(); i++) {
+            CamelSimpleDetails detail = simpleExpressions.get(i);
+            SimpleValidationResult result = simpleResults.get(i);
             if (!result.isSuccess()) {
                 simpleErrors++;
 
@@ -449,6 +498,69 @@ public class EndpointMojo extends AbstractMojo {
         }
     }
 
+    /**
+     * Parses the file and validates its endpoints and simple expressions, or returns the cached results if the file is unchanged
+     */
+    private ParseResult parseAndValidate(CamelCatalog catalog, EndpointResultCache cache, File file, Callable<CamelEndpointIndex.FileEntry> parser) {
+        try {
+            String hash = null;
+            if (cache != null) {
+                hash = EndpointResultCache.hash(file);
+                EndpointResultCache.FileResult cached = cache.get(file, hash);
+                if (cached != null) {
+                    return new ParseResult(cached, null);
+                }
+            }
+
+            CamelEndpointIndex.FileEntry entry = parser.call();
+            List<EndpointValidationResult> endpointResults = new ArrayList<>();
+            for (CamelEndpointDetails detail : entry.getEndpoints()) {
+                endpointResults.add(catalog.validateEndpointProperties(detail.getEndpointUri(), ignoreLenientProperties));
+            }
+            List<SimpleValidationResult> simpleResults = new ArrayList<>();
+            for (CamelSimpleDetails detail : entry.getSimpleExpressions()) {
+                simpleResults.add(catalog.validateSimpleExpression(detail.getSimple()));
+            }
+
+            EndpointResultCache.FileResult answer = new EndpointResultCache.FileResult(hash, entry.getEndpoints(), endpointResults,
+                    entry.getSimpleExpressions(), simpleResults, entry.getUnparsable());
+            if (cache != null) {
+                cache.put(file, answer);
+            }
+            return new ParseResult(answer, null);
+        } catch (Exception e) {
+            return new ParseResult(null, e);
+        }
+    }
+
+    /**
+     * The key of the incremental cache which covers everything besides the file content that affects the cached results
+     */
+    private String cacheKey(CamelCatalog catalog) {
+        String version = catalog.getLoadedVersion() != null ? catalog.getLoadedVersion() : catalog.getCatalogVersion();
+        return "camel=" + version
+                + ",plugin=" + EndpointMojo.class.getPackage().getImplementationVersion()
+                + ",includeTest=" + includeTest
+                + ",ignoreLenientProperties=" + ignoreLenientProperties;
+    }
+
+    /**
+     * Applies the function to each of the items using the pool (if any) and returns the results in the same order as the items
+     */
+    private static <T, R> List<R> inParallel(ForkJoinPool pool, List<T> items, Function<T, R> function) throws MojoExecutionException {
+        if (pool == null) {
+            return items.stream().map(function).collect(Collectors.toList());
+        }
+        try {
+            return pool.submit(() -> items.parallelStream().map(function).collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while validating Camel routes", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Error validating Camel routes due " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
     private static String findCamelVersion(MavenProject project) {
         Dependency candidate = null;
 
@@ -591,4 +703,14 @@ public class EndpointMojo extends AbstractMojo {
         }
     }
 
+    private static final class ParseResult {
+        private final EndpointResultCache.FileResult result;
+        private final Exception error;
+
+        ParseResult(EndpointResultCache.FileResult result, Exception error) {
+            this.result = result;
+            this.error = error;
+        }
+    }
+
 }
@@ -0,0 +1,204 @@
+/**
+ * Copyright 2005-2015 Red Hat, Inc.
+ * <p/>
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.forge.camel.maven;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.fabric8.forge.camel.commands.project.model.CamelEndpointDetails;
+import io.fabric8.forge.camel.commands.project.model.CamelSimpleDetails;
+import org.apache.camel.catalog.EndpointValidationResult;
+import org.apache.camel.catalog.SimpleValidationResult;
+
+/**
+ * An on-disk cache of the parse and validation results of each source file, so an incremental
+ * build only has to parse and validate the files which has changed since the last run.
+ * <p/>
+ * Files are matched by a hash of their content, and the whole cache is discarded if the key
+ * (the Camel catalog version and the configuration which affects the results) has changed.
+ */
+public class EndpointResultCache {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+    private final String key;
+    private final Map<String, FileResult> results = new ConcurrentHashMap<>();
+
+    private EndpointResultCache(File file, String key) {
+        this.file = file;
+        this.key = key;
+    }
+
+    /**
+     * Loads the cache from the given file; returns an empty cache if the file does not exist,
+     * cannot be read or was written using a different key
+     */
+    @SuppressWarnings("unchecked")
+    public static EndpointResultCache load(File file, String key) {
+        EndpointResultCache answer = new EndpointResultCache(file, key);
+        if (file.isFile()) {
+            try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                int version = in.readInt();
+                String storedKey = in.readUTF();
+                if (version == FORMAT_VERSION && key.equals(storedKey)) {
+                    answer.results.putAll((Map<String, FileResult>) in.readObject());
+                }
+            } catch (Exception e) {
+                // a corrupt or incompatible cache is just ignored and rebuilt
+                answer.results.clear();
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the cached result for the source file if its content has not changed since it was cached
+     */
+    public FileResult get(File source, String hash) {
+        FileResult answer = results.get(source.getPath());
+        if (answer != null && answer.hash.equals(hash)) {
+            return answer;
+        }
+        return null;
+    }
+
+    public void put(File source, FileResult result) {
+        results.put(source.getPath(), result);
+    }
+
+    /**
+     * Removes the results of any source files which are no longer part of the project
+     */
+    public void retainAll(Collection<File> sources) {
+        Set<String> paths = new HashSet<>();
+        for (File source : sources) {
+            paths.add(source.getPath());
+        }
+        results.keySet().retainAll(paths);
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    public void save() throws IOException {
+        file.getParentFile().mkdirs();
+        // write to a temporary file first so a failed build never leaves a half written cache behind
+        File tmp = new File(file.getPath() + ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(key);
+            out.writeObject(new ConcurrentHashMap<>(results));
+        }
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Cannot delete old cache file " + file);
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Cannot rename " + tmp + " to " + file);
+        }
+    }
+
+    /**
+     * Returns the SHA-1 hash of the content of the file as a hex string
+     */
+    public static String hash(File source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new FileInputStream(source)) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The endpoints and simple expressions found in a source file together with their validation results
+     */
+    public static final class FileResult implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String hash;
+        private final List<CamelEndpointDetails> endpoints;
+        private final List<EndpointValidationResult> endpointResults;
+        private final List<CamelSimpleDetails> simpleExpressions;
+        private final List<SimpleValidationResult> simpleResults;
+        private final List<String> unparsable;
+
+        public FileResult(String hash, List<CamelEndpointDetails> endpoints, List<EndpointValidationResult> endpointResults,
+                          List<CamelSimpleDetails> simpleExpressions, List<SimpleValidationResult> simpleResults, List<String> unparsable) {
+            this.hash = hash;
+            this.endpoints = new ArrayList<>(endpoints);
+            this.endpointResults = new ArrayList<>(endpointResults);
+            this.simpleExpressions = new ArrayList<>(simpleExpressions);
+            this.simpleResults = new ArrayList<>(simpleResults);
+            this.unparsable = new ArrayList<>(unparsable);
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public List<CamelEndpointDetails> getEndpoints() {
+            return endpoints;
+        }
+
+        public List<EndpointValidationResult> getEndpointResults() {
+            return endpointResults;
+        }
+
+        public List<CamelSimpleDetails> getSimpleExpressions() {
+            return simpleExpressions;
+        }
+
+        public List<SimpleValidationResult> getSimpleResults() {
+            return simpleResults;
+        }
+
+        public List<String> getUnparsable() {
+            return unparsable;
+        }
+    }
+}
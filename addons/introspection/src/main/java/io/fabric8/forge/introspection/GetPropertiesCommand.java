@@ -5,6 +5,7 @@ import io.fabric8.forge.addon.utils.CommandHelpers;
 import io.fabric8.forge.addon.utils.dto.OutputFormat;
 import io.fabric8.forge.introspection.dto.PropertyDTO;
 import io.fabric8.forge.introspection.introspect.support.ClassScanner;
+import io.fabric8.forge.introspection.introspect.support.IncrementalCompiler;
 import org.jboss.forge.addon.parser.java.facets.JavaCompilerFacet;
 import org.jboss.forge.addon.parser.java.facets.JavaSourceFacet;
 import org.jboss.forge.addon.parser.java.resources.JavaFieldResource;
@@ -32,14 +33,26 @@ import org.jboss.forge.addon.ui.util.Categories;
 import org.jboss.forge.addon.ui.util.Metadata;
 import org.jboss.forge.roaster.model.Field;
 
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
 import javax.inject.Inject;
+import javax.xml.parsers.DocumentBuilderFactory;
 
 import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.net.URL;
 import java.net.URLClassLoader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -51,6 +64,18 @@ import static io.fabric8.forge.addon.utils.OutputFormatHelper.toJson;
  */
 public class GetPropertiesCommand extends AbstractIntrospectionCommand {
 
+	private static final int MAX_CACHED_CLASSES = 1000;
+
+	/**
+	 * The introspected properties keyed by the class name and the hash of its bytecode
+	 */
+	private static final Map<String, List<Object>> PROPERTIES_CACHE = Collections.synchronizedMap(new LinkedHashMap<String, List<Object>>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, List<Object>> eldest) {
+			return size() > MAX_CACHED_CLASSES;
+		}
+	});
+
 	@Inject
 	@WithAttributes(label = "classNames", required = true, description = "Fully qualified class name")
 	private UIInput<List<String>> classNames;
@@ -95,38 +120,37 @@ public class GetPropertiesCommand extends AbstractIntrospectionCommand {
 			return Results.fail("No className field provided");
 		}
 		Project project = Projects.getSelectedProject(getProjectFactory(), uiContext);
-		// force build
-		PackagingFacet packaging = project.getFacet(PackagingFacet.class);
-		ProjectBuilder builder = packaging.createBuilder();
-		builder.runTests(false);
-		builder.addArguments("clean", "compile");
+		ClassLoaderFacet classLoaderFacet = project.getFacet(ClassLoaderFacet.class);
+		URLClassLoader classLoader = classLoaderFacet.getClassLoader();
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
 		PrintStream stdout = new PrintStream(baos, true);
-		try {
-			builder.build(stdout, stdout);
-		} catch (BuildException be) {
-			// no point in continuing the operation
-			return Results.fail("Failed to build project: " + be + "\n\n" + baos.toString());
+		if (!compileStaleSources(project, classLoader, stdout)) {
+			// fall back to a build; we never need a clean as the stale classes get recompiled
+			PackagingFacet packaging = project.getFacet(PackagingFacet.class);
+			ProjectBuilder builder = packaging.createBuilder();
+			builder.runTests(false);
+			builder.addArguments("compile");
+			try {
+				builder.build(stdout, stdout);
+			} catch (BuildException be) {
+				classLoader.close();
+				// no point in continuing the operation
+				return Results.fail("Failed to build project: " + be + "\n\n" + baos.toString());
+			}
 		}
-		ClassLoaderFacet classLoaderFacet = project.getFacet(ClassLoaderFacet.class);
-		URLClassLoader classLoader = classLoaderFacet.getClassLoader();
 		Map<String, List<Object>> answer = new HashMap<String, List<Object>>();
 		for (String className : classNames) {
-			List<Object> props = new ArrayList<Object>();
-			Class clazz;
+			List<Object> props;
 			try {
-				clazz = classLoader.loadClass(className);
-				BeanInfo beanInfo = java.beans.Introspector.getBeanInfo(clazz);
-				PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-				for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-					// ignore the class property
-					if (propertyDescriptor.getName().equals("class")) {
-						continue;
-					}
-					PropertyDTO info = new PropertyDTO(propertyDescriptor);
-					props.add(info);
+				Class clazz = classLoader.loadClass(className);
+				String key = className + "@" + bytecodeHash(clazz);
+				props = PROPERTIES_CACHE.get(key);
+				if (props == null) {
+					props = getProperties(clazz);
+					PROPERTIES_CACHE.put(key, props);
 				}
 			} catch (Exception e) {
+				props = new ArrayList<Object>();
 				props.add("Failed to load class, error: " + e.getMessage());
 			}
 			answer.put(className, props);
@@ -135,4 +159,131 @@ public class GetPropertiesCommand extends AbstractIntrospectionCommand {
 		String result = toJson(answer);
 		return Results.success(result);
 	}
+
+	protected List<Object> getProperties(Class<?> clazz) throws IntrospectionException {
+		List<Object> props = new ArrayList<Object>();
+		BeanInfo beanInfo = java.beans.Introspector.getBeanInfo(clazz);
+		PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
+		for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+			// ignore the class property
+			if (propertyDescriptor.getName().equals("class")) {
+				continue;
+			}
+			PropertyDTO info = new PropertyDTO(propertyDescriptor);
+			// lets copy the DTO so that the cache does not keep hold of the project classes
+			PropertyDTO copy = new PropertyDTO();
+			copy.setName(info.getName());
+			copy.setTypeName(info.getTypeName());
+			copy.setReadable(info.isReadable());
+			copy.setWriteable(info.isWriteable());
+			copy.setDescription(info.getDescription());
+			copy.setDisplayName(info.getDisplayName());
+			props.add(copy);
+		}
+		return props;
+	}
+
+	/**
+	 * Compiles the sources of the project which are newer than their class files
+	 *
+	 * @return false if the project could not be compiled in process so that a build is required
+	 */
+	protected boolean compileStaleSources(Project project, URLClassLoader classLoader, PrintStream stdout) {
+		File rootDir = new File(project.getRoot().getFullyQualifiedName());
+		File sourceDir = new File(project.getFacet(JavaSourceFacet.class).getSourceDirectory().getFullyQualifiedName());
+		List<File> classPath = new ArrayList<File>();
+		File outputDir = null;
+		for (URL url : classLoader.getURLs()) {
+			if ("file".equals(url.getProtocol())) {
+				File file = new File(url.getPath());
+				classPath.add(file);
+				if (outputDir == null && file.isDirectory() && file.getAbsolutePath().startsWith(rootDir.getAbsolutePath())
+						&& !file.getName().equals("test-classes")) {
+					outputDir = file;
+				}
+			}
+		}
+		if (outputDir == null || !outputDir.isDirectory()) {
+			return false;
+		}
+		// the generated sources can be referred to by the sources so are on the source path
+		List<File> sourcePath = new ArrayList<File>();
+		sourcePath.add(sourceDir);
+		File[] generatedDirs = new File(rootDir, "target/generated-sources").listFiles();
+		if (generatedDirs != null) {
+			for (File dir : generatedDirs) {
+				if (dir.isDirectory()) {
+					sourcePath.add(dir);
+				}
+			}
+		}
+		IncrementalCompiler.removeOrphanedClasses(outputDir);
+		List<File> staleSources = IncrementalCompiler.findStaleSources(sourceDir, outputDir);
+		if (staleSources.isEmpty()) {
+			return true;
+		}
+		String source = null;
+		String target = null;
+		if (project.hasFacet(JavaCompilerFacet.class)) {
+			JavaCompilerFacet compilerFacet = project.getFacet(JavaCompilerFacet.class);
+			source = compilerFacet.getSourceCompilerVersion().toString();
+			target = compilerFacet.getTargetCompilerVersion().toString();
+		}
+		String encoding = getSourceEncoding(new File(rootDir, "pom.xml"));
+		List<String> compilerOptions = IncrementalCompiler.createCompilerOptions(encoding, source, target);
+		return IncrementalCompiler.compile(staleSources, sourcePath, classPath, outputDir, compilerOptions, stdout);
+	}
+
+	/**
+	 * Returns the encoding of the sources configured in the pom or null if it is not configured
+	 */
+	protected static String getSourceEncoding(File pom) {
+		if (!pom.isFile()) {
+			return null;
+		}
+		try {
+			Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(pom);
+			for (String name : Arrays.asList("project.build.sourceEncoding", "maven.compiler.encoding")) {
+				NodeList nodes = document.getElementsByTagName(name);
+				for (int i = 0; i < nodes.getLength(); i++) {
+					Node node = nodes.item(i);
+					// only the properties of the project itself rather than those of its profiles
+					Node parent = node.getParentNode();
+					if (parent != null && parent.getParentNode() == document.getDocumentElement()) {
+						String value = node.getTextContent().trim();
+						if (value.length() > 0 && !value.contains("${")) {
+							return value;
+						}
+					}
+				}
+			}
+		} catch (Exception e) {
+			// lets use the default encoding
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a hash of the bytecode of the class and its super classes so that the introspected properties
+	 * can be reused until one of the classes is changed
+	 */
+	protected static String bytecodeHash(Class<?> clazz) throws IOException, NoSuchAlgorithmException {
+		MessageDigest digest = MessageDigest.getInstance("SHA-1");
+		byte[] buffer = new byte[8192];
+		for (Class<?> type = clazz; type != null && type.getClassLoader() != null; type = type.getSuperclass()) {
+			try (InputStream in = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class")) {
+				if (in != null) {
+					int count;
+					while ((count = in.read(buffer)) > 0) {
+						digest.update(buffer, 0, count);
+					}
+				}
+			}
+		}
+		StringBuilder builder = new StringBuilder();
+		for (byte b : digest.digest()) {
+			builder.append(String.format("%02x", b));
+		}
+		return builder.toString();
+	}
 }
@@ -0,0 +1,318 @@
+/**
+ * Copyright (C) 2013 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.introspection.introspect.support;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+/**
+ * An index of the classes on a class path which is built by reading the bytecode with ASM so that
+ * no classes need to be loaded to find class names, annotations or super classes.
+ * <p/>
+ * Each jar is only scanned once; its index is kept in memory and persisted to disk keyed by the path,
+ * last modified time and size of the jar. Class folders are indexed one class file at a time.
+ * The index is thread safe and is shared by all the commands.
+ */
+public class ClassIndex {
+    private static final transient Logger LOG = LoggerFactory.getLogger(ClassIndex.class);
+
+    private static final ClassIndex INSTANCE = new ClassIndex(new File(System.getProperty("fabric8.forge.classIndexDir",
+            new File(System.getProperty("java.io.tmpdir"), "fabric8-forge-class-index").getPath())));
+
+    private static final int PARSING_OPTIONS = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+    private final File indexFolder;
+    private final ConcurrentMap<String, CachedFile<List<ClassInfo>>> jars = new ConcurrentHashMap<String, CachedFile<List<ClassInfo>>>();
+    private final ConcurrentMap<String, CachedFile<ClassInfo>> classFiles = new ConcurrentHashMap<String, CachedFile<ClassInfo>>();
+
+    public ClassIndex(File indexFolder) {
+        this.indexFolder = indexFolder;
+    }
+
+    public static ClassIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the jars and class folders of the given class loaders and their parents
+     */
+    public static List<File> getClassPathRoots(Collection<ClassLoader> classLoaders) {
+        Set<File> answer = new LinkedHashSet<File>();
+        for (ClassLoader classLoader : classLoaders) {
+            for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+                if (loader instanceof URLClassLoader) {
+                    for (URL url : ((URLClassLoader) loader).getURLs()) {
+                        if ("file".equals(url.getProtocol())) {
+                            try {
+                                File file = new File(url.toURI());
+                                if (file.exists()) {
+                                    answer.add(file);
+                                }
+                            } catch (URISyntaxException | IllegalArgumentException e) {
+                                LOG.debug("Ignoring class path URL " + url + ". " + e, e);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return new ArrayList<File>(answer);
+    }
+
+    /**
+     * Returns the classes in the given jars and class folders keyed by class name; the roots are
+     * indexed in parallel and the first class found for a name wins as it would with a class loader
+     */
+    public Map<String, ClassInfo> getClasses(List<File> roots) {
+        List<List<ClassInfo>> indexes = roots.parallelStream().map(this::getClasses).collect(Collectors.toList());
+        Map<String, ClassInfo> answer = new LinkedHashMap<String, ClassInfo>();
+        for (List<ClassInfo> classes : indexes) {
+            for (ClassInfo classInfo : classes) {
+                if (!answer.containsKey(classInfo.getName())) {
+                    answer.put(classInfo.getName(), classInfo);
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the classes in the given jar or class folder
+     */
+    public List<ClassInfo> getClasses(File root) {
+        if (root.isDirectory()) {
+            List<ClassInfo> answer = new ArrayList<ClassInfo>();
+            addDirectoryClasses(root, answer);
+            return answer;
+        } else if (root.isFile()) {
+            // the compute blocks concurrent scans of the same jar until the first one completes
+            CachedFile<List<ClassInfo>> cached = jars.compute(root.getAbsolutePath(), (path, value) -> {
+                if (value != null && value.isUpToDate(root)) {
+                    return value;
+                }
+                return new CachedFile<List<ClassInfo>>(root, loadOrIndexJar(root));
+            });
+            return cached.value;
+        }
+        return new ArrayList<ClassInfo>();
+    }
+
+    protected void addDirectoryClasses(File dir, List<ClassInfo> answer) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    addDirectoryClasses(file, answer);
+                } else if (file.getName().endsWith(".class")) {
+                    String path = file.getAbsolutePath();
+                    CachedFile<ClassInfo> cached = classFiles.get(path);
+                    if (cached == null || !cached.isUpToDate(file)) {
+                        ClassInfo classInfo = null;
+                        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+                            classInfo = readClass(in);
+                        } catch (Exception e) {
+                            LOG.debug("Failed to read class file " + file + ". " + e, e);
+                        }
+                        cached = new CachedFile<ClassInfo>(file, classInfo);
+                        classFiles.put(path, cached);
+                    }
+                    if (cached.value != null) {
+                        answer.add(cached.value);
+                    }
+                }
+            }
+        }
+    }
+
+    protected List<ClassInfo> loadOrIndexJar(File jar) {
+        String name = sha1(jar.getAbsolutePath());
+        File indexFile = new File(indexFolder, name + "-" + jar.lastModified() + "-" + jar.length() + ".idx");
+        if (indexFile.isFile()) {
+            try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+                @SuppressWarnings("unchecked")
+                List<ClassInfo> answer = (List<ClassInfo>) in.readObject();
+                return answer;
+            } catch (Exception e) {
+                LOG.debug("Ignoring invalid class index " + indexFile + ". " + e, e);
+            }
+        }
+
+        List<ClassInfo> answer = indexJar(jar);
+
+        // lets remove the indexes of older versions of the jar
+        File[] files = indexFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith(name + "-")) {
+                    file.delete();
+                }
+            }
+        }
+        indexFolder.mkdirs();
+        File tmp = new File(indexFolder, indexFile.getName() + ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeObject(answer);
+        } catch (IOException e) {
+            LOG.debug("Failed to write class index " + indexFile + ". " + e, e);
+            tmp.delete();
+            return answer;
+        }
+        if (!tmp.renameTo(indexFile)) {
+            tmp.delete();
+        }
+        return answer;
+    }
+
+    protected List<ClassInfo> indexJar(File jar) {
+        List<ClassInfo> answer = new ArrayList<ClassInfo>();
+        try (JarFile jarFile = new JarFile(jar)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                String entryName = entry.getName();
+                if (entryName.endsWith(".class") && !entryName.endsWith("module-info.class")) {
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        answer.add(readClass(in));
+                    } catch (Exception e) {
+                        LOG.debug("Failed to read class " + entryName + " in JAR '" + jar + "'. Reason: " + e, e);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOG.debug("IOException reading JAR '" + jar + "'. Reason: " + e, e);
+        }
+        return answer;
+    }
+
+    protected ClassInfo readClass(InputStream in) throws IOException {
+        ClassInfoVisitor visitor = new ClassInfoVisitor();
+        new ClassReader(in).accept(visitor, PARSING_OPTIONS);
+        return visitor.classInfo;
+    }
+
+    protected static String sha1(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder();
+            for (byte b : hash) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    protected static String toClassName(String internalName) {
+        return internalName != null ? internalName.replace('/', '.') : null;
+    }
+
+    /**
+     * A value read from a file which is valid until the file is modified
+     */
+    protected static class CachedFile<T> {
+        private final long lastModified;
+        private final long size;
+        private final T value;
+
+        CachedFile(File file, T value) {
+            this.lastModified = file.lastModified();
+            this.size = file.length();
+            this.value = value;
+        }
+
+        boolean isUpToDate(File file) {
+            return lastModified == file.lastModified() && size == file.length();
+        }
+    }
+
+    protected static class ClassInfoVisitor extends ClassVisitor {
+        private ClassInfo classInfo;
+
+        ClassInfoVisitor() {
+            super(Opcodes.ASM5);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            classInfo = new ClassInfo(toClassName(name));
+            classInfo.setSuperName(toClassName(superName));
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            // only runtime annotations can be found by reflection so lets ignore the class retention ones
+            if (visible) {
+                classInfo.getAnnotations().add(Type.getType(desc).getClassName());
+            }
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+            if ((access & Opcodes.ACC_PUBLIC) != 0 && !name.startsWith("<")) {
+                classInfo.getPublicMethods().add(name);
+            }
+            return new MethodVisitor(Opcodes.ASM5) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                    if (visible) {
+                        classInfo.getMethodAnnotations().add(Type.getType(desc).getClassName());
+                    }
+                    return null;
+                }
+            };
+        }
+    }
+}
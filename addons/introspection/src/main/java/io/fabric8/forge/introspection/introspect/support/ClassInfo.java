@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2013 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.introspection.introspect.support;
+
+import java.io.Serializable;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The details of a class read from its bytecode without loading it
+ */
+public class ClassInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private String superName;
+    private final Set<String> annotations = new TreeSet<String>();
+    private final Set<String> methodAnnotations = new TreeSet<String>();
+    private final Set<String> publicMethods = new TreeSet<String>();
+
+    public ClassInfo(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassInfo(" + name + ")";
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the name of the super class or null if this is <tt>java.lang.Object</tt> or an interface
+     */
+    public String getSuperName() {
+        return superName;
+    }
+
+    public void setSuperName(String superName) {
+        this.superName = superName;
+    }
+
+    /**
+     * Returns the class names of the annotations on the class
+     */
+    public Set<String> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * Returns the class names of the annotations on any method declared by the class
+     */
+    public Set<String> getMethodAnnotations() {
+        return methodAnnotations;
+    }
+
+    /**
+     * Returns the names of the public methods declared by the class
+     */
+    public Set<String> getPublicMethods() {
+        return publicMethods;
+    }
+}
@@ -36,6 +36,7 @@ import java.lang.annotation.Annotation;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -50,9 +51,10 @@ public class ClassScanner {
 
     private final ClassLoader[] classLoaders;
 
-    private WeakHashMap<String, CacheValue> cache = new WeakHashMap<String, CacheValue>();
-    private WeakHashMap<Package, CacheValue> packageCache = new WeakHashMap<Package, CacheValue>();
-    private Map<String,ClassLoaderProvider> classLoaderProviderMap = new HashMap<String, ClassLoaderProvider>();
+    private final Map<String, CacheValue> cache = Collections.synchronizedMap(new WeakHashMap<String, CacheValue>());
+    private final Map<Package, CacheValue> packageCache = Collections.synchronizedMap(new WeakHashMap<Package, CacheValue>());
+    private Map<String,ClassLoaderProvider> classLoaderProviderMap = new ConcurrentHashMap<String, ClassLoaderProvider>();
+    private ClassIndex classIndex = ClassIndex.getInstance();
     private Set<String> ignorePackages = new HashSet<String>(Arrays.asList("sun.reflect.misc"));
 		private Project project;
 
@@ -93,46 +95,112 @@ public class ClassScanner {
      *
      * @return all the class names found on the current classpath using the given text search filter
      */
-    public SortedSet<String> findClassNames(String search, Integer limit) {
-        Map<Package, ClassLoader[]> packageMap = Packages.getPackageMap(getClassLoaders(), ignorePackages);
-        return findClassNamesInPackages(search, limit, packageMap);
+    public SortedSet<String> findClassNames(final String search, Integer limit) {
+        List<File> roots = ClassIndex.getClassPathRoots(getClassLoaders());
+        if (roots.isEmpty()) {
+            Map<Package, ClassLoader[]> packageMap = Packages.getPackageMap(getClassLoaders(), ignorePackages);
+            return findClassNamesInPackages(search, limit, packageMap);
+        }
+        SortedSet<String> classes = new TreeSet<String>(classIndex.getClasses(roots).keySet());
+        addProjectSourceClassNames(classes);
+        return filterClassNames(classes, new Predicate<String>() {
+            @Override
+            public boolean evaluate(String aClass) {
+                return !isIgnoredPackage(aClass) && classNameMatches(aClass, search);
+            }
+        }, limit);
     }
 
+    /**
+     * Returns the names of the classes which have a method annotated with the given annotation; either directly
+     * or via a meta annotation on the annotation. The class path is searched using the bytecode index so that
+     * none of the classes need to be loaded.
+     */
     public SortedSet<String> findClassNamesMethodsAnnotatedWith(String annotationClassName) {
-        Map<Package, ClassLoader[]> packageMap = Packages.getPackageMap(getClassLoaders(), ignorePackages);
-        return findClassNamesMethodsAnnotatedWith(annotationClassName, null, packageMap);
+        List<File> roots = ClassIndex.getClassPathRoots(getClassLoaders());
+        if (roots.isEmpty()) {
+            Map<Package, ClassLoader[]> packageMap = Packages.getPackageMap(getClassLoaders(), ignorePackages);
+            return findClassNamesMethodsAnnotatedWith(annotationClassName, null, packageMap);
+        }
+        Map<String, ClassInfo> classes = classIndex.getClasses(roots);
+        return findClassNamesMethodsAnnotatedWith(annotationClassName, classes.values(), classes);
     }
 
     public SortedSet<String> findClassNamesInDirectoryWithMethodAnnotatedWith(File dir, String annotationClassName) {
+        if (!dir.exists()) {
+            return new TreeSet<String>();
+        }
+        // we need the whole class path to resolve super classes and meta annotations
+        List<File> roots = new ArrayList<File>(ClassIndex.getClassPathRoots(getClassLoaders()));
+        roots.add(0, dir);
+        Map<String, ClassInfo> classes = classIndex.getClasses(roots);
         SortedSet<String> answer = new TreeSet<String>();
-        final Class<? extends Annotation> annotationClass = optionallyFindAnnotationClass(annotationClassName);
-        if (annotationClass != null && dir.exists()) {
-            addClassNamesInDirectoryWithMethodsAnnotatedWith(answer, dir, annotationClass, "");
+        for (String className : findClassNamesMethodsAnnotatedWith(annotationClassName, classIndex.getClasses(dir), classes)) {
+            answer.add(className.replace('$', '.'));
         }
         return answer;
     }
 
-    protected void addClassNamesInDirectoryWithMethodsAnnotatedWith(SortedSet<String> answer, File dir,
-                                                                    Class<? extends Annotation> annotationClass, String packageName) {
-        File[] files = dir.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    addClassNamesInDirectoryWithMethodsAnnotatedWith(answer, file, annotationClass, packageName + file.getName() + ".");
-                } else if (file.isFile()) {
-                    String name = file.getName();
-                    if (name.endsWith(".class")) {
-                        String className = packageName + (name.substring(0, name.length() - 6).replace('$', '.'));
-                        Class<?> aClass = optionallyFindClass(className);
-                        if (aClass != null && ReflectionHelper.hasMethodWithAnnotation(aClass, annotationClass, true)) {
-                            answer.add(className);
-                        }
-                    }
+    protected SortedSet<String> findClassNamesMethodsAnnotatedWith(String annotationClassName, Collection<ClassInfo> candidates, Map<String, ClassInfo> classes) {
+        SortedSet<String> answer = new TreeSet<String>();
+        Map<String, Boolean> annotations = new HashMap<String, Boolean>();
+        for (ClassInfo classInfo : candidates) {
+            if (!isIgnoredPackage(classInfo.getName()) && hasMethodWithAnnotation(classInfo, annotationClassName, classes, annotations)) {
+                answer.add(classInfo.getName());
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Returns true if the class is in one of the packages to ignore
+     */
+    protected boolean isIgnoredPackage(String className) {
+        int idx = className.lastIndexOf('.');
+        return idx > 0 && ignorePackages.contains(className.substring(0, idx));
+    }
+
+    /**
+     * Returns true if the class or any of its super classes declares a method with the annotation
+     */
+    protected boolean hasMethodWithAnnotation(ClassInfo classInfo, String annotationClassName, Map<String, ClassInfo> classes,
+                                              Map<String, Boolean> annotations) {
+        Set<String> visited = new HashSet<String>();
+        while (classInfo != null && visited.add(classInfo.getName())) {
+            for (String annotation : classInfo.getMethodAnnotations()) {
+                if (isAnnotation(annotation, annotationClassName, classes, annotations, new HashSet<String>())) {
+                    return true;
                 }
             }
+            classInfo = classInfo.getSuperName() != null ? classes.get(classInfo.getSuperName()) : null;
         }
+        return false;
     }
 
+    /**
+     * Returns true if the annotation is the given annotation or is meta annotated with it
+     */
+    protected boolean isAnnotation(String annotation, String annotationClassName, Map<String, ClassInfo> classes,
+                                   Map<String, Boolean> annotations, Set<String> visited) {
+        if (annotation.equals(annotationClassName)) {
+            return true;
+        }
+        Boolean answer = annotations.get(annotation);
+        if (answer == null) {
+            answer = false;
+            ClassInfo annotationInfo = classes.get(annotation);
+            if (annotationInfo != null && visited.add(annotation)) {
+                for (String metaAnnotation : annotationInfo.getAnnotations()) {
+                    if (isAnnotation(metaAnnotation, annotationClassName, classes, annotations, visited)) {
+                        answer = true;
+                        break;
+                    }
+                }
+            }
+            annotations.put(annotation, answer);
+        }
+        return answer;
+    }
 
     protected Class<? extends Annotation> optionallyFindAnnotationClass(String annotationClassName) {
         final Class<? extends Annotation> annotationClass = optionallyFindClass(annotationClassName).asSubclass(Annotation.class);
@@ -172,7 +240,6 @@ public class ClassScanner {
     }
 
     protected SortedSet<String> findClassNames(Map<Package, ClassLoader[]> packages, Predicate<String> filter, Integer limit) {
-        SortedSet<String> answer = new TreeSet<String>();
         SortedSet<String> classes = new TreeSet<String>();
 
         Set<Map.Entry<Package, ClassLoader[]>> entries = packages.entrySet();
@@ -186,15 +253,7 @@ public class ClassScanner {
             }
             classes.addAll(cacheValue.getClassNames());
         }
-	      if (this.project != null) {
-		      JavaSourceFacet sourceFacet = project.getFacet(JavaSourceFacet.class);
-		      sourceFacet.visitJavaSources(new JavaResourceVisitor() {
-			      @Override
-			      public void visit(VisitContext visitContext, JavaResource javaResource) {
-				      classes.add(javaResource.getFullyQualifiedTypeName());
-			      }
-		      });
-	      }
+        addProjectSourceClassNames(classes);
 /*
         for (Map.Entry<String, ClassResource> entry : entries) {
             String key = entry.getKey();
@@ -208,6 +267,23 @@ public class ClassScanner {
             //addClassesForPackage(classResource, search, limit, classes);
         }
 */
+        return filterClassNames(classes, filter, limit);
+    }
+
+    protected void addProjectSourceClassNames(final Set<String> classes) {
+        if (this.project != null) {
+            JavaSourceFacet sourceFacet = project.getFacet(JavaSourceFacet.class);
+            sourceFacet.visitJavaSources(new JavaResourceVisitor() {
+                @Override
+                public void visit(VisitContext visitContext, JavaResource javaResource) {
+                    classes.add(javaResource.getFullyQualifiedTypeName());
+                }
+            });
+        }
+    }
+
+    protected SortedSet<String> filterClassNames(SortedSet<String> classes, Predicate<String> filter, Integer limit) {
+        SortedSet<String> answer = new TreeSet<String>();
         if (withinLimit(limit, answer)) {
             for (String aClass : classes) {
                 if (filter.evaluate(aClass)) {
@@ -0,0 +1,265 @@
+/**
+ * Copyright (C) 2013 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.introspection.introspect.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Compiles only the java sources of a project which are newer than their class files so that
+ * introspecting the project does not require a full build.
+ * <p/>
+ * The class files produced for each source are recorded next to the output directory, so the class files
+ * of deleted sources can be removed without touching those compiled from other source roots or by a build.
+ */
+public class IncrementalCompiler {
+    private static final transient Logger LOG = LoggerFactory.getLogger(IncrementalCompiler.class);
+
+    /**
+     * Returns the java sources whose class file is missing or older than the source
+     */
+    public static List<File> findStaleSources(File sourceDir, File outputDir) {
+        List<File> answer = new ArrayList<File>();
+        addStaleSources(sourceDir, outputDir, answer);
+        return answer;
+    }
+
+    protected static void addStaleSources(File sourceDir, File outputDir, List<File> answer) {
+        File[] files = sourceDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (file.isDirectory()) {
+                    addStaleSources(file, new File(outputDir, name), answer);
+                } else if (name.endsWith(".java") && !name.equals("package-info.java") && !name.equals("module-info.java")) {
+                    File classFile = new File(outputDir, name.substring(0, name.length() - 5) + ".class");
+                    if (!classFile.isFile() || classFile.lastModified() < file.lastModified()) {
+                        answer.add(file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the file recording the class files which were compiled from each source into the output directory
+     */
+    public static File getCompiledSourcesFile(File outputDir) {
+        return new File(outputDir.getParentFile(), outputDir.getName() + "-sources.properties");
+    }
+
+    /**
+     * Deletes the class files which were compiled from sources which have since been deleted; class files which
+     * were not compiled by this class are left alone
+     *
+     * @return the deleted class files
+     */
+    public static synchronized List<File> removeOrphanedClasses(File outputDir) {
+        List<File> answer = new ArrayList<File>();
+        File compiledSourcesFile = getCompiledSourcesFile(outputDir);
+        Properties compiledSources = loadCompiledSources(compiledSourcesFile);
+        for (String source : compiledSources.stringPropertyNames()) {
+            if (!new File(source).isFile()) {
+                for (String classFileName : splitClassFiles(compiledSources.getProperty(source))) {
+                    File classFile = new File(outputDir, classFileName);
+                    if (classFile.isFile()) {
+                        LOG.debug("Deleting " + classFile + " as its source " + source + " has been deleted");
+                        classFile.delete();
+                        answer.add(classFile);
+                    }
+                }
+                compiledSources.remove(source);
+            }
+        }
+        if (!answer.isEmpty()) {
+            storeCompiledSources(compiledSourcesFile, compiledSources);
+        }
+        return answer;
+    }
+
+    protected static Properties loadCompiledSources(File file) {
+        Properties answer = new Properties();
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                answer.load(in);
+            } catch (IOException e) {
+                LOG.warn("Failed to load " + file + ". " + e, e);
+            }
+        }
+        return answer;
+    }
+
+    protected static void storeCompiledSources(File file, Properties compiledSources) {
+        file.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(file)) {
+            compiledSources.store(out, "The class files compiled from each source");
+        } catch (IOException e) {
+            LOG.warn("Failed to store " + file + ". " + e, e);
+        }
+    }
+
+    protected static Set<String> splitClassFiles(String value) {
+        Set<String> answer = new LinkedHashSet<String>();
+        if (value != null) {
+            for (String name : value.split(",")) {
+                if (name.length() > 0) {
+                    answer.add(name);
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the compiler options for the given encoding and source and target versions; any of which may be null
+     */
+    public static List<String> createCompilerOptions(String encoding, String source, String target) {
+        List<String> answer = new ArrayList<String>();
+        if (encoding != null && encoding.length() > 0) {
+            answer.add("-encoding");
+            answer.add(encoding);
+        }
+        if (source != null && source.length() > 0) {
+            answer.add("-source");
+            answer.add(source);
+        }
+        if (target != null && target.length() > 0) {
+            answer.add("-target");
+            answer.add(target);
+        }
+        return answer;
+    }
+
+    /**
+     * Compiles the sources into the output directory in process; recording the class files produced for each source
+     * and deleting the class files a recompiled source no longer produces
+     *
+     * @return true if the sources compiled or false if there is no compiler available or the compile failed
+     */
+    public static synchronized boolean compile(List<File> sources, List<File> sourcePath, List<File> classPath, File outputDir, List<String> compilerOptions, PrintStream out) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            LOG.debug("No system java compiler available");
+            return false;
+        }
+        outputDir.mkdirs();
+        final Map<String, Set<String>> produced = new HashMap<String, Set<String>>();
+        try (StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, null)) {
+            JavaFileManager fileManager = new ForwardingJavaFileManager<StandardJavaFileManager>(standardFileManager) {
+                @Override
+                public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+                    if (kind == JavaFileObject.Kind.CLASS && sibling != null && "file".equals(sibling.toUri().getScheme())) {
+                        String source = new File(sibling.toUri()).getAbsolutePath();
+                        Set<String> classFiles = produced.get(source);
+                        if (classFiles == null) {
+                            classFiles = new LinkedHashSet<String>();
+                            produced.put(source, classFiles);
+                        }
+                        classFiles.add(className.replace('.', '/') + ".class");
+                    }
+                    return super.getJavaFileForOutput(location, className, kind, sibling);
+                }
+            };
+            Iterable<? extends JavaFileObject> units = standardFileManager.getJavaFileObjectsFromFiles(sources);
+            List<String> options = new ArrayList<String>(Arrays.asList(
+                    "-d", outputDir.getPath(),
+                    "-classpath", join(classPath),
+                    "-sourcepath", join(sourcePath),
+                    // only compile the other sources if their class files are out of date
+                    "-implicit:class", "-Xprefer:newer"));
+            options.addAll(compilerOptions);
+            OutputStreamWriter writer = new OutputStreamWriter(out);
+            Boolean answer = compiler.getTask(writer, fileManager, null, options, null, units).call();
+            writer.flush();
+            boolean compiled = answer != null && answer;
+            if (compiled) {
+                recordCompiledSources(outputDir, produced);
+            }
+            return compiled;
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Failed to compile " + sources.size() + " sources into " + outputDir + ". " + e, e);
+            return false;
+        }
+    }
+
+    protected static void recordCompiledSources(File outputDir, Map<String, Set<String>> produced) {
+        Set<String> producedClassFiles = new HashSet<String>();
+        for (Set<String> classFiles : produced.values()) {
+            producedClassFiles.addAll(classFiles);
+        }
+        File compiledSourcesFile = getCompiledSourcesFile(outputDir);
+        Properties compiledSources = loadCompiledSources(compiledSourcesFile);
+        for (Map.Entry<String, Set<String>> entry : produced.entrySet()) {
+            String source = entry.getKey();
+            // the classes which have been removed from the source, such as inner classes
+            for (String classFileName : splitClassFiles(compiledSources.getProperty(source))) {
+                if (!producedClassFiles.contains(classFileName)) {
+                    File classFile = new File(outputDir, classFileName);
+                    LOG.debug("Deleting " + classFile + " as it is no longer compiled from " + source);
+                    classFile.delete();
+                }
+            }
+            compiledSources.setProperty(source, join(entry.getValue(), ","));
+        }
+        storeCompiledSources(compiledSourcesFile, compiledSources);
+    }
+
+    protected static String join(List<File> files) {
+        List<String> paths = new ArrayList<String>();
+        for (File file : files) {
+            paths.add(file.getPath());
+        }
+        return join(paths, File.pathSeparator);
+    }
+
+    protected static String join(Iterable<String> values, String separator) {
+        StringBuilder builder = new StringBuilder();
+        for (String value : values) {
+            if (builder.length() > 0) {
+                builder.append(separator);
+            }
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2013 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.introspection.introspect.support;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ClassIndexTest {
+
+    private final File dir = new File("target/test-data/class-index");
+    private final File classesDir = new File(dir, "classes");
+    private final File jar = new File(dir, "fixture.jar");
+    private final File indexDir = new File(dir, "index");
+
+    @Before
+    public void setUp() throws Exception {
+        deleteRecursively(dir);
+        writeClassFile(classesDir, "fixture/Route", "java/lang/Object");
+        writeClassFile(classesDir, "fixture/MyRoute", "fixture/Route");
+        indexDir.mkdirs();
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("fixture/Route.class"));
+            out.write(createClass("fixture/Route", "java/lang/Object"));
+            out.closeEntry();
+        }
+    }
+
+    @Test
+    public void testIndexClassFolder() throws Exception {
+        ClassIndex index = new ClassIndex(indexDir);
+        Map<String, ClassInfo> classes = index.getClasses(Arrays.asList(classesDir));
+        assertEquals(2, classes.size());
+
+        ClassInfo route = classes.get("fixture.Route");
+        assertNotNull(route);
+        assertEquals("java.lang.Object", route.getSuperName());
+        assertTrue(route.getPublicMethods().contains("configure"));
+        assertFalse(route.getPublicMethods().contains("helper"));
+
+        // only the annotations which are visible at runtime are indexed
+        assertEquals(Arrays.asList("fixture.Visible").toString(), route.getAnnotations().toString());
+        assertEquals(Arrays.asList("fixture.Visible").toString(), route.getMethodAnnotations().toString());
+
+        assertEquals("fixture.Route", classes.get("fixture.MyRoute").getSuperName());
+    }
+
+    @Test
+    public void testIndexJarIsPersisted() throws Exception {
+        List<ClassInfo> classes = new ClassIndex(indexDir).getClasses(jar);
+        assertEquals(1, classes.size());
+        assertEquals("fixture.Route", classes.get(0).getName());
+        String[] indexFiles = indexDir.list();
+        assertNotNull(indexFiles);
+        assertEquals(1, indexFiles.length);
+        assertTrue(indexFiles[0].endsWith(".idx"));
+
+        // a new index reads the persisted index of the jar
+        List<ClassInfo> loaded = new ClassIndex(indexDir).getClasses(jar);
+        assertEquals(1, loaded.size());
+        assertEquals(Arrays.asList("fixture.Visible").toString(), loaded.get(0).getAnnotations().toString());
+    }
+
+    protected static void writeClassFile(File dir, String name, String superName) throws IOException {
+        File file = new File(dir, name + ".class");
+        file.getParentFile().mkdirs();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(createClass(name, superName));
+        }
+    }
+
+    /**
+     * Creates a class with a public and a private method; the class and the public method have both a
+     * runtime visible and a class retention annotation
+     */
+    protected static byte[] createClass(String name, String superName) {
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V1_7, Opcodes.ACC_PUBLIC, name, null, superName, null);
+        if (superName.equals("java/lang/Object")) {
+            writer.visitAnnotation("Lfixture/Visible;", true).visitEnd();
+            writer.visitAnnotation("Lfixture/Invisible;", false).visitEnd();
+            MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "configure", "()V", null, null);
+            method.visitAnnotation("Lfixture/Visible;", true).visitEnd();
+            method.visitAnnotation("Lfixture/Invisible;", false).visitEnd();
+            method.visitEnd();
+            writer.visitMethod(Opcodes.ACC_PRIVATE, "helper", "()V", null, null).visitEnd();
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    protected static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
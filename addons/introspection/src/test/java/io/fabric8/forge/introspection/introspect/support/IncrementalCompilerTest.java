@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2013 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.introspection.introspect.support;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalCompilerTest {
+
+    @Test
+    public void testFindStaleSources() throws Exception {
+        File dir = new File("target/test-data/incremental-compiler");
+        ClassIndexTest.deleteRecursively(dir);
+        File sourceDir = new File(dir, "src");
+        File outputDir = new File(dir, "classes");
+        long now = System.currentTimeMillis();
+
+        File upToDate = touch(new File(sourceDir, "a/UpToDate.java"), now - 10000);
+        File modified = touch(new File(sourceDir, "a/Modified.java"), now);
+        File added = touch(new File(sourceDir, "a/Added.java"), now);
+
+        touch(new File(outputDir, "a/UpToDate.class"), now);
+        touch(new File(outputDir, "a/Modified.class"), now - 10000);
+        // such as a class compiled from another source root
+        File otherClass = touch(new File(outputDir, "b/Other.class"), now);
+
+        List<File> stale = IncrementalCompiler.findStaleSources(sourceDir, outputDir);
+        Collections.sort(stale);
+        assertEquals(Arrays.asList(added, modified), stale);
+        assertFalse(stale.contains(upToDate));
+
+        // finding the stale sources never deletes class files
+        assertTrue(otherClass.isFile());
+        assertEquals(Collections.<File>emptyList(), IncrementalCompiler.removeOrphanedClasses(outputDir));
+        assertTrue(otherClass.isFile());
+    }
+
+    @Test
+    public void testOnlyOrphanedClassesAreRemoved() throws Exception {
+        File dir = new File("target/test-data/incremental-compiler-orphans");
+        ClassIndexTest.deleteRecursively(dir);
+        File sourceDir = new File(dir, "src");
+        File outputDir = new File(dir, "classes");
+        File source = write(new File(sourceDir, "a/Route.java"),
+                "package a; public class Route { class Inner {} } class Helper {}");
+        File otherClass = touch(new File(outputDir, "a/FromGroovy.class"), System.currentTimeMillis());
+
+        List<File> sourcePath = Collections.singletonList(sourceDir);
+        List<File> classPath = Collections.emptyList();
+        List<String> options = Collections.emptyList();
+        assertTrue(IncrementalCompiler.compile(IncrementalCompiler.findStaleSources(sourceDir, outputDir), sourcePath, classPath, outputDir, options, System.out));
+        File routeClass = new File(outputDir, "a/Route.class");
+        File innerClass = new File(outputDir, "a/Route$Inner.class");
+        File helperClass = new File(outputDir, "a/Helper.class");
+        assertTrue(routeClass.isFile());
+        assertTrue(innerClass.isFile());
+        assertTrue(helperClass.isFile());
+
+        // the secondary top level class of a source which still exists is kept
+        assertEquals(Collections.<File>emptyList(), IncrementalCompiler.removeOrphanedClasses(outputDir));
+        assertTrue(helperClass.isFile());
+
+        // recompiling a source removes the classes it no longer declares
+        write(source, "package a; public class Route { } class Helper {}");
+        assertTrue(source.setLastModified(routeClass.lastModified() + 10000));
+        assertTrue(IncrementalCompiler.compile(IncrementalCompiler.findStaleSources(sourceDir, outputDir), sourcePath, classPath, outputDir, options, System.out));
+        assertFalse(innerClass.exists());
+        assertTrue(helperClass.isFile());
+
+        // deleting the source removes all the classes compiled from it but not those compiled by something else
+        assertTrue(source.delete());
+        assertEquals(2, IncrementalCompiler.removeOrphanedClasses(outputDir).size());
+        assertFalse(routeClass.exists());
+        assertFalse(helperClass.exists());
+        assertTrue(otherClass.isFile());
+    }
+
+    @Test
+    public void testCreateCompilerOptions() throws Exception {
+        assertEquals(Arrays.asList("-encoding", "UTF-8", "-source", "1.7", "-target", "1.8"),
+                IncrementalCompiler.createCompilerOptions("UTF-8", "1.7", "1.8"));
+        assertEquals(Collections.<String>emptyList(), IncrementalCompiler.createCompilerOptions(null, null, ""));
+    }
+
+    protected static File write(File file, String text) throws IOException {
+        file.getParentFile().mkdirs();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(text.getBytes("UTF-8"));
+        }
+        return file;
+    }
+
+    protected static File touch(File file, long lastModified) throws IOException {
+        file.getParentFile().mkdirs();
+        new FileOutputStream(file).close();
+        assertTrue(file.setLastModified(lastModified));
+        return file;
+    }
+}
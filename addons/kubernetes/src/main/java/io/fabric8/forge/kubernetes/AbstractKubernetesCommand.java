@@ -16,9 +16,17 @@
 package io.fabric8.forge.kubernetes;
 
 import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.ReplicationController;
+import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.client.DefaultKubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
 import io.fabric8.utils.Objects;
 import io.fabric8.utils.Strings;
 import io.fabric8.utils.TablePrinter;
@@ -35,6 +43,8 @@ import org.jboss.forge.addon.ui.result.Results;
 
 import javax.inject.Inject;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An abstract base class for kubernetes related commands
@@ -48,6 +58,9 @@ public abstract class AbstractKubernetesCommand extends AbstractProjectCommand i
     @Inject
     private ProjectFactory projectFactory;
 
+    @Inject
+    private KubernetesClients kubernetesClients;
+
     /*
         @Inject
     */
@@ -70,7 +83,9 @@ public abstract class AbstractKubernetesCommand extends AbstractProjectCommand i
     public KubernetesClient getKubernetes() {
         if (kubernetes == null) {
             String kubernetesAddress = kubernetesUrl.getValue();
-            if (Strings.isNotBlank(kubernetesAddress)) {
+            if (kubernetesClients != null) {
+                kubernetes = kubernetesClients.getClient(kubernetesAddress);
+            } else if (Strings.isNotBlank(kubernetesAddress)) {
                 kubernetes = new DefaultKubernetesClient(new ConfigBuilder().withMasterUrl(kubernetesAddress).build());
             } else {
                 kubernetes = new DefaultKubernetesClient();
@@ -84,6 +99,64 @@ public abstract class AbstractKubernetesCommand extends AbstractProjectCommand i
         this.kubernetes = kubernetes;
     }
 
+    public KubernetesClients getKubernetesClients() {
+        return kubernetesClients;
+    }
+
+    public void setKubernetesClients(KubernetesClients kubernetesClients) {
+        this.kubernetesClients = kubernetesClients;
+    }
+
+    /**
+     * Returns the pods in the current namespace.
+     * <p/>
+     * The commands apply their text filter to the results themselves so that it matches any part of the
+     * names and labels; a label selector evaluated by the master would only match whole label values.
+     */
+    protected List<Pod> listPods() {
+        KubernetesClient client = getKubernetes();
+        if (isCacheEnabled()) {
+            return kubernetesClients.getPodCache(client, getNamespace()).list();
+        }
+        return list(client.pods().inNamespace(getNamespace()));
+    }
+
+    /**
+     * Returns the services in the current namespace
+     */
+    protected List<Service> listServices() {
+        KubernetesClient client = getKubernetes();
+        if (isCacheEnabled()) {
+            return kubernetesClients.getServiceCache(client, getNamespace()).list();
+        }
+        return list(client.services().inNamespace(getNamespace()));
+    }
+
+    /**
+     * Returns the replication controllers in the current namespace
+     */
+    protected List<ReplicationController> listReplicationControllers() {
+        KubernetesClient client = getKubernetes();
+        if (isCacheEnabled()) {
+            return kubernetesClients.getReplicationControllerCache(client, getNamespace()).list();
+        }
+        return list(client.replicationControllers().inNamespace(getNamespace()));
+    }
+
+    protected boolean isCacheEnabled() {
+        return kubernetesClients != null && kubernetesClients.isCacheEnabled();
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static <T extends HasMetadata, L extends KubernetesResourceList> List<T> list(FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>> operation) {
+        L list = operation.list();
+        List<T> answer = new ArrayList<>();
+        if (list != null && list.getItems() != null) {
+            answer.addAll(list.getItems());
+        }
+        return answer;
+    }
+
     public boolean isGUI() {
         return getUiProvider().isGUI();
     }
@@ -17,7 +17,6 @@ package io.fabric8.forge.kubernetes;
 
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.model.Pod;
-import io.fabric8.kubernetes.api.model.PodList;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import org.jboss.forge.addon.ui.context.UIBuilder;
 import org.jboss.forge.addon.ui.context.UIContext;
@@ -50,15 +49,9 @@ public abstract class AbstractPodCommand extends AbstractKubernetesCommand {
             @Override
             public Iterable<String> getCompletionProposals(UIContext context, InputComponent<?, String> input, String value) {
                 List<String> list = new ArrayList<String>();
-                PodList pods = getKubernetes().pods().list();
-                if (pods != null) {
-                    List<Pod> items = pods.getItems();
-                    if (items != null) {
-                        for (Pod item : items) {
-                            String id = KubernetesHelper.getName(item);
-                            list.add(id);
-                        }
-                    }
+                for (Pod item : listPods()) {
+                    String id = KubernetesHelper.getName(item);
+                    list.add(id);
                 }
                 Collections.sort(list);
                 System.out.println("Completion list is " + list);
@@ -0,0 +1,119 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.kubernetes;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.ReplicationController;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
+import io.fabric8.utils.Strings;
+import io.fabric8.utils.Systems;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares one {@link KubernetesClient} per master URL between all the kubernetes commands, and optionally
+ * a watch backed {@link ResourceCache} of the pods, services and replication controllers of each namespace.
+ * <p/>
+ * The caches are enabled by setting the <code>FABRIC8_FORGE_KUBERNETES_CACHE</code> environment variable or
+ * system property to <code>true</code>.
+ */
+@ApplicationScoped
+public class KubernetesClients {
+    public static final String CACHE_ENABLED = "FABRIC8_FORGE_KUBERNETES_CACHE";
+
+    private static final transient Logger LOG = LoggerFactory.getLogger(KubernetesClients.class);
+
+    private final ConcurrentMap<String, KubernetesClient> clients = new ConcurrentHashMap<>();
+    private final ConcurrentMap<List<Object>, ResourceCache<?, ?>> caches = new ConcurrentHashMap<>();
+    private final boolean cacheEnabled;
+
+    public KubernetesClients() {
+        this(Systems.getEnvVarOrSystemProperty(CACHE_ENABLED, Boolean.FALSE));
+    }
+
+    public KubernetesClients(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    /**
+     * Returns the shared client of the master URL or of the default configuration if the URL is blank
+     */
+    public KubernetesClient getClient(String masterUrl) {
+        String key = Strings.isNotBlank(masterUrl) ? masterUrl.trim() : "";
+        return clients.computeIfAbsent(key, url -> {
+            if (url.isEmpty()) {
+                return new DefaultKubernetesClient();
+            }
+            return new DefaultKubernetesClient(new ConfigBuilder().withMasterUrl(url).build());
+        });
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public ResourceCache<Pod, ?> getPodCache(KubernetesClient client, String namespace) {
+        return getCache(client, "pods", namespace, () -> client.pods().inNamespace(namespace));
+    }
+
+    public ResourceCache<Service, ?> getServiceCache(KubernetesClient client, String namespace) {
+        return getCache(client, "services", namespace, () -> client.services().inNamespace(namespace));
+    }
+
+    public ResourceCache<ReplicationController, ?> getReplicationControllerCache(KubernetesClient client, String namespace) {
+        return getCache(client, "replicationcontrollers", namespace, () -> client.replicationControllers().inNamespace(namespace));
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T extends HasMetadata, L extends KubernetesResourceList> ResourceCache<T, L> getCache(KubernetesClient client, String kind, String namespace,
+                                                                                                     Supplier<FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>>> operation) {
+        // the client is compared by identity so that clients which are not pooled get their own caches
+        List<Object> key = Arrays.asList(client, kind, namespace);
+        return (ResourceCache<T, L>) caches.computeIfAbsent(key, k -> new ResourceCache<>(kind + " in namespace " + namespace, operation));
+    }
+
+    @PreDestroy
+    public void close() {
+        for (ResourceCache<?, ?> cache : caches.values()) {
+            cache.close();
+        }
+        caches.clear();
+        for (KubernetesClient client : clients.values()) {
+            try {
+                client.close();
+            } catch (Exception e) {
+                LOG.debug("Failed to close kubernetes client " + client + ". " + e, e);
+            }
+        }
+        clients.clear();
+    }
+}
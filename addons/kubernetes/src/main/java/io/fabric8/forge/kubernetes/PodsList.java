@@ -18,10 +18,10 @@ package io.fabric8.forge.kubernetes;
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.Pod;
-import io.fabric8.kubernetes.api.model.PodList;
 import io.fabric8.kubernetes.api.model.PodSpec;
 import io.fabric8.kubernetes.api.model.PodStatus;
 import io.fabric8.utils.Filter;
+import io.fabric8.utils.Strings;
 import io.fabric8.utils.TablePrinter;
 import org.jboss.forge.addon.ui.context.UIBuilder;
 import org.jboss.forge.addon.ui.context.UIContext;
@@ -34,7 +34,6 @@ import org.jboss.forge.addon.ui.util.Categories;
 import org.jboss.forge.addon.ui.util.Metadata;
 
 import javax.inject.Inject;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -63,22 +62,17 @@ public class PodsList extends AbstractKubernetesCommand {
 
     @Override
     public Result execute(UIExecutionContext uiExecutionContext) throws Exception {
-        PodList pods = getKubernetes().pods().inNamespace(getNamespace()).list();
-        KubernetesHelper.removeEmptyPods(pods);
+        List<Pod> pods = listPods();
         TablePrinter table = podsAsTable(pods);
         return tableResults(table);
     }
 
-    protected TablePrinter podsAsTable(PodList pods) {
+    protected TablePrinter podsAsTable(List<Pod> items) {
         TablePrinter table = new TablePrinter();
         table.columns("id", "image(s)", "host", "labels", "status");
-        List<Pod> items = pods.getItems();
-        if (items == null) {
-            items = Collections.EMPTY_LIST;
-        }
         Filter<Pod> filter = KubernetesHelper.createPodFilter(filterText.getValue());
         for (Pod item : items) {
-            if (filter.matches(item)) {
+            if (Strings.isNotBlank(KubernetesHelper.getName(item)) && filter.matches(item)) {
                 String id = KubernetesHelper.getName(item);
                 PodStatus podStatus = item.getStatus();
                 String status = "";
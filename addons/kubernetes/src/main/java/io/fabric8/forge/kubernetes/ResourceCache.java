@@ -0,0 +1,164 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.kubernetes;
+
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ListMeta;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
+import io.fabric8.utils.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * A local copy of the resources of one kind in a namespace which is listed once and then kept up to date
+ * by watching the kubernetes master, so that the list commands can be answered from memory.
+ * <p/>
+ * If the watch is closed or reports an error the resources are listed again on the next call.
+ */
+public class ResourceCache<T extends HasMetadata, L extends KubernetesResourceList> implements Closeable {
+    private static final transient Logger LOG = LoggerFactory.getLogger(ResourceCache.class);
+
+    private final String description;
+    private final Supplier<FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>>> operation;
+    private final Map<String, T> items = new TreeMap<>();
+    private Watch watch;
+    private int generation;
+    private boolean synced;
+
+    public ResourceCache(String description, Supplier<FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>>> operation) {
+        this.description = description;
+        this.operation = operation;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceCache(" + description + ")";
+    }
+
+    /**
+     * Returns the resources sorted by name; listing them from the master first if the cache is not in sync
+     */
+    public synchronized List<T> list() {
+        if (!synced) {
+            resync();
+        }
+        return new ArrayList<>(items.values());
+    }
+
+    public synchronized boolean isSynced() {
+        return synced;
+    }
+
+    @Override
+    public synchronized void close() {
+        synced = false;
+        generation++;
+        closeWatch();
+        items.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void resync() {
+        closeWatch();
+        int watchGeneration = ++generation;
+        L list = operation.get().list();
+        items.clear();
+        List<T> resources = list != null ? list.getItems() : null;
+        if (resources != null) {
+            for (T resource : resources) {
+                String name = KubernetesHelper.getName(resource);
+                if (Strings.isNotBlank(name)) {
+                    items.put(name, resource);
+                }
+            }
+        }
+        ListMeta metadata = list != null ? list.getMetadata() : null;
+        String resourceVersion = metadata != null ? metadata.getResourceVersion() : null;
+        CacheWatcher watcher = new CacheWatcher(watchGeneration);
+        if (Strings.isNotBlank(resourceVersion)) {
+            watch = operation.get().watch(resourceVersion, watcher);
+        } else {
+            watch = operation.get().watch(watcher);
+        }
+        synced = true;
+    }
+
+    protected void closeWatch() {
+        if (watch != null) {
+            try {
+                watch.close();
+            } catch (Exception e) {
+                LOG.debug("Failed to close watch of " + description + ". " + e, e);
+            }
+            watch = null;
+        }
+    }
+
+    protected synchronized void onEvent(int watchGeneration, Watcher.Action action, T resource) {
+        if (watchGeneration != generation || !synced) {
+            // an event from a watch which has since been replaced
+            return;
+        }
+        String name = KubernetesHelper.getName(resource);
+        if (action == Watcher.Action.ERROR || Strings.isNullOrBlank(name)) {
+            synced = false;
+        } else if (action == Watcher.Action.DELETED) {
+            items.remove(name);
+        } else {
+            items.put(name, resource);
+        }
+    }
+
+    protected synchronized void onClose(int watchGeneration, KubernetesClientException cause) {
+        if (watchGeneration == generation) {
+            if (cause != null) {
+                LOG.debug("Watch of " + description + " closed. " + cause, cause);
+            }
+            synced = false;
+            watch = null;
+        }
+    }
+
+    protected class CacheWatcher implements Watcher<T> {
+        private final int watchGeneration;
+
+        CacheWatcher(int watchGeneration) {
+            this.watchGeneration = watchGeneration;
+        }
+
+        @Override
+        public void eventReceived(Action action, T resource) {
+            onEvent(watchGeneration, action, resource);
+        }
+
+        @Override
+        public void onClose(KubernetesClientException cause) {
+            ResourceCache.this.onClose(watchGeneration, cause);
+        }
+    }
+}
@@ -16,15 +16,18 @@
  */
 package io.fabric8.forge.rest;
 
+import io.fabric8.forge.rest.dto.BatchExecutionRequest;
 import io.fabric8.forge.rest.dto.CommandInfoDTO;
 import io.fabric8.forge.rest.dto.ExecutionRequest;
 
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.List;
@@ -80,6 +83,24 @@ public interface CommandsAPI {
                              @PathParam("namespace") String namespace, @PathParam("projectName") String projectName,
                              @PathParam("path") String resourcePath) throws Exception;
 
+    @GET
+    @Path("/command/{name}/input/{input}/choices")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getCommandInputChoices(@PathParam("name") String name, @PathParam("input") String inputName,
+                                    @QueryParam("namespace") String namespace, @QueryParam("projectName") String projectName,
+                                    @QueryParam("path") String resourcePath, @QueryParam("prefix") String prefix,
+                                    @QueryParam("offset") @DefaultValue("0") int offset,
+                                    @QueryParam("limit") @DefaultValue("100") int limit) throws Exception;
+
+    @GET
+    @Path("/command/{name}/input/{input}/choices/{namespace}/{projectName}/{path: .*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getProjectCommandInputChoices(@PathParam("name") String name, @PathParam("input") String inputName,
+                                           @PathParam("namespace") String namespace, @PathParam("projectName") String projectName,
+                                           @PathParam("path") String resourcePath, @QueryParam("prefix") String prefix,
+                                           @QueryParam("offset") @DefaultValue("0") int offset,
+                                           @QueryParam("limit") @DefaultValue("100") int limit) throws Exception;
+
     @GET
     @Path("/invoke/{name}/{namespace}/{projectName}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -106,4 +127,26 @@ public interface CommandsAPI {
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     Response validateCommand(@PathParam("name") String name, ExecutionRequest executionRequest) throws Exception;
+
+    @POST
+    @Path("/batch/execute")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    Response executeBatch(BatchExecutionRequest batchRequest) throws Exception;
+
+    @POST
+    @Path("/jobs/{name}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    Response submitJob(@PathParam("name") String name, ExecutionRequest executionRequest) throws Exception;
+
+    @GET
+    @Path("/jobs/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getJob(@PathParam("id") String id);
+
+    @GET
+    @Path("/jobs/{id}/stream")
+    @Produces("text/event-stream")
+    Response streamJob(@PathParam("id") String id);
 }
@@ -15,24 +15,40 @@
  */
 package io.fabric8.forge.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.forge.rest.dto.BatchCommandDTO;
+import io.fabric8.forge.rest.dto.BatchExecutionRequest;
+import io.fabric8.forge.rest.dto.BatchExecutionResult;
 import io.fabric8.forge.rest.dto.CommandInfoDTO;
 import io.fabric8.forge.rest.dto.CommandInputDTO;
 import io.fabric8.forge.rest.dto.ExecutionRequest;
 import io.fabric8.forge.rest.dto.ExecutionResult;
+import io.fabric8.forge.rest.dto.JobDTO;
 import io.fabric8.forge.rest.dto.UICommands;
 import io.fabric8.forge.rest.dto.ValidationResult;
+import io.fabric8.forge.rest.dto.ValueChoicesDTO;
 import io.fabric8.forge.rest.dto.WizardResultsDTO;
+import io.fabric8.forge.rest.git.BlobStreams;
 import io.fabric8.forge.rest.git.GitContext;
 import io.fabric8.forge.rest.git.GitLockManager;
+import io.fabric8.forge.rest.git.GitObjectCache;
 import io.fabric8.forge.rest.git.GitOperation;
 import io.fabric8.forge.rest.git.RepositoriesResource;
 import io.fabric8.forge.rest.git.RepositoryResource;
 import io.fabric8.forge.rest.hooks.CommandCompletePostProcessor;
+import io.fabric8.forge.rest.main.CommandJob;
+import io.fabric8.forge.rest.main.CommandJobs;
+import io.fabric8.forge.rest.main.CommandMetadataCache;
+import io.fabric8.forge.rest.main.CommandsSnapshot;
+import io.fabric8.forge.rest.main.DetachedHttpServletRequest;
 import io.fabric8.forge.rest.main.GitUserHelper;
 import io.fabric8.forge.rest.main.ProjectFileSystem;
 import io.fabric8.forge.rest.main.RepositoryCache;
+import io.fabric8.forge.rest.main.WizardSession;
+import io.fabric8.forge.rest.main.WizardSessions;
 import io.fabric8.forge.rest.ui.RestUIContext;
 import io.fabric8.forge.rest.ui.RestUIFunction;
+import io.fabric8.forge.rest.ui.RestUIProgressMonitor;
 import io.fabric8.forge.rest.ui.RestUIRuntime;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.project.support.UserDetails;
@@ -48,8 +64,10 @@ import org.jboss.forge.addon.ui.command.UICommand;
 import org.jboss.forge.addon.ui.controller.CommandController;
 import org.jboss.forge.addon.ui.controller.CommandControllerFactory;
 import org.jboss.forge.addon.ui.controller.WizardCommandController;
+import org.jboss.forge.addon.ui.input.InputComponent;
 import org.jboss.forge.addon.ui.output.UIMessage;
 import org.jboss.forge.addon.ui.result.Result;
+import org.jboss.forge.addon.ui.wizard.UIWizard;
 import org.jboss.forge.furnace.Furnace;
 import org.jboss.forge.furnace.addons.AddonRegistry;
 import org.jboss.forge.furnace.services.Imported;
@@ -58,27 +76,42 @@ import org.slf4j.LoggerFactory;
 
 import javax.ejb.Stateless;
 import javax.inject.Inject;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static io.fabric8.forge.rest.Constants.PROJECT_NEW_COMMAND;
 import static io.fabric8.forge.rest.Constants.RequestParameters;
@@ -107,14 +140,24 @@ public class CommandsResource implements CommandsAPI {
     ));
     protected static final List<String> ignoreCommandPrefixes = Arrays.asList("addon-", "archetype-", "fabric8-", "git-", "camel-get-");
 
+    protected static final String SERVER_SENT_EVENTS = "text/event-stream";
+    protected static final int TOO_MANY_REQUESTS = 429;
+    protected static final long JOB_STREAM_POLL_MILLIS = 500;
+    protected static final long JOB_STREAM_MAX_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final ObjectMapper jobMapper = new ObjectMapper();
+
     @Inject
     private Furnace furnace;
 
     @Inject
-    private CommandControllerFactory commandControllerFactory;
+    private Provider<CommandControllerFactory> commandControllerFactory;
 
     @Inject
-    private CommandFactory commandFactory;
+    private Provider<CommandFactory> commandFactory;
+
+    @Inject
+    private CommandsSnapshot commandsSnapshot;
 
     @Inject
     private CommandCompletePostProcessor commandCompletePostProcessor;
@@ -134,9 +177,24 @@ public class CommandsResource implements CommandsAPI {
     @Inject
     private GitLockManager lockManager;
 
+    @Inject
+    private GitObjectCache objectCache;
+
+    @Inject
+    private CommandMetadataCache metadataCache;
+
+    @Inject
+    private CommandJobs commandJobs;
+
+    @Inject
+    private WizardSessions wizardSessions;
+
     @Context
     private HttpServletRequest request;
 
+    @Context
+    private HttpServletResponse response;
+
     private ConverterFactory converterFactory;
 
 
@@ -152,7 +210,7 @@ public class CommandsResource implements CommandsAPI {
     public List<String> getCommandNames() {
         List<String> answer = new ArrayList<>();
         try (RestUIContext context = new RestUIContext()) {
-            for (String commandName : commandFactory.getCommandNames(context)) {
+            for (String commandName : commandFactory.get().getCommandNames(context)) {
                 answer.add(commandName);
             }
         }
@@ -164,6 +222,13 @@ public class CommandsResource implements CommandsAPI {
     @Path("/commands")
     @Produces(MediaType.APPLICATION_JSON)
     public List<CommandInfoDTO> getCommands() throws Exception {
+        if (!commandsSnapshot.isLive()) {
+            // lets use the snapshot from the last run while forge is still starting up
+            List<CommandInfoDTO> snapshot = commandsSnapshot.getCommands();
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
         return getCommands(null, null, null);
     }
 
@@ -180,25 +245,56 @@ public class CommandsResource implements CommandsAPI {
     @Path("/commands/{namespace}/{projectName}/{path: .*}")
     @Produces(MediaType.APPLICATION_JSON)
     public List<CommandInfoDTO> getCommands(@PathParam("namespace") String namespace, @PathParam("projectName") String projectName, @PathParam("path") String resourcePath) throws Exception {
+        validateMetadataCache();
         return withUIContext(namespace, projectName, resourcePath, false, new RestUIFunction<List<CommandInfoDTO>>() {
             @Override
             public List<CommandInfoDTO> apply(RestUIContext context) {
-                List<CommandInfoDTO> answer = new ArrayList<>();
-                for (String name : commandFactory.getCommandNames(context)) {
-                    try {
-                        CommandInfoDTO dto = createCommandInfoDTO(context, name);
-                        if (dto != null && dto.isEnabled()) {
-                            answer.add(dto);
-                        }
-                    } catch (Exception e) {
-                        LOG.warn("Ignored exception on command " + name + " probably due to missing project?: " + e, e);
-                    }
+                String shape = getSelectionShape(context);
+                String etag = metadataCache.getETag("commands", shape, null);
+                if (isNotModified(etag)) {
+                    throw new WebApplicationException(notModified(etag));
                 }
+                List<CommandInfoDTO> answer = getCommands(context, shape);
+                response.setHeader(HttpHeaders.ETAG, quoteETag(etag));
+                response.setHeader(HttpHeaders.CACHE_CONTROL, getCacheControl());
                 return answer;
             }
         });
     }
 
+    /**
+     * Returns the enabled commands without any HTTP caching headers; such as when preloading the commands on startup
+     */
+    public List<CommandInfoDTO> loadCommands(String namespace, String projectName, String resourcePath) throws Exception {
+        validateMetadataCache();
+        return withUIContext(namespace, projectName, resourcePath, false, new RestUIFunction<List<CommandInfoDTO>>() {
+            @Override
+            public List<CommandInfoDTO> apply(RestUIContext context) {
+                return getCommands(context, getSelectionShape(context));
+            }
+        });
+    }
+
+    protected List<CommandInfoDTO> getCommands(RestUIContext context, String shape) {
+        List<CommandInfoDTO> answer = metadataCache.getCommands(shape);
+        if (answer != null) {
+            return answer;
+        }
+        answer = new ArrayList<>();
+        for (String name : commandFactory.get().getCommandNames(context)) {
+            try {
+                CommandInfoDTO dto = createCommandInfoDTO(context, name);
+                if (dto != null && dto.isEnabled()) {
+                    answer.add(dto);
+                }
+            } catch (Exception e) {
+                LOG.warn("Ignored exception on command " + name + " probably due to missing project?: " + e, e);
+            }
+        }
+        metadataCache.putCommands(shape, answer);
+        return answer;
+    }
+
     @Override
     @GET
     @Path("/command/{name}")
@@ -213,12 +309,24 @@ public class CommandsResource implements CommandsAPI {
     @Produces(MediaType.APPLICATION_JSON)
     public Response getCommandInfo(@PathParam("name") final String name, @PathParam("namespace") final String namespace, @PathParam("projectName") final String projectName,
                                    @PathParam("path") final String resourcePath) throws Exception {
+        validateMetadataCache();
         return withUIContext(namespace, projectName, resourcePath, false, new RestUIFunction<Response>() {
             @Override
             public Response apply(RestUIContext context) {
-                CommandInfoDTO answer = createCommandInfoDTO(context, name);
+                String shape = getSelectionShape(context);
+                String etag = metadataCache.getETag("info", shape, name);
+                if (isNotModified(etag)) {
+                    return notModified(etag);
+                }
+                CommandInfoDTO answer = metadataCache.getCommandInfo(shape, name);
+                if (answer == null) {
+                    answer = createCommandInfoDTO(context, name);
+                    if (answer != null) {
+                        metadataCache.putCommandInfo(shape, name, answer);
+                    }
+                }
                 if (answer != null) {
-                    return Response.ok(answer).build();
+                    return Response.ok(answer).header(HttpHeaders.ETAG, quoteETag(etag)).header(HttpHeaders.CACHE_CONTROL, getCacheControl()).build();
                 } else {
                     return Response.status(Status.NOT_FOUND).build();
                 }
@@ -249,24 +357,120 @@ public class CommandsResource implements CommandsAPI {
     public Response getCommandInput(@PathParam("name") final String name,
                                     @PathParam("namespace") String namespace, @PathParam("projectName") String projectName,
                                     @PathParam("path") String resourcePath) throws Exception {
+        validateMetadataCache();
         return withUIContext(namespace, projectName, resourcePath, false, new RestUIFunction<Response>() {
             @Override
             public Response apply(RestUIContext context) throws Exception {
-                CommandInputDTO answer = null;
-                UICommand command = getCommandByName(context, name);
-                if (command != null) {
-                    CommandController controller = createController(context, command);
-                    answer = UICommands.createCommandInputDTO(context, command, controller);
+                boolean lazyChoices = Boolean.parseBoolean(request.getParameter(RequestParameters.LAZY_CHOICES));
+                String shape = getSelectionShape(context);
+                String etag = metadataCache.getETag(CommandMetadataCache.inputKind(lazyChoices), shape, name);
+                CommandInputDTO answer = metadataCache.getCommandInput(shape, name, lazyChoices);
+                boolean cached = answer != null;
+                if (cached && isNotModified(etag)) {
+                    return notModified(etag);
                 }
-                if (answer != null) {
-                    return Response.ok(answer).build();
+                if (answer == null) {
+                    UICommand command = getCommandByName(context, name);
+                    if (command != null) {
+                        CommandController controller = createController(context, command);
+                        answer = UICommands.createCommandInputDTO(context, command, controller, lazyChoices);
+                        cached = metadataCache.putCommandInput(shape, name, lazyChoices, answer);
+                    }
+                }
+                if (answer == null) {
+                    return Response.status(Status.NOT_FOUND).build();
+                } else if (cached) {
+                    return Response.ok(answer).header(HttpHeaders.ETAG, quoteETag(etag)).header(HttpHeaders.CACHE_CONTROL, getCacheControl()).build();
                 } else {
+                    // the inputs depend on live data so must not be cached by the browser either
+                    return Response.ok(answer).header(HttpHeaders.CACHE_CONTROL, "no-cache").build();
+                }
+            }
+        });
+    }
+
+    /**
+     * Evaluates the value choices of an input on demand; such as for inputs returned with lazy choices
+     */
+    @Override
+    @GET
+    @Path("/command/{name}/input/{input}/choices")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getCommandInputChoices(@PathParam("name") final String name, @PathParam("input") final String inputName,
+                                           @QueryParam("namespace") String namespace, @QueryParam("projectName") String projectName,
+                                           @QueryParam("path") String resourcePath, @QueryParam("prefix") final String prefix,
+                                           @QueryParam("offset") @DefaultValue("0") final int offset,
+                                           @QueryParam("limit") @DefaultValue("100") final int limit) throws Exception {
+        return withUIContext(namespace, projectName, resourcePath, false, new RestUIFunction<Response>() {
+            @Override
+            public Response apply(RestUIContext context) throws Exception {
+                UICommand command = getCommandByName(context, name);
+                if (command == null) {
+                    return Response.status(Status.NOT_FOUND).build();
+                }
+                CommandController controller = createController(context, command);
+                InputComponent<?, ?> input = controller.getInputs().get(inputName);
+                if (input == null) {
                     return Response.status(Status.NOT_FOUND).build();
                 }
+                ValueChoicesDTO answer = UICommands.createValueChoicesDTO(context, input, prefix, offset, limit);
+                return Response.ok(answer).header(HttpHeaders.CACHE_CONTROL, "no-cache").build();
             }
         });
     }
 
+    /**
+     * Evaluates the value choices of an input on demand for the project and resource path given in the path segments
+     */
+    @Override
+    @GET
+    @Path("/command/{name}/input/{input}/choices/{namespace}/{projectName}/{path: .*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getProjectCommandInputChoices(@PathParam("name") String name, @PathParam("input") String inputName,
+                                                  @PathParam("namespace") String namespace, @PathParam("projectName") String projectName,
+                                                  @PathParam("path") String resourcePath, @QueryParam("prefix") String prefix,
+                                                  @QueryParam("offset") @DefaultValue("0") int offset,
+                                                  @QueryParam("limit") @DefaultValue("100") int limit) throws Exception {
+        return getCommandInputChoices(name, inputName, namespace, projectName, resourcePath, prefix, offset, limit);
+    }
+
+    /**
+     * Invalidates the command metadata if the addons have changed since it was cached
+     */
+    protected void validateMetadataCache() {
+        if (furnace != null) {
+            metadataCache.listenTo(furnace);
+            metadataCache.checkRegistryVersion(furnace.getAddonRegistry().getVersion());
+        }
+    }
+
+    /**
+     * Returns true if the request has an <code>If-None-Match</code> header matching the entity tag
+     */
+    protected boolean isNotModified(String etag) {
+        return BlobStreams.matchesETag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag);
+    }
+
+    /**
+     * Returns the shape of the selection of the current user which the command metadata is cached by
+     */
+    protected String getSelectionShape(RestUIContext context) {
+        String user = gitUserHelper.createUserDetails(request).getUser();
+        return CommandMetadataCache.getSelectionShape(user, context.getNamespace(), context.getProjectName(), context.getInitialSelectionFile());
+    }
+
+    protected Response notModified(String etag) {
+        return Response.notModified().header(HttpHeaders.ETAG, quoteETag(etag)).header(HttpHeaders.CACHE_CONTROL, getCacheControl()).build();
+    }
+
+    protected String getCacheControl() {
+        return "private, max-age=" + metadataCache.getMaxAgeSeconds();
+    }
+
+    protected static String quoteETag(String etag) {
+        return "\"" + etag + "\"";
+    }
+
 
     /**
      * Provides a simple way to execute a command via a single GET
@@ -355,108 +559,399 @@ public class CommandsResource implements CommandsAPI {
         }
     }
 
+    @Override
+    @POST
+    @Path("/batch/execute")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response executeBatch(final BatchExecutionRequest batchRequest) throws Exception {
+        final List<BatchCommandDTO> commands = batchRequest.getCommands();
+        if (commands == null || commands.isEmpty()) {
+            return Response.status(Status.BAD_REQUEST).entity("No commands to execute").type(MediaType.TEXT_PLAIN).build();
+        }
+        final CommandCompletePostProcessor postProcessor = this.commandCompletePostProcessor;
+        final List<ExecutionRequest> executionRequests = new ArrayList<>();
+        UserDetails details = null;
+        for (BatchCommandDTO command : commands) {
+            ExecutionRequest executionRequest = batchRequest.createExecutionRequest(command);
+            if (postProcessor != null) {
+                details = postProcessor.preprocessRequest(command.getName(), executionRequest, request);
+            }
+            executionRequests.add(executionRequest);
+        }
+        final UserDetails userDetails = details;
+        try {
+            // all the commands share a single pull, context and commit; if one fails the working tree is reset
+            BatchExecutionResult answer = withUIContext(batchRequest.getNamespace(), batchRequest.getProjectName(), batchRequest.getResource(), true, new RestUIFunction<BatchExecutionResult>() {
+                @Override
+                public BatchExecutionResult apply(RestUIContext uiContext) throws Exception {
+                    if (userDetails != null) {
+                        userDetails.setAddress(uiContext.getCloneUrl());
+                    }
+                    return doExecuteBatch(commands, executionRequests, postProcessor, userDetails, uiContext);
+                }
+            }, new GitContext().rollbackOnFailure());
+            return Response.ok(answer).build();
+        } catch (BatchFailedException e) {
+            return Response.status(e.getStatus()).entity(e.getResult()).build();
+        }
+    }
+
+    protected BatchExecutionResult doExecuteBatch(List<BatchCommandDTO> commands, List<ExecutionRequest> executionRequests, CommandCompletePostProcessor postProcessor, UserDetails userDetails, RestUIContext context) throws Exception {
+        BatchExecutionResult answer = new BatchExecutionResult();
+        List<String> commitMessages = new ArrayList<>();
+        List<Runnable> postCompleteActions = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            String name = commands.get(i).getName();
+            ExecutionRequest executionRequest = executionRequests.get(i);
+            configureTargetLocation(name, executionRequest, userDetails);
+            context.getProvider().reset();
+            Response response;
+            try {
+                response = doExecuteInContext(name, executionRequest, postProcessor, userDetails, context, request, postCompleteActions);
+            } catch (Exception e) {
+                LOG.warn("Failed to invoke command " + name + " in batch step " + i + " on " + executionRequest + ". " + e, e);
+                answer.setFailedCommand(i);
+                answer.setError("Command " + name + " failed: " + e);
+                throw new BatchFailedException(answer, Status.INTERNAL_SERVER_ERROR.getStatusCode(), e);
+            }
+            Object entity = response.getEntity();
+            ExecutionResult result = entity instanceof ExecutionResult ? (ExecutionResult) entity : null;
+            if (result != null) {
+                answer.getResults().add(result);
+            }
+            int status = response.getStatus();
+            if (status != Status.OK.getStatusCode() || result == null || !result.isCommandCompleted()) {
+                answer.setFailedCommand(i);
+                answer.setError(status == Status.NOT_FOUND.getStatusCode() ? "No such command " + name : "Command " + name + " did not complete");
+                throw new BatchFailedException(answer, status == Status.OK.getStatusCode() ? Status.BAD_REQUEST.getStatusCode() : status, null);
+            }
+            commitMessages.add(ExecutionRequest.createCommitMessage(name, executionRequest));
+        }
+        // only import new projects or register web hooks once the whole batch has succeeded
+        for (Runnable action : postCompleteActions) {
+            action.run();
+        }
+        answer.setCommitted(true);
+        context.setCommitMessage(Strings.join(commitMessages, "\n"));
+        return answer;
+    }
+
+    /**
+     * Thrown when a command of a batch fails so that the git operation rolls back the changes of the whole batch
+     */
+    protected static class BatchFailedException extends Exception {
+        private final BatchExecutionResult result;
+        private final int status;
+
+        public BatchFailedException(BatchExecutionResult result, int status, Throwable cause) {
+            super(result.getError(), cause);
+            this.result = result;
+            this.status = status;
+        }
+
+        public BatchExecutionResult getResult() {
+            return result;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    @Override
+    @POST
+    @Path("/jobs/{name}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response submitJob(@PathParam("name") final String name, final ExecutionRequest executionRequest) throws Exception {
+        // the job outlives this request so lets take a copy of the headers and parameters it needs
+        final HttpServletRequest jobRequest = new DetachedHttpServletRequest(request);
+        final CommandCompletePostProcessor postProcessor = this.commandCompletePostProcessor;
+        final UserDetails userDetails;
+        if (postProcessor != null) {
+            userDetails = postProcessor.preprocessRequest(name, executionRequest, jobRequest);
+        } else {
+            userDetails = null;
+        }
+        final String namespace = executionRequest.getNamespace();
+        final String projectName = executionRequest.getProjectName();
+        final String resourcePath = executionRequest.getResource();
+        String user = userDetails != null ? userDetails.getUser() : null;
+        CommandJob job;
+        try {
+            job = commandJobs.submit(name, user, new CommandJobs.JobTask() {
+                @Override
+                public Response execute(final CommandJob job) throws Exception {
+                    return withUIContext(jobRequest, namespace, projectName, resourcePath, true, new RestUIFunction<Response>() {
+                        @Override
+                        public Response apply(RestUIContext uiContext) throws Exception {
+                            job.attach(uiContext);
+                            if (userDetails != null) {
+                                userDetails.setAddress(uiContext.getCloneUrl());
+                            }
+                            return doExecute(name, executionRequest, postProcessor, userDetails, uiContext, jobRequest);
+                        }
+                    }, new GitContext());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Rejected job for command " + name + ". " + e.getMessage());
+            return Response.status(TOO_MANY_REQUESTS).entity(e.getMessage()).type(MediaType.TEXT_PLAIN).build();
+        }
+        return Response.accepted(job.toDTO()).build();
+    }
+
+    @Override
+    @GET
+    @Path("/jobs/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getJob(@PathParam("id") String id) {
+        JobDTO answer = commandJobs.getJobStatus(id);
+        if (answer == null || !isCurrentUser(answer.getUser())) {
+            return Response.status(Status.NOT_FOUND).build();
+        }
+        return Response.ok(answer).build();
+    }
+
+    /**
+     * Streams the output and progress of a job as server sent events until the job completes.
+     * <p/>
+     * A comment line is written on each poll so that a client which has gone away is noticed; the stream
+     * is ended after a while in which case the client can connect again or poll the job.
+     */
+    @Override
+    @GET
+    @Path("/jobs/{id}/stream")
+    @Produces(SERVER_SENT_EVENTS)
+    public Response streamJob(@PathParam("id") String id) {
+        final CommandJob job = commandJobs.getJob(id);
+        final JobDTO completed = job == null ? commandJobs.getJobStatus(id) : null;
+        if (job == null && completed == null) {
+            return Response.status(Status.NOT_FOUND).build();
+        }
+        if (!isCurrentUser(job != null ? job.getUser() : completed.getUser())) {
+            return Response.status(Status.NOT_FOUND).build();
+        }
+        StreamingOutput stream = new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException, WebApplicationException {
+                Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+                if (job == null) {
+                    writeEvent(writer, "out", completed.getOutput());
+                    writeEvent(writer, "err", completed.getErr());
+                    writeEvent(writer, "status", jobMapper.writeValueAsString(completed));
+                    writer.flush();
+                    return;
+                }
+                int outOffset = 0;
+                int errOffset = 0;
+                String lastProgress = null;
+                long deadline = System.currentTimeMillis() + JOB_STREAM_MAX_MILLIS;
+                while (true) {
+                    // read the status first so that we never miss output written just before the job finished
+                    boolean finished = job.isFinished();
+                    String out = job.getOutput();
+                    String err = job.getErr();
+                    if (out != null && out.length() > outOffset) {
+                        writeEvent(writer, "out", out.substring(outOffset));
+                        outOffset = out.length();
+                    }
+                    if (err != null && err.length() > errOffset) {
+                        writeEvent(writer, "err", err.substring(errOffset));
+                        errOffset = err.length();
+                    }
+                    RestUIProgressMonitor monitor = job.getProgressMonitor();
+                    String progress = monitor.getTaskName() + "|" + monitor.getSubTask() + "|" + monitor.getCurrentWork() + "|" + monitor.getTotalWork();
+                    if (!progress.equals(lastProgress) && monitor.getTaskName() != null) {
+                        Map<String, Object> progressEvent = new LinkedHashMap<>();
+                        progressEvent.put("taskName", monitor.getTaskName());
+                        progressEvent.put("subTask", monitor.getSubTask());
+                        progressEvent.put("currentWork", monitor.getCurrentWork());
+                        progressEvent.put("totalWork", monitor.getTotalWork());
+                        writeEvent(writer, "progress", jobMapper.writeValueAsString(progressEvent));
+                        lastProgress = progress;
+                    }
+                    if (finished || System.currentTimeMillis() > deadline) {
+                        writeEvent(writer, "status", jobMapper.writeValueAsString(job.toDTO()));
+                        writer.flush();
+                        return;
+                    }
+                    // a heartbeat so that writing fails once the client has disconnected
+                    writer.write(":\n");
+                    writer.flush();
+                    try {
+                        Thread.sleep(JOB_STREAM_POLL_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        };
+        return Response.ok(stream).header(HttpHeaders.CACHE_CONTROL, "no-cache").build();
+    }
+
+    /**
+     * Returns true if the given user is the user making the current request
+     */
+    protected boolean isCurrentUser(String user) {
+        String currentUser = gitUserHelper.createUserDetails(request).getUser();
+        return Objects.equal(user, currentUser);
+    }
+
+    protected static void writeEvent(Writer writer, String event, String data) throws IOException {
+        if (Strings.isNullOrBlank(data)) {
+            return;
+        }
+        writer.write("event: " + event + "\n");
+        for (String line : data.split("\r?\n", -1)) {
+            writer.write("data: " + line + "\n");
+        }
+        writer.write("\n");
+    }
+
     /**
      * This method is only used to warm up JBoss Forge so we can create a sample project on startup in a temporary directory
      */
     public Response doExecute(String name, ExecutionRequest executionRequest, CommandCompletePostProcessor postProcessor, UserDetails userDetails, RestUIContext uiContext) throws Exception {
+        return doExecute(name, executionRequest, postProcessor, userDetails, uiContext, request);
+    }
+
+    protected Response doExecute(String name, ExecutionRequest executionRequest, CommandCompletePostProcessor postProcessor, UserDetails userDetails, RestUIContext uiContext, HttpServletRequest request) throws Exception {
+        configureTargetLocation(name, executionRequest, userDetails);
+        WizardSession session = getWizardSession(name, executionRequest, userDetails, uiContext, request);
+        if (session != null) {
+            return doExecute(name, executionRequest, postProcessor, session, uiContext, request);
+        }
         try (RestUIContext context = uiContext) {
-            UICommand command = getCommandByName(context, name);
-            if (command == null) {
-                return Response.status(Status.NOT_FOUND).build();
+            return doExecuteInContext(name, executionRequest, postProcessor, userDetails, context, request);
+        }
+    }
+
+    /**
+     * Lets ensure a valid targetLocation for new projects
+     */
+    protected void configureTargetLocation(String name, ExecutionRequest executionRequest, UserDetails userDetails) {
+        List<Map<String, Object>> inputList = executionRequest.getInputList();
+        if (Objects.equal(PROJECT_NEW_COMMAND, name)) {
+            if (inputList.size() > 0) {
+                Map<String, Object> map = inputList.get(0);
+                map.put(TARGET_LOCATION_PROPERTY, projectFileSystem.getUserProjectFolderLocation(userDetails));
             }
-            List<Map<String, Object>> inputList = executionRequest.getInputList();
+        }
+    }
 
-            // lets ensure a valid targetLocation for new projects
-            if (Objects.equal(PROJECT_NEW_COMMAND, name)) {
-                if (inputList.size() > 0) {
-                    Map<String, Object> map = inputList.get(0);
-                    map.put(TARGET_LOCATION_PROPERTY, projectFileSystem.getUserProjectFolderLocation(userDetails));
+    /**
+     * Executes the command in the given context without closing it so that the context can be reused by further commands
+     */
+    protected Response doExecuteInContext(String name, ExecutionRequest executionRequest, CommandCompletePostProcessor postProcessor, UserDetails userDetails, RestUIContext context, HttpServletRequest request) throws Exception {
+        return doExecuteInContext(name, executionRequest, postProcessor, userDetails, context, request, null);
+    }
+
+    /**
+     * Executes the command in the given context without closing it; if a list of deferred actions is given the post
+     * complete actions are added to it rather than fired so they can be fired once every command of a batch has completed
+     */
+    protected Response doExecuteInContext(final String name, final ExecutionRequest executionRequest, final CommandCompletePostProcessor postProcessor, UserDetails userDetails, final RestUIContext context, final HttpServletRequest request, List<Runnable> deferredActions) throws Exception {
+        UICommand command = getCommandByName(context, name);
+        if (command == null) {
+            return Response.status(Status.NOT_FOUND).build();
+        }
+        List<Map<String, Object>> inputList = executionRequest.getInputList();
+        final CommandController controller = createController(context, command);
+        configureAttributeMaps(userDetails, controller, executionRequest);
+        ExecutionResult answer = null;
+        if (controller instanceof WizardCommandController) {
+            WizardCommandController wizardCommandController = (WizardCommandController) controller;
+            List<WizardCommandController> controllers = new ArrayList<>();
+            List<CommandInputDTO> stepPropertiesList = new ArrayList<>();
+            List<ExecutionResult> stepResultList = new ArrayList<>();
+            List<ValidationResult> stepValidationList = new ArrayList<>();
+            controllers.add(wizardCommandController);
+            WizardCommandController lastController = wizardCommandController;
+            Result lastResult = null;
+            int page = executionRequest.wizardStep();
+            int nextPage = page + 1;
+            boolean canMoveToNextStep = false;
+            for (Map<String, Object> inputs : inputList) {
+                UICommands.populateController(inputs, lastController, getConverterFactory());
+                List<UIMessage> messages = lastController.validate();
+                ValidationResult stepValidation = UICommands.createValidationResult(context, lastController, messages);
+                stepValidationList.add(stepValidation);
+                if (!stepValidation.isValid()) {
+                    break;
                 }
-            }
-            CommandController controller = createController(context, command);
-            configureAttributeMaps(userDetails, controller, executionRequest);
-            ExecutionResult answer = null;
-            if (controller instanceof WizardCommandController) {
-                WizardCommandController wizardCommandController = (WizardCommandController) controller;
-                List<WizardCommandController> controllers = new ArrayList<>();
-                List<CommandInputDTO> stepPropertiesList = new ArrayList<>();
-                List<ExecutionResult> stepResultList = new ArrayList<>();
-                List<ValidationResult> stepValidationList = new ArrayList<>();
-                controllers.add(wizardCommandController);
-                WizardCommandController lastController = wizardCommandController;
-                Result lastResult = null;
-                int page = executionRequest.wizardStep();
-                int nextPage = page + 1;
-                boolean canMoveToNextStep = false;
-                for (Map<String, Object> inputs : inputList) {
-                    UICommands.populateController(inputs, lastController, getConverterFactory());
-                    List<UIMessage> messages = lastController.validate();
-                    ValidationResult stepValidation = UICommands.createValidationResult(context, lastController, messages);
-                    stepValidationList.add(stepValidation);
-                    if (!stepValidation.isValid()) {
+                canMoveToNextStep = lastController.canMoveToNextStep();
+                boolean valid = lastController.isValid();
+                if (!canMoveToNextStep) {
+                    if (lastController.canExecute()) {
+                        // lets assume we can execute now
+                        LOG.info("About to invoked command " + name + " stepValidation: " + stepValidation + " messages: " + messages + " with " + executionRequest);
+                        lastResult = lastController.execute();
+                        LOG.debug("Invoked command " + name + " with " + executionRequest + " result: " + lastResult);
+                        ExecutionResult stepResults = UICommands.createExecutionResult(context, lastResult, false);
+                        stepResultList.add(stepResults);
                         break;
-                    }
-                    canMoveToNextStep = lastController.canMoveToNextStep();
-                    boolean valid = lastController.isValid();
-                    if (!canMoveToNextStep) {
-                        if (lastController.canExecute()) {
-                            // lets assume we can execute now
-                            LOG.info("About to invoked command " + name + " stepValidation: " + stepValidation + " messages: " + messages + " with " + executionRequest);
-                            lastResult = lastController.execute();
-                            LOG.debug("Invoked command " + name + " with " + executionRequest + " result: " + lastResult);
-                            ExecutionResult stepResults = UICommands.createExecutionResult(context, lastResult, false);
-                            stepResultList.add(stepResults);
-                            break;
-                        } else {
-                            stepValidation.addValidationError("Forge command failed with an internal error");
-                            LOG.warn("Cannot move to next step as canExecute() returns false but the validation seems to be fine!");
-                            break;
-                        }
-                    } else if (!valid) {
-                        stepValidation.addValidationError("Forge command is not valid but didn't report any validation errors!");
-                        LOG.warn("Cannot move to next step as invalid despite the validation saying otherwise");
+                    } else {
+                        stepValidation.addValidationError("Forge command failed with an internal error");
+                        LOG.warn("Cannot move to next step as canExecute() returns false but the validation seems to be fine!");
                         break;
                     }
-                    WizardCommandController nextController = lastController.next();
-                    if (nextController != null) {
-                        if (nextController == lastController) {
-                            LOG.warn("No idea whats going on ;)");
-                            break;
-                        }
-                        lastController = nextController;
-                        lastController.initialize();
-                        controllers.add(lastController);
-                        CommandInputDTO stepDto = UICommands.createCommandInputDTO(context, command, lastController);
-                        stepPropertiesList.add(stepDto);
-                    } else {
-                        int i = 0;
-                        for (WizardCommandController stepController : controllers) {
-                            Map<String, Object> stepControllerInputs = inputList.get(i++);
-                            UICommands.populateController(stepControllerInputs, stepController, getConverterFactory());
-                            lastResult = stepController.execute();
-                            LOG.debug("Invoked command " + name + " with " + executionRequest + " result: " + lastResult);
-                            ExecutionResult stepResults = UICommands.createExecutionResult(context, lastResult, false);
-                            stepResultList.add(stepResults);
-                        }
+                } else if (!valid) {
+                    stepValidation.addValidationError("Forge command is not valid but didn't report any validation errors!");
+                    LOG.warn("Cannot move to next step as invalid despite the validation saying otherwise");
+                    break;
+                }
+                WizardCommandController nextController = lastController.next();
+                if (nextController != null) {
+                    if (nextController == lastController) {
+                        LOG.warn("No idea whats going on ;)");
                         break;
                     }
+                    lastController = nextController;
+                    lastController.initialize();
+                    controllers.add(lastController);
+                    CommandInputDTO stepDto = UICommands.createCommandInputDTO(context, command, lastController);
+                    stepPropertiesList.add(stepDto);
+                } else {
+                    int i = 0;
+                    for (WizardCommandController stepController : controllers) {
+                        Map<String, Object> stepControllerInputs = inputList.get(i++);
+                        UICommands.populateController(stepControllerInputs, stepController, getConverterFactory());
+                        lastResult = stepController.execute();
+                        LOG.debug("Invoked command " + name + " with " + executionRequest + " result: " + lastResult);
+                        ExecutionResult stepResults = UICommands.createExecutionResult(context, lastResult, false);
+                        stepResultList.add(stepResults);
+                    }
+                    break;
                 }
-                answer = UICommands.createExecutionResult(context, lastResult, canMoveToNextStep);
-                WizardResultsDTO wizardResultsDTO = new WizardResultsDTO(stepPropertiesList, stepValidationList, stepResultList);
-                answer.setWizardResults(wizardResultsDTO);
-            } else {
-                Map<String, Object> inputs = inputList.get(0);
-                UICommands.populateController(inputs, controller, getConverterFactory());
-                Result result = controller.execute();
-                LOG.debug("Invoked command " + name + " with " + executionRequest + " result: " + result);
-                answer = UICommands.createExecutionResult(context, result, false);
             }
-            if (answer.isCommandCompleted() && postProcessor != null) {
+            answer = UICommands.createExecutionResult(context, lastResult, canMoveToNextStep);
+            WizardResultsDTO wizardResultsDTO = new WizardResultsDTO(stepPropertiesList, stepValidationList, stepResultList);
+            answer.setWizardResults(wizardResultsDTO);
+        } else {
+            Map<String, Object> inputs = inputList.get(0);
+            UICommands.populateController(inputs, controller, getConverterFactory());
+            Result result = controller.execute();
+            LOG.debug("Invoked command " + name + " with " + executionRequest + " result: " + result);
+            answer = UICommands.createExecutionResult(context, result, false);
+        }
+        if (answer.isCommandCompleted() && postProcessor != null) {
+            if (deferredActions != null) {
+                final ExecutionResult result = answer;
+                deferredActions.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        postProcessor.firePostCompleteActions(name, executionRequest, context, controller, result, request);
+                    }
+                });
+            } else {
                 postProcessor.firePostCompleteActions(name, executionRequest, context, controller, answer, request);
             }
-            context.setCommitMessage(ExecutionRequest.createCommitMessage(name, executionRequest));
-            return Response.ok(answer).build();
         }
+        context.setCommitMessage(ExecutionRequest.createCommitMessage(name, executionRequest));
+        return Response.ok(answer).build();
     }
 
     protected void configureAttributeMaps(UserDetails userDetails, CommandController controller, ExecutionRequest executionRequest) {
@@ -513,6 +1008,10 @@ public class CommandsResource implements CommandsAPI {
      * Helper method used purely to pre-load and warm up JBoss Forge
      */
     public Response doValidate(String name, ExecutionRequest executionRequest, UserDetails userDetails, RestUIContext uiContext) throws Exception {
+        WizardSession session = getWizardSession(name, executionRequest, userDetails, uiContext, request);
+        if (session != null) {
+            return doValidate(name, executionRequest, session, uiContext);
+        }
         try (RestUIContext context = uiContext) {
             UICommand command = getCommandByName(context, name);
             if (command == null) {
@@ -589,6 +1088,190 @@ public class CommandsResource implements CommandsAPI {
         }
     }
 
+    /**
+     * Returns the wizard session for the request if the client has opted into keeping the wizard open between
+     * requests; creating a new session if the previous one has expired
+     */
+    protected WizardSession getWizardSession(String name, ExecutionRequest executionRequest, UserDetails userDetails, RestUIContext uiContext, HttpServletRequest request) throws Exception {
+        String sessionId = executionRequest.getWizardSessionId();
+        if (Strings.isNullOrBlank(sessionId) && (request == null || !Boolean.parseBoolean(request.getParameter(RequestParameters.WIZARD_SESSION)))) {
+            return null;
+        }
+        String location = executionRequest.getNamespace() + "/" + executionRequest.getProjectName() + "/" + executionRequest.getResource();
+        String user = userDetails != null ? userDetails.getUser() : null;
+        String headCommit = CommandMetadataCache.getHeadCommit(uiContext.getInitialSelectionFile());
+        WizardSession session = wizardSessions.getSession(sessionId);
+        if (session != null && session.matches(name, location, user) && !session.isClosed()) {
+            if (session.isAtCommit(headCommit)) {
+                return session;
+            }
+            // the project has changed since the wizard was started so lets start again on the new commit
+            LOG.debug("Closing " + session + " as the project is now at commit " + headCommit);
+            wizardSessions.closeSession(session);
+        }
+        UICommand command = getCommandByName(uiContext, name);
+        if (!(command instanceof UIWizard)) {
+            return null;
+        }
+        // the session context outlives the context of this request
+        RestUIContext sessionContext = uiContext.copy();
+        CommandController controller = createController(sessionContext, command);
+        if (!(controller instanceof WizardCommandController)) {
+            controller.close();
+            sessionContext.close();
+            return null;
+        }
+        configureAttributeMaps(userDetails, controller, executionRequest);
+        session = wizardSessions.createSession(name, location, user, headCommit, sessionContext, command, (WizardCommandController) controller);
+        LOG.debug("Created " + session);
+        return session;
+    }
+
+    /**
+     * Executes the wizard using the controller kept in the session; only populating the pages which changed since the
+     * previous request
+     */
+    protected Response doExecute(String name, ExecutionRequest executionRequest, CommandCompletePostProcessor postProcessor, WizardSession session, RestUIContext uiContext, HttpServletRequest request) throws Exception {
+        try (RestUIContext requestContext = uiContext) {
+            synchronized (session) {
+                boolean completed = false;
+                try {
+                    session.touch();
+                    RestUIContext context = session.getContext();
+                    context.getProvider().reset();
+                    UICommand command = session.getCommand();
+                    List<Map<String, Object>> inputList = executionRequest.getInputList();
+                    List<ExecutionResult> stepResultList = new ArrayList<>();
+                    List<ValidationResult> stepValidationList = new ArrayList<>();
+                    Result lastResult = null;
+                    boolean canMoveToNextStep = false;
+                    for (int page = session.resume(inputList); page < inputList.size(); page++) {
+                        Map<String, Object> inputs = inputList.get(page);
+                        WizardCommandController lastController = session.getController();
+                        UICommands.populateController(inputs, lastController, getConverterFactory());
+                        session.pagePopulated(page, inputs);
+                        List<UIMessage> messages = lastController.validate();
+                        ValidationResult stepValidation = UICommands.createValidationResult(context, lastController, messages);
+                        stepValidationList.add(stepValidation);
+                        if (!stepValidation.isValid()) {
+                            break;
+                        }
+                        canMoveToNextStep = lastController.canMoveToNextStep();
+                        boolean valid = lastController.isValid();
+                        if (!canMoveToNextStep) {
+                            if (lastController.canExecute()) {
+                                LOG.info("About to invoked command " + name + " in " + session + " stepValidation: " + stepValidation + " messages: " + messages + " with " + executionRequest);
+                                lastResult = lastController.execute();
+                                completed = true;
+                                LOG.debug("Invoked command " + name + " with " + executionRequest + " result: " + lastResult);
+                                stepResultList.add(UICommands.createExecutionResult(context, lastResult, false));
+                                break;
+                            } else {
+                                stepValidation.addValidationError("Forge command failed with an internal error");
+                                LOG.warn("Cannot move to next step as canExecute() returns false but the validation seems to be fine!");
+                                break;
+                            }
+                        } else if (!valid) {
+                            stepValidation.addValidationError("Forge command is not valid but didn't report any validation errors!");
+                            LOG.warn("Cannot move to next step as invalid despite the validation saying otherwise");
+                            break;
+                        }
+                        WizardCommandController nextController = session.next();
+                        if (nextController != null) {
+                            nextController.initialize();
+                            session.setStepInput(page + 1, UICommands.createCommandInputDTO(context, command, nextController));
+                        } else {
+                            lastResult = lastController.execute();
+                            completed = true;
+                            LOG.debug("Invoked command " + name + " with " + executionRequest + " result: " + lastResult);
+                            stepResultList.add(UICommands.createExecutionResult(context, lastResult, false));
+                            break;
+                        }
+                    }
+                    ExecutionResult answer = UICommands.createExecutionResult(context, lastResult, canMoveToNextStep);
+                    List<CommandInputDTO> stepPropertiesList = session.getStepInputs(1, session.getCurrentPage());
+                    WizardResultsDTO wizardResultsDTO = new WizardResultsDTO(stepPropertiesList, stepValidationList, stepResultList);
+                    if (!completed) {
+                        wizardResultsDTO.setSessionId(session.getId());
+                    }
+                    answer.setWizardResults(wizardResultsDTO);
+                    if (answer.isCommandCompleted() && postProcessor != null) {
+                        postProcessor.firePostCompleteActions(name, executionRequest, context, session.getController(), answer, request);
+                    }
+                    requestContext.setCommitMessage(ExecutionRequest.createCommitMessage(name, executionRequest));
+                    return Response.ok(answer).build();
+                } catch (Exception e) {
+                    // we don't know what state the wizard is in now
+                    completed = true;
+                    throw e;
+                } finally {
+                    if (completed) {
+                        wizardSessions.closeSession(session);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates the wizard using the controller kept in the session; only populating the pages which changed since the
+     * previous request
+     */
+    protected Response doValidate(String name, ExecutionRequest executionRequest, WizardSession session, RestUIContext uiContext) throws Exception {
+        try (RestUIContext requestContext = uiContext) {
+            synchronized (session) {
+                try {
+                    session.touch();
+                    RestUIContext context = session.getContext();
+                    context.getProvider().reset();
+                    UICommand command = session.getCommand();
+                    List<Map<String, Object>> inputList = executionRequest.getInputList();
+                    List<ValidationResult> stepResultList = new ArrayList<>();
+                    List<UIMessage> lastResult = null;
+                    int page = session.resume(inputList);
+                    int lastPage = page;
+                    for (; page < inputList.size(); page++) {
+                        Map<String, Object> inputs = inputList.get(page);
+                        WizardCommandController lastController = session.getController();
+                        lastPage = page;
+                        UICommands.populateController(inputs, lastController, getConverterFactory());
+                        session.pagePopulated(page, inputs);
+                        session.setStepInput(page, UICommands.createCommandInputDTO(context, command, lastController));
+                        boolean canMoveToNextStep = lastController.canMoveToNextStep();
+                        boolean valid = lastController.isValid();
+                        if (!canMoveToNextStep) {
+                            lastResult = lastController.validate();
+                            LOG.debug("Invoked command " + name + " with " + executionRequest + " result: " + lastResult);
+                            stepResultList.add(UICommands.createValidationResult(context, lastController, lastResult));
+                            break;
+                        } else if (!valid) {
+                            LOG.warn("Cannot move to next step as invalid despite the validation saying otherwise");
+                            break;
+                        }
+                        WizardCommandController nextController = session.next();
+                        if (nextController != null) {
+                            nextController.initialize();
+                        } else {
+                            lastResult = lastController.validate();
+                            LOG.debug("Invoked command " + name + " with " + executionRequest + " result: " + lastResult);
+                            stepResultList.add(UICommands.createValidationResult(context, lastController, lastResult));
+                            break;
+                        }
+                    }
+                    ValidationResult answer = UICommands.createValidationResult(context, session.getController(), lastResult);
+                    WizardResultsDTO wizardResultsDTO = new WizardResultsDTO(session.getStepInputs(0, lastPage), stepResultList, new ArrayList<ExecutionResult>());
+                    wizardResultsDTO.setSessionId(session.getId());
+                    answer.setWizardResults(wizardResultsDTO);
+                    return Response.ok(answer).build();
+                } catch (Exception e) {
+                    // we don't know what state the wizard is in now
+                    wizardSessions.closeSession(session);
+                    throw e;
+                }
+            }
+        }
+    }
+
     protected CommandInfoDTO createCommandInfoDTO(RestUIContext context, String name) {
         CommandInfoDTO answer = null;
         if (isValidCommandName(name)) {
@@ -618,12 +1301,12 @@ public class CommandsResource implements CommandsAPI {
     }
 
     protected UICommand getCommandByName(RestUIContext context, String name) {
-        return commandFactory.getCommandByName(context, name);
+        return commandFactory.get().getCommandByName(context, name);
     }
 
     protected CommandController createController(RestUIContext context, UICommand command) throws Exception {
         RestUIRuntime runtime = new RestUIRuntime();
-        CommandController controller = commandControllerFactory.createController(context, runtime,
+        CommandController controller = commandControllerFactory.get().createController(context, runtime,
                 command);
         controller.initialize();
         return controller;
@@ -634,9 +1317,13 @@ public class CommandsResource implements CommandsAPI {
     }
 
     protected <T> T withUIContext(final String namespace, final String projectName, String resourcePath, boolean write, final RestUIFunction<T> function, final GitContext gitContext) throws Exception {
+        return withUIContext(request, namespace, projectName, resourcePath, write, function, gitContext);
+    }
+
+    protected <T> T withUIContext(HttpServletRequest request, final String namespace, final String projectName, String resourcePath, boolean write, final RestUIFunction<T> function, final GitContext gitContext) throws Exception {
         final ResourceFactory resourceFactory = getResourceFactory();
         if (Strings.isNotBlank(namespace) && Strings.isNotBlank(projectName) && resourceFactory != null) {
-            RepositoriesResource repositoriesResource = new RepositoriesResource(gitUserHelper, repositoryCache, projectFileSystem, lockManager, kubernetes);
+            RepositoriesResource repositoriesResource = new RepositoriesResource(gitUserHelper, repositoryCache, projectFileSystem, lockManager, kubernetes, objectCache);
             repositoriesResource.setRequest(request);
             final RepositoryResource projectResource = repositoriesResource.projectRepositoryResource(namespace, projectName);
             if (projectResource == null) {
@@ -662,9 +1349,9 @@ public class CommandsResource implements CommandsAPI {
                     }
                 };
                 if (write) {
-                    return projectResource.gitWriteOperation(operation);
+                    return projectResource.gitWriteOperation(operation, gitContext);
                 } else {
-                    return projectResource.gitReadOperation(operation);
+                    return projectResource.gitReadOperation(operation, gitContext);
                 }
             }
         } else {
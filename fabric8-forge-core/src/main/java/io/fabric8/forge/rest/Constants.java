@@ -33,9 +33,12 @@ public class Constants {
         public static final String SECRET_NAMESPACE = "secretNamespace";
         public static final String GOGS_AUTH = "_gogsAuth";
         public static final String GOGS_EMAIL = "_gogsEmail";
+        public static final String MAX_STALENESS = "maxStaleness";
+        public static final String LAZY_CHOICES = "lazyChoices";
+        public static final String WIZARD_SESSION = "wizardSession";
 
         public static final Set<String> REQUEST_PARAMETERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
-                SECRET, SECRET_NAMESPACE, GOGS_AUTH, GOGS_EMAIL
+                SECRET, SECRET_NAMESPACE, GOGS_AUTH, GOGS_EMAIL, MAX_STALENESS, LAZY_CHOICES, WIZARD_SESSION
         )));
     }
 }
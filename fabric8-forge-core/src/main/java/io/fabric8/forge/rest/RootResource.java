@@ -15,14 +15,17 @@
  */
 package io.fabric8.forge.rest;
 
+import io.fabric8.forge.rest.main.ForgeInitialiser;
 import io.fabric8.utils.IOHelpers;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -33,6 +36,9 @@ import java.net.URL;
 @Consumes({"application/json", "text/xml"})
 public class RootResource {
 
+    @Inject
+    private ForgeInitialiser forgeInitialiser;
+
     @GET
     @Produces(MediaType.TEXT_HTML)
     public String index() throws IOException {
@@ -53,9 +59,24 @@ public class RootResource {
         return index();
     }
 
+    /**
+     * Liveness check which returns as soon as the REST API is up
+     */
     @GET
     @Path("_ping")
     public String ping() {
         return "true";
     }
+
+    /**
+     * Readiness check which only succeeds once forge has loaded its addons and warmed up;
+     * returns the time taken by each of the completed startup tasks
+     */
+    @GET
+    @Path("_ready")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response ready() {
+        Response.Status status = forgeInitialiser.isReady() ? Response.Status.OK : Response.Status.SERVICE_UNAVAILABLE;
+        return Response.status(status).entity(forgeInitialiser.getStartupTimings()).build();
+    }
 }
@@ -0,0 +1,59 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A command to execute as part of a {@link BatchExecutionRequest}
+ */
+public class BatchCommandDTO {
+    private String name;
+    private List<Map<String, Object>> inputList;
+
+    public BatchCommandDTO() {
+    }
+
+    public BatchCommandDTO(String name, List<Map<String, Object>> inputList) {
+        this.name = name;
+        this.inputList = inputList;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchCommandDTO{" +
+                "name='" + name + '\'' +
+                ", inputList=" + inputList +
+                '}';
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<Map<String, Object>> getInputList() {
+        return inputList;
+    }
+
+    public void setInputList(List<Map<String, Object>> inputList) {
+        this.inputList = inputList;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An ordered list of commands to execute against the same project which are committed together
+ */
+public class BatchExecutionRequest {
+    private String resource;
+    private String projectName;
+    private String namespace;
+    private List<BatchCommandDTO> commands = new ArrayList<>();
+
+    @Override
+    public String toString() {
+        return "BatchExecutionRequest{" +
+                "namespace='" + namespace + '\'' +
+                ", projectName='" + projectName + '\'' +
+                ", resource='" + resource + '\'' +
+                ", commands=" + commands +
+                '}';
+    }
+
+    /**
+     * Returns the request to execute the given command of the batch
+     */
+    public ExecutionRequest createExecutionRequest(BatchCommandDTO command) {
+        ExecutionRequest answer = new ExecutionRequest();
+        answer.setNamespace(namespace);
+        answer.setProjectName(projectName);
+        answer.setResource(resource);
+        answer.setInputList(command.getInputList() != null ? command.getInputList() : new ArrayList<>());
+        return answer;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public void setResource(String resource) {
+        this.resource = resource;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public void setProjectName(String projectName) {
+        this.projectName = projectName;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public void setNamespace(String namespace) {
+        this.namespace = namespace;
+    }
+
+    public List<BatchCommandDTO> getCommands() {
+        return commands;
+    }
+
+    public void setCommands(List<BatchCommandDTO> commands) {
+        this.commands = commands;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The results of the commands of a {@link BatchExecutionRequest}; if a command fails then the changes made
+ * by all of the commands are rolled back and nothing is committed
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchExecutionResult {
+    private List<ExecutionResult> results = new ArrayList<>();
+    private boolean committed;
+    private Integer failedCommand;
+    private String error;
+
+    @Override
+    public String toString() {
+        return "BatchExecutionResult{" +
+                "committed=" + committed +
+                ", failedCommand=" + failedCommand +
+                ", error='" + error + '\'' +
+                ", results=" + results +
+                '}';
+    }
+
+    public List<ExecutionResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ExecutionResult> results) {
+        this.results = results;
+    }
+
+    /**
+     * Returns true if all of the commands completed and their changes were committed
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public void setCommitted(boolean committed) {
+        this.committed = committed;
+    }
+
+    /**
+     * Returns the index of the command which failed or null if all the commands completed
+     */
+    public Integer getFailedCommand() {
+        return failedCommand;
+    }
+
+    public void setFailedCommand(Integer failedCommand) {
+        this.failedCommand = failedCommand;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -46,6 +46,8 @@ public class ExecutionRequest {
 
     private Integer wizardStep;
 
+    private String wizardSessionId;
+
     /**
      * Lets generate a commit message with the command name and all the parameters we specify
      */
@@ -127,6 +129,18 @@ public class ExecutionRequest {
         this.wizardStep = wizardStep;
     }
 
+    /**
+     * Returns the ID of the wizard session returned by a previous request for this wizard or null if the
+     * wizard should be created from scratch
+     */
+    public String getWizardSessionId() {
+        return wizardSessionId;
+    }
+
+    public void setWizardSessionId(String wizardSessionId) {
+        this.wizardSessionId = wizardSessionId;
+    }
+
     /**
      * Returns the wizard step number or 0 if one is not defined
      */
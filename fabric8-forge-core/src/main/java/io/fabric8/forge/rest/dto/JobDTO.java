@@ -0,0 +1,205 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The status of a command which is executed asynchronously as a job
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobDTO {
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private String id;
+    private String name;
+    private String user;
+    private Status status;
+    private long created;
+    private Long started;
+    private Long finished;
+    private String taskName;
+    private String subTask;
+    private int totalWork;
+    private int currentWork;
+    private String output;
+    private String err;
+    private int responseStatus;
+    private ExecutionResult result;
+    private String error;
+
+    public JobDTO() {
+    }
+
+    public JobDTO(String id, String name, String user, Status status, long created) {
+        this.id = id;
+        this.name = name;
+        this.user = user;
+        this.status = status;
+        this.created = created;
+    }
+
+    @Override
+    public String toString() {
+        return "JobDTO{" +
+                "id='" + id + '\'' +
+                ", name='" + name + '\'' +
+                ", status=" + status +
+                '}';
+    }
+
+    /**
+     * Returns true if the job has completed; successfully or not
+     */
+    @JsonIgnore
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public Long getStarted() {
+        return started;
+    }
+
+    public void setStarted(Long started) {
+        this.started = started;
+    }
+
+    public Long getFinished() {
+        return finished;
+    }
+
+    public void setFinished(Long finished) {
+        this.finished = finished;
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    public void setTaskName(String taskName) {
+        this.taskName = taskName;
+    }
+
+    public String getSubTask() {
+        return subTask;
+    }
+
+    public void setSubTask(String subTask) {
+        this.subTask = subTask;
+    }
+
+    public int getTotalWork() {
+        return totalWork;
+    }
+
+    public void setTotalWork(int totalWork) {
+        this.totalWork = totalWork;
+    }
+
+    public int getCurrentWork() {
+        return currentWork;
+    }
+
+    public void setCurrentWork(int currentWork) {
+        this.currentWork = currentWork;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public void setOutput(String output) {
+        this.output = output;
+    }
+
+    public String getErr() {
+        return err;
+    }
+
+    public void setErr(String err) {
+        this.err = err;
+    }
+
+    /**
+     * Returns the HTTP status the command would have returned if it had been executed synchronously
+     */
+    public int getResponseStatus() {
+        return responseStatus;
+    }
+
+    public void setResponseStatus(int responseStatus) {
+        this.responseStatus = responseStatus;
+    }
+
+    public ExecutionResult getResult() {
+        return result;
+    }
+
+    public void setResult(ExecutionResult result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -35,6 +35,7 @@ public class PropertyDTO {
     @JsonProperty("enum")
     private List<Object> valueChoices;
     private List<Object> typeaheadData;
+    private boolean lazyChoices;
 
     public PropertyDTO() {
     }
@@ -106,6 +107,14 @@ public class PropertyDTO {
         return typeaheadData;
     }
 
+    /**
+     * Returns true if the value choices and typeahead data have not been evaluated and should be fetched
+     * on demand from the choices endpoint of the command
+     */
+    public boolean isLazyChoices() {
+        return lazyChoices;
+    }
+
     public void setName(String name) {
         this.name = name;
     }
@@ -149,4 +158,8 @@ public class PropertyDTO {
     public void setTypeaheadData(List<Object> typeaheadData) {
         this.typeaheadData = typeaheadData;
     }
+
+    public void setLazyChoices(boolean lazyChoices) {
+        this.lazyChoices = lazyChoices;
+    }
 }
@@ -43,6 +43,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -67,6 +68,14 @@ public class UICommands {
     }
 
     public static CommandInputDTO createCommandInputDTO(RestUIContext context, UICommand command, CommandController controller) throws Exception {
+        return createCommandInputDTO(context, command, controller, false);
+    }
+
+    /**
+     * Creates the inputs of the command; if <code>lazyChoices</code> is true the value choices and completions of
+     * the inputs are not evaluated and the inputs are marked so that clients fetch them on demand
+     */
+    public static CommandInputDTO createCommandInputDTO(RestUIContext context, UICommand command, CommandController controller, boolean lazyChoices) throws Exception {
         CommandInfoDTO info = createCommandInfoDTO(context, command);
         CommandInputDTO inputInfo = new CommandInputDTO(info);
         Map<String, InputComponent<?, ?>> inputs = controller.getInputs();
@@ -75,7 +84,7 @@ public class UICommands {
             for (Map.Entry<String, InputComponent<?, ?>> entry : entries) {
                 String key = entry.getKey();
                 InputComponent<?, ?> input = entry.getValue();
-                PropertyDTO dto = UICommands.createInputDTO(context, input);
+                PropertyDTO dto = UICommands.createInputDTO(context, input, lazyChoices);
                 inputInfo.addProperty(key, dto);
             }
         }
@@ -87,6 +96,10 @@ public class UICommands {
     }
 
     public static PropertyDTO createInputDTO(UIContext context, InputComponent<?, ?> input) {
+        return createInputDTO(context, input, false);
+    }
+
+    public static PropertyDTO createInputDTO(UIContext context, InputComponent<?, ?> input, boolean lazyChoices) {
         String name = input.getName();
         String description = input.getDescription();
         String label = input.getLabel();
@@ -111,45 +124,121 @@ public class UICommands {
         String type = JsonSchemaTypes.getJsonSchemaTypeName(valueType);
         boolean enabled = input.isEnabled();
         boolean required = input.isRequired();
-        List<Object> enumValues = new ArrayList<>();
-        List<Object> typeaheadData = new ArrayList<>();
+        List<Object> enumValues = null;
+        List<Object> typeaheadData = null;
+        boolean hasChoices = input instanceof SelectComponent || hasCompleter(input);
+        if (!lazyChoices) {
+            if (input instanceof SelectComponent) {
+                enumValues = getValueChoices((SelectComponent) input, javaType);
+            }
+            if (input instanceof HasCompleter) {
+                String textValue = inputValue != null ? inputValue.toString() : "";
+                typeaheadData = getCompletionProposals(context, input, textValue);
+            }
+            if (enumValues != null && enumValues.isEmpty()) {
+                enumValues = null;
+            }
+            if (typeaheadData != null && typeaheadData.isEmpty()) {
+                typeaheadData = null;
+            }
+        }
+        PropertyDTO answer = new PropertyDTO(name, description, label, requiredMessage, value, javaType, type, enabled, required, enumValues, typeaheadData);
+        answer.setLazyChoices(lazyChoices && hasChoices);
+        return answer;
+    }
+
+    /**
+     * Evaluates the value choices and completions of the input on demand; returning the page of choices
+     * matching the prefix
+     */
+    public static ValueChoicesDTO createValueChoicesDTO(UIContext context, InputComponent<?, ?> input, String prefix, int offset, int limit) {
+        Class<?> valueType = input.getValueType();
+        String javaType = valueType != null ? valueType.getCanonicalName() : null;
+        String text = prefix != null ? prefix : "";
+        String lowerText = text.toLowerCase();
+        Set<Object> choices = new LinkedHashSet<>();
         if (input instanceof SelectComponent) {
+            // match the prefix against the labels shown to the user rather than the JSON values
             SelectComponent selectComponent = (SelectComponent) input;
-            Iterable valueChoices = selectComponent.getValueChoices();
-            Converter converter = selectComponent.getItemLabelConverter();
-
+            Converter labelConverter = selectComponent.getItemLabelConverter();
             boolean isJson = isJsonDTO(javaType);
-            for (Object valueChoice : valueChoices) {
-                Object jsonValue;
-                if (isJson) {
-                    jsonValue = Proxies.unwrap(valueChoice);
-                } else {
-                    jsonValue = convertValueToSafeJson(converter, valueChoice);
+            for (Object valueChoice : (Iterable<?>) selectComponent.getValueChoices()) {
+                String label = getChoiceLabel(labelConverter, valueChoice);
+                if (label != null && label.toLowerCase().startsWith(lowerText)) {
+                    choices.add(isJson ? Proxies.unwrap(valueChoice) : convertValueToSafeJson(labelConverter, valueChoice));
                 }
-                enumValues.add(jsonValue);
             }
         }
+        if (input instanceof HasCompleter) {
+            // the completer is given the prefix so it does its own filtering
+            for (Object choice : getCompletionProposals(context, input, text)) {
+                if (choice != null) {
+                    choices.add(choice);
+                }
+            }
+        }
+        List<Object> all = new ArrayList<>(choices);
+        int from = Math.min(Math.max(offset, 0), all.size());
+        int to = limit > 0 ? Math.min(from + limit, all.size()) : all.size();
+        return new ValueChoicesDTO(input.getName(), prefix, from, all.size(), new ArrayList<>(all.subList(from, to)));
+    }
+
+    protected static List<Object> getValueChoices(SelectComponent selectComponent, String javaType) {
+        List<Object> answer = new ArrayList<>();
+        Iterable valueChoices = selectComponent.getValueChoices();
+        Converter converter = selectComponent.getItemLabelConverter();
+
+        boolean isJson = isJsonDTO(javaType);
+        for (Object valueChoice : valueChoices) {
+            Object jsonValue;
+            if (isJson) {
+                jsonValue = Proxies.unwrap(valueChoice);
+            } else {
+                jsonValue = convertValueToSafeJson(converter, valueChoice);
+            }
+            answer.add(jsonValue);
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the label of a value choice as converted by the item label converter of its input
+     */
+    protected static String getChoiceLabel(Converter converter, Object valueChoice) {
+        Object value = Proxies.unwrap(valueChoice);
+        if (converter != null) {
+            try {
+                Object converted = converter.convert(value);
+                if (converted != null) {
+                    value = converted;
+                }
+            } catch (Exception e) {
+                // ignore - invalid converter
+            }
+        }
+        return value != null ? value.toString() : null;
+    }
+
+    protected static List<Object> getCompletionProposals(UIContext context, InputComponent<?, ?> input, String textValue) {
+        List<Object> answer = new ArrayList<>();
         if (input instanceof HasCompleter) {
             HasCompleter hasCompleter = (HasCompleter) input;
             UICompleter completer = hasCompleter.getCompleter();
             if (completer != null) {
-                String textValue = inputValue != null ? inputValue.toString() : "";
                 Iterable valueChoices = completer.getCompletionProposals(context, input, textValue);
                 // TODO is there a way to find a converter?
                 Converter converter = null;
                 for (Object valueChoice : valueChoices) {
                     Object jsonValue = convertValueToSafeJson(converter, valueChoice);
-                    typeaheadData.add(jsonValue);
+                    answer.add(jsonValue);
                 }
             }
         }
-        if (enumValues.isEmpty()) {
-            enumValues = null;
-        }
-        if (typeaheadData.isEmpty()) {
-            typeaheadData = null;
-        }
-        return new PropertyDTO(name, description, label, requiredMessage, value, javaType, type, enabled, required, enumValues, typeaheadData);
+        return answer;
+    }
+
+    protected static boolean hasCompleter(InputComponent<?, ?> input) {
+        return input instanceof HasCompleter && ((HasCompleter) input).getCompleter() != null;
     }
 
     /**
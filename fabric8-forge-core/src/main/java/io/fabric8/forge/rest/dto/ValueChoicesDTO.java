@@ -0,0 +1,93 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.dto;
+
+import java.util.List;
+
+/**
+ * A page of the value choices of a command input which are evaluated on demand
+ */
+public class ValueChoicesDTO {
+    private String name;
+    private String prefix;
+    private int offset;
+    private int total;
+    private List<Object> choices;
+
+    public ValueChoicesDTO() {
+    }
+
+    public ValueChoicesDTO(String name, String prefix, int offset, int total, List<Object> choices) {
+        this.name = name;
+        this.prefix = prefix;
+        this.offset = offset;
+        this.total = total;
+        this.choices = choices;
+    }
+
+    @Override
+    public String toString() {
+        return "ValueChoicesDTO{" +
+                "name='" + name + '\'' +
+                ", prefix='" + prefix + '\'' +
+                ", offset=" + offset +
+                ", total=" + total +
+                '}';
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the number of choices matching the prefix
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public List<Object> getChoices() {
+        return choices;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public void setChoices(List<Object> choices) {
+        this.choices = choices;
+    }
+}
@@ -23,6 +23,7 @@ public class WizardResultsDTO {
     private List<CommandInputDTO> stepInputs;
     private List<ValidationResult> stepValidations;
     private List<ExecutionResult> stepResults;
+    private String sessionId;
 
     public WizardResultsDTO() {
     }
@@ -64,4 +65,16 @@ public class WizardResultsDTO {
     public void setStepResults(List<ExecutionResult> stepResults) {
         this.stepResults = stepResults;
     }
+
+    /**
+     * Returns the ID of the wizard session to pass on the next request for this wizard or null if the wizard
+     * is not kept open between requests
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
 }
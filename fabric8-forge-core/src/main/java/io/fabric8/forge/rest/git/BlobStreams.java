@@ -0,0 +1,169 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.git;
+
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.fabric8.forge.rest.git.dto.FileDTO;
+import io.fabric8.utils.Strings;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Helper methods for streaming the contents of git blobs to a response without loading
+ * the whole blob into memory
+ */
+public final class BlobStreams {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        MAPPER.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private BlobStreams() {
+    }
+
+    /**
+     * Parses a HTTP <code>Range</code> header for a single byte range such as <code>bytes=0-499</code>,
+     * <code>bytes=500-</code> or <code>bytes=-500</code>
+     *
+     * @return the <code>{offset, length}</code> of the range or null if the range cannot be satisfied
+     */
+    public static long[] parseRange(String header, long size) {
+        String value = header.trim();
+        if (!value.startsWith("bytes=") || value.indexOf(',') >= 0) {
+            return null;
+        }
+        value = value.substring("bytes=".length()).trim();
+        int idx = value.indexOf('-');
+        if (idx < 0) {
+            return null;
+        }
+        String first = value.substring(0, idx).trim();
+        String last = value.substring(idx + 1).trim();
+        try {
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // the suffix form which returns the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start < 0 || start >= size || end < start) {
+                return null;
+            }
+            return new long[]{start, end - start + 1};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the <code>If-None-Match</code> header matches the given entity tag value
+     */
+    public static boolean matchesETag(String ifNoneMatch, String tag) {
+        if (Strings.isNullOrBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String value : ifNoneMatch.split(",")) {
+            value = value.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            if (value.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies <code>length</code> bytes starting at <code>offset</code> from the input stream to the output stream
+     */
+    public static void copyRange(InputStream in, OutputStream out, long offset, long length) throws IOException {
+        long remaining = offset;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Unexpected end of blob");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+        byte[] buffer = new byte[8192];
+        remaining = length;
+        while (remaining > 0) {
+            int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (n < 0) {
+                throw new EOFException("Unexpected end of blob");
+            }
+            out.write(buffer, 0, n);
+            remaining -= n;
+        }
+    }
+
+    /**
+     * Writes the file details as JSON using the same format as the {@link FileDTO} with the content
+     * base64 encoded on the fly from the input stream
+     *
+     * @param length    the number of bytes of content to write
+     * @param truncated whether the content has been truncated
+     */
+    public static void writeFileJson(OutputStream out, FileDTO file, InputStream content, int length, boolean truncated) throws IOException {
+        ObjectNode node = MAPPER.valueToTree(file);
+        node.remove("content");
+        node.remove("encoding");
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                generator.writeFieldName(field.getKey());
+                MAPPER.writeTree(generator, field.getValue());
+            }
+            generator.writeStringField("encoding", FileDTO.DEFAULT_ENCODING);
+            if (truncated) {
+                generator.writeBooleanField("truncated", true);
+            }
+            generator.writeFieldName("content");
+            generator.writeBinary(Base64Variants.MIME_NO_LINEFEEDS, content, length);
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.git;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of the commits reachable from the tip of a branch together with the paths changed by each commit;
+ * so that the history of a path can be returned a page at a time without walking the whole commit graph.
+ * <p/>
+ * The index is persisted inside the git folder and is updated incrementally; only the commits which are new
+ * since the last update are walked. If the branch has been rewritten then the index is rebuilt.
+ */
+public class CommitIndex {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CommitIndex.class);
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_INDEXES = 100;
+
+    /**
+     * The most recently used indexes; the others are loaded from disk again when they are next used
+     */
+    private static final Map<String, CommitIndex> indexes = new LinkedHashMap<String, CommitIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CommitIndex> eldest) {
+            return size() > MAX_INDEXES;
+        }
+    };
+
+    private final File file;
+    private ObjectId tip;
+    private List<Entry> entries = new ArrayList<>();
+    private Map<String, Integer> positions = new HashMap<>();
+    private boolean loaded;
+
+    protected CommitIndex(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the index for the branch of the given git folder
+     */
+    public static CommitIndex getInstance(File gitFolder, String branch) {
+        String key = gitFolder.getAbsolutePath() + "|" + branch;
+        synchronized (indexes) {
+            CommitIndex answer = indexes.get(key);
+            if (answer == null) {
+                answer = new CommitIndex(new File(gitFolder, "fabric8-forge/history-" + branch.replaceAll("[^A-Za-z0-9._-]", "_") + ".idx"));
+                indexes.put(key, answer);
+            }
+            return answer;
+        }
+    }
+
+    /**
+     * Returns true if the index has been created; either in this process or by a previous one
+     */
+    public synchronized boolean exists() {
+        return tip != null || file.isFile();
+    }
+
+    public synchronized ObjectId getTip() {
+        load();
+        return tip;
+    }
+
+    public synchronized int size() {
+        load();
+        return entries.size();
+    }
+
+    /**
+     * Updates the index so that it contains all the commits reachable from the new tip
+     */
+    public synchronized void update(Repository repository, ObjectId newTip) throws IOException {
+        load();
+        if (newTip.equals(tip)) {
+            return;
+        }
+        boolean incremental = false;
+        if (tip != null && repository.hasObject(tip)) {
+            try (RevWalk walk = new RevWalk(repository)) {
+                incremental = walk.isMergedInto(walk.parseCommit(tip), walk.parseCommit(newTip));
+            }
+        }
+        List<Entry> added = new ArrayList<>();
+        try (RevWalk walk = new RevWalk(repository)) {
+            walk.markStart(walk.parseCommit(newTip));
+            if (incremental) {
+                walk.markUninteresting(walk.parseCommit(tip));
+            }
+            for (RevCommit commit : walk) {
+                added.add(createEntry(repository, walk, commit));
+            }
+        }
+        if (incremental) {
+            added.addAll(entries);
+        } else if (tip != null) {
+            LOG.info("Rebuilding commit index " + file + " as the branch has been rewritten");
+        }
+        entries = added;
+        tip = newTip.copy();
+        reindex();
+        save();
+    }
+
+    /**
+     * Returns the ids of the commits which change the given path (or any commit if the path is blank)
+     * in the same order as the commit log
+     *
+     * @param after    the id of the last commit of the previous page or null for the first page
+     * @param pageSize the maximum number of commits to return or 0 for all of them
+     * @return the commit ids or null if the after commit is not in the index
+     */
+    public synchronized List<String> find(String path, String after, int pageSize) {
+        load();
+        int start = 0;
+        if (after != null) {
+            Integer position = positions.get(after);
+            if (position == null) {
+                return null;
+            }
+            start = position + 1;
+        }
+        boolean allPaths = path == null || path.isEmpty();
+        List<String> answer = new ArrayList<>();
+        for (int i = start; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (allPaths || entry.touches(path)) {
+                answer.add(entry.id);
+                if (pageSize > 0 && answer.size() >= pageSize) {
+                    break;
+                }
+            }
+        }
+        return answer;
+    }
+
+    protected Entry createEntry(Repository repository, RevWalk walk, RevCommit commit) throws IOException {
+        if (commit.getParentCount() > 1) {
+            return new Entry(commit.getName(), true, new String[0]);
+        }
+        List<String> paths = new ArrayList<>();
+        try (TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.setRecursive(true);
+            if (commit.getParentCount() == 1) {
+                RevCommit parent = walk.parseCommit(commit.getParent(0));
+                treeWalk.addTree(parent.getTree());
+                treeWalk.addTree(commit.getTree());
+                treeWalk.setFilter(TreeFilter.ANY_DIFF);
+            } else {
+                treeWalk.addTree(commit.getTree());
+            }
+            while (treeWalk.next()) {
+                paths.add(treeWalk.getPathString());
+            }
+        }
+        return new Entry(commit.getName(), false, paths.toArray(new String[paths.size()]));
+    }
+
+    protected void reindex() {
+        positions = new HashMap<>(entries.size() * 2);
+        for (int i = 0; i < entries.size(); i++) {
+            positions.put(entries.get(i).id, i);
+        }
+    }
+
+    protected void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            ObjectId storedTip = ObjectId.fromString(in.readUTF());
+            int count = in.readInt();
+            List<Entry> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                boolean merge = in.readBoolean();
+                String[] paths = new String[in.readInt()];
+                for (int j = 0; j < paths.length; j++) {
+                    paths[j] = in.readUTF();
+                }
+                list.add(new Entry(id, merge, paths));
+            }
+            entries = list;
+            tip = storedTip;
+            reindex();
+        } catch (IOException e) {
+            LOG.warn("Ignoring invalid commit index " + file + ". " + e, e);
+        }
+    }
+
+    protected void save() {
+        file.getParentFile().mkdirs();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(tip.getName());
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeUTF(entry.id);
+                out.writeBoolean(entry.merge);
+                out.writeInt(entry.paths.length);
+                for (String path : entry.paths) {
+                    out.writeUTF(path);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to write commit index " + file + ". " + e, e);
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            LOG.warn("Failed to rename " + tmp + " to " + file);
+        }
+    }
+
+    protected static class Entry {
+        private final String id;
+        private final boolean merge;
+        private final String[] paths;
+
+        Entry(String id, boolean merge, String[] paths) {
+            this.id = id;
+            this.merge = merge;
+            this.paths = paths;
+        }
+
+        /**
+         * Returns true if the commit changes the path or any file inside it; merge commits are ignored
+         */
+        boolean touches(String path) {
+            if (merge) {
+                return false;
+            }
+            for (String changed : paths) {
+                if (changed.equals(path) || (changed.startsWith(path) && changed.length() > path.length() && changed.charAt(path.length()) == '/')) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
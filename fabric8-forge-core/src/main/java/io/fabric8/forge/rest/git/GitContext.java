@@ -21,6 +21,9 @@ public class GitContext {
     private boolean requirePull = true;
     private boolean requireCommit;
     private boolean requirePush;
+    private boolean readOnly;
+    private boolean rollbackOnFailure;
+    private Integer maxStalenessSeconds;
     private Object cacheKey;
     private StringBuilder commitMessage = new StringBuilder();
 
@@ -78,6 +81,60 @@ public class GitContext {
         return this;
     }
 
+    /**
+     * Indicates the operation only reads from the git object database so the working tree
+     * does not need to be stashed, checked out or pulled and only a shared lock is required.
+     */
+    public GitContext readOnly() {
+        setReadOnly(true);
+        return this;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public GitContext setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+        return this;
+    }
+
+    /**
+     * Indicates that if the operation fails any changes it made to the working tree are discarded
+     * rather than being left for the next write operation to stash
+     */
+    public GitContext rollbackOnFailure() {
+        setRollbackOnFailure(true);
+        return this;
+    }
+
+    public boolean isRollbackOnFailure() {
+        return rollbackOnFailure;
+    }
+
+    public GitContext setRollbackOnFailure(boolean rollbackOnFailure) {
+        this.rollbackOnFailure = rollbackOnFailure;
+        return this;
+    }
+
+    /**
+     * Indicates that rather than blocking on a pull the operation can use the remote branch as it was fetched
+     * up to the given number of seconds ago. Concurrent requests on the same repository share a single fetch
+     */
+    public GitContext maxStaleness(int seconds) {
+        setMaxStalenessSeconds(seconds);
+        return this;
+    }
+
+    public Integer getMaxStalenessSeconds() {
+        return maxStalenessSeconds;
+    }
+
+    public GitContext setMaxStalenessSeconds(Integer maxStalenessSeconds) {
+        this.maxStalenessSeconds = maxStalenessSeconds;
+        return this;
+    }
+
     /**
      * Append the commit message.
      */
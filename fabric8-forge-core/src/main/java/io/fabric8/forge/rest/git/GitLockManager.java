@@ -15,51 +15,203 @@
  */
 package io.fabric8.forge.rest.git;
 
+import io.fabric8.forge.rest.git.dto.LockStatsDTO;
+import org.apache.deltaspike.core.api.config.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
- * Manages locks on git folders
+ * Manages read/write locks on git folders.
+ * <p/>
+ * Many readers can access a git folder concurrently while writers get exclusive access.
+ * Lock entries which are not used for a while are evicted and contention statistics
+ * are kept for each git folder so that hot repositories can be found.
  */
 @Singleton
 public class GitLockManager {
     private static final transient Logger LOG = LoggerFactory.getLogger(GitLockManager.class);
 
-    private Map<String, ReentrantLock> locks = new HashMap<>();
+    private final ConcurrentMap<String, GitLock> locks = new ConcurrentHashMap<>();
+    private final long idleEvictionMillis;
+    private final AtomicLong lastEviction = new AtomicLong(System.currentTimeMillis());
 
-    public <T> T withLock(File gitFolder, Callable<T> block) throws Exception {
-        ReentrantLock lock = getLock(gitFolder);
-        lock.lock();
+    public GitLockManager() {
+        this(300);
+    }
+
+    @Inject
+    public GitLockManager(@ConfigProperty(name = "GIT_LOCK_IDLE_EVICTION_SECONDS", defaultValue = "300") int idleEvictionSeconds) {
+        this.idleEvictionMillis = TimeUnit.SECONDS.toMillis(idleEvictionSeconds);
+    }
+
+    /**
+     * Invokes the block while holding the exclusive lock on the git folder
+     */
+    public <T> T withWriteLock(File gitFolder, Callable<T> block) throws Exception {
+        return withLock(gitFolder, true, block);
+    }
+
+    /**
+     * Invokes the block while holding the shared lock on the git folder; so that many readers can
+     * access the git object database concurrently while any writers are excluded
+     */
+    public <T> T withReadLock(File gitFolder, Callable<T> block) throws Exception {
+        return withLock(gitFolder, false, block);
+    }
+
+    /**
+     * Returns the contention statistics of the git folders which are currently locked or were recently used;
+     * sorted with the repositories which have spent the most time waiting for locks first
+     */
+    public List<LockStatsDTO> getLockStatistics() {
+        List<LockStatsDTO> answer = new ArrayList<>();
+        for (GitLock lock : locks.values()) {
+            answer.add(lock.createStatistics());
+        }
+        Collections.sort(answer, (a, b) -> Long.compare(b.getTotalWaitMillis(), a.getTotalWaitMillis()));
+        return answer;
+    }
+
+    protected <T> T withLock(File gitFolder, boolean write, Callable<T> block) throws Exception {
+        GitLock gitLock = acquireEntry(gitFolder);
         try {
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Started lock for " + gitFolder + " instance " + lock);
+            Lock lock = write ? gitLock.lock.writeLock() : gitLock.lock.readLock();
+            long waitStart = System.nanoTime();
+            lock.lock();
+            long holdStart = System.nanoTime();
+            gitLock.onLocked(write, holdStart - waitStart);
+            try {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Started " + (write ? "write" : "read") + " lock for " + gitFolder + " instance " + lock);
+                }
+                return block.call();
+            } finally {
+                lock.unlock();
+                gitLock.onUnlocked(System.nanoTime() - holdStart);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Ended " + (write ? "write" : "read") + " lock for " + gitFolder + " instance " + lock);
+                }
             }
-            return block.call();
         } finally {
-            lock.unlock();
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Ended lock for " + gitFolder + " instance " + lock);
-            }
+            releaseEntry(gitLock);
+            evictIdleLocks();
         }
     }
 
-    private ReentrantLock getLock(File gitFolder) throws IOException {
+    private GitLock acquireEntry(File gitFolder) throws IOException {
         String key = gitFolder.getCanonicalPath();
-        synchronized (locks) {
-            ReentrantLock answer = locks.get(key);
-            if (answer == null) {
-                answer = new ReentrantLock();
-                locks.put(key, answer);
+        // the compute is atomic per key so an entry which is in use can never be evicted
+        return locks.compute(key, (k, lock) -> {
+            if (lock == null) {
+                lock = new GitLock(k);
+            }
+            lock.users.incrementAndGet();
+            return lock;
+        });
+    }
+
+    private void releaseEntry(GitLock gitLock) {
+        locks.computeIfPresent(gitLock.key, (k, lock) -> {
+            lock.users.decrementAndGet();
+            lock.lastUsed = System.currentTimeMillis();
+            return lock;
+        });
+    }
+
+    /**
+     * Removes the lock entries which have not been used for a while; we only check periodically
+     * to avoid scanning the map on every unlock
+     */
+    protected void evictIdleLocks() {
+        long now = System.currentTimeMillis();
+        long last = lastEviction.get();
+        if (now - last < idleEvictionMillis || !lastEviction.compareAndSet(last, now)) {
+            return;
+        }
+        for (String key : locks.keySet()) {
+            locks.computeIfPresent(key, (k, lock) -> {
+                if (lock.users.get() == 0 && now - lock.lastUsed >= idleEvictionMillis) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Evicting idle lock for " + k);
+                    }
+                    return null;
+                }
+                return lock;
+            });
+        }
+    }
+
+    private static class GitLock {
+        private final String key;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final AtomicInteger users = new AtomicInteger();
+        private final AtomicLong readCount = new AtomicLong();
+        private final AtomicLong writeCount = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLong totalHoldNanos = new AtomicLong();
+        private final AtomicLong maxHoldNanos = new AtomicLong();
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        GitLock(String key) {
+            this.key = key;
+        }
+
+        void onLocked(boolean write, long waitNanos) {
+            if (write) {
+                writeCount.incrementAndGet();
+            } else {
+                readCount.incrementAndGet();
+            }
+            totalWaitNanos.addAndGet(waitNanos);
+            updateMax(maxWaitNanos, waitNanos);
+        }
+
+        void onUnlocked(long holdNanos) {
+            totalHoldNanos.addAndGet(holdNanos);
+            updateMax(maxHoldNanos, holdNanos);
+        }
+
+        LockStatsDTO createStatistics() {
+            long count = readCount.get() + writeCount.get();
+            LockStatsDTO answer = new LockStatsDTO(key);
+            answer.setReadCount(readCount.get());
+            answer.setWriteCount(writeCount.get());
+            answer.setQueueLength(lock.getQueueLength());
+            answer.setActiveReaders(lock.getReadLockCount());
+            answer.setWriteLocked(lock.isWriteLocked());
+            answer.setTotalWaitMillis(TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()));
+            answer.setMaxWaitMillis(TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+            answer.setTotalHoldMillis(TimeUnit.NANOSECONDS.toMillis(totalHoldNanos.get()));
+            answer.setMaxHoldMillis(TimeUnit.NANOSECONDS.toMillis(maxHoldNanos.get()));
+            if (count > 0) {
+                answer.setAverageWaitMillis(TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / count));
+                answer.setAverageHoldMillis(TimeUnit.NANOSECONDS.toMillis(totalHoldNanos.get() / count));
             }
             return answer;
         }
+
+        private static void updateMax(AtomicLong max, long value) {
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
+            }
+        }
     }
 }
@@ -0,0 +1,215 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.git;
+
+import org.apache.deltaspike.core.api.config.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * A cache of the responses generated from immutable git objects; such as the diff between two commit SHAs.
+ * <p/>
+ * As the output for a given set of object ids can never change, entries never need to be invalidated;
+ * they are only evicted in least recently used order once the total size of the cached responses exceeds
+ * the limit. Evicted entries can optionally be spilled to disk under the project folder.
+ */
+@Singleton
+public class GitObjectCache {
+    private static final transient Logger LOG = LoggerFactory.getLogger(GitObjectCache.class);
+    private static final Pattern OBJECT_ID_PATTERN = Pattern.compile("[0-9a-fA-F]{40}");
+
+    private final long maxHeapBytes;
+    private final long maxDiskBytes;
+    private final File spillFolder;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicLong diskBytes = new AtomicLong();
+    private long heapBytes;
+
+    public GitObjectCache() {
+        this(32 * 1024 * 1024, false, 0, null);
+    }
+
+    @Inject
+    public GitObjectCache(@ConfigProperty(name = "GIT_OBJECT_CACHE_MAX_BYTES", defaultValue = "33554432") long maxHeapBytes,
+                          @ConfigProperty(name = "GIT_OBJECT_CACHE_SPILL_TO_DISK", defaultValue = "false") boolean spillToDisk,
+                          @ConfigProperty(name = "GIT_OBJECT_CACHE_MAX_DISK_BYTES", defaultValue = "268435456") long maxDiskBytes,
+                          @ConfigProperty(name = "PROJECT_FOLDER", defaultValue = "/tmp/fabric8-forge") String rootProjectFolder) {
+        this.maxHeapBytes = maxHeapBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        if (spillToDisk && rootProjectFolder != null) {
+            this.spillFolder = new File(rootProjectFolder, ".git-object-cache");
+            this.spillFolder.mkdirs();
+            File[] files = spillFolder.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    diskBytes.addAndGet(file.length());
+                }
+            }
+        } else {
+            this.spillFolder = null;
+        }
+    }
+
+    /**
+     * Returns true if the id is a full object id so that it always refers to the same object;
+     * unlike a branch, tag or abbreviated id
+     */
+    public static boolean isImmutableId(String id) {
+        return id != null && OBJECT_ID_PATTERN.matcher(id).matches();
+    }
+
+    /**
+     * Returns a strong entity tag for the key which can be used for conditional requests
+     */
+    public static String etag(String key) {
+        return sha1(key);
+    }
+
+    /**
+     * Returns the cached response for the key or null if it is not cached
+     */
+    public byte[] get(String key) {
+        synchronized (entries) {
+            byte[] answer = entries.get(key);
+            if (answer != null) {
+                return answer;
+            }
+        }
+        if (spillFolder != null) {
+            File file = new File(spillFolder, sha1(key));
+            if (file.isFile()) {
+                try {
+                    byte[] answer = Files.readAllBytes(file.toPath());
+                    put(key, answer);
+                    return answer;
+                } catch (IOException e) {
+                    LOG.debug("Failed to read spilled cache entry " + file + ". " + e, e);
+                }
+            }
+        }
+        return null;
+    }
+
+    public void put(String key, byte[] value) {
+        if (value.length > maxHeapBytes) {
+            spill(key, value);
+            return;
+        }
+        Map<String, byte[]> evicted = new LinkedHashMap<>();
+        synchronized (entries) {
+            byte[] old = entries.put(key, value);
+            if (old != null) {
+                heapBytes -= old.length;
+            }
+            heapBytes += value.length;
+            Iterator<Map.Entry<String, byte[]>> iter = entries.entrySet().iterator();
+            while (heapBytes > maxHeapBytes && iter.hasNext()) {
+                Map.Entry<String, byte[]> entry = iter.next();
+                heapBytes -= entry.getValue().length;
+                evicted.put(entry.getKey(), entry.getValue());
+                iter.remove();
+            }
+        }
+        for (Map.Entry<String, byte[]> entry : evicted.entrySet()) {
+            spill(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the number of responses cached on the heap
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    protected void spill(String key, byte[] value) {
+        if (spillFolder == null || value.length > maxDiskBytes) {
+            return;
+        }
+        File file = new File(spillFolder, sha1(key));
+        if (file.exists()) {
+            return;
+        }
+        try {
+            File tmp = File.createTempFile("spill", ".tmp", spillFolder);
+            Files.write(tmp.toPath(), value);
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            if (diskBytes.addAndGet(value.length) > maxDiskBytes) {
+                trimDisk();
+            }
+        } catch (IOException e) {
+            LOG.debug("Failed to spill cache entry to " + file + ". " + e, e);
+        }
+    }
+
+    /**
+     * Removes the oldest spilled entries until the disk usage is back under the limit
+     */
+    protected synchronized void trimDisk() {
+        File[] files = spillFolder.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        for (File file : files) {
+            if (total <= maxDiskBytes) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+        diskBytes.set(total);
+    }
+
+    protected static String sha1(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder();
+            for (byte b : hash) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.git;
+
+import org.apache.deltaspike.core.api.config.ConfigProperty;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A registry of open git repositories so that the pack readers, the ref database and the config of a repository
+ * are reused across requests rather than being loaded again for every operation.
+ * <p/>
+ * Handles are reference counted; handles which have not been used for a while are closed. Callers must
+ * {@link Handle#close()} the handle when done and must never close the repository itself.
+ * <p/>
+ * The JGit window cache, which is shared by all repositories, is configured on startup.
+ */
+@Singleton
+public class GitRepositoryPool {
+    private static final transient Logger LOG = LoggerFactory.getLogger(GitRepositoryPool.class);
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long idleEvictionMillis;
+    private final AtomicLong lastEviction = new AtomicLong(System.currentTimeMillis());
+
+    public GitRepositoryPool() {
+        this.idleEvictionMillis = TimeUnit.SECONDS.toMillis(300);
+    }
+
+    @Inject
+    public GitRepositoryPool(@ConfigProperty(name = "GIT_REPOSITORY_IDLE_EVICTION_SECONDS", defaultValue = "300") int idleEvictionSeconds,
+                             @ConfigProperty(name = "GIT_PACKED_GIT_LIMIT", defaultValue = "10485760") long packedGitLimit,
+                             @ConfigProperty(name = "GIT_PACKED_GIT_WINDOW_SIZE", defaultValue = "8192") int packedGitWindowSize,
+                             @ConfigProperty(name = "GIT_PACKED_GIT_OPEN_FILES", defaultValue = "128") int packedGitOpenFiles,
+                             @ConfigProperty(name = "GIT_PACKED_GIT_MMAP", defaultValue = "false") boolean packedGitMMAP,
+                             @ConfigProperty(name = "GIT_DELTA_BASE_CACHE_LIMIT", defaultValue = "10485760") int deltaBaseCacheLimit,
+                             @ConfigProperty(name = "GIT_STREAM_FILE_THRESHOLD", defaultValue = "52428800") int streamFileThreshold) {
+        this.idleEvictionMillis = TimeUnit.SECONDS.toMillis(idleEvictionSeconds);
+
+        WindowCacheConfig config = new WindowCacheConfig();
+        config.setPackedGitLimit(packedGitLimit);
+        config.setPackedGitWindowSize(packedGitWindowSize);
+        config.setPackedGitOpenFiles(packedGitOpenFiles);
+        config.setPackedGitMMAP(packedGitMMAP);
+        config.setDeltaBaseCacheLimit(deltaBaseCacheLimit);
+        config.setStreamFileThreshold(streamFileThreshold);
+        config.install();
+        LOG.info("Configured the git window cache with packedGitLimit: " + packedGitLimit + " packedGitWindowSize: " + packedGitWindowSize
+                + " packedGitOpenFiles: " + packedGitOpenFiles + " deltaBaseCacheLimit: " + deltaBaseCacheLimit);
+    }
+
+    /**
+     * Returns a handle to the open repository for the git folder; opening it if required
+     */
+    public Handle acquire(File gitFolder) throws IOException {
+        String key = gitFolder.getCanonicalPath();
+        try {
+            // the compute is atomic per key so an entry which is in use can never be evicted
+            Entry entry = entries.compute(key, (k, value) -> {
+                if (value == null) {
+                    value = new Entry(openRepository(gitFolder));
+                }
+                value.users.incrementAndGet();
+                return value;
+            });
+            return new Handle(entry);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Closes and removes the repository for the git folder; such as when the clone is being deleted
+     */
+    public void invalidate(File gitFolder) throws IOException {
+        Entry entry = entries.remove(gitFolder.getCanonicalPath());
+        if (entry != null) {
+            // flag and check the users under the same lock as the release so the last one to finish closes it
+            synchronized (entry) {
+                entry.invalidated = true;
+                if (entry.users.get() == 0) {
+                    entry.closeRepository();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of open repositories
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (String key : entries.keySet()) {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                entry.closeRepository();
+            }
+        }
+    }
+
+    protected Repository openRepository(File gitFolder) {
+        try {
+            FileRepositoryBuilder builder = new FileRepositoryBuilder();
+            return builder.setGitDir(gitFolder)
+                    .readEnvironment() // scan environment GIT_* variables
+                    .findGitDir() // scan up the file system tree
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected void release(Entry entry) {
+        synchronized (entry) {
+            entry.lastUsed = System.currentTimeMillis();
+            if (entry.users.decrementAndGet() == 0 && entry.invalidated) {
+                entry.closeRepository();
+            }
+        }
+        evictIdleRepositories();
+    }
+
+    /**
+     * Closes the repositories which have not been used for a while; we only check periodically
+     * to avoid scanning the map on every release
+     */
+    protected void evictIdleRepositories() {
+        long now = System.currentTimeMillis();
+        long last = lastEviction.get();
+        if (now - last < idleEvictionMillis || !lastEviction.compareAndSet(last, now)) {
+            return;
+        }
+        for (String key : entries.keySet()) {
+            entries.computeIfPresent(key, (k, entry) -> {
+                if (entry.users.get() == 0 && now - entry.lastUsed >= idleEvictionMillis) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Closing idle git repository " + k);
+                    }
+                    entry.closeRepository();
+                    return null;
+                }
+                return entry;
+            });
+        }
+    }
+
+    protected static class Entry {
+        private final Repository repository;
+        private final AtomicInteger users = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile long lastUsed = System.currentTimeMillis();
+        private boolean invalidated;
+
+        Entry(Repository repository) {
+            this.repository = repository;
+        }
+
+        void closeRepository() {
+            if (closed.compareAndSet(false, true)) {
+                repository.close();
+            }
+        }
+    }
+
+    /**
+     * A reference to an open repository which must be closed once it is no longer used
+     */
+    public class Handle implements AutoCloseable {
+        private final Entry entry;
+        private final Git git;
+        private boolean closed;
+
+        Handle(Entry entry) {
+            this.entry = entry;
+            this.git = new Git(entry.repository);
+        }
+
+        public Repository getRepository() {
+            return entry.repository;
+        }
+
+        public Git getGit() {
+            return git;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(entry);
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package io.fabric8.forge.rest.git;
 
 import io.fabric8.forge.rest.Constants;
+import io.fabric8.forge.rest.git.dto.LockStatsDTO;
 import io.fabric8.forge.rest.main.GitUserHelper;
 import io.fabric8.forge.rest.main.ProjectFileSystem;
 import io.fabric8.forge.rest.main.RepositoryCache;
@@ -73,17 +74,20 @@ public class RepositoriesResource {
     private final ProjectFileSystem projectFileSystem;
     private final GitLockManager lockManager;
     private final KubernetesClient kubernetes;
+    private final GitObjectCache objectCache;
 
     @Context
     private HttpServletRequest request;
 
     @Inject
-    public RepositoriesResource(GitUserHelper gitUserHelper, RepositoryCache repositoryCache, ProjectFileSystem projectFileSystem, GitLockManager lockManager, KubernetesClient kubernetes) {
+    public RepositoriesResource(GitUserHelper gitUserHelper, RepositoryCache repositoryCache, ProjectFileSystem projectFileSystem, GitLockManager lockManager, KubernetesClient kubernetes,
+                                GitObjectCache objectCache) {
         this.gitUserHelper = gitUserHelper;
         this.repositoryCache = repositoryCache;
         this.projectFileSystem = projectFileSystem;
         this.lockManager = lockManager;
         this.kubernetes = kubernetes;
+        this.objectCache = objectCache;
     }
 
     @GET
@@ -92,6 +96,15 @@ public class RepositoriesResource {
         return "true";
     }
 
+    /**
+     * Returns the lock contention statistics for each git repository so we can see which are hot
+     */
+    @GET
+    @Path("_locks")
+    public List<LockStatsDTO> getLockStatistics() {
+        return lockManager.getLockStatistics();
+    }
+
     @GET
     public List<RepositoryDTO> getUserRepositories() {
         GitRepoClient repoClient = createGitRepoClient();
@@ -145,6 +158,8 @@ public class RepositoriesResource {
         } catch (Exception e) {
             LOG.warn("failed to load message parameter: " + e, e);
         }
+        resource.setMaxStalenessSeconds(getMaxStalenessSeconds(request));
+        resource.setObjectCache(objectCache);
 
         LOG.info("repositoryResource took " + watch.taken());
         return resource;
@@ -254,11 +269,29 @@ public class RepositoriesResource {
         } catch (Exception e) {
             LOG.warn("failed to load message parameter: " + e, e);
         }
+        resource.setMaxStalenessSeconds(getMaxStalenessSeconds(request));
+        resource.setObjectCache(objectCache);
         LOG.info("projectRepositoryResource took " + watch.taken());
 
         return resource;
     }
 
+    /**
+     * Returns the maximum staleness in seconds the request is willing to accept for the remote branch
+     * rather than blocking on a pull or null if the request did not opt in
+     */
+    public static Integer getMaxStalenessSeconds(HttpServletRequest request) {
+        String text = request.getParameter(Constants.RequestParameters.MAX_STALENESS);
+        if (Strings.isNotBlank(text)) {
+            try {
+                return Integer.parseInt(text.trim());
+            } catch (NumberFormatException e) {
+                LOG.warn("Ignoring invalid " + Constants.RequestParameters.MAX_STALENESS + " parameter: " + text);
+            }
+        }
+        return null;
+    }
+
     protected String decodeSecretData(String text) {
         if (Strings.isNotBlank(text)) {
             return Base64Encoder.decode(text);
@@ -15,6 +15,7 @@
  */
 package io.fabric8.forge.rest.git;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.fabric8.forge.rest.git.dto.CommitDetail;
 import io.fabric8.forge.rest.git.dto.CommitInfo;
 import io.fabric8.forge.rest.git.dto.CommitTreeInfo;
@@ -39,12 +40,16 @@ import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ListBranchCommand;
 import org.eclipse.jgit.api.PullCommand;
 import org.eclipse.jgit.api.PushCommand;
+import org.eclipse.jgit.api.RebaseCommand;
+import org.eclipse.jgit.api.RebaseResult;
+import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.NoHeadException;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffFormatter;
 import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.FileMode;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.PersonIdent;
@@ -54,36 +59,37 @@ import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.eclipse.jgit.transport.CredentialsProvider;
 import org.eclipse.jgit.transport.PushResult;
 import org.eclipse.jgit.transport.RemoteRefUpdate;
 import org.eclipse.jgit.treewalk.TreeWalk;
 import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.gitective.core.BlobUtils;
-import org.gitective.core.CommitFinder;
 import org.gitective.core.CommitUtils;
 import org.gitective.core.PathFilterUtils;
-import org.gitective.core.filter.commit.CommitLimitFilter;
-import org.gitective.core.filter.commit.CommitListFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -93,6 +99,9 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import static io.fabric8.project.support.GitUtils.configureCommand;
 import static io.fabric8.project.support.GitUtils.disableSslCertificateChecks;
@@ -103,6 +112,13 @@ import static io.fabric8.project.support.GitUtils.doAddCommitAndPushFiles;
 public class RepositoryResource {
     private static final transient Logger LOG = LoggerFactory.getLogger(RepositoryResource.class);
 
+    private static final int REQUESTED_RANGE_NOT_SATISFIABLE = 416;
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    public static final String NEXT_AFTER_HEADER = "X-Next-After";
+    private static final int MAX_AVATAR_HASHES = 10000;
+    private static final ConcurrentMap<String, String> avatarHashes = new ConcurrentHashMap<>();
+
     protected static String gravatarUrl = Systems.getEnvVarOrSystemProperty("GRAVATAR_URL", "http://www.gravatar.com/avatar");
 
     private final File gitFolder;
@@ -117,6 +133,8 @@ public class RepositoryResource {
     private PersonIdent personIdent;
     private String message;
     private String objectId;
+    private Integer maxStalenessSeconds;
+    private GitObjectCache objectCache;
 
     public RepositoryResource(File basedir, File gitFolder, UserDetails userDetails, String origin, String branch, String remoteRepository, GitLockManager lockManager, ProjectFileSystem projectFileSystem, String cloneUrl, String objectId) throws IOException, GitAPIException {
         this.basedir = basedir;
@@ -158,73 +176,180 @@ public class RepositoryResource {
         return objectId;
     }
 
+    public Integer getMaxStalenessSeconds() {
+        return maxStalenessSeconds;
+    }
+
+    /**
+     * Allows operations to use the remote branch as it was fetched up to the given number of seconds ago
+     * rather than performing a blocking pull
+     */
+    public void setMaxStalenessSeconds(Integer maxStalenessSeconds) {
+        this.maxStalenessSeconds = maxStalenessSeconds;
+    }
+
+    public GitObjectCache getObjectCache() {
+        return objectCache;
+    }
+
+    /**
+     * Sets the cache used for the responses of the diff, commitDetail and commitTree endpoints
+     */
+    public void setObjectCache(GitObjectCache objectCache) {
+        this.objectCache = objectCache;
+    }
+
     @GET
     @Path("content/{path:.*}")
-    public Response fileDetails(final @PathParam("path") String path) throws Exception {
-        return gitReadOperation(new GitOperation<Response>() {
+    public Response fileDetails(final @PathParam("path") String path, final @QueryParam("maxBytes") Long maxBytes,
+                                final @HeaderParam("If-None-Match") String ifNoneMatch) throws Exception {
+        return gitReadOnlyOperation(new GitOperation<Response>() {
             @Override
             public Response call(Git git, GitContext context) throws Exception {
-                return doFileDetails(git, path);
+                return doFileDetails(git, path, maxBytes, ifNoneMatch);
             }
         });
     }
 
-    protected Response doFileDetails(Git git, String path) {
-        if (Strings.isNotBlank(objectId)) {
-            Repository r = git.getRepository();
-            String blobPath = trimLeadingSlash(path);
-            String content = BlobUtils.getContent(r, objectId, blobPath);
-            FileDTO answer = FileDTO.createFileDTO(blobPath, objectId, content);
+    /**
+     * Returns the details of a file or the listing of a directory.
+     * <p/>
+     * The content of a file is base64 encoded while it is streamed from the object database after the
+     * lock has been released; the content can be truncated to <code>maxBytes</code> in which case
+     * the response includes <code>"truncated": true</code>
+     */
+    protected Response doFileDetails(Git git, String path, Long maxBytes, String ifNoneMatch) throws IOException {
+        Repository r = git.getRepository();
+        String blobPath = trimBlobPath(path);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("reading file: " + blobPath);
+        }
+        List<FileDTO> answer = new ArrayList<>();
+        RevCommit commit = getReadCommit(git);
+        if (commit == null) {
             return Response.ok(answer).build();
-        } else {
-            final File file = getRelativeFile(path);
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("reading file: " + file.getPath());
-            }
-            if (!file.exists() || file.isDirectory()) {
-                List<FileDTO> answer = new ArrayList<>();
-                if (file.exists()) {
-                    File[] files = file.listFiles();
-                    if (files != null) {
-                        for (File child : files) {
-                            FileDTO dto = createFileDTO(child, false);
-                            if (dto != null) {
-                                answer.add(dto);
+        }
+        ObjectId treeId = commit.getTree().getId();
+        String parentPath = "";
+        if (Strings.isNotBlank(blobPath)) {
+            try (TreeWalk walk = TreeWalk.forPath(r, blobPath, commit.getTree())) {
+                if (walk == null) {
+                    return Response.ok(answer).build();
+                }
+                FileMode fileMode = walk.getFileMode(0);
+                if (!FileMode.TREE.equals(fileMode)) {
+                    final ObjectId blobId = walk.getObjectId(0);
+                    final FileDTO file = FileDTO.createFileDTO(r, blobId, fileMode, walk.getNameString(), getParentPath(blobPath), false, "", false);
+                    if (fileMode.getObjectType() != Constants.OBJ_BLOB) {
+                        return Response.ok(file).build();
+                    }
+                    long size = file.getSize();
+                    long limit = Math.min(size, Integer.MAX_VALUE);
+                    if (maxBytes != null && maxBytes >= 0) {
+                        limit = Math.min(limit, maxBytes);
+                    }
+                    final int length = (int) limit;
+                    final boolean truncated = length < size;
+                    // the tag includes the length so that truncated responses are never confused with the full content
+                    String tag = truncated ? blobId.getName() + "-" + length : blobId.getName();
+                    if (BlobStreams.matchesETag(ifNoneMatch, tag)) {
+                        return Response.notModified(new EntityTag(tag)).build();
+                    }
+                    StreamingOutput output = new StreamingOutput() {
+                        @Override
+                        public void write(OutputStream out) throws IOException {
+                            try (GitRepositoryPool.Handle handle = acquireRepository();
+                                 InputStream in = handle.getRepository().open(blobId, Constants.OBJ_BLOB).openStream()) {
+                                BlobStreams.writeFileJson(out, file, in, length, truncated);
                             }
                         }
-                    }
+                    };
+                    return Response.ok(output, MediaType.APPLICATION_JSON_TYPE).tag(new EntityTag(tag)).build();
                 }
-                return Response.ok(answer).build();
-            } else {
-                FileDTO answer = createFileDTO(file, true);
-                return Response.ok(answer).build();
+                treeId = walk.getObjectId(0);
+                parentPath = blobPath;
             }
         }
+        try (TreeWalk walk = new TreeWalk(r)) {
+            walk.addTree(treeId);
+            walk.setRecursive(false);
+            while (walk.next()) {
+                answer.add(FileDTO.createFileDTO(r, walk.getObjectId(0), walk.getFileMode(0), walk.getNameString(), parentPath, false, "", false));
+            }
+        }
+        return Response.ok(answer).build();
     }
 
     @GET
     @Path("raw/{path:.*}")
-    public Response rawFile(final @PathParam("path") String path) throws Exception {
-        return gitReadOperation(new GitOperation<Response>() {
+    public Response rawFile(final @PathParam("path") String path, final @HeaderParam("Range") String range,
+                            final @HeaderParam("If-None-Match") String ifNoneMatch) throws Exception {
+        return gitReadOnlyOperation(new GitOperation<Response>() {
             @Override
             public Response call(Git git, GitContext context) throws Exception {
-                return doRawFile(path);
+                return doRawFile(git, path, range, ifNoneMatch);
             }
         });
     }
 
-    protected Response doRawFile(String path) throws IOException {
-        final File file = getRelativeFile(path);
+    /**
+     * Returns the raw content of a file; the blob SHA is used as the ETag and a single byte <code>Range</code>
+     * is supported. The content is streamed from the object database after the lock has been released
+     */
+    protected Response doRawFile(Git git, String path, String range, String ifNoneMatch) throws IOException {
+        Repository r = git.getRepository();
+        String blobPath = trimBlobPath(path);
         if (LOG.isDebugEnabled()) {
-            LOG.debug("reading file: " + file.getPath());
+            LOG.debug("reading file: " + blobPath);
         }
-        if (file.isDirectory()) {
-            // TODO return a listing?
-            Object directoryDto = null;
-            return Response.ok(directoryDto).build();
-        } else {
-            byte[] data = Files.readBytes(file);
-            return Response.ok(data).build();
+        RevCommit commit = getReadCommit(git);
+        if (commit == null || Strings.isNullOrBlank(blobPath)) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        try (TreeWalk walk = TreeWalk.forPath(r, blobPath, commit.getTree())) {
+            if (walk == null) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+            if (FileMode.TREE.equals(walk.getFileMode(0))) {
+                // TODO return a listing?
+                Object directoryDto = null;
+                return Response.ok(directoryDto).build();
+            }
+            final ObjectId blobId = walk.getObjectId(0);
+            EntityTag tag = new EntityTag(blobId.getName());
+            if (BlobStreams.matchesETag(ifNoneMatch, blobId.getName())) {
+                return Response.notModified(tag).build();
+            }
+            long size = r.open(blobId, Constants.OBJ_BLOB).getSize();
+            long offset = 0;
+            long length = size;
+            Response.ResponseBuilder builder = Response.ok();
+            if (Strings.isNotBlank(range)) {
+                long[] byteRange = BlobStreams.parseRange(range, size);
+                if (byteRange == null) {
+                    return Response.status(REQUESTED_RANGE_NOT_SATISFIABLE).header("Content-Range", "bytes */" + size).tag(tag).build();
+                }
+                offset = byteRange[0];
+                length = byteRange[1];
+                builder = Response.status(Response.Status.PARTIAL_CONTENT)
+                        .header("Content-Range", "bytes " + offset + "-" + (offset + length - 1) + "/" + size);
+            }
+            final long start = offset;
+            final long count = length;
+            StreamingOutput output = new StreamingOutput() {
+                @Override
+                public void write(OutputStream out) throws IOException {
+                    try (GitRepositoryPool.Handle handle = acquireRepository();
+                         InputStream in = handle.getRepository().open(blobId, Constants.OBJ_BLOB).openStream()) {
+                        BlobStreams.copyRange(in, out, start, count);
+                    }
+                }
+            };
+            return builder.entity(output)
+                    .tag(tag)
+                    .header("Content-Length", count)
+                    .header("Accept-Ranges", "bytes")
+                    .build();
         }
     }
 
@@ -245,25 +370,40 @@ public class RepositoryResource {
 
     @GET
     @Path("diff/{objectId1}")
-    public String diff(@PathParam("objectId1") String objectId) throws Exception {
-        return diff(objectId, null, null);
+    public Response diff(@PathParam("objectId1") String objectId, @HeaderParam("If-None-Match") String ifNoneMatch) throws Exception {
+        return diff(objectId, null, null, ifNoneMatch);
     }
 
     @GET
     @Path("diff/{objectId1}/{objectId2}")
-    public String diff(@PathParam("objectId1") String objectId, @PathParam("objectId2") String baseObjectId) throws Exception {
-        return diff(objectId, baseObjectId, null);
+    public Response diff(@PathParam("objectId1") String objectId, @PathParam("objectId2") String baseObjectId, @HeaderParam("If-None-Match") String ifNoneMatch) throws Exception {
+        return diff(objectId, baseObjectId, null, ifNoneMatch);
     }
 
     @GET
     @Path("diff/{objectId1}/{objectId2}/{path:.*}")
-    public String diff(final @PathParam("objectId1") String objectId, final @PathParam("objectId2") String baseObjectId, final @PathParam("path") String pathOrBlobPath) throws Exception {
-        return gitReadOperation(new GitOperation<String>() {
+    public Response diff(final @PathParam("objectId1") String objectId, final @PathParam("objectId2") String baseObjectId, final @PathParam("path") String pathOrBlobPath,
+                         @HeaderParam("If-None-Match") String ifNoneMatch) throws Exception {
+        String key = null;
+        if (GitObjectCache.isImmutableId(objectId) && (Strings.isNullOrBlank(baseObjectId) || GitObjectCache.isImmutableId(baseObjectId))) {
+            key = objectCacheKey("diff", objectId, baseObjectId, trimLeadingSlash(pathOrBlobPath));
+        }
+        byte[] data = immutableResponse(key, ifNoneMatch, new Callable<byte[]>() {
             @Override
-            public String call(Git git, GitContext context) throws Exception {
-                return doDiff(git, objectId, baseObjectId, pathOrBlobPath);
+            public byte[] call() throws Exception {
+                String diff = gitReadOnlyOperation(new GitOperation<String>() {
+                    @Override
+                    public String call(Git git, GitContext context) throws Exception {
+                        return doDiff(git, objectId, baseObjectId, pathOrBlobPath);
+                    }
+                });
+                return diff.getBytes(StandardCharsets.UTF_8);
             }
         });
+        if (data == null) {
+            return Response.notModified(new EntityTag(GitObjectCache.etag(key))).build();
+        }
+        return immutableBuilder(key, new String(data, StandardCharsets.UTF_8)).build();
     }
 
     protected String doDiff(Git git, String objectId, String baseObjectId, String pathOrBlobPath) throws IOException {
@@ -274,7 +414,7 @@ public class RepositoryResource {
         if (Strings.isNotBlank(objectId)) {
             commit = CommitUtils.getCommit(r, objectId);
         } else {
-            commit = CommitUtils.getHead(r);
+            commit = getBranchCommit(git);
         }
         RevCommit baseCommit = null;
         if (Strings.isNotBlank(baseObjectId) && !Objects.equals(baseObjectId, objectId)) {
@@ -326,7 +466,7 @@ public class RepositoryResource {
     @GET
     @Path("commitInfo/{commitId}")
     public CommitInfo commitInfo(final @PathParam("commitId") String commitId) throws Exception {
-        return gitReadOperation(new GitOperation<CommitInfo>() {
+        return gitReadOnlyOperation(new GitOperation<CommitInfo>() {
             @Override
             public CommitInfo call(Git git, GitContext context) throws Exception {
                 return doCommitInfo(git, commitId);
@@ -336,10 +476,11 @@ public class RepositoryResource {
 
     @GET
     @Path("commitDetail/{commitId}")
-    public CommitDetail commitDetail(final @PathParam("commitId") String commitId) throws Exception {
-        return gitReadOperation(new GitOperation<CommitDetail>() {
+    public Response commitDetail(final @PathParam("commitId") String commitId, @HeaderParam("If-None-Match") String ifNoneMatch) throws Exception {
+        String key = GitObjectCache.isImmutableId(commitId) ? objectCacheKey("commitDetail", commitId) : null;
+        return immutableJsonResponse(key, ifNoneMatch, new GitOperation<Object>() {
             @Override
-            public CommitDetail call(Git git, GitContext context) throws Exception {
+            public Object call(Git git, GitContext context) throws Exception {
                 return doCommitDetail(git, commitId);
             }
         });
@@ -432,15 +573,96 @@ public class RepositoryResource {
      */
     @GET
     @Path("commitTree/{commitId}")
-    public List<CommitTreeInfo> getCommitTree(final @PathParam("commitId") String commitId) throws Exception {
-        return gitReadOperation(new GitOperation<List<CommitTreeInfo>>() {
+    public Response getCommitTree(final @PathParam("commitId") String commitId, @HeaderParam("If-None-Match") String ifNoneMatch) throws Exception {
+        String key = GitObjectCache.isImmutableId(commitId) ? objectCacheKey("commitTree", commitId) : null;
+        return immutableJsonResponse(key, ifNoneMatch, new GitOperation<Object>() {
             @Override
-            public List<CommitTreeInfo> call(Git git, GitContext context) throws Exception {
+            public Object call(Git git, GitContext context) throws Exception {
                 return doGetCommitTree(git, commitId);
             }
         });
     }
 
+    /**
+     * Returns the key in the object cache for the response of the given kind and object ids
+     */
+    protected String objectCacheKey(String kind, String... ids) {
+        StringBuilder builder = new StringBuilder(gitFolder.getAbsolutePath()).append('|').append(kind);
+        for (String id : ids) {
+            builder.append('|');
+            if (id != null) {
+                builder.append(id);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the response for immutable git objects as JSON; using the object cache and a strong ETag if the
+     * key is not null. A null result from the operation is returned as no content and an empty collection is returned
+     * as is; neither of them are cached as they may be because the object could not be found or walked
+     */
+    protected Response immutableJsonResponse(String key, String ifNoneMatch, final GitOperation<Object> operation) throws Exception {
+        final boolean[] found = {true};
+        final Object[] uncached = {null};
+        byte[] data = immutableResponse(key, ifNoneMatch, new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws Exception {
+                Object answer = gitReadOnlyOperation(operation);
+                if (answer == null) {
+                    found[0] = false;
+                    return null;
+                }
+                if (answer instanceof Collection && ((Collection<?>) answer).isEmpty()) {
+                    uncached[0] = answer;
+                    return null;
+                }
+                return JSON_MAPPER.writeValueAsBytes(answer);
+            }
+        });
+        if (!found[0]) {
+            return Response.noContent().build();
+        }
+        if (uncached[0] != null) {
+            return Response.ok(JSON_MAPPER.writeValueAsBytes(uncached[0])).type(MediaType.APPLICATION_JSON_TYPE).build();
+        }
+        if (data == null) {
+            return Response.notModified(new EntityTag(GitObjectCache.etag(key))).build();
+        }
+        return immutableBuilder(key, data).type(MediaType.APPLICATION_JSON_TYPE).build();
+    }
+
+    /**
+     * Returns the cached data for the key or loads it; so that cache hits do not need to take the lock,
+     * fetch or even open the repository.
+     *
+     * @return the data or null if the <code>If-None-Match</code> header matches the key or the loader returns null
+     */
+    protected byte[] immutableResponse(String key, String ifNoneMatch, Callable<byte[]> loader) throws Exception {
+        if (key == null || objectCache == null) {
+            return loader.call();
+        }
+        if (BlobStreams.matchesETag(ifNoneMatch, GitObjectCache.etag(key))) {
+            return null;
+        }
+        byte[] answer = objectCache.get(key);
+        if (answer == null) {
+            answer = loader.call();
+            if (answer != null) {
+                objectCache.put(key, answer);
+            }
+        }
+        return answer;
+    }
+
+    protected Response.ResponseBuilder immutableBuilder(String key, Object entity) {
+        Response.ResponseBuilder builder = Response.ok(entity);
+        if (key != null && objectCache != null) {
+            builder.tag(new EntityTag(GitObjectCache.etag(key)));
+        }
+        return builder;
+    }
+
     protected List<CommitTreeInfo> doGetCommitTree(Git git, String commitId) {
         Repository repository = git.getRepository();
         List<CommitTreeInfo> list = new ArrayList<CommitTreeInfo>();
@@ -496,22 +718,40 @@ public class RepositoryResource {
 
     @GET
     @Path("history")
-    public List<CommitInfo> history(@QueryParam("limit") int limit) throws Exception {
-        return history(null, null, limit);
+    public Response history(@QueryParam("limit") int limit, @QueryParam("after") String after, @QueryParam("pageSize") int pageSize) throws Exception {
+        return history(null, null, limit, after, pageSize);
     }
 
+    /**
+     * Returns the commit log optionally filtered by a path. Results can be paged by passing the <code>pageSize</code>
+     * and the <code>after</code> cursor; which is the id of the last commit of the previous page and is returned
+     * in the <code>X-Next-After</code> header when there are more commits.
+     */
     @GET
     @Path("history/{commitId}/{path:.*}")
-    public List<CommitInfo> history(@PathParam("commitId") final String objectId, @PathParam("path") final String pathOrBlobPath, @QueryParam("limit") final int limit) throws Exception {
-        return gitReadOperation(new GitOperation<List<CommitInfo>>() {
+    public Response history(@PathParam("commitId") final String objectId, @PathParam("path") final String pathOrBlobPath, @QueryParam("limit") final int limit,
+                            @QueryParam("after") final String after, @QueryParam("pageSize") final int pageSize) throws Exception {
+        final int size = pageSize > 0 ? pageSize : limit;
+        List<CommitInfo> results = gitReadOnlyOperation(new GitOperation<List<CommitInfo>>() {
             @Override
             public List<CommitInfo> call(Git git, GitContext context) throws Exception {
-                return doHistory(git, objectId, pathOrBlobPath, limit);
+                // lets find one more commit than requested so we know if there is another page
+                return doHistory(git, objectId, pathOrBlobPath, size > 0 ? size + 1 : 0, after);
             }
         });
+        Response.ResponseBuilder builder = Response.ok();
+        if (size > 0 && results.size() > size) {
+            results = new ArrayList<>(results.subList(0, size));
+            builder.header(NEXT_AFTER_HEADER, results.get(size - 1).getSha());
+        }
+        return builder.entity(results).build();
+    }
+
+    protected List<CommitInfo> doHistory(Git git, String objectId, String pathOrBlobPath, int limit) throws IOException {
+        return doHistory(git, objectId, pathOrBlobPath, limit, null);
     }
 
-    protected List<CommitInfo> doHistory(Git git, String objectId, String pathOrBlobPath, int limit) {
+    protected List<CommitInfo> doHistory(Git git, String objectId, String pathOrBlobPath, int limit, String after) throws IOException {
         List<CommitInfo> results = new ArrayList<CommitInfo>();
         Repository r = git.getRepository();
 
@@ -524,35 +764,58 @@ public class RepositoryResource {
 
         String path = trimLeadingSlash(pathOrBlobPath);
 
-        CommitFinder finder = new CommitFinder(r);
-        CommitListFilter filter = new CommitListFilter();
-        if (Strings.isNotBlank(path)) {
-            finder.setFilter(PathFilterUtils.and(path));
-        }
-        finder.setFilter(filter);
-
-        if (limit > 0) {
-            finder.setFilter(new CommitLimitFilter(limit).setStop(true));
-        }
+        ObjectId branchObjectId = Strings.isNotBlank(branch) ? getBranchObjectId(git) : null;
+        ObjectId startId = null;
         if (Strings.isNotBlank(objectId)) {
-            finder.findFrom(objectId);
+            startId = r.resolve(objectId);
+            if (startId == null) {
+                throw new NotFoundException("Could not find commit " + objectId);
+            }
         } else {
-            if (Strings.isNotBlank(branch)) {
-                ObjectId branchObjectId = getBranchObjectId(git);
-                if (branchObjectId != null) {
-                    finder = finder.findFrom(branchObjectId);
-                } else {
-                    finder = finder.findInBranches();
+            startId = branchObjectId;
+        }
+
+        if (startId != null && startId.equals(branchObjectId)) {
+            // the history of the branch can be served from the commit index
+            CommitIndex index = CommitIndex.getInstance(gitFolder, branch);
+            index.update(r, branchObjectId);
+            List<String> ids = index.find(path, after, limit);
+            if (ids != null) {
+                try (RevWalk walk = new RevWalk(r)) {
+                    for (String id : ids) {
+                        results.add(createCommitInfo(walk.parseCommit(ObjectId.fromString(id))));
+                    }
                 }
+                return results;
+            }
+        }
 
+        try (RevWalk walk = new RevWalk(r)) {
+            if (Strings.isNotBlank(path)) {
+                walk.setTreeFilter(PathFilterUtils.and(path));
+            }
+            if (startId != null) {
+                walk.markStart(walk.parseCommit(startId));
+            } else if (Strings.isNotBlank(branch)) {
+                for (Ref ref : git.branchList().call()) {
+                    walk.markStart(walk.parseCommit(ref.getObjectId()));
+                }
             } else {
-                finder.find();
+                walk.markStart(walk.parseCommit(r.resolve(Constants.HEAD)));
             }
-        }
-        List<RevCommit> commits = filter.getCommits();
-        for (RevCommit entry : commits) {
-            CommitInfo commitInfo = createCommitInfo(entry);
-            results.add(commitInfo);
+            boolean skipping = Strings.isNotBlank(after);
+            for (RevCommit commit : walk) {
+                if (skipping) {
+                    skipping = !commit.getName().equals(after);
+                    continue;
+                }
+                results.add(createCommitInfo(commit));
+                if (limit > 0 && results.size() >= limit) {
+                    break;
+                }
+            }
+        } catch (GitAPIException e) {
+            LOG.warn("Failed to find branches " + e, e);
         }
         return results;
     }
@@ -679,11 +942,12 @@ public class RepositoryResource {
     @POST
     @Path("removeProject")
     public Response remove() throws Exception {
-        return lockManager.withLock(gitFolder, new Callable<Response>() {
+        return lockManager.withWriteLock(gitFolder, new Callable<Response>() {
 
             @Override
             public Response call() throws Exception {
                 LOG.info("Removing clone of project at " + basedir);
+                projectFileSystem.getRepositoryPool().invalidate(gitFolder);
                 Files.recursiveDelete(basedir);
                 return Response.ok(new StatusDTO(basedir.getName(), "remove project")).build();
             }
@@ -706,7 +970,7 @@ public class RepositoryResource {
     @GET
     @Path("listBranches")
     public List<String> listBranches() throws Exception {
-        return gitReadOperation(new GitOperation<List<String>>() {
+        return gitReadOnlyOperation(new GitOperation<List<String>>() {
             @Override
             public List<String> call(Git git, GitContext context) throws Exception {
                 return doListBranches(git);
@@ -740,6 +1004,15 @@ public class RepositoryResource {
         return gitOperation(context, operation);
     }
 
+    /**
+     * Performs an operation which only reads from the git object database for the requested ref.
+     * So the working tree is not stashed, checked out or pulled and only a shared lock is held;
+     * allowing concurrent reads of the same repository.
+     */
+    public <T> T gitReadOnlyOperation(GitOperation<T> operation) throws Exception {
+        return gitReadOperation(operation, new GitContext().readOnly());
+    }
+
     public <T> T gitWriteOperation(GitOperation<T> operation) throws Exception {
         return gitWriteOperation(operation, new GitContext());
     }
@@ -751,7 +1024,24 @@ public class RepositoryResource {
     }
 
     protected <T> T gitOperation(final GitContext context, final GitOperation<T> operation) throws Exception {
-        return lockManager.withLock(gitFolder, new Callable<T>() {
+        if (context.getMaxStalenessSeconds() == null) {
+            context.setMaxStalenessSeconds(maxStalenessSeconds);
+        }
+        final Integer maxStaleness = context.getMaxStalenessSeconds();
+        boolean cloned = Files.isDirectory(gitFolder);
+        if (context.isReadOnly() && cloned) {
+            // we must fetch before taking the lock as the fetch takes a read lock
+            if (maxStaleness != null) {
+                projectFileSystem.fetchIfStale(gitFolder, userDetails, TimeUnit.SECONDS.toMillis(maxStaleness));
+            } else {
+                projectFileSystem.fetchInBackgroundIfStale(gitFolder, userDetails);
+            }
+            return gitReadOnlyOperation(context, operation);
+        }
+        final boolean fetched = cloned && context.isRequirePull() && maxStaleness != null &&
+                projectFileSystem.fetchIfStale(gitFolder, userDetails, TimeUnit.SECONDS.toMillis(maxStaleness));
+        // if we've not cloned yet then lets fall back to a full operation which clones the repository
+        return lockManager.withWriteLock(gitFolder, new Callable<T>() {
 
             @Override
             public T call() throws Exception {
@@ -759,64 +1049,100 @@ public class RepositoryResource {
 
                 projectFileSystem.cloneRepoIfNotExist(userDetails, basedir, cloneUrl);
 
-                FileRepositoryBuilder builder = new FileRepositoryBuilder();
-                Repository repository = builder.setGitDir(gitFolder)
-                        .readEnvironment() // scan environment GIT_* variables
-                        .findGitDir() // scan up the file system tree
-                        .build();
+                try (GitRepositoryPool.Handle handle = acquireRepository()) {
+                    Git git = handle.getGit();
+                    if (Strings.isNullOrBlank(origin)) {
+                        throw new IOException("Could not find remote git URL for folder " + gitFolder.getPath());
+                    }
 
-                Git git = new Git(repository);
-                if (Strings.isNullOrBlank(origin)) {
-                    throw new IOException("Could not find remote git URL for folder " + gitFolder.getPath());
-                }
+                    CredentialsProvider credentials = userDetails.createCredentialsProvider();
+                    createPersonIdent();
 
-                CredentialsProvider credentials = userDetails.createCredentialsProvider();
-                createPersonIdent();
+                    disableSslCertificateChecks();
+                    LOG.info("Stashing local changes to the repo");
+                    boolean hasHead = true;
+                    try {
+                        git.log().all().call();
+                        hasHead = git.getRepository().getAllRefs().containsKey("HEAD");
+                    } catch (NoHeadException e) {
+                        hasHead = false;
+                    }
+                    if (hasHead) {
+                        // lets stash any local changes just in case..
+                        try {
+                            git.stashCreate().setPerson(personIdent).setWorkingDirectoryMessage("Stash before a write").setRef("HEAD").call();
+                        } catch (Throwable e) {
+                            LOG.error("Failed to stash changes: " + e, e);
+                            Throwable cause = e.getCause();
+                            if (cause != null && cause != e) {
+                                LOG.error("Cause: " + cause, cause);
+                            }
+                        }
+                    }
 
-                disableSslCertificateChecks();
-                LOG.info("Stashing local changes to the repo");
-                boolean hasHead = true;
-                try {
-                    git.log().all().call();
-                    hasHead = git.getRepository().getAllRefs().containsKey("HEAD");
-                } catch (NoHeadException e) {
-                    hasHead = false;
-                }
-                if (hasHead) {
-                    // lets stash any local changes just in case..
+                    checkoutBranch(git, context);
+                    if (context.isRequirePull()) {
+                        if (fetched) {
+                            doRebase(git);
+                        } else {
+                            doPull(git, context);
+                        }
+                        updateCommitIndex(git);
+                    }
+
+                    T result;
                     try {
-                        git.stashCreate().setPerson(personIdent).setWorkingDirectoryMessage("Stash before a write").setRef("HEAD").call();
-                    } catch (Throwable e) {
-                        LOG.error("Failed to stash changes: " + e, e);
-                        Throwable cause = e.getCause();
-                        if (cause != null && cause != e) {
-                            LOG.error("Cause: " + cause, cause);
+                        result = operation.call(git, context);
+                    } catch (Exception e) {
+                        if (context.isRollbackOnFailure()) {
+                            doRollback(git);
                         }
+                        throw e;
                     }
-                }
 
-                checkoutBranch(git, context);
-                if (context.isRequirePull()) {
-                    doPull(git, context);
-                }
+                    if (Strings.isNullOrBlank(message)) {
+                        message = "";
+                    }
+                    if (context.isRequireCommit() && hasGitChanges(git)) {
+                        doAddCommitAndPushFiles(git, userDetails, personIdent, branch, origin, message, isPushOnCommit());
+                    }
 
-                T result = operation.call(git, context);
+                    LOG.info("Git operation took " + watch.taken());
 
-                if (Strings.isNullOrBlank(message)) {
-                    message = "";
-                }
-                if (context.isRequireCommit() && hasGitChanges(git)) {
-                    doAddCommitAndPushFiles(git, userDetails, personIdent, branch, origin, message, isPushOnCommit());
+                    return result;
                 }
+            }
 
-                LOG.info("Git operation took " + watch.taken());
+        });
+    }
 
-                return result;
-            }
+    protected <T> T gitReadOnlyOperation(final GitContext context, final GitOperation<T> operation) throws Exception {
+        return lockManager.withReadLock(gitFolder, new Callable<T>() {
 
+            @Override
+            public T call() throws Exception {
+                StopWatch watch = new StopWatch();
+                if (!Files.isDirectory(gitFolder)) {
+                    throw new NotFoundException("No git repository exists at " + gitFolder.getPath());
+                }
+                try (GitRepositoryPool.Handle handle = acquireRepository()) {
+                    Git git = handle.getGit();
+                    T result = operation.call(git, context);
+
+                    LOG.info("Git read only operation took " + watch.taken());
+                    return result;
+                }
+            }
         });
     }
 
+    /**
+     * Returns a handle to the pooled repository which must be closed after use rather than the repository itself
+     */
+    protected GitRepositoryPool.Handle acquireRepository() throws IOException {
+        return projectFileSystem.getRepositoryPool().acquire(gitFolder);
+    }
+
     protected boolean hasGitChanges(Git git) throws GitAPIException {
         Status status = git.status().call();
         return anySetsNotEmpty(status.getAdded(), status.getChanged(), status.getModified(), status.getRemoved(), status.getUntracked());
@@ -837,6 +1163,39 @@ public class RepositoryResource {
         this.personIdent = new PersonIdent(user, authorEmail);
     }
 
+    /**
+     * Adds any commits which have been pulled to the commit index of the branch; if the index is in use
+     */
+    protected void updateCommitIndex(Git git) {
+        if (Strings.isNullOrBlank(branch)) {
+            return;
+        }
+        CommitIndex index = CommitIndex.getInstance(gitFolder, branch);
+        if (index.exists()) {
+            ObjectId branchObjectId = getBranchObjectId(git);
+            if (branchObjectId != null) {
+                try {
+                    index.update(git.getRepository(), branchObjectId);
+                } catch (IOException e) {
+                    LOG.warn("Failed to update the commit index of " + gitFolder + ". " + e, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards any changes to the working tree; the equivalent of <code>git reset --hard && git clean -fd</code>
+     */
+    protected void doRollback(Git git) {
+        LOG.info("Rolling back the changes in git repository " + this.gitFolder);
+        try {
+            git.reset().setMode(ResetCommand.ResetType.HARD).setRef("HEAD").call();
+            git.clean().setCleanDirectories(true).call();
+        } catch (Throwable e) {
+            LOG.error("Failed to roll back the changes in git repository " + this.gitFolder + ". " + e, e);
+        }
+    }
+
     protected void doPull(Git git, GitContext context) throws GitAPIException {
         StopWatch watch = new StopWatch();
 
@@ -845,9 +1204,31 @@ public class RepositoryResource {
         PullCommand command = git.pull();
         configureCommand(command, userDetails);
         command.setCredentialsProvider(cp).setRebase(true).call();
+        projectFileSystem.onFetched(gitFolder);
         LOG.info("Took " + watch.taken() + " to complete pull in git repository " + this.gitFolder + " on remote URL: " + this.remoteRepository);
     }
 
+    /**
+     * Rebases the local branch onto the remote tracking branch which has already been fetched;
+     * so that we get the same results as a pull without a network round trip
+     */
+    protected void doRebase(Git git) throws GitAPIException, IOException {
+        StopWatch watch = new StopWatch();
+
+        ObjectId upstream = git.getRepository().resolve("refs/remotes/" + getRemote() + "/" + branch);
+        if (upstream == null) {
+            return;
+        }
+        RebaseResult result = git.rebase().setUpstream(upstream).call();
+        if (!result.getStatus().isSuccessful()) {
+            LOG.warn("Failed to rebase git repository " + this.gitFolder + " onto " + getRemote() + "/" + branch + " status: " + result.getStatus());
+            if (result.getStatus() == RebaseResult.Status.STOPPED) {
+                git.rebase().setOperation(RebaseCommand.Operation.ABORT).call();
+            }
+        }
+        LOG.info("Took " + watch.taken() + " to rebase git repository " + this.gitFolder + " onto the fetched remote branch");
+    }
+
     protected Response uploadFile(final String path, final String message, final InputStream body) throws Exception {
         return gitWriteOperation(new GitOperation<Response>() {
             @Override
@@ -902,6 +1283,19 @@ public class RepositoryResource {
         return answer;
     }
 
+    protected static String trimBlobPath(String path) {
+        String answer = trimLeadingSlash(path);
+        while (answer != null && answer.endsWith("/")) {
+            answer = answer.substring(0, answer.length() - 1);
+        }
+        return answer;
+    }
+
+    protected static String getParentPath(String blobPath) {
+        int idx = blobPath.lastIndexOf('/');
+        return idx > 0 ? blobPath.substring(0, idx) : "";
+    }
+
     protected File getRelativeFile(String path) {
         return new File(basedir, trimLeadingSlash(path));
     }
@@ -934,7 +1328,18 @@ public class RepositoryResource {
     }
 
     protected String getAvatarUrl(String email) {
-        String hash = MD5Util.md5Hex(email);
+        // the MD5 hash is memoized as the same few authors appear on most commits
+        String hash = avatarHashes.get(email);
+        if (hash == null) {
+            hash = MD5Util.md5Hex(email);
+            if (hash == null) {
+                return null;
+            }
+            if (avatarHashes.size() >= MAX_AVATAR_HASHES) {
+                avatarHashes.clear();
+            }
+            avatarHashes.put(email, hash);
+        }
         if (Strings.isNotBlank(hash)) {
             return URLUtils.pathJoin(gravatarUrl, hash);
         }
@@ -946,6 +1351,46 @@ public class RepositoryResource {
         return commit.getName();
     }
 
+    /**
+     * Returns the commit to read from; the requested ref if one was specified otherwise the tip of the branch
+     */
+    protected RevCommit getReadCommit(Git git) throws IOException {
+        if (Strings.isNotBlank(objectId)) {
+            return CommitUtils.getCommit(git.getRepository(), objectId);
+        }
+        return getBranchCommit(git);
+    }
+
+    /**
+     * Returns the tip of the branch; falling back to the remote tracking branch if there is no local branch yet
+     * or HEAD if the branch does not exist at all. Returns null if the repository has no commits
+     */
+    protected RevCommit getBranchCommit(Git git) throws IOException {
+        Repository r = git.getRepository();
+        ObjectId commitId = null;
+        if (Strings.isNotBlank(branch)) {
+            commitId = r.resolve("refs/heads/" + branch);
+            ObjectId remoteId = r.resolve("refs/remotes/" + getRemote() + "/" + branch);
+            if (commitId == null) {
+                commitId = remoteId;
+            } else if (remoteId != null && !remoteId.equals(commitId)) {
+                // lets use the remote branch if it has been fetched since our last pull
+                try (RevWalk walk = new RevWalk(r)) {
+                    if (walk.isMergedInto(walk.parseCommit(commitId), walk.parseCommit(remoteId))) {
+                        commitId = remoteId;
+                    }
+                }
+            }
+        }
+        if (commitId == null) {
+            commitId = r.resolve("HEAD");
+        }
+        if (commitId == null) {
+            return null;
+        }
+        return CommitUtils.getCommit(r, commitId);
+    }
+
     protected ObjectId getBranchObjectId(Git git) {
         Ref branchRef = null;
         try {
@@ -19,11 +19,20 @@ import io.fabric8.utils.Base64Encoder;
 import io.fabric8.utils.Files;
 import io.fabric8.utils.Strings;
 import io.fabric8.utils.XmlHelper;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.TreeWalk;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Set;
 
 import static io.fabric8.forge.rest.git.RepositoryResource.includeFile;
@@ -135,6 +144,73 @@ public class FileDTO extends GitDTOSupport {
         return fileDTO;
     }
 
+    /**
+     * Creates the DTO for an entry in a git tree reading directly from the object database rather than the working tree.
+     * Uses the same collapsing of directories with a single child as {@link #createFileDTO(File, String, boolean, String, boolean)}
+     */
+    public static FileDTO createFileDTO(Repository repository, ObjectId objectId, FileMode fileMode, String fileName, String parentPath, boolean includeContent, String collapseFolderName, boolean skipsEmptyDirectory) throws IOException {
+        String content = null;
+        String encoding = null;
+        boolean isDirectory = FileMode.TREE.equals(fileMode);
+        boolean isFile = !isDirectory && (fileMode.getObjectType() == Constants.OBJ_BLOB);
+        String name = joinPaths(collapseFolderName, fileName);
+        if (isDirectory) {
+            int count = 0;
+            ObjectId lastChildId = null;
+            FileMode lastChildMode = null;
+            String lastChildName = null;
+            try (TreeWalk walk = new TreeWalk(repository)) {
+                walk.addTree(objectId);
+                walk.setRecursive(false);
+                while (walk.next()) {
+                    lastChildId = walk.getObjectId(0);
+                    lastChildMode = walk.getFileMode(0);
+                    lastChildName = walk.getNameString();
+                    if (++count > 1) {
+                        break;
+                    }
+                }
+            }
+            if (lastChildId != null && count == 1) {
+                // lets return the child file
+                String childCollapseFolderName = joinPaths(collapseFolderName, fileName);
+                return createFileDTO(repository, lastChildId, lastChildMode, lastChildName, parentPath, includeContent, childCollapseFolderName, true);
+            }
+        }
+        String path = joinPaths(parentPath, name);
+        long size = 0;
+        byte[] bytes = null;
+        ObjectLoader loader = null;
+        if (isFile) {
+            loader = repository.open(objectId);
+            size = loader.getSize();
+            if (includeContent) {
+                bytes = loader.getBytes();
+            }
+        }
+        if (includeContent && bytes != null) {
+            content = toBase64(bytes);
+            encoding = DEFAULT_ENCODING;
+        }
+        String type = isDirectory ? DIR_TYPE : FILE_TYPE;
+        FileDTO fileDTO = new FileDTO(type, size, name, path, encoding, content);
+        fileDTO.skipsEmptyDirectory = skipsEmptyDirectory;
+        fileDTO.setSha(objectId.getName());
+        if (loader != null && name.endsWith(".xml")) {
+            // lets load the XML namespaces streaming from the object database if we have not loaded the content
+            try (InputStream in = bytes != null ? new ByteArrayInputStream(bytes) : loader.openStream()) {
+                Set<String> uris = XmlHelper.getNamespaces(new InputSource(in));
+                if (uris.size() > 0) {
+                    String[] namespaces = uris.toArray(new String[uris.size()]);
+                    fileDTO.setXmlNamespaces(namespaces);
+                }
+            } catch (Exception e) {
+                LOG.warn("Failed to parse the XML namespaces in " + path + " due: " + e.getMessage() + ". This exception is ignored.", e);
+            }
+        }
+        return fileDTO;
+    }
+
     protected static String joinPaths(String parentPath, String name) {
         String path = name;
         if (Strings.isNotBlank(parentPath)) {
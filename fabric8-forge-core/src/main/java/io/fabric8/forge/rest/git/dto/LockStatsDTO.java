@@ -0,0 +1,142 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.git.dto;
+
+/**
+ * Represents the lock contention statistics of a git folder
+ */
+public class LockStatsDTO extends GitDTOSupport {
+    private final String gitFolder;
+    private long readCount;
+    private long writeCount;
+    private int queueLength;
+    private int activeReaders;
+    private boolean writeLocked;
+    private long totalWaitMillis;
+    private long maxWaitMillis;
+    private long averageWaitMillis;
+    private long totalHoldMillis;
+    private long maxHoldMillis;
+    private long averageHoldMillis;
+
+    public LockStatsDTO(String gitFolder) {
+        this.gitFolder = gitFolder;
+    }
+
+    @Override
+    public String toString() {
+        return "LockStatsDTO{" +
+                "gitFolder='" + gitFolder + '\'' +
+                ", readCount=" + readCount +
+                ", writeCount=" + writeCount +
+                ", queueLength=" + queueLength +
+                ", totalWaitMillis=" + totalWaitMillis +
+                ", totalHoldMillis=" + totalHoldMillis +
+                '}';
+    }
+
+    public String getGitFolder() {
+        return gitFolder;
+    }
+
+    public long getReadCount() {
+        return readCount;
+    }
+
+    public void setReadCount(long readCount) {
+        this.readCount = readCount;
+    }
+
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    public void setWriteCount(long writeCount) {
+        this.writeCount = writeCount;
+    }
+
+    public int getQueueLength() {
+        return queueLength;
+    }
+
+    public void setQueueLength(int queueLength) {
+        this.queueLength = queueLength;
+    }
+
+    public int getActiveReaders() {
+        return activeReaders;
+    }
+
+    public void setActiveReaders(int activeReaders) {
+        this.activeReaders = activeReaders;
+    }
+
+    public boolean isWriteLocked() {
+        return writeLocked;
+    }
+
+    public void setWriteLocked(boolean writeLocked) {
+        this.writeLocked = writeLocked;
+    }
+
+    public long getTotalWaitMillis() {
+        return totalWaitMillis;
+    }
+
+    public void setTotalWaitMillis(long totalWaitMillis) {
+        this.totalWaitMillis = totalWaitMillis;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public long getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    public void setAverageWaitMillis(long averageWaitMillis) {
+        this.averageWaitMillis = averageWaitMillis;
+    }
+
+    public long getTotalHoldMillis() {
+        return totalHoldMillis;
+    }
+
+    public void setTotalHoldMillis(long totalHoldMillis) {
+        this.totalHoldMillis = totalHoldMillis;
+    }
+
+    public long getMaxHoldMillis() {
+        return maxHoldMillis;
+    }
+
+    public void setMaxHoldMillis(long maxHoldMillis) {
+        this.maxHoldMillis = maxHoldMillis;
+    }
+
+    public long getAverageHoldMillis() {
+        return averageHoldMillis;
+    }
+
+    public void setAverageHoldMillis(long averageHoldMillis) {
+        this.averageHoldMillis = averageHoldMillis;
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.main;
+
+import io.fabric8.forge.rest.dto.ExecutionResult;
+import io.fabric8.forge.rest.dto.JobDTO;
+import io.fabric8.forge.rest.ui.RestUIContext;
+import io.fabric8.forge.rest.ui.RestUIProgressMonitor;
+import io.fabric8.forge.rest.ui.RestUIProvider;
+
+import javax.ws.rs.core.Response;
+
+/**
+ * A command which is being executed in the background by {@link CommandJobs}
+ */
+public class CommandJob {
+    private final String id;
+    private final String name;
+    private final String user;
+    private final long created = System.currentTimeMillis();
+    private final RestUIProgressMonitor progressMonitor = new RestUIProgressMonitor();
+    private volatile JobDTO.Status status = JobDTO.Status.QUEUED;
+    private volatile Long started;
+    private volatile Long finished;
+    private volatile RestUIProvider provider;
+    private volatile String output;
+    private volatile String err;
+    private volatile int responseStatus;
+    private volatile ExecutionResult result;
+    private volatile String error;
+
+    public CommandJob(String id, String name, String user) {
+        this.id = id;
+        this.name = name;
+        this.user = user;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandJob{" +
+                "id='" + id + '\'' +
+                ", name='" + name + '\'' +
+                ", status=" + status +
+                '}';
+    }
+
+    /**
+     * Attaches the job to the context the command is executed in so that its output and progress can be followed
+     */
+    public void attach(RestUIContext context) {
+        context.setProgressMonitor(progressMonitor);
+        provider = context.getProvider();
+    }
+
+    public JobDTO toDTO() {
+        JobDTO answer = new JobDTO(id, name, user, status, created);
+        answer.setStarted(started);
+        answer.setFinished(finished);
+        answer.setTaskName(progressMonitor.getTaskName());
+        answer.setSubTask(progressMonitor.getSubTask());
+        answer.setTotalWork(progressMonitor.getTotalWork());
+        answer.setCurrentWork(progressMonitor.getCurrentWork());
+        answer.setOutput(getOutput());
+        answer.setErr(getErr());
+        answer.setResponseStatus(responseStatus);
+        answer.setResult(result);
+        answer.setError(error);
+        return answer;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public JobDTO.Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == JobDTO.Status.SUCCEEDED || status == JobDTO.Status.FAILED;
+    }
+
+    public Long getFinished() {
+        return finished;
+    }
+
+    public RestUIProgressMonitor getProgressMonitor() {
+        return progressMonitor;
+    }
+
+    /**
+     * Returns the output written by the command so far
+     */
+    public String getOutput() {
+        RestUIProvider current = provider;
+        return current != null ? current.getOut() : output;
+    }
+
+    /**
+     * Returns the errors written by the command so far
+     */
+    public String getErr() {
+        RestUIProvider current = provider;
+        return current != null ? current.getErr() : err;
+    }
+
+    void started() {
+        started = System.currentTimeMillis();
+        status = JobDTO.Status.RUNNING;
+    }
+
+    void completed(Response response) {
+        Object entity = response != null ? response.getEntity() : null;
+        if (entity instanceof ExecutionResult) {
+            result = (ExecutionResult) entity;
+        }
+        responseStatus = response != null ? response.getStatus() : 0;
+        boolean succeeded = responseStatus >= 200 && responseStatus < 300;
+        finish(succeeded ? JobDTO.Status.SUCCEEDED : JobDTO.Status.FAILED);
+    }
+
+    void failed(Throwable e) {
+        error = e.getMessage() != null ? e.getMessage() : e.toString();
+        responseStatus = Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
+        finish(JobDTO.Status.FAILED);
+    }
+
+    protected void finish(JobDTO.Status finalStatus) {
+        RestUIProvider current = provider;
+        if (current != null) {
+            output = current.getOut();
+            err = current.getErr();
+            provider = null;
+        }
+        progressMonitor.done();
+        finished = System.currentTimeMillis();
+        status = finalStatus;
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.main;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.forge.rest.dto.JobDTO;
+import org.apache.deltaspike.core.api.config.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.core.Response;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Executes commands in the background on a bounded pool of threads so that long running commands
+ * do not hold a request thread; the status of a job is polled by its ID.
+ * <p/>
+ * Each user can only run a limited number of jobs at once. Jobs are written to disk when they are submitted,
+ * start and finish and are kept for the retention period so their status can still be fetched after a restart;
+ * jobs which were queued or running when the server stopped are then reported as failed.
+ */
+@Singleton
+public class CommandJobs {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CommandJobs.class);
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9-]+");
+
+    private final ConcurrentMap<String, CommandJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> activeJobsByUser = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService purgeExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "forge-job-purge");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final File folder;
+    private final int maxJobsPerUser;
+    private final long retentionMillis;
+
+    /**
+     * Executes a command for a job; returning the response the command would have returned if executed synchronously
+     */
+    public interface JobTask {
+        Response execute(CommandJob job) throws Exception;
+    }
+
+    @Inject
+    public CommandJobs(@ConfigProperty(name = "FORGE_JOB_THREADS", defaultValue = "4") int threads,
+                       @ConfigProperty(name = "FORGE_JOB_QUEUE_SIZE", defaultValue = "50") int queueSize,
+                       @ConfigProperty(name = "FORGE_JOB_MAX_PER_USER", defaultValue = "2") int maxJobsPerUser,
+                       @ConfigProperty(name = "FORGE_JOB_RETENTION_MINUTES", defaultValue = "30") int retentionMinutes,
+                       @ConfigProperty(name = "FORGE_JOBS_FOLDER", defaultValue = "/tmp/fabric8-forge/jobs") String folder) {
+        final AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "forge-job-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.maxJobsPerUser = maxJobsPerUser;
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+        this.folder = new File(folder);
+        purgeExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                purgeExpiredJobs();
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        purgeExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues the task as a new job
+     *
+     * @throws RejectedExecutionException if the user already has too many jobs running or the queue is full
+     */
+    public CommandJob submit(String name, String user, final JobTask task) {
+        String owner = user != null ? user : "";
+        AtomicInteger userJobs = activeJobsByUser.get(owner);
+        if (userJobs == null) {
+            AtomicInteger newUserJobs = new AtomicInteger();
+            userJobs = activeJobsByUser.putIfAbsent(owner, newUserJobs);
+            if (userJobs == null) {
+                userJobs = newUserJobs;
+            }
+        }
+        final AtomicInteger active = userJobs;
+        if (active.incrementAndGet() > maxJobsPerUser) {
+            active.decrementAndGet();
+            throw new RejectedExecutionException("User " + owner + " already has " + maxJobsPerUser + " jobs running");
+        }
+        final CommandJob job = new CommandJob(UUID.randomUUID().toString(), name, user);
+        jobs.put(job.getId(), job);
+        writeJob(job.toDTO());
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    CommandJobs.this.run(job, task, active);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            deleteJobFile(job.getId());
+            active.decrementAndGet();
+            throw new RejectedExecutionException("Too many jobs are queued", e);
+        }
+        return job;
+    }
+
+    /**
+     * Returns the running job with the given ID or null if it is not running in this process
+     */
+    public CommandJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Returns the status of the job with the given ID or null if there is no such job or it has expired
+     */
+    public JobDTO getJobStatus(String id) {
+        CommandJob job = jobs.get(id);
+        if (job != null) {
+            return job.toDTO();
+        }
+        File file = getJobFile(id);
+        if (file != null && file.isFile()) {
+            try {
+                JobDTO answer = mapper.readValue(file, JobDTO.class);
+                if (!answer.isFinished()) {
+                    // the job is not running in this process so it was lost when the server stopped
+                    answer.setStatus(JobDTO.Status.FAILED);
+                    answer.setError("The job was interrupted as the server was restarted");
+                }
+                return answer;
+            } catch (IOException e) {
+                LOG.warn("Failed to read job " + file + ". " + e, e);
+            }
+        }
+        return null;
+    }
+
+    protected void run(CommandJob job, JobTask task, AtomicInteger active) {
+        Response response = null;
+        Throwable failure = null;
+        try {
+            job.started();
+            writeJob(job.toDTO());
+            response = task.execute(job);
+        } catch (Throwable e) {
+            LOG.warn("Job " + job.getId() + " for command " + job.getName() + " failed. " + e, e);
+            failure = e;
+        }
+        // release the users slot before the job is seen as finished so they can submit another job straight away
+        active.decrementAndGet();
+        if (failure != null) {
+            job.failed(failure);
+        } else {
+            job.completed(response);
+        }
+        writeJob(job.toDTO());
+    }
+
+    protected void writeJob(JobDTO dto) {
+        File file = getJobFile(dto.getId());
+        try {
+            folder.mkdirs();
+            File tmp = new File(folder, dto.getId() + ".json.tmp");
+            mapper.writeValue(tmp, dto);
+            if (!tmp.renameTo(file)) {
+                LOG.warn("Failed to rename " + tmp + " to " + file);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to write job " + file + ". " + e, e);
+        }
+    }
+
+    protected void deleteJobFile(String id) {
+        File file = getJobFile(id);
+        if (file != null && file.isFile() && !file.delete()) {
+            LOG.debug("Failed to delete job " + file);
+        }
+    }
+
+    protected File getJobFile(String id) {
+        if (id == null || !VALID_ID.matcher(id).matches()) {
+            return null;
+        }
+        return new File(folder, id + ".json");
+    }
+
+    protected void purgeExpiredJobs() {
+        long expired = System.currentTimeMillis() - retentionMillis;
+        Iterator<CommandJob> iter = jobs.values().iterator();
+        while (iter.hasNext()) {
+            CommandJob job = iter.next();
+            if (job.isFinished() && job.getFinished() != null && job.getFinished() < expired) {
+                iter.remove();
+            }
+        }
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(".json") && file.lastModified() < expired) {
+                    if (!file.delete()) {
+                        LOG.debug("Failed to delete expired job " + file);
+                    }
+                }
+            }
+        }
+    }
+}
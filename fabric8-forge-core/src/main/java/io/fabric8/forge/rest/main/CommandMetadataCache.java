@@ -0,0 +1,285 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.main;
+
+import io.fabric8.forge.rest.dto.CommandInfoDTO;
+import io.fabric8.forge.rest.dto.CommandInputDTO;
+import io.fabric8.forge.rest.dto.PropertyDTO;
+import io.fabric8.utils.Strings;
+import org.apache.deltaspike.core.api.config.ConfigProperty;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.jboss.forge.furnace.Furnace;
+import org.jboss.forge.furnace.spi.ContainerLifecycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the command metadata returned by the REST API so that a controller does not have to be created and
+ * initialised for every command on every request.
+ * <p/>
+ * Entries are keyed by the command name and the shape of the selection; which is the user, namespace, project and
+ * location of the selection together with the HEAD commit of its git repository, so commands are evaluated again
+ * whenever the project changes. The whole cache is invalidated when the addons of Furnace change.
+ */
+@Singleton
+public class CommandMetadataCache {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CommandMetadataCache.class);
+
+    /**
+     * The shape used when there is no project selected
+     */
+    public static final String NO_PROJECT = "none";
+
+    private static final Set<String> IGNORED_FOLDERS = new HashSet<>(Arrays.asList(".git", "target", "node_modules"));
+
+    private final Map<String, Object> entries;
+    private final int maxAgeSeconds;
+    private final AtomicLong generation = new AtomicLong();
+    /**
+     * Seeds the entity tags so that tags from before a restart, possibly with other addons, never match
+     */
+    private final String bootId = UUID.randomUUID().toString();
+    private final AtomicBoolean listening = new AtomicBoolean();
+    private volatile long registryVersion = -1;
+
+    @Inject
+    public CommandMetadataCache(@ConfigProperty(name = "FORGE_COMMAND_METADATA_CACHE_SIZE", defaultValue = "1000") int maxEntries,
+                                @ConfigProperty(name = "FORGE_COMMAND_METADATA_MAX_AGE_SECONDS", defaultValue = "60") int maxAgeSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<String, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Invalidates the cache whenever Furnace rescans its addons; this is only registered once
+     */
+    public void listenTo(Furnace furnace) {
+        if (furnace != null && listening.compareAndSet(false, true)) {
+            furnace.addContainerLifecycleListener(new ContainerLifecycleListener() {
+                @Override
+                public void beforeStart(Furnace furnace) {
+                }
+
+                @Override
+                public void beforeConfigurationScan(Furnace furnace) {
+                }
+
+                @Override
+                public void afterConfigurationScan(Furnace furnace) {
+                    invalidate();
+                }
+
+                @Override
+                public void afterStart(Furnace furnace) {
+                    invalidate();
+                }
+
+                @Override
+                public void beforeStop(Furnace furnace) {
+                }
+
+                @Override
+                public void afterStop(Furnace furnace) {
+                    invalidate();
+                }
+            });
+        }
+    }
+
+    /**
+     * Invalidates the cache if the version of the addon registry has changed since it was last checked
+     */
+    public void checkRegistryVersion(long version) {
+        if (version != registryVersion) {
+            if (registryVersion >= 0) {
+                LOG.info("Addon registry changed from version " + registryVersion + " to " + version + " so invalidating the command metadata");
+            }
+            invalidate();
+            registryVersion = version;
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<CommandInfoDTO> getCommands(String shape) {
+        return (List<CommandInfoDTO>) entries.get(key("commands", shape, null));
+    }
+
+    public void putCommands(String shape, List<CommandInfoDTO> commands) {
+        entries.put(key("commands", shape, null), Collections.unmodifiableList(new ArrayList<>(commands)));
+    }
+
+    public CommandInfoDTO getCommandInfo(String shape, String name) {
+        return (CommandInfoDTO) entries.get(key("info", shape, name));
+    }
+
+    public void putCommandInfo(String shape, String name, CommandInfoDTO info) {
+        entries.put(key("info", shape, name), info);
+    }
+
+    public CommandInputDTO getCommandInput(String shape, String name, boolean lazyChoices) {
+        return (CommandInputDTO) entries.get(key(inputKind(lazyChoices), shape, name));
+    }
+
+    /**
+     * Caches the inputs of a command unless they have typeahead data; as completers are typically evaluated
+     * against live data (such as the pods running) which is not part of the project shape
+     *
+     * @return true if the inputs were cached
+     */
+    public boolean putCommandInput(String shape, String name, boolean lazyChoices, CommandInputDTO input) {
+        Map<String, PropertyDTO> properties = input.getProperties();
+        if (properties != null) {
+            for (PropertyDTO property : properties.values()) {
+                if (property.getTypeaheadData() != null) {
+                    return false;
+                }
+            }
+        }
+        entries.put(key(inputKind(lazyChoices), shape, name), input);
+        return true;
+    }
+
+    /**
+     * Returns the kind of the entries and entity tags of command inputs
+     */
+    public static String inputKind(boolean lazyChoices) {
+        return lazyChoices ? "lazyInput" : "input";
+    }
+
+    /**
+     * Returns the entity tag of a response for the given project shape which changes whenever the cache is invalidated
+     * or the server is restarted
+     */
+    public String getETag(String kind, String shape, String name) {
+        return MD5Util.md5Hex(bootId + "|" + generation.get() + "|" + key(kind, shape, name));
+    }
+
+    protected static String key(String kind, String shape, String name) {
+        return kind + "|" + shape + "|" + (name != null ? name : "");
+    }
+
+    /**
+     * Returns the shape of the selection of the given user; so that different users, namespaces and projects never
+     * share an entry even when they are at the same commit
+     */
+    public static String getSelectionShape(String user, String namespace, String projectName, File directory) {
+        String location = directory != null ? directory.getAbsolutePath() : "";
+        return Strings.emptyIfNull(user) + "|" + Strings.emptyIfNull(namespace) + "|" + Strings.emptyIfNull(projectName)
+                + "|" + location + "|" + getSelectionShape(directory);
+    }
+
+    /**
+     * Returns the shape of the project in the given directory. For a git repository this is its HEAD commit as the
+     * inputs and value choices of commands can depend on any file in the project; such as the Camel routes, the
+     * fabric8 YAML files or the Jenkinsfile. Resolving HEAD is also much cheaper than walking the tree on each request.
+     * <p/>
+     * Other directories fall back to a hash of the paths, sizes and modification times of their files.
+     */
+    public static String getSelectionShape(File directory) {
+        if (directory == null || !directory.isDirectory()) {
+            return NO_PROJECT;
+        }
+        String head = getHeadCommit(directory);
+        if (head != null) {
+            return head;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            addToShape(digest, directory, "");
+            return MD5Util.hex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the HEAD commit of the git repository in the given directory or null if it is not a git repository
+     */
+    public static String getHeadCommit(File directory) {
+        File gitDir = directory != null ? new File(directory, ".git") : null;
+        if (gitDir != null && gitDir.isDirectory()) {
+            try (Repository repository = new FileRepositoryBuilder().setGitDir(gitDir).setMustExist(true).build()) {
+                ObjectId head = repository.resolve(Constants.HEAD);
+                if (head != null) {
+                    return head.getName();
+                }
+            } catch (IOException e) {
+                LOG.debug("Failed to resolve the HEAD of " + gitDir + ". " + e, e);
+            }
+        }
+        return null;
+    }
+
+    protected static void addToShape(MessageDigest digest, File directory, String path) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            String name = file.getName();
+            String childPath = path + "/" + name;
+            if (file.isDirectory()) {
+                if (!IGNORED_FOLDERS.contains(name)) {
+                    digest.update(childPath.getBytes(StandardCharsets.UTF_8));
+                    addToShape(digest, file, childPath);
+                }
+            } else {
+                String stat = childPath + "|" + file.length() + "|" + file.lastModified();
+                digest.update(stat.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
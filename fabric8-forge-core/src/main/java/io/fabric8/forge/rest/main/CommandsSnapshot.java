@@ -0,0 +1,110 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.main;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.forge.rest.dto.CommandInfoDTO;
+import org.apache.deltaspike.core.api.config.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A snapshot of the command metadata which is persisted to disk so that the list of commands
+ * can be returned on startup before Forge has finished loading its addons.
+ * <p/>
+ * The snapshot is only used until the commands have been preloaded, or have failed to; then the live metadata is
+ * used and the snapshot is refreshed for the next restart.
+ */
+@Singleton
+public class CommandsSnapshot {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CommandsSnapshot.class);
+
+    private final File file;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private volatile List<CommandInfoDTO> commands;
+    private volatile boolean live;
+
+    @Inject
+    public CommandsSnapshot(@ConfigProperty(name = "FORGE_COMMANDS_SNAPSHOT", defaultValue = "./commands-snapshot.json") String fileName) {
+        this.file = new File(fileName);
+        if (file.isFile()) {
+            try {
+                List<CommandInfoDTO> loaded = mapper.readValue(file, new TypeReference<List<CommandInfoDTO>>() {
+                });
+                commands = Collections.unmodifiableList(loaded);
+                LOG.info("Loaded " + loaded.size() + " commands from snapshot " + file.getAbsolutePath());
+            } catch (IOException e) {
+                LOG.warn("Ignoring invalid commands snapshot " + file.getAbsolutePath() + ". " + e, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the commands from the snapshot or null if there is no snapshot
+     */
+    public List<CommandInfoDTO> getCommands() {
+        return commands;
+    }
+
+    /**
+     * Returns true once the commands have been loaded from Forge so the snapshot should no longer be used
+     */
+    public boolean isLive() {
+        return live;
+    }
+
+    /**
+     * Stops using the snapshot without replacing it; such as when the commands failed to preload, so that the
+     * commands of a previous run are never returned for good
+     */
+    public void discard() {
+        if (!live) {
+            LOG.warn("Discarding the commands snapshot " + file.getAbsolutePath() + " as the commands were not preloaded");
+            commands = null;
+            live = true;
+        }
+    }
+
+    /**
+     * Updates the snapshot with the commands which have been loaded from Forge and writes it to disk
+     */
+    public void update(List<CommandInfoDTO> loaded) {
+        commands = Collections.unmodifiableList(new ArrayList<>(loaded));
+        live = true;
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            File tmp = new File(file.getPath() + ".tmp");
+            mapper.writeValue(tmp, commands);
+            if (!tmp.renameTo(file)) {
+                LOG.warn("Failed to rename " + tmp + " to " + file);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to write commands snapshot " + file.getAbsolutePath() + ". " + e, e);
+        }
+    }
+}
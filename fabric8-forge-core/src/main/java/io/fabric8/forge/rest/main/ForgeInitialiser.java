@@ -17,10 +17,15 @@ package io.fabric8.forge.rest.main;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -28,13 +33,17 @@ import io.fabric8.forge.rest.CommandsResource;
 import io.fabric8.forge.rest.dto.CommandInfoDTO;
 import io.fabric8.forge.rest.producer.FurnaceProducer;
 import io.fabric8.forge.rest.utils.StopWatch;
+import org.apache.camel.catalog.rest.CamelCatalogRest;
 import org.apache.commons.io.FileUtils;
 import org.apache.deltaspike.core.api.config.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Initialises Forge add on repository
+ * Initialises Forge add on repository.
+ * <p/>
+ * Loading the addons, preloading the command metadata and warming up the Camel catalog all run
+ * concurrently in the background; {@link #isReady()} returns true once they have all completed.
  */
 @Singleton
 @javax.ejb.Singleton
@@ -42,11 +51,28 @@ import org.slf4j.LoggerFactory;
 public class ForgeInitialiser {
     private static final transient Logger LOG = LoggerFactory.getLogger(ForgeInitialiser.class);
 
+    private final FurnaceProducer furnaceProducer;
+    private final CommandsSnapshot commandsSnapshot;
+    private final CamelCatalogRest camelCatalogRest = new CamelCatalogRest();
+    private final ExecutorService warmupExecutor = Executors.newFixedThreadPool(3, r -> {
+        Thread thread = new Thread(r, "forge-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Long> startupTimings = new ConcurrentHashMap<>();
+    private final Future<?> furnaceStartup;
+    private final Future<?> catalogWarmup;
+    private volatile Future<?> commandsPreload;
+
     /**
      * @param addOnDir the directory where Forge addons will be stored
      */
     @Inject
-    public ForgeInitialiser(@ConfigProperty(name = "FORGE_ADDON_DIRECTORY", defaultValue = "./addon-repository") String addOnDir, FurnaceProducer furnaceProducer) {
+    public ForgeInitialiser(@ConfigProperty(name = "FORGE_ADDON_DIRECTORY", defaultValue = "./addon-repository") String addOnDir, FurnaceProducer furnaceProducer,
+                            CommandsSnapshot commandsSnapshot) {
+        this.furnaceProducer = furnaceProducer;
+        this.commandsSnapshot = commandsSnapshot;
+
         java.util.logging.Logger out = java.util.logging.Logger.getLogger(this.getClass().getName());
         out.info("Logging to JUL to test the configuration");
 
@@ -61,21 +87,76 @@ public class ForgeInitialiser {
             LOG.warn("Found " + files.length + " addon files in directory: " + repoDir.getAbsolutePath());
         }
         furnaceProducer.setup(repoDir);
+
+        furnaceStartup = warmup("furnace", furnaceProducer::awaitStarted);
+        catalogWarmup = warmup("camelCatalog", this::warmupCamelCatalog);
     }
 
+    @PreDestroy
+    public void destroy() {
+        warmupExecutor.shutdownNow();
+    }
+
+    /**
+     * Preloads the command metadata in the background so that the application can start serving
+     * requests (using the commands snapshot) while the addons are still loading
+     */
     public void preloadCommands(CommandsResource commandsResource)  {
-        StopWatch watch = new StopWatch();
+        commandsPreload = warmup("commands", () -> {
+            LOG.info("Preloading commands");
+            try {
+                List<CommandInfoDTO> commands = commandsResource.loadCommands(null, null, null);
+                LOG.info("Loaded " + commands.size() + " commands");
+                commandsSnapshot.update(commands);
+            } catch (Exception e) {
+                LOG.error("Failed to preload commands! " + e, e);
+            } finally {
+                // the commands are loaded on demand from now on if they could not be preloaded
+                commandsSnapshot.discard();
+            }
+        });
+    }
 
-        LOG.info("Preloading commands");
-        List<CommandInfoDTO> commands = Collections.EMPTY_LIST;
-        try {
-            commands = commandsResource.getCommands();
-            LOG.info("Loaded " + commands.size() + " commands");
-        } catch (Exception e) {
-            LOG.error("Failed to preload commands! " + e, e);
-        }
+    /**
+     * Returns true once furnace has started, the commands have been preloaded and the catalogs warmed up
+     */
+    public boolean isReady() {
+        return furnaceStartup.isDone() && catalogWarmup.isDone() && commandsPreload != null && commandsPreload.isDone()
+                && furnaceProducer.isStarted();
+    }
+
+    /**
+     * Returns how long each of the completed startup tasks took in millis
+     */
+    public Map<String, Long> getStartupTimings() {
+        return new TreeMap<>(startupTimings);
+    }
+
+    public CamelCatalogRest getCamelCatalogRest() {
+        return camelCatalogRest;
+    }
+
+    protected void warmupCamelCatalog() {
+        camelCatalogRest.findComponentNames();
+        camelCatalogRest.findDataFormatNames();
+        camelCatalogRest.findLanguageNames();
+        camelCatalogRest.findModelNames();
+        camelCatalogRest.listComponentsAsJson();
+        camelCatalogRest.archetypeCatalogAsXml();
+    }
 
-        LOG.info("preloadCommands took " + watch.taken());
+    private Future<?> warmup(String name, Runnable task) {
+        return warmupExecutor.submit(() -> {
+            StopWatch watch = new StopWatch();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOG.error("Failed to warm up " + name + "! " + e, e);
+            }
+            long taken = watch.taken();
+            startupTimings.put(name, taken);
+            LOG.info("Warm up of " + name + " took " + taken + " millis");
+        });
     }
 
     public void preloadProjects(CommandsResource commandsResource, Map<String, Set<String>> catalogs)  {
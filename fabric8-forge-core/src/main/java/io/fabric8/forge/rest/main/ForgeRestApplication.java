@@ -27,7 +27,6 @@ import com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider;
 import io.fabric8.forge.rest.CommandsResource;
 import io.fabric8.forge.rest.RootResource;
 import io.fabric8.forge.rest.git.RepositoriesResource;
-import org.apache.camel.catalog.rest.CamelCatalogRest;
 
 @ApplicationPath("/")
 public class ForgeRestApplication extends Application {
@@ -58,7 +57,7 @@ public class ForgeRestApplication extends Application {
                         commandsResource,
                         repositoriesResource,
                         new JacksonJsonProvider(),
-                        new CamelCatalogRest()
+                        forgeInitialiser.getCamelCatalogRest()
 /*
                         new SwaggerFeature(),
                         new EnableJMXFeature(),
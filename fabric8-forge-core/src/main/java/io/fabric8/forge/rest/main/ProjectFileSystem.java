@@ -15,6 +15,8 @@
  */
 package io.fabric8.forge.rest.main;
 
+import io.fabric8.forge.rest.git.GitLockManager;
+import io.fabric8.forge.rest.git.GitRepositoryPool;
 import io.fabric8.forge.rest.utils.StopWatch;
 import io.fabric8.project.support.GitUtils;
 import io.fabric8.project.support.UserDetails;
@@ -24,24 +26,34 @@ import io.fabric8.utils.Files;
 import io.fabric8.utils.Strings;
 import org.apache.deltaspike.core.api.config.ConfigProperty;
 import org.eclipse.jgit.api.CloneCommand;
+import org.eclipse.jgit.api.FetchCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.PullCommand;
 import org.eclipse.jgit.api.errors.NoHeadException;
 import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.StoredConfig;
-import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.eclipse.jgit.transport.CredentialsProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.ws.rs.NotFoundException;
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  */
@@ -54,15 +66,34 @@ public class ProjectFileSystem {
     private final String remote;
     private final String jenkinsfileLibraryGitUrl;
     private final String jenkinsfileLibraryGitTag;
+    private final GitLockManager lockManager;
+    private final GitRepositoryPool repositoryPool;
+    private final long fetchStalenessMillis;
     private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(2);
+    private final ExecutorService fetchExecutorService;
+    private final ConcurrentMap<String, RepositoryFetch> fetches = new ConcurrentHashMap<>();
 
     @Inject
-    public ProjectFileSystem(RepositoryCache repositoryCache,
+    public ProjectFileSystem(RepositoryCache repositoryCache, GitLockManager lockManager, GitRepositoryPool repositoryPool,
                              @ConfigProperty(name = "PROJECT_FOLDER", defaultValue = "/tmp/fabric8-forge") String rootProjectFolder,
                              @ConfigProperty(name = "GIT_REMOTE_BRANCH_NAME", defaultValue = "origin") String remote,
                              @ConfigProperty(name = "JENKINSFILE_LIBRARY_GIT_REPOSITORY") String jenkinsfileLibraryGitUrl,
-                             @ConfigProperty(name = "JENKINSFILE_LIBRARY_GIT_TAG") String jenkinsfileLibraryGitTag) {
+                             @ConfigProperty(name = "JENKINSFILE_LIBRARY_GIT_TAG") String jenkinsfileLibraryGitTag,
+                             @ConfigProperty(name = "GIT_FETCH_STALENESS_SECONDS", defaultValue = "30") int fetchStalenessSeconds,
+                             @ConfigProperty(name = "GIT_FETCH_THREADS", defaultValue = "4") int fetchThreads) {
         this.repositoryCache = repositoryCache;
+        this.lockManager = lockManager;
+        this.repositoryPool = repositoryPool;
+        this.fetchStalenessMillis = TimeUnit.SECONDS.toMillis(fetchStalenessSeconds);
+        final AtomicInteger counter = new AtomicInteger();
+        this.fetchExecutorService = Executors.newFixedThreadPool(fetchThreads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "forge-git-fetch-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
         this.rootProjectFolder = rootProjectFolder;
         this.remote = remote;
         this.jenkinsfileLibraryGitUrl = jenkinsfileLibraryGitUrl;
@@ -71,10 +102,20 @@ public class ProjectFileSystem {
         LOG.info("Using jenkins workflow library version: " + this.jenkinsfileLibraryGitTag);
     }
 
+    @PreDestroy
+    public void destroy() {
+        fetchExecutorService.shutdownNow();
+        executorService.shutdownNow();
+    }
+
     public String getRemote() {
         return remote;
     }
 
+    public GitRepositoryPool getRepositoryPool() {
+        return repositoryPool;
+    }
+
     public String getUserProjectFolderLocation(UserDetails userDetails) {
         File projectFolder = getUserProjectFolder(userDetails);
         return projectFolder.getAbsolutePath();
@@ -231,14 +272,9 @@ public class ProjectFileSystem {
 
     protected void doPull(File gitFolder, CredentialsProvider cp, String branch, PersonIdent personIdent, UserDetails userDetails) {
         StopWatch watch = new StopWatch();
-        try {
-            FileRepositoryBuilder builder = new FileRepositoryBuilder();
-            Repository repository = builder.setGitDir(gitFolder)
-                    .readEnvironment() // scan environment GIT_* variables
-                    .findGitDir() // scan up the file system tree
-                    .build();
-
-            Git git = new Git(repository);
+        try (GitRepositoryPool.Handle handle = repositoryPool.acquire(gitFolder)) {
+            Repository repository = handle.getRepository();
+            Git git = handle.getGit();
 
             File projectFolder = repository.getDirectory();
 
@@ -290,8 +326,130 @@ public class ProjectFileSystem {
         }
     }
 
+    /**
+     * Ensures the remote tracking branches of the given git repository have been fetched no more than
+     * <code>maxStalenessMillis</code> ago; otherwise a fetch is performed and the caller blocks until it completes.
+     * Concurrent callers for the same repository share a single network fetch.
+     * <p/>
+     * If the last fetch is within <code>maxStalenessMillis</code> but older than the configured staleness window
+     * (<code>GIT_FETCH_STALENESS_SECONDS</code>) then a fetch is started in the background without blocking the caller.
+     * <p/>
+     * This method must not be invoked while holding the lock on the git folder as the fetch takes a read lock.
+     *
+     * @return true if the remote tracking branches are fresh enough or false if the fetch failed and the caller should
+     * fall back to a blocking pull
+     */
+    public boolean fetchIfStale(File gitFolder, UserDetails userDetails, long maxStalenessMillis) {
+        RepositoryFetch fetch;
+        try {
+            fetch = getRepositoryFetch(gitFolder);
+        } catch (IOException e) {
+            LOG.warn("Failed to find canonical path of " + gitFolder + ". " + e, e);
+            return false;
+        }
+        long age = System.currentTimeMillis() - fetch.lastFetched;
+        if (age <= maxStalenessMillis) {
+            if (age > fetchStalenessMillis) {
+                fetch.fetch(userDetails);
+            }
+            return true;
+        }
+        try {
+            fetch.fetch(userDetails).get();
+            return true;
+        } catch (Exception e) {
+            LOG.warn("Failed to fetch git repository " + gitFolder + " so falling back to a pull. " + e, e);
+            return false;
+        }
+    }
+
+    /**
+     * Starts a fetch of the git repository in the background if the last fetch is older than the configured staleness window
+     */
+    public void fetchInBackgroundIfStale(File gitFolder, UserDetails userDetails) {
+        try {
+            RepositoryFetch fetch = getRepositoryFetch(gitFolder);
+            if (System.currentTimeMillis() - fetch.lastFetched > fetchStalenessMillis) {
+                fetch.fetch(userDetails);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to find canonical path of " + gitFolder + ". " + e, e);
+        }
+    }
+
+    /**
+     * Records that the remote tracking branches have just been updated; e.g. by a pull or clone
+     */
+    public void onFetched(File gitFolder) {
+        try {
+            getRepositoryFetch(gitFolder).lastFetched = System.currentTimeMillis();
+        } catch (IOException e) {
+            LOG.warn("Failed to find canonical path of " + gitFolder + ". " + e, e);
+        }
+    }
+
+    protected RepositoryFetch getRepositoryFetch(File gitFolder) throws IOException {
+        String key = gitFolder.getCanonicalPath();
+        RepositoryFetch answer = fetches.get(key);
+        if (answer == null) {
+            RepositoryFetch newFetch = new RepositoryFetch(gitFolder);
+            answer = fetches.putIfAbsent(key, newFetch);
+            if (answer == null) {
+                answer = newFetch;
+            }
+        }
+        return answer;
+    }
+
+    protected void doFetch(File gitFolder, UserDetails userDetails) throws Exception {
+        StopWatch watch = new StopWatch();
+        try (GitRepositoryPool.Handle handle = repositoryPool.acquire(gitFolder)) {
+            Git git = handle.getGit();
+            LOG.info("Performing a fetch in git repository " + gitFolder + " from remote " + remote);
+            FetchCommand fetch = git.fetch().setRemote(remote);
+            GitUtils.configureCommand(fetch, userDetails);
+            fetch.call();
+        } finally {
+            LOG.info("doFetch of " + gitFolder + " took " + watch.taken());
+        }
+    }
+
     public void invokeLater(Runnable runnable, long millis) {
         executorService.schedule(runnable, millis, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Tracks the fetches of a single git repository so that concurrent requests share one network fetch
+     */
+    protected class RepositoryFetch {
+        private final File gitFolder;
+        private volatile long lastFetched;
+        private FutureTask<Void> inflight;
+
+        public RepositoryFetch(File gitFolder) {
+            this.gitFolder = gitFolder;
+        }
+
+        public synchronized Future<Void> fetch(final UserDetails userDetails) {
+            if (inflight == null || inflight.isDone()) {
+                inflight = new FutureTask<>(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        long started = System.currentTimeMillis();
+                        lockManager.withReadLock(gitFolder, new Callable<Void>() {
+                            @Override
+                            public Void call() throws Exception {
+                                doFetch(gitFolder, userDetails);
+                                return null;
+                            }
+                        });
+                        lastFetched = started;
+                        return null;
+                    }
+                });
+                fetchExecutorService.execute(inflight);
+            }
+            return inflight;
+        }
+    }
 }
@@ -0,0 +1,209 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.main;
+
+import io.fabric8.forge.rest.dto.CommandInputDTO;
+import io.fabric8.forge.rest.ui.RestUIContext;
+import io.fabric8.utils.Objects;
+import org.jboss.forge.addon.ui.command.UICommand;
+import org.jboss.forge.addon.ui.controller.WizardCommandController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the live controller of a wizard between requests so that each request only has to populate
+ * the pages which changed rather than initialising and populating every previous page again.
+ * <p/>
+ * Callers must synchronize on the session while using it.
+ */
+public class WizardSession implements AutoCloseable {
+    private static final transient Logger LOG = LoggerFactory.getLogger(WizardSession.class);
+
+    private final String id;
+    private final String commandName;
+    private final String location;
+    private final String user;
+    private final String headCommit;
+    private final RestUIContext context;
+    private final UICommand command;
+    private final List<Map<String, Object>> pageInputs = new ArrayList<>();
+    private final List<CommandInputDTO> stepInputs = new ArrayList<>();
+    private WizardCommandController controller;
+    private int currentPage;
+    private volatile long lastAccess = System.currentTimeMillis();
+    private boolean closed;
+
+    public WizardSession(String id, String commandName, String location, String user, String headCommit, RestUIContext context, UICommand command, WizardCommandController controller) {
+        this.id = id;
+        this.commandName = commandName;
+        this.location = location;
+        this.user = user;
+        this.headCommit = headCommit;
+        this.context = context;
+        this.command = command;
+        this.controller = controller;
+        pageInputs.add(null);
+        stepInputs.add(null);
+    }
+
+    @Override
+    public String toString() {
+        return "WizardSession{" +
+                "id='" + id + '\'' +
+                ", commandName='" + commandName + '\'' +
+                ", location='" + location + '\'' +
+                ", headCommit='" + headCommit + '\'' +
+                ", currentPage=" + currentPage +
+                '}';
+    }
+
+    /**
+     * Returns true if this session was started for the same command, project and user
+     */
+    public boolean matches(String commandName, String location, String user) {
+        return Objects.equal(this.commandName, commandName) && Objects.equal(this.location, location) && Objects.equal(this.user, user);
+    }
+
+    /**
+     * Returns true if the project is still at the commit the wizard was started on; once another request has
+     * changed the project the pages of the wizard may be stale so a new session is required
+     */
+    public boolean isAtCommit(String headCommit) {
+        return Objects.equal(this.headCommit, headCommit);
+    }
+
+    /**
+     * Moves the wizard to the first page whose inputs differ from those of the previous request or to the
+     * last page of the request; returning the index of the page to populate from.
+     * <p/>
+     * The wizard controller keeps the pages it has already initialised so moving between them is cheap.
+     */
+    public int resume(List<Map<String, Object>> inputList) throws Exception {
+        int target = Math.max(0, inputList.size() - 1);
+        int start = Math.min(target, pageInputs.size() - 1);
+        for (int i = 0; i < start; i++) {
+            if (!Objects.equal(pageInputs.get(i), inputList.get(i))) {
+                start = i;
+                break;
+            }
+        }
+        while (currentPage > start) {
+            controller = controller.previous();
+            currentPage--;
+        }
+        while (currentPage < start) {
+            if (next() == null) {
+                break;
+            }
+        }
+        return currentPage;
+    }
+
+    /**
+     * Moves the wizard onto its next page returning the controller or null if there is no next page
+     */
+    public WizardCommandController next() throws Exception {
+        WizardCommandController nextController = controller.next();
+        if (nextController != null) {
+            controller = nextController;
+            currentPage++;
+            if (currentPage == pageInputs.size()) {
+                pageInputs.add(null);
+                stepInputs.add(null);
+            }
+        }
+        return nextController;
+    }
+
+    /**
+     * Records the inputs a page has been populated with so the next request can tell if it changed
+     */
+    public void pagePopulated(int page, Map<String, Object> inputs) {
+        pageInputs.set(page, inputs != null ? new HashMap<>(inputs) : null);
+    }
+
+    public void setStepInput(int page, CommandInputDTO stepInput) {
+        stepInputs.set(page, stepInput);
+    }
+
+    /**
+     * Returns the inputs of the pages from and to the given pages inclusive
+     */
+    public List<CommandInputDTO> getStepInputs(int fromPage, int toPage) {
+        return new ArrayList<>(stepInputs.subList(fromPage, Math.min(toPage + 1, stepInputs.size())));
+    }
+
+    public WizardCommandController getController() {
+        return controller;
+    }
+
+    public int getCurrentPage() {
+        return currentPage;
+    }
+
+    public void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getCommandName() {
+        return commandName;
+    }
+
+    public String getHeadCommit() {
+        return headCommit;
+    }
+
+    public RestUIContext getContext() {
+        return context;
+    }
+
+    public UICommand getCommand() {
+        return command;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            controller.close();
+        } catch (Exception e) {
+            LOG.warn("Failed to close the controller of " + this + ". " + e, e);
+        }
+        if (context != null) {
+            context.close();
+        }
+    }
+}
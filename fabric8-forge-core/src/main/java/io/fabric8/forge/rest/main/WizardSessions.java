@@ -0,0 +1,142 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.main;
+
+import io.fabric8.forge.rest.ui.RestUIContext;
+import org.apache.deltaspike.core.api.config.ConfigProperty;
+import org.jboss.forge.addon.ui.command.UICommand;
+import org.jboss.forge.addon.ui.controller.WizardCommandController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link WizardSession} instances which are currently open; sessions are closed when they have been idle
+ * for too long or when there are too many of them, in which case the least recently used are closed first.
+ */
+@Singleton
+public class WizardSessions {
+    private static final transient Logger LOG = LoggerFactory.getLogger(WizardSessions.class);
+
+    private final Map<String, WizardSession> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxSessions;
+    private final long idleMillis;
+
+    @Inject
+    public WizardSessions(@ConfigProperty(name = "FORGE_WIZARD_SESSION_MAX", defaultValue = "100") int maxSessions,
+                          @ConfigProperty(name = "FORGE_WIZARD_SESSION_IDLE_SECONDS", defaultValue = "300") int idleSeconds) {
+        this.maxSessions = maxSessions;
+        this.idleMillis = TimeUnit.SECONDS.toMillis(idleSeconds);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        List<WizardSession> closing;
+        synchronized (sessions) {
+            closing = new ArrayList<>(sessions.values());
+            sessions.clear();
+        }
+        closeAll(closing);
+    }
+
+    /**
+     * Returns the open session for the given ID or null if there is no such session or it has expired
+     */
+    public WizardSession getSession(String id) {
+        if (id == null) {
+            return null;
+        }
+        WizardSession answer;
+        List<WizardSession> closing;
+        synchronized (sessions) {
+            closing = removeExpiredSessions();
+            answer = sessions.get(id);
+            if (answer != null) {
+                answer.touch();
+            }
+        }
+        closeAll(closing);
+        return answer;
+    }
+
+    /**
+     * Opens a new session for the wizard controller which has been created and initialised for the given context
+     * of the project at the given commit
+     */
+    public WizardSession createSession(String commandName, String location, String user, String headCommit, RestUIContext context, UICommand command, WizardCommandController controller) {
+        WizardSession answer = new WizardSession(UUID.randomUUID().toString(), commandName, location, user, headCommit, context, command, controller);
+        List<WizardSession> closing;
+        synchronized (sessions) {
+            closing = removeExpiredSessions();
+            sessions.put(answer.getId(), answer);
+            Iterator<WizardSession> iter = sessions.values().iterator();
+            while (sessions.size() > maxSessions && iter.hasNext()) {
+                WizardSession eldest = iter.next();
+                iter.remove();
+                closing.add(eldest);
+            }
+        }
+        closeAll(closing);
+        return answer;
+    }
+
+    /**
+     * Closes the session; such as when its wizard has been executed
+     */
+    public void closeSession(WizardSession session) {
+        synchronized (sessions) {
+            sessions.remove(session.getId());
+        }
+        session.close();
+    }
+
+    public int size() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    protected List<WizardSession> removeExpiredSessions() {
+        List<WizardSession> answer = new ArrayList<>();
+        long expired = System.currentTimeMillis() - idleMillis;
+        Iterator<WizardSession> iter = sessions.values().iterator();
+        while (iter.hasNext()) {
+            WizardSession session = iter.next();
+            if (session.getLastAccess() < expired) {
+                iter.remove();
+                answer.add(session);
+            }
+        }
+        return answer;
+    }
+
+    protected static void closeAll(List<WizardSession> sessions) {
+        for (WizardSession session : sessions) {
+            LOG.debug("Closing " + session);
+            session.close();
+        }
+    }
+}
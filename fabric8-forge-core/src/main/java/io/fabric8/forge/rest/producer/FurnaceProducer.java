@@ -41,25 +41,60 @@ public class FurnaceProducer {
 
     private DependencyResolver dependencyResolver;
 
+	private Future<Furnace> startup;
+
+	/**
+	 * Set once the services have been looked up; publishes them to the threads which only read this flag
+	 */
+	private volatile boolean started;
+
+	/**
+	 * Starts loading the addons in the background; the services are only looked up
+	 * once furnace has started so that other warm up work can run at the same time
+	 */
 	public void setup(File repoDir) {
 		furnace = FurnaceFactory.getInstance(Thread.currentThread()
 				.getContextClassLoader(), Thread.currentThread()
 				.getContextClassLoader());
 		furnace.addRepository(AddonRepositoryMode.IMMUTABLE, repoDir);
-		Future<Furnace> future = furnace.startAsync();
+		startup = furnace.startAsync();
+	}
 
-		try {
-			future.get();
-		} catch (InterruptedException | ExecutionException e) {
-			throw new RuntimeException("Furnace failed to start.", e);
+	/**
+	 * Blocks until furnace has started and the services have been looked up
+	 */
+	public void awaitStarted() {
+		if (started) {
+			return;
 		}
+		synchronized (this) {
+			if (started) {
+				return;
+			}
+			try {
+				startup.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Furnace failed to start.", e);
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Furnace failed to start.", e);
+			}
+
+			AddonRegistry addonRegistry = furnace.getAddonRegistry();
+			controllerFactory = (CommandControllerFactory) addonRegistry
+					.getServices(CommandControllerFactory.class.getName()).get();
+			dependencyResolver = (DependencyResolver) addonRegistry
+					.getServices(DependencyResolver.class.getName()).get();
+			commandFactory = addonRegistry.getServices(CommandFactory.class).get();
+			started = true;
+		}
+	}
 
-		AddonRegistry addonRegistry = furnace.getAddonRegistry();
-		commandFactory = addonRegistry.getServices(CommandFactory.class).get();
-		controllerFactory = (CommandControllerFactory) addonRegistry
-				.getServices(CommandControllerFactory.class.getName()).get();
-        dependencyResolver = (DependencyResolver) addonRegistry
-                .getServices(DependencyResolver.class.getName()).get();
+	/**
+	 * Returns true if furnace has started and the services are available
+	 */
+	public boolean isStarted() {
+		return started;
 	}
 
 	@Produces
@@ -69,16 +104,19 @@ public class FurnaceProducer {
 
 	@Produces
 	public CommandFactory getCommandFactory() {
+		awaitStarted();
 		return commandFactory;
 	}
 
 	@Produces
 	public CommandControllerFactory getControllerFactory() {
+		awaitStarted();
 		return controllerFactory;
 	}
 
 	@Produces
 	public DependencyResolver getDependencyResolver() {
+		awaitStarted();
 		return dependencyResolver;
 	}
 
@@ -18,6 +18,7 @@ package io.fabric8.forge.rest.ui;
 import org.jboss.forge.addon.resource.Resource;
 import org.jboss.forge.addon.ui.context.AbstractUIContext;
 import org.jboss.forge.addon.ui.context.UISelection;
+import org.jboss.forge.addon.ui.progress.UIProgressMonitor;
 import org.jboss.forge.addon.ui.util.Selections;
 
 import java.io.File;
@@ -29,6 +30,7 @@ public class RestUIContext extends AbstractUIContext {
     private String projectName;
     private String cloneUrl;
     private String commitMessage;
+    private UIProgressMonitor progressMonitor;
 
     public RestUIContext() {
         this.selection = null;
@@ -46,6 +48,14 @@ public class RestUIContext extends AbstractUIContext {
         this.cloneUrl = cloneUrl;
     }
 
+    /**
+     * Returns a new context on the same selection which can be kept open after this context is closed;
+     * such as for a wizard session spanning multiple requests
+     */
+    public RestUIContext copy() {
+        return new RestUIContext(selection, namespace, projectName, cloneUrl);
+    }
+
     public File getInitialSelectionFile() {
         if (selection != null) {
             String fullyQualifiedName = selection.getFullyQualifiedName();
@@ -90,4 +100,15 @@ public class RestUIContext extends AbstractUIContext {
     public void setCommitMessage(String commitMessage) {
         this.commitMessage = commitMessage;
     }
+
+    /**
+     * Returns the progress monitor the commands should report to or null if the progress is not tracked
+     */
+    public UIProgressMonitor getProgressMonitor() {
+        return progressMonitor;
+    }
+
+    public void setProgressMonitor(UIProgressMonitor progressMonitor) {
+        this.progressMonitor = progressMonitor;
+    }
 }
@@ -0,0 +1,88 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.ui;
+
+import org.jboss.forge.addon.ui.progress.UIProgressMonitor;
+
+/**
+ * A progress monitor whose state can be read by other threads while a command runs; such as
+ * when polling the progress of a command job
+ */
+public class RestUIProgressMonitor implements UIProgressMonitor {
+    private volatile String taskName;
+    private volatile String subTask;
+    private volatile int totalWork;
+    private volatile int currentWork;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+
+    @Override
+    public void beginTask(String name, int totalWork) {
+        this.taskName = name;
+        this.totalWork = totalWork;
+        this.currentWork = 0;
+    }
+
+    @Override
+    public void done() {
+        done = true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public void setTaskName(String name) {
+        this.taskName = name;
+    }
+
+    @Override
+    public void subTask(String name) {
+        this.subTask = name;
+    }
+
+    @Override
+    public synchronized void worked(int work) {
+        currentWork += work;
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    public String getSubTask() {
+        return subTask;
+    }
+
+    public int getTotalWork() {
+        return totalWork;
+    }
+
+    public int getCurrentWork() {
+        return currentWork;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+}
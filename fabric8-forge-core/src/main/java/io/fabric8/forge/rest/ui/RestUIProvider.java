@@ -57,6 +57,14 @@ public class RestUIProvider implements UIProvider {
 		return err.toString();
 	}
 
+	/**
+	 * Discards the output written so far; such as when a wizard session is used by a new request
+	 */
+	public void reset() {
+		out.reset();
+		err.reset();
+	}
+
         @Override
         public String getName() {
                 return uiName;
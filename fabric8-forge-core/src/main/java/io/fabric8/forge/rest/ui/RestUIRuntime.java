@@ -47,6 +47,14 @@ public class RestUIRuntime implements UIRuntime
    @Override
    public UIProgressMonitor createProgressMonitor(UIContext context)
    {
+      if (context instanceof RestUIContext)
+      {
+         UIProgressMonitor progressMonitor = ((RestUIContext) context).getProgressMonitor();
+         if (progressMonitor != null)
+         {
+            return progressMonitor;
+         }
+      }
       return new DefaultUIProgressMonitor();
    }
 
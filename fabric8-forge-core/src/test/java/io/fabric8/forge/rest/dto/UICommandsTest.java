@@ -0,0 +1,124 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.jboss.forge.addon.convert.Converter;
+import org.jboss.forge.addon.ui.input.SelectComponent;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ */
+public class UICommandsTest {
+
+    @Test
+    public void testValueChoicesArePagedAndMatchTheLabels() throws Exception {
+        Choice core = new Choice("core");
+        Choice cdi = new Choice("cdi");
+        Choice kafka = new Choice("kafka");
+        SelectComponent input = createSelect(Arrays.<Object>asList(core, cdi, kafka));
+
+        // the prefix matches the labels rather than the values
+        ValueChoicesDTO matching = UICommands.createValueChoicesDTO(null, input, "CAMEL-C", 0, 100);
+        assertThat(matching.getName()).isEqualTo("component");
+        assertThat(matching.getTotal()).isEqualTo(2);
+        assertThat(matching.getChoices()).containsExactly(core, cdi);
+
+        ValueChoicesDTO page = UICommands.createValueChoicesDTO(null, input, null, 1, 1);
+        assertThat(page.getOffset()).isEqualTo(1);
+        assertThat(page.getTotal()).isEqualTo(3);
+        assertThat(page.getChoices()).containsExactly(cdi);
+
+        ValueChoicesDTO beyond = UICommands.createValueChoicesDTO(null, input, null, 5, 1);
+        assertThat(beyond.getOffset()).isEqualTo(3);
+        assertThat(beyond.getChoices()).isEmpty();
+    }
+
+    @Test
+    public void testLazyChoicesAreOnlyFlagged() throws Exception {
+        SelectComponent input = createSelect(Arrays.<Object>asList(new Choice("core")));
+
+        PropertyDTO lazy = UICommands.createInputDTO(null, input, true);
+        assertThat(lazy.isLazyChoices()).isTrue();
+        assertThat(lazy.getValueChoices()).isNull();
+
+        PropertyDTO eager = UICommands.createInputDTO(null, input, false);
+        assertThat(eager.isLazyChoices()).isFalse();
+        assertThat(eager.getValueChoices()).hasSize(1);
+    }
+
+    /**
+     * Creates a select input whose item labels are the names of the choices prefixed with <code>camel-</code>
+     */
+    protected static SelectComponent createSelect(final List<Object> choices) {
+        final Converter<Object, String> labelConverter = new Converter<Object, String>() {
+            @Override
+            public String convert(Object source) {
+                return "camel-" + ((Choice) source).getName();
+            }
+        };
+        return (SelectComponent) Proxy.newProxyInstance(UICommandsTest.class.getClassLoader(),
+                new Class<?>[]{SelectComponent.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        String name = method.getName();
+                        if (name.equals("getName")) {
+                            return "component";
+                        } else if (name.equals("getValueType")) {
+                            return Choice.class;
+                        } else if (name.equals("getValueChoices")) {
+                            return choices;
+                        } else if (name.equals("getItemLabelConverter")) {
+                            return labelConverter;
+                        } else if (method.getReturnType() == boolean.class) {
+                            return false;
+                        } else if (method.getReturnType() == char.class) {
+                            return ' ';
+                        }
+                        return null;
+                    }
+                });
+    }
+
+    /**
+     * A JSON value whose <code>toString()</code> differs from its label
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Choice {
+        private final String name;
+
+        public Choice(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return "Choice{name='" + name + "'}";
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.git;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.forge.rest.git.dto.FileDTO;
+import io.fabric8.utils.Base64Encoder;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ */
+public class BlobStreamsTest {
+
+    @Test
+    public void testParseRange() {
+        assertThat(BlobStreams.parseRange("bytes=0-499", 1000)).containsExactly(0, 500);
+        assertThat(BlobStreams.parseRange("bytes=500-", 1000)).containsExactly(500, 500);
+        assertThat(BlobStreams.parseRange("bytes=-100", 1000)).containsExactly(900, 100);
+        assertThat(BlobStreams.parseRange("bytes=900-2000", 1000)).containsExactly(900, 100);
+        assertThat(BlobStreams.parseRange("bytes=1000-", 1000)).isNull();
+        assertThat(BlobStreams.parseRange("bytes=5-1", 1000)).isNull();
+        assertThat(BlobStreams.parseRange("bytes=0-1,5-6", 1000)).isNull();
+        assertThat(BlobStreams.parseRange("lines=0-1", 1000)).isNull();
+    }
+
+    @Test
+    public void testMatchesETag() {
+        assertThat(BlobStreams.matchesETag("\"abc\"", "abc")).isTrue();
+        assertThat(BlobStreams.matchesETag("W/\"abc\"", "abc")).isTrue();
+        assertThat(BlobStreams.matchesETag("\"xyz\", \"abc\"", "abc")).isTrue();
+        assertThat(BlobStreams.matchesETag("*", "abc")).isTrue();
+        assertThat(BlobStreams.matchesETag("\"xyz\"", "abc")).isFalse();
+        assertThat(BlobStreams.matchesETag(null, "abc")).isFalse();
+    }
+
+    @Test
+    public void testCopyRange() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BlobStreams.copyRange(new ByteArrayInputStream("Hello World".getBytes()), out, 6, 5);
+        assertThat(out.toString()).isEqualTo("World");
+    }
+
+    @Test
+    public void testWriteFileJson() throws Exception {
+        byte[] data = new byte[10000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        FileDTO file = new FileDTO(FileDTO.FILE_TYPE, data.length, "data.bin", "src/data.bin", null, null);
+        file.setSha("abc");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BlobStreams.writeFileJson(out, file, new ByteArrayInputStream(data), data.length, false);
+        JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+        assertThat(json.get("name").asText()).isEqualTo("data.bin");
+        assertThat(json.get("sha").asText()).isEqualTo("abc");
+        assertThat(json.get("encoding").asText()).isEqualTo("base64");
+        assertThat(json.has("truncated")).isFalse();
+        assertThat(json.get("content").asText()).isEqualTo(new String(Base64Encoder.encode(data)));
+
+        out = new ByteArrayOutputStream();
+        BlobStreams.writeFileJson(out, file, new ByteArrayInputStream(data), 10, true);
+        json = new ObjectMapper().readTree(out.toByteArray());
+        assertThat(json.get("truncated").asBoolean()).isTrue();
+        assertThat(json.get("size").asLong()).isEqualTo(data.length);
+        assertThat(json.get("content").binaryValue()).hasSize(10);
+    }
+}
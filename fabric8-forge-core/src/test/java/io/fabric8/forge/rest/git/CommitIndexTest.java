@@ -0,0 +1,84 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.git;
+
+import io.fabric8.utils.Files;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ */
+public class CommitIndexTest {
+    private long commitTime = 1500000000000L;
+
+    @Test
+    public void testFindPagesOfPathHistory() throws Exception {
+        File dir = new File("target/test-data/commit-index");
+        Files.recursiveDelete(dir);
+        File indexFile = new File(dir, ".git/fabric8-forge/history-master.idx");
+
+        try (Git git = Git.init().setDirectory(dir).call()) {
+            RevCommit first = commit(git, dir, "a.txt", "1");
+            RevCommit second = commit(git, dir, "src/b.txt", "1");
+            RevCommit third = commit(git, dir, "a.txt", "2");
+
+            CommitIndex index = new CommitIndex(indexFile);
+            index.update(git.getRepository(), third);
+            assertThat(index.find(null, null, 0)).containsExactly(third.getName(), second.getName(), first.getName());
+            assertThat(index.find("a.txt", null, 0)).containsExactly(third.getName(), first.getName());
+            assertThat(index.find("src", null, 0)).containsExactly(second.getName());
+
+            // paging
+            assertThat(index.find(null, null, 2)).containsExactly(third.getName(), second.getName());
+            assertThat(index.find(null, second.getName(), 2)).containsExactly(first.getName());
+            assertThat(index.find("a.txt", third.getName(), 1)).containsExactly(first.getName());
+            assertThat(index.find(null, "0000000000000000000000000000000000000000", 2)).isNull();
+
+            // incremental update
+            RevCommit fourth = commit(git, dir, "src/b.txt", "2");
+            index.update(git.getRepository(), fourth);
+            assertThat(index.size()).isEqualTo(4);
+            assertThat(index.find("src/b.txt", null, 0)).containsExactly(fourth.getName(), second.getName());
+
+            // the index is loaded from disk
+            CommitIndex loaded = new CommitIndex(indexFile);
+            assertThat(loaded.exists()).isTrue();
+            assertThat(loaded.getTip()).isEqualTo(fourth.getId());
+            List<String> ids = loaded.find("a.txt", null, 0);
+            assertThat(ids).containsExactly(third.getName(), first.getName());
+        }
+    }
+
+    protected RevCommit commit(Git git, File dir, String path, String content) throws Exception {
+        File file = new File(dir, path);
+        file.getParentFile().mkdirs();
+        Files.writeToFile(file, content.getBytes());
+        git.add().addFilepattern(path).call();
+        // lets make sure the commits have different times so the log order is stable
+        commitTime += 1000;
+        PersonIdent person = new PersonIdent("test", "test@example.com", new Date(commitTime), TimeZone.getTimeZone("UTC"));
+        return git.commit().setMessage("Changed " + path).setAuthor(person).setCommitter(person).call();
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.git;
+
+import io.fabric8.forge.rest.git.dto.LockStatsDTO;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ */
+public class GitLockManagerTest {
+    private final File gitFolder = new File("target/test-repo/.git");
+
+    @Test
+    public void testReadersDoNotBlockEachOther() throws Exception {
+        final GitLockManager lockManager = new GitLockManager();
+        final CountDownLatch bothReading = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<Boolean> reader = new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return lockManager.withReadLock(gitFolder, new Callable<Boolean>() {
+                        @Override
+                        public Boolean call() throws Exception {
+                            bothReading.countDown();
+                            return bothReading.await(5, TimeUnit.SECONDS);
+                        }
+                    });
+                }
+            };
+            Future<Boolean> first = executor.submit(reader);
+            Future<Boolean> second = executor.submit(reader);
+            assertThat(first.get()).isTrue();
+            assertThat(second.get()).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLockStatistics() throws Exception {
+        GitLockManager lockManager = new GitLockManager();
+        Callable<String> block = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "done";
+            }
+        };
+        assertThat(lockManager.withReadLock(gitFolder, block)).isEqualTo("done");
+        assertThat(lockManager.withReadLock(gitFolder, block)).isEqualTo("done");
+        assertThat(lockManager.withWriteLock(gitFolder, block)).isEqualTo("done");
+
+        List<LockStatsDTO> statistics = lockManager.getLockStatistics();
+        assertThat(statistics).hasSize(1);
+        LockStatsDTO stats = statistics.get(0);
+        assertThat(stats.getGitFolder()).isEqualTo(gitFolder.getCanonicalPath());
+        assertThat(stats.getReadCount()).isEqualTo(2);
+        assertThat(stats.getWriteCount()).isEqualTo(1);
+        assertThat(stats.getQueueLength()).isEqualTo(0);
+        assertThat(stats.isWriteLocked()).isFalse();
+    }
+
+    @Test
+    public void testIdleLocksAreEvicted() throws Exception {
+        GitLockManager lockManager = new GitLockManager(0);
+        lockManager.withWriteLock(gitFolder, new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return null;
+            }
+        });
+        assertThat(lockManager.getLockStatistics()).isEmpty();
+    }
+}
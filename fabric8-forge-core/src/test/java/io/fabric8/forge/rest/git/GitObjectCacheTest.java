@@ -0,0 +1,69 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.git;
+
+import io.fabric8.utils.Files;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ */
+public class GitObjectCacheTest {
+
+    @Test
+    public void testImmutableIds() {
+        assertThat(GitObjectCache.isImmutableId("0123456789abcdef0123456789abcdef01234567")).isTrue();
+        assertThat(GitObjectCache.isImmutableId("0123456")).isFalse();
+        assertThat(GitObjectCache.isImmutableId("master")).isFalse();
+        assertThat(GitObjectCache.isImmutableId(null)).isFalse();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() {
+        GitObjectCache cache = new GitObjectCache(30, false, 0, null);
+        cache.put("a", new byte[10]);
+        cache.put("b", new byte[10]);
+        cache.put("c", new byte[10]);
+        // lets use a so that b is the least recently used
+        assertThat(cache.get("a")).hasSize(10);
+
+        cache.put("d", new byte[10]);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.get("d")).isNotNull();
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void testEvictedEntriesAreSpilledToDisk() throws Exception {
+        File folder = new File("target/test-data/object-cache");
+        Files.recursiveDelete(folder);
+
+        GitObjectCache cache = new GitObjectCache(10, true, 1000, folder.getPath());
+        cache.put("a", "first".getBytes());
+        cache.put("b", "second".getBytes());
+        assertThat(new File(folder, ".git-object-cache").listFiles()).hasSize(1);
+
+        // a new cache loads the spilled entries from disk
+        GitObjectCache restarted = new GitObjectCache(10, true, 1000, folder.getPath());
+        assertThat(new String(restarted.get("a"))).isEqualTo("first");
+        assertThat(restarted.get("b")).isNull();
+    }
+}
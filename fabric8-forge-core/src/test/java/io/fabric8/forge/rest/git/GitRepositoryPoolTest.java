@@ -0,0 +1,120 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.git;
+
+import io.fabric8.utils.Files;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ */
+public class GitRepositoryPoolTest {
+
+    @Test
+    public void testHandlesShareTheOpenRepository() throws Exception {
+        File dir = new File("target/test-data/repository-pool");
+        Files.recursiveDelete(dir);
+        Git.init().setDirectory(dir).call().close();
+        File gitFolder = new File(dir, ".git");
+
+        GitRepositoryPool pool = new GitRepositoryPool();
+        try (GitRepositoryPool.Handle first = pool.acquire(gitFolder);
+             GitRepositoryPool.Handle second = pool.acquire(new File(dir, "../repository-pool/.git"))) {
+            assertThat(second.getRepository()).isSameAs(first.getRepository());
+            assertThat(pool.size()).isEqualTo(1);
+        }
+
+        // the repository stays open after the handles are released
+        GitRepositoryPool.Handle handle = pool.acquire(gitFolder);
+        handle.close();
+        assertThat(pool.size()).isEqualTo(1);
+
+        pool.invalidate(gitFolder);
+        assertThat(pool.size()).isEqualTo(0);
+        try (GitRepositoryPool.Handle reopened = pool.acquire(gitFolder)) {
+            assertThat(reopened.getRepository()).isNotSameAs(handle.getRepository());
+        }
+        pool.destroy();
+        assertThat(pool.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testInvalidatedRepositoryIsClosedByTheLastUser() throws Exception {
+        File dir = new File("target/test-data/repository-pool-invalidate");
+        Files.recursiveDelete(dir);
+        Git.init().setDirectory(dir).call().close();
+        final File gitFolder = new File(dir, ".git");
+
+        final AtomicInteger closes = new AtomicInteger();
+        GitRepositoryPool pool = new GitRepositoryPool() {
+            @Override
+            protected Repository openRepository(File folder) {
+                try {
+                    return new FileRepository(folder) {
+                        @Override
+                        public void close() {
+                            closes.incrementAndGet();
+                            super.close();
+                        }
+                    };
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        // the repository stays open while it is in use
+        GitRepositoryPool.Handle handle = pool.acquire(gitFolder);
+        pool.invalidate(gitFolder);
+        assertThat(closes.get()).isEqualTo(0);
+        handle.close();
+        assertThat(closes.get()).isEqualTo(1);
+
+        // whichever of the release and the invalidation comes last closes the repository exactly once
+        for (int i = 0; i < 200; i++) {
+            closes.set(0);
+            final GitRepositoryPool.Handle racing = pool.acquire(gitFolder);
+            final CountDownLatch start = new CountDownLatch(1);
+            Thread releaser = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        racing.close();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            releaser.start();
+            start.countDown();
+            pool.invalidate(gitFolder);
+            releaser.join();
+            assertThat(closes.get()).isEqualTo(1);
+        }
+        pool.destroy();
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.git;
+
+import io.fabric8.forge.rest.main.ProjectFileSystem;
+import io.fabric8.forge.rest.main.RepositoryCache;
+import io.fabric8.project.support.UserDetails;
+import io.fabric8.utils.Files;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.core.Response;
+import java.io.File;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class RepositoryResourceTest {
+
+    private final File dir = new File("target/test-data/repository-resource").getAbsoluteFile();
+    private final File remote = new File(dir, "remote.git");
+    private final File basedir = new File(dir, "local");
+    private ObjectId head;
+    private RepositoryResource resource;
+
+    @Before
+    public void setUp() throws Exception {
+        Files.recursiveDelete(dir);
+        Git.init().setBare(true).setDirectory(remote).call().close();
+        File scratch = new File(dir, "scratch");
+        try (Git git = Git.cloneRepository().setURI(remote.toURI().toString()).setDirectory(scratch).call()) {
+            Files.writeToFile(new File(scratch, "pom.xml"), "<project/>".getBytes());
+            git.add().addFilepattern("pom.xml").call();
+            git.commit().setMessage("Initial commit").setAuthor("test", "test@example.com").call();
+            git.push().call();
+        }
+        try (Git git = Git.cloneRepository().setURI(remote.toURI().toString()).setDirectory(basedir).call()) {
+            head = git.getRepository().resolve("HEAD");
+        }
+
+        ProjectFileSystem projectFileSystem = new ProjectFileSystem(new RepositoryCache(), new GitLockManager(), new GitRepositoryPool(), dir.getPath(), "origin", null, null, 30, 1);
+        UserDetails userDetails = new UserDetails(remote.toURI().toString(), remote.toURI().toString(), "test", "test", "test@example.com");
+        resource = new RepositoryResource(basedir, new File(basedir, ".git"), userDetails, "origin", "master",
+                remote.toURI().toString(), new GitLockManager(), projectFileSystem, remote.toURI().toString(), null);
+    }
+
+    @Test
+    public void testFailedOperationIsRolledBack() throws Exception {
+        try {
+            // the first step of a batch changes the tree then the second step fails
+            resource.gitWriteOperation(new GitOperation<Object>() {
+                @Override
+                public Object call(Git git, GitContext context) throws Exception {
+                    Files.writeToFile(new File(basedir, "pom.xml"), "<project><modules/></project>".getBytes());
+                    File deployment = new File(basedir, "src/main/fabric8/deployment.yml");
+                    deployment.getParentFile().mkdirs();
+                    Files.writeToFile(deployment, "spec: {}".getBytes());
+                    throw new IllegalStateException("Step 2 failed");
+                }
+            }, new GitContext().rollbackOnFailure());
+            fail("Should have thrown the failure of the operation");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage()).isEqualTo("Step 2 failed");
+        }
+
+        try (Git git = Git.open(basedir)) {
+            assertThat(git.status().call().isClean()).isTrue();
+            assertThat(git.getRepository().resolve("HEAD")).isEqualTo(head);
+            assertThat(new File(basedir, "src")).doesNotExist();
+            assertThat(Files.toString(new File(basedir, "pom.xml"))).isEqualTo("<project/>");
+        }
+        try (Git git = Git.open(remote)) {
+            assertThat(git.getRepository().resolve("refs/heads/master")).isEqualTo(head);
+        }
+    }
+
+    @Test
+    public void testEmptyCommitTreeIsReturnedButNotCached() throws Exception {
+        GitObjectCache objectCache = new GitObjectCache();
+        resource.setObjectCache(objectCache);
+
+        Response tree = resource.getCommitTree(head.getName(), null);
+        assertThat(tree.getStatus()).isEqualTo(200);
+        assertThat(tree.getEntityTag()).isNotNull();
+        assertThat(objectCache.size()).isEqualTo(1);
+
+        // a commit without changes has an empty tree which is still returned as JSON
+        ObjectId empty;
+        try (Git git = Git.open(basedir)) {
+            empty = git.commit().setMessage("Empty commit").setAuthor("test", "test@example.com").call();
+        }
+        Response emptyTree = resource.getCommitTree(empty.getName(), null);
+        assertThat(emptyTree.getStatus()).isEqualTo(200);
+        assertThat(emptyTree.getEntityTag()).isNull();
+        assertThat(new String((byte[]) emptyTree.getEntity(), "UTF-8")).isEqualTo("[]");
+        assertThat(objectCache.size()).isEqualTo(1);
+    }
+}
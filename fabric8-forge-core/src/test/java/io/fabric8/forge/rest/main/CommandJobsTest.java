@@ -0,0 +1,174 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.main;
+
+import io.fabric8.forge.rest.dto.JobDTO;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.ws.rs.core.Response;
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class CommandJobsTest {
+    private final File folder = new File("target/test-data/command-jobs");
+    private CommandJobs jobs;
+
+    @After
+    public void tearDown() {
+        if (jobs != null) {
+            jobs.destroy();
+        }
+    }
+
+    @Test
+    public void testJobsAreLimitedPerUser() throws Exception {
+        jobs = createJobs(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        CommandJob running = jobs.submit("project-new", "alice", new CommandJobs.JobTask() {
+            @Override
+            public Response execute(CommandJob job) throws Exception {
+                release.await(10, TimeUnit.SECONDS);
+                return Response.ok().build();
+            }
+        });
+        try {
+            jobs.submit("project-new", "alice", succeed());
+            fail("Should have rejected a second job for the same user");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        CommandJob other = jobs.submit("project-new", "bob", succeed());
+        assertThat(waitForJob(other).getStatus()).isEqualTo(JobDTO.Status.SUCCEEDED);
+
+        release.countDown();
+        assertThat(waitForJob(running).getStatus()).isEqualTo(JobDTO.Status.SUCCEEDED);
+
+        // alice can submit again now her first job has completed
+        CommandJob next = jobs.submit("project-new", "alice", succeed());
+        assertThat(waitForJob(next).getStatus()).isEqualTo(JobDTO.Status.SUCCEEDED);
+    }
+
+    @Test
+    public void testFinishedJobsArePersisted() throws Exception {
+        jobs = createJobs(2);
+        CommandJob succeeded = jobs.submit("devops-edit", "alice", new CommandJobs.JobTask() {
+            @Override
+            public Response execute(CommandJob job) throws Exception {
+                job.getProgressMonitor().beginTask("Editing", 2);
+                job.getProgressMonitor().worked(2);
+                return Response.ok().build();
+            }
+        });
+        CommandJob failed = jobs.submit("devops-edit", "alice", new CommandJobs.JobTask() {
+            @Override
+            public Response execute(CommandJob job) throws Exception {
+                throw new IllegalStateException("No build config");
+            }
+        });
+        waitForJob(succeeded);
+        waitForJob(failed);
+        waitForFile(jobs.getJobFile(succeeded.getId()));
+        waitForFile(jobs.getJobFile(failed.getId()));
+
+        CommandJobs restarted = createJobs(2);
+        try {
+            JobDTO dto = restarted.getJobStatus(succeeded.getId());
+            assertThat(dto).isNotNull();
+            assertThat(dto.getStatus()).isEqualTo(JobDTO.Status.SUCCEEDED);
+            assertThat(dto.getResponseStatus()).isEqualTo(200);
+            assertThat(dto.getTaskName()).isEqualTo("Editing");
+            assertThat(dto.getCurrentWork()).isEqualTo(2);
+
+            dto = restarted.getJobStatus(failed.getId());
+            assertThat(dto.getStatus()).isEqualTo(JobDTO.Status.FAILED);
+            assertThat(dto.getError()).isEqualTo("No build config");
+
+            assertThat(restarted.getJobStatus("does-not-exist")).isNull();
+            assertThat(restarted.getJobStatus("../pom")).isNull();
+        } finally {
+            restarted.destroy();
+        }
+    }
+
+    @Test
+    public void testRunningJobsArePersisted() throws Exception {
+        jobs = createJobs(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        CommandJob running = jobs.submit("project-new", "alice", new CommandJobs.JobTask() {
+            @Override
+            public Response execute(CommandJob job) throws Exception {
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return Response.ok().build();
+            }
+        });
+        try {
+            assertThat(jobs.getJobFile(running.getId())).isFile();
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(jobs.getJobStatus(running.getId()).getStatus()).isEqualTo(JobDTO.Status.RUNNING);
+
+            // after a restart the job is known but can no longer complete
+            CommandJobs restarted = createJobs(1);
+            try {
+                JobDTO dto = restarted.getJobStatus(running.getId());
+                assertThat(dto).isNotNull();
+                assertThat(dto.getStatus()).isEqualTo(JobDTO.Status.FAILED);
+                assertThat(dto.getUser()).isEqualTo("alice");
+            } finally {
+                restarted.destroy();
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+
+    protected CommandJobs createJobs(int maxPerUser) {
+        return new CommandJobs(2, 10, maxPerUser, 30, folder.getPath());
+    }
+
+    protected static CommandJobs.JobTask succeed() {
+        return new CommandJobs.JobTask() {
+            @Override
+            public Response execute(CommandJob job) throws Exception {
+                return Response.ok().build();
+            }
+        };
+    }
+
+    protected static JobDTO waitForJob(CommandJob job) throws InterruptedException {
+        for (int i = 0; i < 100 && !job.isFinished(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(job.isFinished()).isTrue();
+        return job.toDTO();
+    }
+
+    protected static void waitForFile(File file) throws InterruptedException {
+        for (int i = 0; i < 100 && !file.isFile(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(file).isFile();
+    }
+}
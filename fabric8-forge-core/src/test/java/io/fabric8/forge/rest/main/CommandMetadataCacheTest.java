@@ -0,0 +1,146 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.main;
+
+import io.fabric8.forge.rest.dto.CommandInfoDTO;
+import io.fabric8.forge.rest.dto.CommandInputDTO;
+import io.fabric8.forge.rest.dto.PropertyDTO;
+import io.fabric8.utils.Files;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ */
+public class CommandMetadataCacheTest {
+
+    @Test
+    public void testCommandsAreInvalidatedWhenRegistryChanges() throws Exception {
+        CommandMetadataCache cache = new CommandMetadataCache(100, 60);
+        cache.checkRegistryVersion(1);
+
+        CommandInfoDTO info = new CommandInfoDTO("camel-add-endpoint", "Camel: Add Endpoint", "Adds an endpoint", "Camel", null, true);
+        cache.putCommands(CommandMetadataCache.NO_PROJECT, Arrays.asList(info));
+        cache.putCommandInfo(CommandMetadataCache.NO_PROJECT, "camel-add-endpoint", info);
+        String etag = cache.getETag("commands", CommandMetadataCache.NO_PROJECT, null);
+
+        cache.checkRegistryVersion(1);
+        assertThat(cache.getCommands(CommandMetadataCache.NO_PROJECT)).containsExactly(info);
+        assertThat(cache.getCommandInfo(CommandMetadataCache.NO_PROJECT, "camel-add-endpoint")).isSameAs(info);
+        assertThat(cache.getETag("commands", CommandMetadataCache.NO_PROJECT, null)).isEqualTo(etag);
+
+        cache.checkRegistryVersion(2);
+        assertThat(cache.getCommands(CommandMetadataCache.NO_PROJECT)).isNull();
+        assertThat(cache.getCommandInfo(CommandMetadataCache.NO_PROJECT, "camel-add-endpoint")).isNull();
+        assertThat(cache.getETag("commands", CommandMetadataCache.NO_PROJECT, null)).isNotEqualTo(etag);
+    }
+
+    @Test
+    public void testInputsWithTypeaheadDataAreNotCached() throws Exception {
+        CommandMetadataCache cache = new CommandMetadataCache(100, 60);
+        CommandInfoDTO info = new CommandInfoDTO("pod-info", "Pod Info", null, "Kubernetes", null, true);
+
+        CommandInputDTO staticInput = new CommandInputDTO(info);
+        staticInput.addProperty("name", new PropertyDTO("name", null, "Name", null, null, "java.lang.String", "string", true, false, null, null));
+        assertThat(cache.putCommandInput("shape", "static", false, staticInput)).isTrue();
+        assertThat(cache.getCommandInput("shape", "static", false)).isSameAs(staticInput);
+        assertThat(cache.getCommandInput("shape", "static", true)).isNull();
+
+        CommandInputDTO liveInput = new CommandInputDTO(info);
+        liveInput.addProperty("podId", new PropertyDTO("podId", null, "Pod ID", null, null, "java.lang.String", "string", true, true, null,
+                Collections.<Object>singletonList("my-pod")));
+        assertThat(cache.putCommandInput("shape", "live", false, liveInput)).isFalse();
+        assertThat(cache.getCommandInput("shape", "live", false)).isNull();
+    }
+
+    @Test
+    public void testSelectionShapeChangesWithFiles() throws Exception {
+        File dir = new File("target/test-data/command-metadata-shape");
+        Files.recursiveDelete(dir);
+        new File(dir, "src/main/java").mkdirs();
+        File pom = new File(dir, "pom.xml");
+        Files.writeToFile(pom, "<project/>".getBytes(StandardCharsets.UTF_8));
+
+        String shape = CommandMetadataCache.getSelectionShape(dir);
+        assertThat(CommandMetadataCache.getSelectionShape(null)).isEqualTo(CommandMetadataCache.NO_PROJECT);
+        assertThat(CommandMetadataCache.getSelectionShape(dir)).isEqualTo(shape);
+
+        // build output does not change the shape
+        new File(dir, "target/classes").mkdirs();
+        assertThat(CommandMetadataCache.getSelectionShape(dir)).isEqualTo(shape);
+
+        // any change to a file changes the shape; not just the build files
+        Files.writeToFile(pom, "<project><packaging>war</packaging></project>".getBytes(StandardCharsets.UTF_8));
+        String changedPom = CommandMetadataCache.getSelectionShape(dir);
+        assertThat(changedPom).isNotEqualTo(shape);
+
+        Files.writeToFile(new File(dir, "src/main/java/Foo.java"), "class Foo {}".getBytes(StandardCharsets.UTF_8));
+        assertThat(CommandMetadataCache.getSelectionShape(dir)).isNotEqualTo(changedPom);
+    }
+
+    @Test
+    public void testSelectionShapeOfGitRepositoryIsHeadCommit() throws Exception {
+        File dir = new File("target/test-data/command-metadata-git-shape");
+        Files.recursiveDelete(dir);
+        try (Git git = Git.init().setDirectory(dir).call()) {
+            Files.writeToFile(new File(dir, "pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+            git.add().addFilepattern("pom.xml").call();
+            RevCommit first = git.commit().setMessage("Initial commit").setAuthor("test", "test@example.com").call();
+            assertThat(CommandMetadataCache.getSelectionShape(dir)).isEqualTo(first.getName());
+
+            // a change to a route which is not a build file still changes the shape once committed
+            File route = new File(dir, "src/main/resources/META-INF/spring/camel-context.xml");
+            route.getParentFile().mkdirs();
+            Files.writeToFile(route, "<routes/>".getBytes(StandardCharsets.UTF_8));
+            git.add().addFilepattern("src").call();
+            RevCommit second = git.commit().setMessage("Added a route").setAuthor("test", "test@example.com").call();
+            assertThat(CommandMetadataCache.getSelectionShape(dir)).isEqualTo(second.getName());
+        }
+    }
+
+    @Test
+    public void testSelectionShapeIncludesUserAndProject() throws Exception {
+        File dir = new File("target/test-data/command-metadata-user-shape");
+        Files.recursiveDelete(dir);
+        try (Git git = Git.init().setDirectory(dir).call()) {
+            Files.writeToFile(new File(dir, "pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+            git.add().addFilepattern("pom.xml").call();
+            git.commit().setMessage("Initial commit").setAuthor("test", "test@example.com").call();
+        }
+        String shape = CommandMetadataCache.getSelectionShape("alice", "ns", "app", dir);
+        assertThat(CommandMetadataCache.getSelectionShape("alice", "ns", "app", dir)).isEqualTo(shape);
+        assertThat(CommandMetadataCache.getSelectionShape("bob", "ns", "app", dir)).isNotEqualTo(shape);
+        assertThat(CommandMetadataCache.getSelectionShape("alice", "other", "app", dir)).isNotEqualTo(shape);
+        assertThat(CommandMetadataCache.getSelectionShape("alice", "ns", "app2", dir)).isNotEqualTo(shape);
+        assertThat(CommandMetadataCache.getSelectionShape("alice", null, null, null))
+                .isNotEqualTo(CommandMetadataCache.getSelectionShape("bob", null, null, null));
+    }
+
+    @Test
+    public void testETagsChangeOnRestart() throws Exception {
+        CommandMetadataCache cache = new CommandMetadataCache(100, 60);
+        CommandMetadataCache restarted = new CommandMetadataCache(100, 60);
+        assertThat(cache.getETag("commands", "shape", null)).isEqualTo(cache.getETag("commands", "shape", null));
+        assertThat(restarted.getETag("commands", "shape", null)).isNotEqualTo(cache.getETag("commands", "shape", null));
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.main;
+
+import io.fabric8.forge.rest.dto.CommandInfoDTO;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ */
+public class CommandsSnapshotTest {
+
+    @Test
+    public void testSnapshotIsUsedUntilLive() throws Exception {
+        File file = new File("target/test-data/commands-snapshot.json");
+        file.delete();
+
+        CommandsSnapshot snapshot = new CommandsSnapshot(file.getPath());
+        assertThat(snapshot.getCommands()).isNull();
+        assertThat(snapshot.isLive()).isFalse();
+
+        snapshot.update(Arrays.asList(new CommandInfoDTO("camel-add-endpoint", "Camel: Add Endpoint", "Adds an endpoint", "Camel", null, true)));
+        assertThat(snapshot.isLive()).isTrue();
+        assertThat(file).exists();
+
+        // a restart loads the commands from the previous run
+        CommandsSnapshot restarted = new CommandsSnapshot(file.getPath());
+        assertThat(restarted.isLive()).isFalse();
+        List<CommandInfoDTO> commands = restarted.getCommands();
+        assertThat(commands).hasSize(1);
+        assertThat(commands.get(0).getId()).isEqualTo("camel-add-endpoint");
+        assertThat(commands.get(0).getName()).isEqualTo("Camel: Add Endpoint");
+        assertThat(commands.get(0).isEnabled()).isTrue();
+
+        // once the commands were loaded discarding does nothing
+        snapshot.discard();
+        assertThat(snapshot.getCommands()).hasSize(1);
+    }
+
+    @Test
+    public void testSnapshotIsDiscardedIfCommandsFailToPreload() throws Exception {
+        File file = new File("target/test-data/commands-snapshot-discarded.json");
+        new CommandsSnapshot(file.getPath()).update(Arrays.asList(new CommandInfoDTO("camel-add-endpoint", "Camel: Add Endpoint", "Adds an endpoint", "Camel", null, true)));
+
+        CommandsSnapshot restarted = new CommandsSnapshot(file.getPath());
+        assertThat(restarted.getCommands()).hasSize(1);
+        restarted.discard();
+        assertThat(restarted.isLive()).isTrue();
+        assertThat(restarted.getCommands()).isNull();
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ *  Copyright 2005-2015 Red Hat, Inc.
+ *
+ *  Red Hat licenses this file to you under the Apache License, version
+ *  2.0 (the "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *  implied.  See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+package io.fabric8.forge.rest.main;
+
+import org.jboss.forge.addon.ui.controller.WizardCommandController;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ */
+public class WizardSessionsTest {
+
+    @Test
+    public void testResumeOnlyMovesToChangedPages() throws Exception {
+        List<String> calls = new ArrayList<>();
+        WizardSession session = new WizardSession("1", "camel-edit-endpoint", "ns/app/null", "alice", "c0ffee", null, null, createController(calls));
+        Map<String, Object> page0 = Collections.<String, Object>singletonMap("componentName", "timer");
+        Map<String, Object> page1 = Collections.<String, Object>singletonMap("period", "1000");
+
+        // first request populates the first page then moves on to the second
+        assertThat(session.resume(Arrays.asList(page0))).isEqualTo(0);
+        session.pagePopulated(0, page0);
+        session.next();
+        assertThat(calls).containsExactly("next");
+
+        // the second page is populated without touching the first
+        calls.clear();
+        assertThat(session.resume(Arrays.asList(page0, page1))).isEqualTo(1);
+        session.pagePopulated(1, page1);
+        assertThat(calls).isEmpty();
+
+        // changing the first page moves back to it
+        Map<String, Object> changed = Collections.<String, Object>singletonMap("componentName", "file");
+        assertThat(session.resume(Arrays.asList(changed, page1))).isEqualTo(0);
+        assertThat(calls).containsExactly("previous");
+        assertThat(session.getCurrentPage()).isEqualTo(0);
+
+        // the session can only be resumed while the project is at the same commit
+        assertThat(session.isAtCommit("c0ffee")).isTrue();
+        assertThat(session.isAtCommit("decade")).isFalse();
+    }
+
+    @Test
+    public void testSessionsAreBoundedAndExpire() throws Exception {
+        List<String> calls = new ArrayList<>();
+        WizardSessions sessions = new WizardSessions(2, 300);
+        WizardSession first = sessions.createSession("devops-edit", "ns/app/null", "alice", "c0ffee", null, null, createController(calls));
+        WizardSession second = sessions.createSession("devops-edit", "ns/app/null", "alice", "c0ffee", null, null, createController(calls));
+        assertThat(sessions.getSession(first.getId())).isSameAs(first);
+
+        // the second session is now the least recently used
+        WizardSession third = sessions.createSession("devops-edit", "ns/app/null", "bob", "c0ffee", null, null, createController(calls));
+        assertThat(sessions.size()).isEqualTo(2);
+        assertThat(sessions.getSession(second.getId())).isNull();
+        assertThat(second.isClosed()).isTrue();
+        assertThat(calls).containsExactly("close");
+        assertThat(third.matches("devops-edit", "ns/app/null", "bob")).isTrue();
+        assertThat(third.matches("devops-edit", "ns/app/null", "alice")).isFalse();
+
+        WizardSessions expiring = new WizardSessions(2, 0);
+        WizardSession expired = expiring.createSession("devops-edit", "ns/app/null", "alice", "c0ffee", null, null, createController(calls));
+        Thread.sleep(5);
+        assertThat(expiring.getSession(expired.getId())).isNull();
+        assertThat(expired.isClosed()).isTrue();
+    }
+
+    /**
+     * Creates a wizard controller which records the navigation calls made on it
+     */
+    protected static WizardCommandController createController(final List<String> calls) {
+        return (WizardCommandController) Proxy.newProxyInstance(WizardSessionsTest.class.getClassLoader(),
+                new Class<?>[]{WizardCommandController.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        String name = method.getName();
+                        if (name.equals("next") || name.equals("previous")) {
+                            calls.add(name);
+                            return proxy;
+                        } else if (name.equals("close")) {
+                            calls.add(name);
+                        } else if (method.getReturnType() == boolean.class) {
+                            return false;
+                        }
+                        return null;
+                    }
+                });
+    }
+}